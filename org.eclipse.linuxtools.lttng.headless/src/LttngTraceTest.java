@@ -10,6 +10,8 @@
  *   William Bourque (wbourque@gmail.com) - Initial API and implementation
  *******************************************************************************/
 
+import java.util.Random;
+
 import org.eclipse.linuxtools.lttng.event.LttngEvent;
 import org.eclipse.linuxtools.lttng.event.LttngLocation;
 import org.eclipse.linuxtools.lttng.event.LttngTimestamp;
@@ -41,6 +43,9 @@ public class LttngTraceTest {
         //	Otherwise, events are just read
         final boolean PARSE_EVENTS = true;
         
+        // *** Change this to time random seeks by rank after the passes
+        final int NB_OF_RANK_SEEKS = 0;
+        
         
         // Work variables
         TmfTrace<LttngEvent> tmptrace = null;
@@ -93,6 +98,21 @@ public class LttngTraceTest {
 			System.out.println("End: " + endTime);
 			System.out.println("Elapsed: " + elapsed + ", Average: " + (elapsed/nbEvent) + "ns/evt");
 			
+			// Seek to random ranks, and read the event there
+			if ( (NB_OF_RANK_SEEKS > 0) && (nbEvent > 0) ) {
+				Random random = new Random(0L);
+				long nbTraceEvents = nbEvent / NB_OF_PASS;
+				
+				startTime = System.nanoTime();
+				for ( int nb=0; nb<NB_OF_RANK_SEEKS; nb++) {
+					long rank = (long)(random.nextDouble() * nbTraceEvents);
+					tmpContext = tmptrace.seekEvent(rank);
+					tmptrace.getNextEvent(tmpContext);
+				}
+				elapsed = System.nanoTime() - startTime;
+				System.out.println("Rank seeks : " + NB_OF_RANK_SEEKS + ", Average: " + (elapsed/NB_OF_RANK_SEEKS) + "ns/seek");
+			}
+			
 		}
 		catch (Exception e) {
 			e.printStackTrace();
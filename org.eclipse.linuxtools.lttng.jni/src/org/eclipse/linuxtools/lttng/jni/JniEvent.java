@@ -307,6 +307,21 @@ public abstract class JniEvent extends Jni_C_Common implements Comparable<JniEve
         return JniParser.parseField(this, fieldId);
     }
     
+    /**
+     * Parse several fields in the event payload, identified by their id (position).<p>
+     * 
+     * Note : Position are relative to an event marker (i.e. requestEventMarker().getMarkerFieldsArrayList() )
+     * 
+     * @param fieldIds      Positions of the fields to parse.
+     * @param nbFields      Number of positions to use in fieldIds.
+     * @param parsedValues  Array that will contain the parsed payloads, at the same index as their id in fieldIds.
+     * 
+     * @see org.eclipse.linuxtools.lttng.jni.JniParser
+     */
+    public void parseFieldsById(int[] fieldIds, int nbFields, Object[] parsedValues) {
+        JniParser.parseFields(this, fieldIds, nbFields, parsedValues);
+    }
+    
     /**
      * Parse a particular field in the event payload, identified by its name.<p>
      * 
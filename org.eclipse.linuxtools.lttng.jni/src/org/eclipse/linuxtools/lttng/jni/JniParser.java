@@ -12,6 +12,7 @@ package org.eclipse.linuxtools.lttng.jni;
  *******************************************************************************/
 
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 
@@ -102,6 +103,40 @@ public abstract class JniParser extends Jni_C_Common
     
     
     
+    /**
+     * Method to parse several fields identified by their id.<p>
+     * 
+     * All parsing will be done on C side as we need LTT functions. The marker fields and the event pointer 
+     * are looked up once for all the fields.
+     * 
+     * @param   eventToParse    The jni event we want to parse. 
+     * @param   fieldPositions  The positions (or ids) of the fields we want to parse
+     * @param   nbFields        The number of positions to use in fieldPositions
+     * @param   parsedValues    Array where the parsed values are put, at the same index as their position in fieldPositions. 
+     *                          A value is null if it was impossible to parse (i.e., wrong position)
+     * 
+     * @see org.eclipse.linuxtools.lttng.jni.JniEvent
+     */
+    static public void parseFields(JniEvent eventToParse, int[] fieldPositions, int nbFields, Object[] parsedValues) {
+        ArrayList<JniMarkerField> markerFields = eventToParse.requestEventMarker().getMarkerFieldsArrayList();
+        int libraryId = eventToParse.getEventPtr().getLibraryId();
+        long eventPtr = eventToParse.getEventPtr().getPointer();
+        
+        for ( int pos=0; pos<nbFields; pos++ ) {
+            int fieldPosition = fieldPositions[pos];
+            
+            // Sanity check
+            if ( (fieldPosition < 0) || (fieldPosition >= markerFields.size()) ) {
+                parsedValues[pos] = null;
+                continue;
+            }
+            
+            ltt_getParsedData(libraryId, parsedData, eventPtr, markerFields.get(fieldPosition).getMarkerFieldPtr().getPointer());
+            parsedValues[pos] = parsedData.getData();
+        }
+    }
+    
+    
     /**
      * Method to parse all fields at once.<p>
      * 
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+package org.eclipse.linuxtools.lttng.state.evProcessor;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.lttng.event.LttngEvent;
+import org.eclipse.linuxtools.lttng.event.LttngEventType;
+import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent;
+import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent.SequenceInd;
+import org.eclipse.linuxtools.lttng.event.LttngTimestamp;
+import org.eclipse.linuxtools.lttng.state.StateStrings.Events;
+import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
+
+/**
+ * <b><u>EventToProcessorTableTest</u></b>
+ * <p>
+ * Test suite for the marker name interning and the resolution of the event
+ * processors by marker id.
+ */
+public class EventToProcessorTableTest extends TestCase {
+
+	private static class CountingProcessor implements ILttngEventProcessor {
+		int count = 0;
+
+		@Override
+		public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
+			count++;
+			return false;
+		}
+	}
+
+	private static LttngSyntheticEvent createEvent(String markerName, SequenceInd type) {
+		LttngEventType eventType = new LttngEventType("kernel", 0L, markerName, new String[0]);
+		LttngSyntheticEvent event = new LttngSyntheticEvent(null, new LttngTimestamp(1L), null, eventType, null, null, null);
+		event.setSequenceInd(type);
+		return event;
+	}
+
+	public void testInternMarkerName() {
+		int id = LttngEventType.internMarkerName("test_marker");
+		assertTrue("Negative marker id", id >= 0);
+		assertEquals("Marker id not stable", id, LttngEventType.internMarkerName(new String("test_marker")));
+		assertTrue("Same id for different names", id != LttngEventType.internMarkerName("other_test_marker"));
+		assertEquals("Wrong id for null", LttngEventType.UNKNOWN_MARKER_ID, LttngEventType.internMarkerName(null));
+
+		LttngEventType eventType = new LttngEventType("kernel", 0L, "test_marker", new String[0]);
+		assertEquals("Wrong type marker id", id, eventType.getMarkerId());
+		assertEquals("Copy lost the marker id", id, new LttngEventType(eventType).getMarkerId());
+		assertEquals("Wrong default type marker id", LttngEventType.UNKNOWN_MARKER_ID, new LttngEventType().getMarkerId());
+
+		assertEquals("Wrong enum marker id", LttngEventType.internMarkerName("sched_schedule"), Events.LTT_EVENT_SCHED_SCHEDULE.getMarkerId());
+	}
+
+	public void testTable() {
+		EventToProcessorTable table = new EventToProcessorTable();
+		CountingProcessor processor = new CountingProcessor();
+		table.put("table_marker", processor);
+
+		assertSame("Processor not found", processor, table.get(LttngEventType.internMarkerName("table_marker")));
+		assertNull("Processor found for another marker", table.get(LttngEventType.internMarkerName("table_other_marker")));
+		assertNull("Processor found for unknown marker", table.get(LttngEventType.UNKNOWN_MARKER_ID));
+		assertNull("Processor found past the table", table.get(Integer.MAX_VALUE));
+	}
+
+	public void testDispatch() {
+		final CountingProcessor before = new CountingProcessor();
+		final CountingProcessor update = new CountingProcessor();
+		final EventToProcessorTable beforeTable = new EventToProcessorTable();
+		final EventToProcessorTable updateTable = new EventToProcessorTable();
+		beforeTable.put("dispatch_marker", before);
+		updateTable.put("dispatch_marker", update);
+
+		AbsEventToHandlerResolver resolver = new AbsEventToHandlerResolver() {
+			@Override
+			public ILttngEventProcessor getBeforeProcessor(int markerId) {
+				return beforeTable.get(markerId);
+			}
+			@Override
+			public ILttngEventProcessor getStateUpdaterProcessor(int markerId) {
+				return updateTable.get(markerId);
+			}
+			@Override
+			public ILttngEventProcessor getAfterProcessor(int markerId) {
+				return null;
+			}
+			@Override
+			public ILttngEventProcessor getfinishProcessor() {
+				return null;
+			}
+		};
+
+		resolver.process(createEvent("dispatch_marker", SequenceInd.BEFORE), null);
+		resolver.process(createEvent("dispatch_marker", SequenceInd.UPDATE), null);
+		resolver.process(createEvent("dispatch_marker", SequenceInd.AFTER), null);
+		resolver.process(createEvent("dispatch_other_marker", SequenceInd.BEFORE), null);
+
+		assertEquals("Wrong before count", 1, before.count);
+		assertEquals("Wrong update count", 1, update.count);
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+package org.eclipse.linuxtools.lttng.state.model;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * <b><u>LongKeyHashMapTest</u></b>
+ * <p>
+ * Test suite for the LongKeyHashMap, and the long-keyed state tables that
+ * use it.
+ */
+public class LongKeyHashMapTest extends TestCase {
+
+	// ------------------------------------------------------------------------
+	// Tests
+	// ------------------------------------------------------------------------
+
+	public void testPutGet() {
+		LongKeyHashMap<String> map = new LongKeyHashMap<String>();
+		assertNull("empty", map.get(0L));
+		assertNull("put", map.put(0L, "zero"));
+		assertNull("put", map.put(-1L, "minus one"));
+		assertNull("put", map.put(Long.MAX_VALUE, "max"));
+		assertEquals("replace", "zero", map.put(0L, "0"));
+
+		assertEquals("size", 3, map.size());
+		assertEquals("get", "0", map.get(0L));
+		assertEquals("get", "minus one", map.get(-1L));
+		assertEquals("get boxed", "max", map.get(Long.valueOf(Long.MAX_VALUE)));
+		assertNull("get other type", map.get(Integer.valueOf(0)));
+		assertTrue("contains", map.containsKey(-1L));
+		assertFalse("contains", map.containsKey(1L));
+	}
+
+	public void testGrowth() {
+		LongKeyHashMap<Long> map = new LongKeyHashMap<Long>();
+		for (long i = 0; i < 1000; i++) {
+			map.put(i * 4096, Long.valueOf(i));
+		}
+		assertEquals("size", 1000, map.size());
+		for (long i = 0; i < 1000; i++) {
+			assertEquals("get", Long.valueOf(i), map.get(i * 4096));
+		}
+	}
+
+	public void testRemove() {
+		LongKeyHashMap<Long> map = new LongKeyHashMap<Long>(4);
+		for (long i = 0; i < 100; i++) {
+			map.put(i, Long.valueOf(i));
+		}
+		for (long i = 0; i < 100; i += 3) {
+			assertEquals("remove", Long.valueOf(i), map.remove(i));
+		}
+		assertNull("remove absent", map.remove(0L));
+		for (long i = 0; i < 100; i++) {
+			assertEquals("get", (i % 3 == 0) ? null : Long.valueOf(i), map.get(i));
+		}
+		map.clear();
+		assertTrue("cleared", map.isEmpty());
+		assertNull("cleared", map.get(1L));
+	}
+
+	public void testSameAsHashMap() {
+		Random random = new Random(1);
+		LongKeyHashMap<Integer> map = new LongKeyHashMap<Integer>();
+		Map<Long, Integer> reference = new HashMap<Long, Integer>();
+		for (int i = 0; i < 20000; i++) {
+			long key = random.nextInt(200);
+			if (random.nextInt(3) == 0) {
+				assertEquals("remove", reference.remove(key), map.remove(key));
+			} else {
+				assertEquals("put", reference.put(key, i), map.put(key, Integer.valueOf(i)));
+			}
+		}
+		assertEquals("same content", reference, map);
+		assertEquals("same hash code", reference.hashCode(), map.hashCode());
+	}
+
+	public void testIteratorRemove() {
+		LongKeyHashMap<Long> map = new LongKeyHashMap<Long>();
+		for (long i = 0; i < 50; i++) {
+			map.put(i, Long.valueOf(i));
+		}
+		int count = 0;
+		Iterator<Map.Entry<Long, Long>> iterator = map.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Long, Long> entry = iterator.next();
+			count++;
+			if (entry.getKey() % 2 == 0) {
+				iterator.remove();
+			} else {
+				entry.setValue(-entry.getKey());
+			}
+		}
+		assertEquals("all visited", 50, count);
+		assertEquals("size", 25, map.size());
+		for (long i = 0; i < 50; i++) {
+			assertEquals("get", (i % 2 == 0) ? null : Long.valueOf(-i), map.get(i));
+		}
+	}
+
+	public void testIteratorRemoveVisitsEachKeyOnce() {
+		// Small tables, where the probe sequences wrap around
+		Random random = new Random(2);
+		for (int round = 0; round < 200; round++) {
+			LongKeyHashMap<String> map = new LongKeyHashMap<String>();
+			Map<Long, String> reference = new HashMap<Long, String>();
+			for (int i = 0; i < 8; i++) {
+				long key = random.nextInt(1000);
+				map.put(key, "v");
+				reference.put(key, "v");
+			}
+			int size = map.size();
+			Map<Long, String> visited = new HashMap<Long, String>();
+			Iterator<Map.Entry<Long, String>> iterator = map.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Long, String> entry = iterator.next();
+				assertNull("visited once", visited.put(entry.getKey(), entry.getValue()));
+				if (random.nextBoolean()) {
+					iterator.remove();
+					reference.remove(entry.getKey());
+				}
+			}
+			assertEquals("all visited", size, visited.size());
+			assertEquals("same content", reference, map);
+		}
+	}
+
+	public void testCopyIsolation() {
+		LongKeyHashMap<String> map = new LongKeyHashMap<String>();
+		map.put(1L, "one");
+		LongKeyHashMap<String> copy = new LongKeyHashMap<String>(map);
+		copy.put(2L, "two");
+		map.remove(1L);
+
+		assertEquals("copy", "one", copy.get(1L));
+		assertEquals("copy size", 2, copy.size());
+		assertTrue("source", map.isEmpty());
+		assertEquals("clone", copy, copy.clone());
+	}
+
+	public void testStateTableSnapshot() {
+		CopyOnWriteStateMap.Owner<LttngTrapState> owner = new CopyOnWriteStateMap.Owner<LttngTrapState>() {
+			@Override
+			LttngTrapState copy(LttngTrapState value) {
+				return value.clone();
+			}
+		};
+		CopyOnWriteLongStateMap<LttngTrapState> map = new CopyOnWriteLongStateMap<LttngTrapState>(owner);
+		map.put(3L, new LttngTrapState(0L));
+		owner.disown();
+		CopyOnWriteLongStateMap<LttngTrapState> snapshot = map.snapshot(new CopyOnWriteStateMap.Owner<LttngTrapState>() {
+			@Override
+			LttngTrapState copy(LttngTrapState value) {
+				return value.clone();
+			}
+		});
+
+		map.get(3L).incrementRunning();
+		map.put(4L, new LttngTrapState(0L));
+		assertEquals("source", Long.valueOf(1), map.get(3L).getRunning());
+		assertEquals("snapshot", Long.valueOf(0), snapshot.get(3L).getRunning());
+		assertFalse("snapshot key", snapshot.containsKey(4L));
+		assertSame("owned", map.get(3L), map.get(Long.valueOf(3)));
+	}
+}
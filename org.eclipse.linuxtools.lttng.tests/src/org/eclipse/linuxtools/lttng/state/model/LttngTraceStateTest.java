@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+package org.eclipse.linuxtools.lttng.state.model;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.lttng.state.StateStrings.CpuMode;
+import org.eclipse.linuxtools.lttng.state.StateStrings.ExecutionMode;
+import org.eclipse.linuxtools.lttng.state.resource.ILttngStateContext;
+import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+
+/**
+ * <b><u>LttngTraceStateTest</u></b>
+ * <p>
+ * Test suite for the LttngTraceState snapshots: a clone shares the state
+ * entries with its source, and each side copies them on access.
+ */
+public class LttngTraceStateTest extends TestCase {
+
+	private static final String TRACE_ID = "trace";
+	private static final int NB_CPUS = 4;
+
+	private static final ILttngStateContext CONTEXT = new ILttngStateContext() {
+		private final TmfTimeRange fRange = new TmfTimeRange(new TmfTimestamp(1000, (byte) -9),
+				new TmfTimestamp(2000, (byte) -9));
+
+		@Override
+		public int getNumberOfCpus() {
+			return NB_CPUS;
+		}
+
+		@Override
+		public TmfTimeRange getTraceTimeWindow() {
+			return fRange;
+		}
+
+		@Override
+		public TmfTimeRange getExperimentTimeWindow() {
+			return fRange;
+		}
+
+		@Override
+		public String getExperimentName() {
+			return "experiment";
+		}
+
+		@Override
+		public String getTraceId() {
+			return TRACE_ID;
+		}
+
+		@Override
+		public ITmfTrace getTraceIdRef() {
+			return null;
+		}
+	};
+
+	private LttngTraceState fState;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fState = StateModelFactory.getStateEntryInstance(CONTEXT);
+	}
+
+	// ------------------------------------------------------------------------
+	// Tests
+	// ------------------------------------------------------------------------
+
+	public void testCloneContent() {
+		LttngTraceState snapshot = fState.clone();
+		assertEquals("cpus", NB_CPUS, snapshot.getCpu_states().size());
+		assertEquals("processes", NB_CPUS, snapshot.getProcesses().length);
+		assertEquals("irqs", fState.getIrq_states().size(), snapshot.getIrq_states().size());
+		assertEquals("trace id", TRACE_ID, snapshot.getTraceId());
+		for (long cpu = 0; cpu < NB_CPUS; cpu++) {
+			assertEquals("cpu mode", CpuMode.LTTV_CPU_UNKNOWN, snapshot.getCpu_states().get(cpu).peekFromCpuStack());
+			assertEquals("process cpu", Long.valueOf(cpu), snapshot.getRunning_process().get(cpu).getCpu());
+		}
+	}
+
+	public void testCloneIsShallowUntilAccessed() {
+		LttngTraceState snapshot = fState.clone();
+		CopyOnWriteStateMap<Long, LTTngCPUState> original = (CopyOnWriteStateMap<Long, LTTngCPUState>) fState.getCpu_states();
+		CopyOnWriteStateMap<Long, LTTngCPUState> copy = (CopyOnWriteStateMap<Long, LTTngCPUState>) snapshot.getCpu_states();
+		assertSame("shared entry", original.peek(1L), copy.peek(1L));
+
+		LTTngCPUState cpuState = fState.getCpu_states().get(1L);
+		assertNotSame("copied on access", cpuState, copy.peek(1L));
+		assertSame("owned entry", cpuState, fState.getCpu_states().get(1L));
+		assertSame("still shared", original.peek(2L), copy.peek(2L));
+	}
+
+	public void testSourceModificationIsolation() {
+		LttngTraceState snapshot = fState.clone();
+
+		fState.getCpu_states().get(0L).pushToCpuStack(CpuMode.LTTV_CPU_BUSY);
+		fState.getRunning_process().get(0L).getState().setExec_mode(ExecutionMode.LTTV_STATE_SYSCALL);
+		fState.getTrap_states().get(3L).incrementRunning();
+		fState.getSoft_irq_states().get(2L).incrementPending();
+		fState.getBdev_states().put(8L, new LttngBdevState());
+
+		assertEquals("source cpu", CpuMode.LTTV_CPU_BUSY, fState.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("snapshot cpu", CpuMode.LTTV_CPU_UNKNOWN, snapshot.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("snapshot exec mode", ExecutionMode.LTTV_STATE_MODE_UNKNOWN, snapshot.getRunning_process().get(0L)
+				.getState().getExec_mode());
+		assertEquals("snapshot trap", Long.valueOf(0), snapshot.getTrap_states().get(3L).getRunning());
+		assertEquals("source trap", Long.valueOf(1), fState.getTrap_states().get(3L).getRunning());
+		assertEquals("snapshot softirq", Long.valueOf(0), snapshot.getSoft_irq_states().get(2L).getPending());
+		assertFalse("snapshot bdev", snapshot.getBdev_states().containsKey(8L));
+	}
+
+	public void testSnapshotModificationIsolation() {
+		LttngTraceState snapshot = fState.clone();
+
+		snapshot.getCpu_states().get(0L).pushToCpuStack(CpuMode.LTTV_CPU_IRQ);
+		LttngProcessState process = new LttngProcessState(5L, 100L, 100L, "process", 1500L, TRACE_ID);
+		snapshot.addProcessState(process);
+		snapshot.getRunning_process().put(0L, process);
+
+		assertEquals("source cpu", CpuMode.LTTV_CPU_UNKNOWN, fState.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("source processes", NB_CPUS, fState.getProcesses().length);
+		assertNull("source process", fState.findProcessState(100L, 5L, TRACE_ID));
+		assertEquals("source running", Long.valueOf(0), fState.getRunning_process().get(0L).getPid());
+
+		assertEquals("snapshot processes", NB_CPUS + 1, snapshot.getProcesses().length);
+		assertSame("snapshot process", process, snapshot.findProcessState(100L, 5L, TRACE_ID));
+		assertSame("snapshot running", process, snapshot.getRunning_process().get(0L));
+	}
+
+	public void testRunningProcessIdentity() {
+		LttngTraceState snapshot = fState.clone();
+		for (LttngTraceState state : new LttngTraceState[] { fState, snapshot }) {
+			for (long cpu = 0; cpu < NB_CPUS; cpu++) {
+				LttngProcessState running = state.getRunning_process().get(cpu);
+				assertSame("same process in both maps", running, state.findProcessState(0L, cpu, TRACE_ID));
+			}
+		}
+	}
+
+	public void testChainedSnapshots() {
+		LttngTraceState snapshot1 = fState.clone();
+		fState.getCpu_states().get(0L).pushToCpuStack(CpuMode.LTTV_CPU_BUSY);
+		LttngTraceState snapshot2 = fState.clone();
+		fState.getCpu_states().get(0L).pushToCpuStack(CpuMode.LTTV_CPU_IRQ);
+		LttngTraceState snapshot3 = snapshot2.clone();
+		snapshot3.getCpu_states().get(0L).pushToCpuStack(CpuMode.LTTV_CPU_TRAP);
+
+		assertEquals("snapshot 1", CpuMode.LTTV_CPU_UNKNOWN, snapshot1.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("snapshot 2", CpuMode.LTTV_CPU_BUSY, snapshot2.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("snapshot 3", CpuMode.LTTV_CPU_TRAP, snapshot3.getCpu_states().get(0L).peekFromCpuStack());
+		assertEquals("source", CpuMode.LTTV_CPU_IRQ, fState.getCpu_states().get(0L).peekFromCpuStack());
+	}
+
+	public void testIterationOwnsEntries() {
+		LttngTraceState snapshot = fState.clone();
+		for (LttngProcessState process : fState.getProcesses()) {
+			process.setName("renamed");
+		}
+		for (LttngProcessState process : snapshot.getProcesses()) {
+			assertFalse("snapshot process name", "renamed".equals(process.getName()));
+		}
+		for (LttngProcessState process : fState.peekProcesses()) {
+			assertEquals("source process name", "renamed", process.getName());
+		}
+	}
+
+	public void testProcessClone() {
+		LttngProcessState process = new LttngProcessState(1L, 200L, 200L, "process", 1500L, TRACE_ID);
+		LttngExecutionState bottom = process.getFirstElementFromExecutionStack();
+		LttngExecutionState top = process.peekFromExecutionStack();
+
+		LttngProcessState clone = process.clone();
+		assertNotSame("cloned bottom", bottom, clone.getFirstElementFromExecutionStack());
+		assertEquals("bottom first", bottom.getExec_mode(), clone.getFirstElementFromExecutionStack().getExec_mode());
+		assertEquals("top last", top.getExec_mode(), clone.peekFromExecutionStack().getExec_mode());
+		assertSame("state is the top of the stack", clone.peekFromExecutionStack(), clone.getState());
+
+		// The original is left untouched
+		assertSame("original bottom", bottom, process.getFirstElementFromExecutionStack());
+		assertSame("original top", top, process.peekFromExecutionStack());
+	}
+
+}
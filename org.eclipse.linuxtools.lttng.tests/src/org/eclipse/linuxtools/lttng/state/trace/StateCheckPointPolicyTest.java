@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+package org.eclipse.linuxtools.lttng.state.trace;
+
+import junit.framework.TestCase;
+
+/**
+ * <b><u>StateCheckPointPolicyTest</u></b>
+ * <p>
+ * Test suite for the StateCheckPointPolicy, and the replay estimates of the
+ * StateReplayMetrics.
+ */
+public class StateCheckPointPolicyTest extends TestCase {
+
+	// ------------------------------------------------------------------------
+	// Tests
+	// ------------------------------------------------------------------------
+
+	public void testEventInterval() {
+		StateCheckPointPolicy policy = new StateCheckPointPolicy();
+		policy.setMaxEvents(100);
+		policy.reset(0);
+		assertEquals("no time bound", 0, policy.getTimeInterval());
+
+		assertTrue("first event", policy.isCheckPointNeeded(0, 0));
+		policy.checkPointSaved(0, 0, 1);
+		assertFalse("before interval", policy.isCheckPointNeeded(99, 1000000));
+		assertTrue("at interval", policy.isCheckPointNeeded(100, 1000000));
+		policy.checkPointSaved(100, 1000000, 1);
+		assertFalse("after check point", policy.isCheckPointNeeded(150, 2000000));
+	}
+
+	public void testTimeInterval() {
+		StateCheckPointPolicy policy = new StateCheckPointPolicy();
+		policy.setMaxEvents(100);
+		policy.setMinEvents(10);
+		policy.reset(1000000);
+		assertEquals("derived time bound", 1000000 / StateCheckPointPolicy.DEFAULT_NB_TIME_INTERVALS, policy
+				.getTimeInterval());
+
+		policy.setMaxTime(500);
+		policy.reset(1000000);
+		assertEquals("time bound", 500, policy.getTimeInterval());
+
+		policy.checkPointSaved(0, 0, 1);
+		assertFalse("sparse events below minimum", policy.isCheckPointNeeded(5, 10000));
+		assertTrue("sparse events", policy.isCheckPointNeeded(10, 10000));
+		assertFalse("dense events", policy.isCheckPointNeeded(50, 100));
+	}
+
+	public void testMemoryBudget() {
+		StateCheckPointPolicy policy = new StateCheckPointPolicy();
+		policy.setMaxEvents(100);
+		policy.setMaxTime(500);
+		policy.setMemoryBudget(250);
+		policy.setDropEnabled(false);
+		policy.reset(0);
+
+		assertFalse("under budget", policy.checkPointSaved(0, 0, 100));
+		assertFalse("under budget", policy.checkPointSaved(100, 500, 100));
+		assertTrue("over budget", policy.checkPointSaved(200, 1000, 100));
+		assertEquals("memory", 300, policy.getMemoryUsed());
+		assertEquals("stretched events", 200, policy.getEventInterval());
+		assertEquals("stretched time", 1000, policy.getTimeInterval());
+		assertFalse("stretched", policy.isCheckPointNeeded(300, 1500));
+		assertTrue("stretched", policy.isCheckPointNeeded(400, 1500));
+
+		// Still over budget, but the intervals are stretched once per crossing
+		assertFalse("same crossing", policy.checkPointSaved(400, 1500, 100));
+		assertEquals("memory", 400, policy.getMemoryUsed());
+		assertEquals("stretched once", 200, policy.getEventInterval());
+		assertEquals("stretched once", 1000, policy.getTimeInterval());
+		assertFalse("same crossing", policy.checkPointSaved(600, 2500, 100));
+
+		// Another budget's worth of check points stretches them again
+		assertTrue("next crossing", policy.checkPointSaved(800, 3500, 100));
+		assertEquals("memory", 600, policy.getMemoryUsed());
+		assertEquals("stretched twice", 400, policy.getEventInterval());
+		assertEquals("stretched twice", 2000, policy.getTimeInterval());
+
+		// Dropped check points give the budget back
+		policy.checkPointDropped(100);
+		policy.checkPointDropped(100);
+		assertEquals("memory", 400, policy.getMemoryUsed());
+		assertFalse("after drop", policy.checkPointSaved(1200, 5500, 100));
+		assertFalse("after drop", policy.checkPointSaved(1600, 7500, 100));
+		assertTrue("after drop", policy.checkPointSaved(2000, 9500, 100));
+		assertEquals("stretched after drop", 800, policy.getEventInterval());
+
+		policy.reset(0);
+		assertEquals("reset memory", 0, policy.getMemoryUsed());
+		assertEquals("reset events", 100, policy.getEventInterval());
+		assertEquals("reset time", 500, policy.getTimeInterval());
+		assertTrue("reset", policy.isCheckPointNeeded(0, 0));
+	}
+
+	public void testEstimateSize() {
+		long base = StateCheckPointPolicy.estimateSize(0);
+		assertTrue("base", base > 0);
+		assertTrue("processes", StateCheckPointPolicy.estimateSize(100) > base);
+	}
+
+	public void testReplayMetrics() {
+		assertEquals("at check point", 0, StateReplayMetrics.estimateEvents(100, 1000, 200, 2000, 1000));
+		assertEquals("between", 50, StateReplayMetrics.estimateEvents(100, 1000, 200, 2000, 1500));
+		assertEquals("past next", 100, StateReplayMetrics.estimateEvents(100, 1000, 200, 2000, 3000));
+
+		StateReplayMetrics metrics = new StateReplayMetrics();
+		metrics.record(10, 100);
+		metrics.record(30, 500);
+		assertEquals("restores", 2, metrics.getNbRestores());
+		assertEquals("last", 30, metrics.getLastReplayEvents());
+		assertEquals("last", 500, metrics.getLastReplayTime());
+		assertEquals("max", 30, metrics.getMaxReplayEvents());
+		assertEquals("average", 20.0, metrics.getAverageReplayEvents(), 0.0);
+		assertEquals("average", 300.0, metrics.getAverageReplayTime(), 0.0);
+
+		metrics.reset();
+		assertEquals("reset", 0, metrics.getNbRestores());
+		assertEquals("reset", 0.0, metrics.getAverageReplayEvents(), 0.0);
+	}
+}
@@ -6,8 +6,12 @@ import junit.framework.TestSuite;
 import org.eclipse.linuxtools.lttng.control.LTTngSyntheticEventProviderTest;
 import org.eclipse.linuxtools.lttng.control.LTTngSyntheticEventProviderTextTest;
 import org.eclipse.linuxtools.lttng.model.LTTngTreeNodeTest;
+import org.eclipse.linuxtools.lttng.state.evProcessor.EventToProcessorTableTest;
 import org.eclipse.linuxtools.lttng.state.experiment.StateExperimentManagerTextTest;
+import org.eclipse.linuxtools.lttng.state.model.LongKeyHashMapTest;
+import org.eclipse.linuxtools.lttng.state.model.LttngTraceStateTest;
 import org.eclipse.linuxtools.lttng.state.resource.LTTngStateResourceTest;
+import org.eclipse.linuxtools.lttng.state.trace.StateCheckPointPolicyTest;
 import org.eclipse.linuxtools.lttng.tests.event.LttngEventContentTest;
 import org.eclipse.linuxtools.lttng.tests.event.LttngEventFieldTest;
 import org.eclipse.linuxtools.lttng.tests.event.LttngEventReferenceTest;
@@ -20,6 +24,7 @@ import org.eclipse.linuxtools.lttng.tests.jni.JniMarkerTest;
 import org.eclipse.linuxtools.lttng.tests.jni.JniTraceTest;
 import org.eclipse.linuxtools.lttng.tests.jni.JniTracefileTest;
 import org.eclipse.linuxtools.lttng.tests.trace.LTTngExperimentTest;
+import org.eclipse.linuxtools.lttng.tests.trace.LTTngRankIndexTest;
 import org.eclipse.linuxtools.lttng.tests.trace.LTTngTextTraceTest;
 import org.eclipse.linuxtools.lttng.tests.trace.LTTngTraceTest;
 
@@ -45,12 +50,17 @@ public class AllLTTngCoreTests {
         suite.addTestSuite(LTTngTextTraceTest.class);
         suite.addTestSuite(LTTngTraceTest.class);
         suite.addTestSuite(LTTngExperimentTest.class);
+        suite.addTestSuite(LTTngRankIndexTest.class);
 
 		suite.addTestSuite(LTTngSyntheticEventProviderTest.class);
 		suite.addTestSuite(LTTngSyntheticEventProviderTextTest.class);
 		suite.addTestSuite(LTTngTreeNodeTest.class);
 		suite.addTestSuite(StateExperimentManagerTextTest.class);
+		suite.addTestSuite(LttngTraceStateTest.class);
+		suite.addTestSuite(LongKeyHashMapTest.class);
+		suite.addTestSuite(StateCheckPointPolicyTest.class);
 		suite.addTestSuite(LTTngStateResourceTest.class);
+		suite.addTestSuite(EventToProcessorTableTest.class);
 		//$JUnit-END$
 		return suite;
 	}
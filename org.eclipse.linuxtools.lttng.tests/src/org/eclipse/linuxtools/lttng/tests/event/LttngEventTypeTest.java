@@ -2,6 +2,7 @@ package org.eclipse.linuxtools.lttng.tests.event;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 import org.eclipse.core.runtime.FileLocator;
@@ -15,11 +16,13 @@ import org.eclipse.linuxtools.tmf.trace.TmfContext;
  Functions tested here :
     public LttngEventType()
     public LttngEventType(String thisTracefileName, Long thisCpuId, String thisMarkerName, String[] thisMarkerfieldsName)
+    public LttngEventType(String thisTracefileName, Long thisCpuId, String thisMarkerName, String[] thisMarkerfieldsName, int[] thisMarkerFieldIds)
     public LttngEventType(LttngEventType oldType)
     
     public String getTracefileName()
     public Long getCpuId()
     public String getMarkerName()
+    public int[] getMarkerFieldIds()
     
     public String toString()
  */
@@ -110,6 +113,21 @@ public class LttngEventTypeTest extends TestCase {
         assertNotSame("getLabels returned null",null, tmpEventType.getLabels() );
     }
     
+    public void testMarkerFieldIds() {
+        String[] labels = new String[] { "pid", "cpu_id" };
+        int[] markerFieldIds = new int[] { 1, 0 };
+        
+        LttngEventType tmpEventType = new LttngEventType("test", 0L, "test", labels);
+        assertNull("Marker field ids should be unknown!", tmpEventType.getMarkerFieldIds() );
+        
+        tmpEventType = new LttngEventType("test", 0L, "test", labels, markerFieldIds);
+        assertTrue("Marker field ids not what was expected!", Arrays.equals(markerFieldIds, tmpEventType.getMarkerFieldIds()) );
+        
+        // The copy and the clone keep the layout
+        assertTrue("Copy lost the marker field ids!", Arrays.equals(markerFieldIds, new LttngEventType(tmpEventType).getMarkerFieldIds()) );
+        assertTrue("Clone lost the marker field ids!", Arrays.equals(markerFieldIds, tmpEventType.clone().getMarkerFieldIds()) );
+    }
+    
     public void testToString() {
         LttngEventType tmpEventType = prepareToTest();
         
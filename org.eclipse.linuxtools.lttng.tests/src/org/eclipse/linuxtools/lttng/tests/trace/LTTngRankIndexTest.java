@@ -0,0 +1,96 @@
+package org.eclipse.linuxtools.lttng.tests.trace;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.lttng.trace.LTTngRankIndex;
+
+/*
+ Functions tested here :
+	public LTTngRankIndex(int interval)
+
+	public int getEntry(long rank)
+	public long getRank(int entry)
+	public long getTime(int entry)
+	public int getSkip(int entry)
+
+	public void update(long rank, long time)
+ */
+
+public class LTTngRankIndexTest extends TestCase {
+
+	private final static int interval = 4;
+
+	public void testConstructor() {
+		LTTngRankIndex index = new LTTngRankIndex(interval);
+		assertEquals("Wrong interval", interval, index.getInterval());
+		assertEquals("Index is not empty", 0, index.getNbEntries());
+		assertEquals("Entry found in empty index", -1, index.getEntry(0));
+
+		index = new LTTngRankIndex(0);
+		assertEquals("Wrong default interval", LTTngRankIndex.DEFAULT_INTERVAL, index.getInterval());
+	}
+
+	public void testEntries() {
+		LTTngRankIndex index = new LTTngRankIndex(interval);
+		for (long rank = 0; rank < 10; rank++) {
+			index.update(rank, 100 + rank * 10);
+		}
+		assertEquals("Wrong number of entries", 3, index.getNbEntries());
+
+		assertEquals("Wrong entry", 0, index.getEntry(3));
+		assertEquals("Wrong entry", 1, index.getEntry(4));
+		assertEquals("Wrong entry", 2, index.getEntry(9));
+		assertEquals("Wrong entry past the last one", 2, index.getEntry(1000));
+
+		assertEquals("Wrong rank", 8, index.getRank(2));
+		assertEquals("Wrong time", 100, index.getTime(0));
+		assertEquals("Wrong time", 140, index.getTime(1));
+		assertEquals("Wrong time", 180, index.getTime(2));
+		assertEquals("Wrong skip", 0, index.getSkip(1));
+	}
+
+	public void testSameTimestamps() {
+		LTTngRankIndex index = new LTTngRankIndex(interval);
+		long[] times = { 10, 10, 20, 20, 20, 20, 20, 30, 30 };
+		for (int rank = 0; rank < times.length; rank++) {
+			index.update(rank, times[rank]);
+		}
+		// Entry 1 is the 3rd event at time 20, entry 2 the 2nd at time 30
+		assertEquals("Wrong skip", 0, index.getSkip(0));
+		assertEquals("Wrong time", 20, index.getTime(1));
+		assertEquals("Wrong skip", 2, index.getSkip(1));
+		assertEquals("Wrong time", 30, index.getTime(2));
+		assertEquals("Wrong skip", 1, index.getSkip(2));
+	}
+
+	public void testOutOfOrderReads() {
+		LTTngRankIndex index = new LTTngRankIndex(interval);
+		for (long rank = 0; rank < 6; rank++) {
+			index.update(rank, rank);
+		}
+		// A read after a seek, and a read of an unknown rank, are ignored
+		index.update(8, 8);
+		index.update(-1, 0);
+		assertEquals("Wrong number of entries", 2, index.getNbEntries());
+
+		// Reading again from the start does not add entries twice
+		for (long rank = 0; rank < 9; rank++) {
+			index.update(rank, rank);
+		}
+		assertEquals("Wrong number of entries", 3, index.getNbEntries());
+		assertEquals("Wrong time", 8, index.getTime(2));
+	}
+
+	public void testManyEntries() {
+		LTTngRankIndex index = new LTTngRankIndex(1);
+		int nbEvents = 10000;
+		for (int rank = 0; rank < nbEvents; rank++) {
+			index.update(rank, rank / 3);
+		}
+		assertEquals("Wrong number of entries", nbEvents, index.getNbEntries());
+		for (int entry = 0; entry < nbEvents; entry++) {
+			assertEquals("Wrong time", entry / 3, index.getTime(entry));
+			assertEquals("Wrong skip", entry % 3, index.getSkip(entry));
+		}
+	}
+}
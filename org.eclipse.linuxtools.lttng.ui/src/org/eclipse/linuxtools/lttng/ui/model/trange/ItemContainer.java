@@ -37,6 +37,29 @@ public interface ItemContainer<T extends ITmfTimeAnalysisEntry> {
 	 */
 	public abstract void clearChildren();
 
+	/**
+	 * Remove the children information after a time, e.g. just before loading
+	 * the time range that follows the loaded one
+	 * 
+	 * @param time
+	 */
+	public abstract void trimChildren(long time);
+
+	/**
+	 * Set the children information aside, e.g. just before loading the time
+	 * range that precedes the loaded one
+	 */
+	public abstract void detachChildren();
+
+	/**
+	 * Append the children information set aside by detachChildren() to the
+	 * one loaded since
+	 * 
+	 * @param time
+	 *            the start of the time range of the children set aside
+	 */
+	public abstract void attachChildren(long time);
+
 	/**
 	 * Clear all resources items e.g. when a new experiment is selected
 	 */
@@ -11,9 +11,12 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.model.trange;
 
+import java.util.List;
 import java.util.Vector;
 
+import org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.ITimeEvent;
 import org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.ITmfTimeAnalysisEntry;
+import org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.TimeEvent;
 
 public class TimeRangeComposite extends TimeRangeComponent implements
 ITmfTimeAnalysisEntry {
@@ -54,6 +57,11 @@ ITmfTimeAnalysisEntry {
 	protected Long next_good_time = -1L;
 	/*Time of first event which trigger the creation of this local resource */
 	protected Long insertionTime = -1L; 
+	/* Time range events set aside while an earlier time range is loaded */
+	protected Vector<TimeRangeComponent> detachedEventLeafs = null;
+	protected Long detachedNext_good_time = -1L;
+	/* Incremented by every change to the time range events */
+	protected volatile long modificationCount = 0;
 
 	// ========================================================================
 	// Constructors
@@ -161,6 +169,57 @@ ITmfTimeAnalysisEntry {
 		return ChildEventLeafs;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @seeorg.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.
+	 * ITmfTimeAnalysisEntry#getTraceEventIndex(long)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public int getTraceEventIndex(long time) {
+		// The leafs are drawn as time events (see getTraceEvents())
+		return TimeEvent.getFirstEventIndex((List<? extends ITimeEvent>) (List<?>) ChildEventLeafs, time);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @seeorg.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.
+	 * ITmfTimeAnalysisEntry#getModificationCount()
+	 */
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Append a time range event
+	 * 
+	 * @param newEvent
+	 */
+	protected void addTraceEvent(TimeRangeComponent newEvent) {
+		ChildEventLeafs.add(newEvent);
+		modificationCount++;
+	}
+
+	/**
+	 * Extend the last time range event up to a time, e.g. to merge the
+	 * following time range into it
+	 * 
+	 * @param time
+	 *            the new stop time of the last time range event
+	 */
+	public void setLastTraceEventStopTime(long time) {
+		Vector<TimeRangeComponent> events = getTraceEvents();
+		synchronized (events) {
+			if (events.size() > 0) {
+				events.lastElement().setStopTime(time);
+				modificationCount++;
+			}
+		}
+	}
+
 	/**
 	 * @return
 	 */
@@ -194,9 +253,78 @@ ITmfTimeAnalysisEntry {
 	public void reset() {
 		getChildEventComposites().clear();
 		getTraceEvents().clear();
+		modificationCount++;
+		detachedEventLeafs = null;
 		next_good_time = insertionTime;
 	}
 
+	/**
+	 * Remove the time range events after a time, e.g. the last state drawn
+	 * beyond the loaded time range, before loading the time range that
+	 * follows it
+	 * 
+	 * @param time
+	 */
+	public void trimTraceEvents(long time) {
+		Vector<TimeRangeComponent> events = getTraceEvents();
+		synchronized (events) {
+			while (events.size() > 0 && events.lastElement().getStartTime() > time) {
+				events.remove(events.size() - 1);
+				modificationCount++;
+			}
+			if (events.size() > 0 && events.lastElement().getStopTime() > time) {
+				events.lastElement().setStopTime(time);
+				modificationCount++;
+			}
+		}
+		if (next_good_time > time) {
+			next_good_time = time;
+		}
+	}
+
+	/**
+	 * Set the time range events aside and reset this resource, e.g. before
+	 * loading the time range that precedes them
+	 */
+	public void detachTraceEvents() {
+		Vector<TimeRangeComponent> events = getTraceEvents();
+		Vector<TimeRangeComponent> detached;
+		synchronized (events) {
+			detached = new Vector<TimeRangeComponent>(events);
+		}
+		long nextGoodTime = next_good_time;
+		reset();
+		detachedEventLeafs = detached;
+		detachedNext_good_time = nextGoodTime;
+	}
+
+	/**
+	 * Append the time range events set aside by detachTraceEvents() to the
+	 * ones loaded since, which end at the given time
+	 * 
+	 * @param time
+	 *            the start of the time range of the detached events
+	 */
+	public void attachTraceEvents(long time) {
+		if (detachedEventLeafs == null) {
+			return;
+		}
+
+		trimTraceEvents(time);
+		if (detachedEventLeafs.size() > 0) {
+			// The start of the first detached event was unknown when it was
+			// loaded, it is now the end of the loaded events
+			TimeRangeComponent first = detachedEventLeafs.firstElement();
+			if (first.getStartTime() < time && first.getStopTime() >= time) {
+				first.setStartTime(time);
+			}
+			getTraceEvents().addAll(detachedEventLeafs);
+			modificationCount++;
+			next_good_time = detachedNext_good_time;
+		}
+		detachedEventLeafs = null;
+	}
+
 	/**
 	 * Event Time reflecting the creation of this local resource e.g. at Reception of Fork, etc.
 	 * 
@@ -60,7 +60,7 @@ public class TimeRangeEventProcess extends TimeRangeComposite implements
      */
     public void addChildren(TimeRangeEvent newEvent) {
         if ((newEvent != null)) {
-            this.ChildEventLeafs.add(newEvent);
+            addTraceEvent(newEvent);
         }
     }
 	
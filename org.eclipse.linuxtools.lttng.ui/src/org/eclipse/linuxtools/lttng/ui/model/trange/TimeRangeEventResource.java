@@ -70,7 +70,7 @@ public abstract class TimeRangeEventResource extends TimeRangeComposite
 	 */
 	public void addChildren(TimeRangeEvent newEvent) {
 		if ((newEvent != null)) {
-			this.ChildEventLeafs.add(newEvent);
+			addTraceEvent(newEvent);
 		}
 	}
 
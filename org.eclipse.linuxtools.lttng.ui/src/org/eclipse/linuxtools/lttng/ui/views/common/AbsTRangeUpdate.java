@@ -10,9 +10,13 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.views.common;
 
+import java.util.Vector;
+
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 import org.eclipse.linuxtools.lttng.state.evProcessor.state.AbsStateProcessing;
 import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
+import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeComponent;
+import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeComposite;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
 
 public abstract class AbsTRangeUpdate extends AbsStateProcessing implements
@@ -60,4 +64,54 @@ public abstract class AbsTRangeUpdate extends AbsStateProcessing implements
         return pixPerNs;
 	}
 
+	/**
+	 * Merge a time range narrower than a pixel into the last time range
+	 * event of a composite, if that event is not visible either and starts
+	 * in the same pixel column as the end of the time range. The not visible
+	 * event then stands for all the state changes of its pixel column, so
+	 * the number of events of a composite is proportional to the width of
+	 * the view rather than to the number of state changes.
+	 * 
+	 * @param composite
+	 * @param etime
+	 *            the end of the time range
+	 * @param pixelsPerNs
+	 * @param params
+	 * @return true if the time range was merged, false if it needs an event
+	 */
+	protected boolean mergeIntoPixel(TimeRangeComposite composite, long etime, double pixelsPerNs, ParamsUpdater params) {
+		Vector<TimeRangeComponent> inMemEvents = composite.getTraceEvents();
+		if (inMemEvents.size() == 0) {
+			return false;
+		}
+
+		TimeRangeComponent prevEvent = inMemEvents.lastElement();
+		if (prevEvent.isVisible() || prevEvent.getStopTime() > etime) {
+			return false;
+		}
+
+		long origin = params.getStartTime();
+		if (getPixelColumn(prevEvent.getStartTime(), origin, pixelsPerNs) != getPixelColumn(etime, origin, pixelsPerNs)) {
+			return false;
+		}
+
+		composite.setLastTraceEventStopTime(etime);
+		composite.setNext_good_time(etime);
+		params.incrementEventsDiscarded(ParamsUpdater.NOT_VISIBLE);
+		return true;
+	}
+
+	/**
+	 * Get the pixel column of a time
+	 * 
+	 * @param time
+	 * @param origin
+	 *            the time of the first pixel column
+	 * @param pixelsPerNs
+	 * @return
+	 */
+	private static long getPixelColumn(long time, long origin, double pixelsPerNs) {
+		return (long) Math.floor((double) (time - origin) * pixelsPerNs);
+	}
+
 }
\ No newline at end of file
@@ -73,11 +73,41 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 	private static final long DEFAULT_OFFSET = 0L;
 	private static final int DEFAULT_CHUNK = 1;
 
+	/**
+	 * Resolution of a loaded model, relative to the display resolution, so
+	 * the time window can be zoomed in without a new request
+	 */
+	private static final int LOAD_RESOLUTION_FACTOR = 4;
+	/**
+	 * Maximum time range of a loaded model, in visible time windows, beyond
+	 * which it is not extended but replaced by a new request
+	 */
+	private static final int MAX_LOADED_WINDOWS = 8;
+
+	/**
+	 * The way a time window is obtained: from the loaded model (NONE), by
+	 * replacing it (FULL) or by extending it after or before its time range
+	 */
+	private static enum LoadType {
+		NONE, FULL, AFTER, BEFORE
+	}
+
 	protected boolean synch = true; // time synchronization, used to be an option
 	protected ITimeAnalysisViewer tsfviewer = null;
 
 	private LttngSyntEventRequest fCurrentRequest = null;
 
+	// The time range of the loaded model and its resolution, null while
+	// loading or if the view does not support incremental updates
+	private TmfTimeRange fLoadedTRange = null;
+	private double fLoadedPixelsPerNs = 0;
+
+	// The load of the current request
+	private LoadType fLoadType = LoadType.FULL;
+	private TmfTimeRange fLoadingTRange = null;
+	private double fLoadingPixelsPerNs = 0;
+	private TmfTimeRange fVisibleTRange = null;
+
 	protected LttngSyntheticEventProvider fProvider = LttngCoreProviderFactory.getEventProvider(getProviderId());
 	
 	// ========================================================================
@@ -102,6 +132,16 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 	    return INPUT_CHANGED_REFRESH;
 	}
 
+	/**
+	 * Indicates if the loaded model can be displayed for other time windows
+	 * and extended to them, rather than reloaded at each request
+	 * 
+	 * @return
+	 */
+	protected boolean isIncrementalUpdate() {
+		return false;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -129,9 +169,19 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 			// indicate if the data model needs to be cleared e.g. a new
 			// experiment is being selected
 			boolean clearData = request.isclearDataInd();
-			// Indicate if current data needs to be cleared and if so
-			// specify the new experiment time range that applies
-			ModelUpdatePrep(trange, clearData);
+			if (request == fCurrentRequest && fLoadType != LoadType.FULL) {
+				// Keep the loaded data and extend it
+				ModelUpdateExtend(trange, fLoadType);
+			} else {
+				// Indicate if current data needs to be cleared and if so
+				// specify the new experiment time range that applies
+				ModelUpdatePrep(trange, clearData);
+			}
+
+			// Filter the events at the resolution of the loaded model
+			if (request == fCurrentRequest && fLoadingTRange != null) {
+				getParamsUpdater().setPixelsPerNs(fLoadingPixelsPerNs);
+			}
 		}
 	}
 
@@ -172,6 +222,9 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 
 			return;
 		} else {
+			if (request == fCurrentRequest) {
+				modelLoaded();
+			}
 			modelInputChanged(request, true);
 		}
 	}
@@ -334,6 +387,11 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 	public void dataRequest(TmfTimeRange zoomedTRange,
 			TmfTimeRange experimentTRange, boolean clearingData, ExecutionType execType) {
 
+		// A time window within the loaded model needs no request
+		if (!clearingData && displayLoadedModel(zoomedTRange, experimentTRange)) {
+			return;
+		}
+
 		// timeRange is the Experiment time range
 		 boolean sent = processDataRequest(zoomedTRange, experimentTRange, clearingData, execType);
 
@@ -379,8 +437,11 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 		// Cancel the currently executing request before starting a new one
 		fProvider.conditionallyCancelRequests();
 
+		// Only request the part of the time window that is not loaded
+		TmfTimeRange loadTrange = prepareLoad(requestTrange, clearingData);
+
 		fCurrentRequest = new LttngSyntEventRequest(
-				requestTrange, DEFAULT_OFFSET, TmfDataRequest.ALL_DATA,
+				loadTrange, DEFAULT_OFFSET, TmfDataRequest.ALL_DATA,
 				DEFAULT_CHUNK, this, experimentTRange, getEventProcessor(), 
 				TmfExperiment.getCurrentExperiment().getName(), execType) {
 	
@@ -505,6 +566,155 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 		return experimentTRange;
 	}
 
+	/**
+	 * Determines how a time window is obtained from the loaded model
+	 * 
+	 * @param trange
+	 *            the time window
+	 * @return
+	 */
+	private synchronized LoadType getLoadType(TmfTimeRange trange) {
+		if (fLoadedTRange == null) {
+			return LoadType.FULL;
+		}
+
+		long startTime = trange.getStartTime().getValue();
+		long endTime = trange.getEndTime().getValue();
+		long loadedStartTime = fLoadedTRange.getStartTime().getValue();
+		long loadedEndTime = fLoadedTRange.getEndTime().getValue();
+
+		// The loaded model must be as detailed as the display
+		if (endTime <= startTime || getDisplayPixelsPerNs(trange) > fLoadedPixelsPerNs) {
+			return LoadType.FULL;
+		}
+
+		if (startTime >= loadedStartTime && endTime <= loadedEndTime) {
+			return LoadType.NONE;
+		}
+
+		// Keep the loaded model in proportion with the time window
+		long extendedRange = Math.max(endTime, loadedEndTime) - Math.min(startTime, loadedStartTime);
+		if ((double) extendedRange > (double) (endTime - startTime) * MAX_LOADED_WINDOWS) {
+			return LoadType.FULL;
+		}
+
+		if (startTime >= loadedStartTime && startTime <= loadedEndTime) {
+			return LoadType.AFTER;
+		}
+		if (endTime >= loadedStartTime && endTime <= loadedEndTime) {
+			return LoadType.BEFORE;
+		}
+
+		return LoadType.FULL;
+	}
+
+	/**
+	 * Prepares the load of the current request, and returns the time range
+	 * to request
+	 * 
+	 * @param requestTrange
+	 *            the time window to display
+	 * @param clearingData
+	 * @return
+	 */
+	private synchronized TmfTimeRange prepareLoad(TmfTimeRange requestTrange, boolean clearingData) {
+		fLoadType = clearingData ? LoadType.FULL : getLoadType(requestTrange);
+		fVisibleTRange = requestTrange;
+
+		// The loaded model is incomplete until the request is completed
+		TmfTimeRange loadedTRange = fLoadedTRange;
+		fLoadedTRange = null;
+		fLoadingTRange = null;
+
+		if (!isIncrementalUpdate()) {
+			return requestTrange;
+		}
+
+		TmfTimestamp startTime = requestTrange.getStartTime();
+		TmfTimestamp endTime = requestTrange.getEndTime();
+		switch (fLoadType) {
+		case AFTER:
+			fLoadingTRange = new TmfTimeRange(loadedTRange.getStartTime(), endTime);
+			fLoadingPixelsPerNs = fLoadedPixelsPerNs;
+			return new TmfTimeRange(loadedTRange.getEndTime(), endTime);
+		case BEFORE:
+			fLoadingTRange = new TmfTimeRange(startTime, loadedTRange.getEndTime());
+			fLoadingPixelsPerNs = fLoadedPixelsPerNs;
+			return new TmfTimeRange(startTime, loadedTRange.getStartTime());
+		default:
+			fLoadType = LoadType.FULL;
+			fLoadingTRange = requestTrange;
+			fLoadingPixelsPerNs = getDisplayPixelsPerNs(requestTrange) * LOAD_RESOLUTION_FACTOR;
+			return requestTrange;
+		}
+	}
+
+	/**
+	 * Completes the load of the current request, the loaded model can be
+	 * used for the following time windows
+	 */
+	private synchronized void modelLoaded() {
+		if (fLoadingTRange == null) {
+			return;
+		}
+
+		// Restore the data set aside to load the preceding time range
+		if (fLoadType == LoadType.BEFORE) {
+			getItemContainer().attachChildren(fCurrentRequest.getRange().getEndTime().getValue());
+		}
+
+		fLoadedTRange = fLoadingTRange;
+		fLoadedPixelsPerNs = fLoadingPixelsPerNs;
+		fLoadingTRange = null;
+
+		// The filtering parameters apply to the whole loaded model
+		ParamsUpdater updater = getParamsUpdater();
+		updater.update(fLoadedTRange.getStartTime().getValue(), fLoadedTRange.getEndTime().getValue());
+		updater.setPixelsPerNs(fLoadedPixelsPerNs);
+	}
+
+	/**
+	 * Displays a time window from the loaded model, if it is loaded
+	 * 
+	 * @param trange
+	 * @param experimentTRange
+	 * @return true if the time window was displayed
+	 */
+	private boolean displayLoadedModel(TmfTimeRange trange, TmfTimeRange experimentTRange) {
+		if (trange == null || experimentTRange == null || getLoadType(trange) != LoadType.NONE) {
+			return false;
+		}
+
+		ITmfTimeAnalysisEntry[] itemArr = getItemContainer().readItems();
+		if (itemArr != null) {
+			// Sort the array by pid
+			Arrays.sort(itemArr);
+
+			displayModel(itemArr, experimentTRange.getStartTime().getValue(), experimentTRange.getEndTime()
+					.getValue(), false, trange.getStartTime().getValue(), trange.getEndTime().getValue(), this);
+		}
+
+		if (TraceDebug.isDEBUG()) {
+			TraceDebug.debug("View: " + getName() + "\n\t\tTime window displayed from the loaded model: "
+					+ trange.getStartTime() + "-" + trange.getEndTime());
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the pixels per nanosecond of a time window on the display
+	 * 
+	 * @param trange
+	 * @return
+	 */
+	private double getDisplayPixelsPerNs(TmfTimeRange trange) {
+		long duration = trange.getEndTime().getValue() - trange.getStartTime().getValue();
+		if (duration <= 0) {
+			return 0;
+		}
+		return (double) getParamsUpdater().getWidth() / (double) duration;
+	}
+
 	/**
 	 * Request the Time Analysis widget to enable or disable the wait cursor
 	 * e.g. data request in progress or data request completed
@@ -562,6 +772,32 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 		}
 	}
 
+	/**
+	 * View preparation to extend the loaded model with the time range that
+	 * follows or precedes it
+	 * 
+	 * @param timeRange
+	 *            - the time range to load
+	 * @param loadType
+	 */
+	private void ModelUpdateExtend(TmfTimeRange timeRange, LoadType loadType) {
+		ItemContainer<?> itemContainer = getItemContainer();
+		if (loadType == LoadType.BEFORE) {
+			// Start fresh, the loaded data is restored once completed
+			itemContainer.detachChildren();
+		} else {
+			// Remove the last states drawn beyond the loaded time range
+			itemContainer.trimChildren(timeRange.getStartTime().getValue());
+		}
+
+		ParamsUpdater updater = getParamsUpdater();
+		if (updater != null) {
+			// Start over
+			updater.setEventsDiscarded(0);
+			updater.update(timeRange.getStartTime().getValue(), timeRange.getEndTime().getValue());
+		}
+	}
+
 	/**
 	 * Initialize the model and view before reloading items
 	 * 
@@ -570,6 +806,11 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 	 * @param source
 	 */
 	protected void ModelUpdateInit(TmfTimeRange boundaryRange, TmfTimeRange visibleRange, Object source) {
+		synchronized (this) {
+			// The loaded model is cleared
+			fLoadedTRange = null;
+		}
+
 		// Update the view boundaries
 		if (boundaryRange != null) {
 			ItemContainer<?> itemContainer = getItemContainer();
@@ -616,6 +857,12 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 			experimentEndTime = experimentTimeRange.getEndTime().getValue();
 		}
 
+		// The time window may be larger than the loaded time range
+		TmfTimeRange visibleRange = request.getRange();
+		if (request == fCurrentRequest && fVisibleTRange != null) {
+			visibleRange = fVisibleTRange;
+		}
+
 		// Obtain the current resource list
 		ITmfTimeAnalysisEntry[] itemArr = getItemContainer().readItems();
 
@@ -624,8 +871,8 @@ public abstract class AbsTimeUpdateView extends TmfView implements IRequestStatu
 			Arrays.sort(itemArr);
 
 			// Update the view part
-			displayModel(itemArr, experimentStartTime, experimentEndTime, false, request.getRange().getStartTime()
-					.getValue(), request.getRange().getEndTime().getValue(), request.getSource());
+			displayModel(itemArr, experimentStartTime, experimentEndTime, false, visibleRange.getStartTime()
+					.getValue(), visibleRange.getEndTime().getValue(), request.getSource());
 		}
 
 		if (complete) {
@@ -10,14 +10,11 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.views.controlflow.evProcessor;
 
-import java.util.Vector;
-
 import org.eclipse.linuxtools.lttng.state.StateStrings.ProcessStatus;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 import org.eclipse.linuxtools.lttng.state.model.LttngProcessState;
 import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
 import org.eclipse.linuxtools.lttng.ui.TraceDebug;
-import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeComponent;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEvent;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEvent.Type;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEventProcess;
@@ -166,30 +163,11 @@ public abstract class AbsFlowTRangeUpdate extends AbsTRangeUpdate implements ILt
 		// as long as its previous event is visible.
 		boolean visible = true;
 		if (pixels < 1.0) {
-			boolean prevEventVisibility = true;
-			// Get the visibility indication on previous event for
-			// this process
-			Vector<TimeRangeComponent> inMemEvents = localProcess
-					.getTraceEvents();
-			if (inMemEvents.size() != 0) {
-				TimeRangeComponent prevEvent = inMemEvents.get(inMemEvents
-						.size() - 1);
-				prevEventVisibility = prevEvent.isVisible();
-
-				// if previous event visibility is false and the time span
-				// between events less than two pixels, there is no need to
-				// load it in memory i.e. not visible and a more indicator is
-				// within two pixels.
-				// return i.e. event discarded to free up memory
-				Long eventSpan = stime - prevEvent.getStartTime();
-				if (prevEventVisibility == false
-						&& ((double) eventSpan * k) < 2.0) {
-
-					// discard the item
-					params.incrementEventsDiscarded(ParamsUpdater.NOT_VISIBLE);
-					return false;
-
-				}
+			// if previous event is not visible either and within the same
+			// pixel column, it is extended to this one i.e. no need to
+			// load another event in memory
+			if (mergeIntoPixel(localProcess, etime, k, params)) {
+				return false;
 			}
 
 			// if previous event is visible, set this one to not
@@ -202,7 +180,7 @@ public abstract class AbsFlowTRangeUpdate extends AbsTRangeUpdate implements ILt
 				localProcess, Type.PROCESS_MODE, stateMode);
 
 		time_window.setVisible(visible);
-		localProcess.getTraceEvents().add(time_window);
+		localProcess.addChildren(time_window);
 		localProcess.setNext_good_time(etime);
 
 		return false;
@@ -43,7 +43,7 @@ class FlowBeforeUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LttngProcessState stateProcess = traceSt.getRunning_process()
 						.get(cpu);
 				// TraceDebug.debug("Before handler called");
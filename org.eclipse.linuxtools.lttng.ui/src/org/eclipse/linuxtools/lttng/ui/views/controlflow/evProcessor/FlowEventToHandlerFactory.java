@@ -11,19 +11,17 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.views.controlflow.evProcessor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.linuxtools.lttng.state.StateStrings;
 import org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventToHandlerResolver;
+import org.eclipse.linuxtools.lttng.state.evProcessor.EventToProcessorTable;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 
 /**
- * Builds a Map from string event name to a processing handler object, the
+ * Builds a table from event marker id to a processing handler object, the
  * processors implement the same interface to facilitate transparent methods
  * call,
  * 
- * The map key STring is the entry point of the raw events, using a hash speeds
+ * The marker id is the entry point of the raw events, indexing an array speeds
  * up the resolution of the appropriate processor
  * 
  * @author alvaro
@@ -33,8 +31,8 @@ public class FlowEventToHandlerFactory extends AbsEventToHandlerResolver {
 	// ========================================================================
 	// Data
 	// =======================================================================
-	private final Map<String, ILttngEventProcessor> eventNametoBeforeProcessor = new HashMap<String, ILttngEventProcessor>();
-	private final Map<String, ILttngEventProcessor> eventNametoAfterProcessor = new HashMap<String, ILttngEventProcessor>();
+	private final EventToProcessorTable eventIdtoBeforeProcessor = new EventToProcessorTable();
+	private final EventToProcessorTable eventIdtoAfterProcessor = new EventToProcessorTable();
 	private ILttngEventProcessor finishProcesor = null;
 	private static FlowEventToHandlerFactory instance = null;
 	private FlowBeforeUpdateHandlers instantiateBeforeHandler = new FlowBeforeUpdateHandlers();
@@ -49,90 +47,90 @@ public class FlowEventToHandlerFactory extends AbsEventToHandlerResolver {
 		// instance to the map
 
 		// BEFORE HOOKS
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SYSCALL_ENTRY.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SYSCALL_EXIT.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
 				.getInName(), instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
 				.getInName(), instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
 						.getInName(), instantiateBeforeHandler
 						.getStateModesHandler());
 
-		eventNametoBeforeProcessor
+		eventIdtoBeforeProcessor
 				.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
 						.getInName(), instantiateBeforeHandler
 						.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
 				.getInName(), instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
 				.getInName(), instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT.getInName(),
 				instantiateBeforeHandler.getStateModesHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName(),
 				instantiateBeforeHandler.getBeforeSchedChangeHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PROCESS_EXIT.getInName(),
 				instantiateBeforeHandler.getProcessExitHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PROCESS_FREE.getInName(),
 				instantiateBeforeHandler.getProcessFreeHandler());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_STATEDUMP_END.getInName(),
 				instantiateBeforeHandler.getStateDumpEndHandler());
 
 
 		// AFTER HOOKS
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName(),
 				instantiateAfterHandler.getSchedChangeHandler());
 
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_PROCESS_FORK.getInName(),
 				instantiateAfterHandler.getProcessForkHandler());
 
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_PROCESS_EXIT.getInName(),
 				instantiateAfterHandler.getProcessExitHandler());
 
-		eventNametoAfterProcessor.put(StateStrings.Events.LTT_EVENT_EXEC
+		eventIdtoAfterProcessor.put(StateStrings.Events.LTT_EVENT_EXEC
 				.getInName(), instantiateAfterHandler.getProcessExecHandler());
 
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_THREAD_BRAND.getInName(),
 				instantiateAfterHandler.GetThreadBrandHandler());
 
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_PROCESS_STATE.getInName(),
 				instantiateAfterHandler.getEnumProcessStateHandler());
 
@@ -156,13 +154,13 @@ public class FlowEventToHandlerFactory extends AbsEventToHandlerResolver {
 	}
 
 	@Override
-	public ILttngEventProcessor getAfterProcessor(String eventType) {
-		return eventNametoAfterProcessor.get(eventType);
+	public ILttngEventProcessor getAfterProcessor(int markerId) {
+		return eventIdtoAfterProcessor.get(markerId);
 	}
 
 	@Override
-	public ILttngEventProcessor getBeforeProcessor(String eventType) {
-		return eventNametoBeforeProcessor.get(eventType);
+	public ILttngEventProcessor getBeforeProcessor(int markerId) {
+		return eventIdtoBeforeProcessor.get(markerId);
 	}
 
 	@Override
@@ -171,7 +169,7 @@ public class FlowEventToHandlerFactory extends AbsEventToHandlerResolver {
 	}
 
 	@Override
-	public ILttngEventProcessor getStateUpdaterProcessor(String eventType) {
+	public ILttngEventProcessor getStateUpdaterProcessor(int markerId) {
 		return null;
 	}
 }
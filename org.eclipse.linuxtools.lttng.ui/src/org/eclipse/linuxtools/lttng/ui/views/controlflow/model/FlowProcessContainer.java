@@ -96,6 +96,36 @@ public class FlowProcessContainer implements ItemContainer<TimeRangeEventProcess
 			process.reset();
         }
 	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#trimChildren(long)
+	 */
+	@Override
+	public void trimChildren(long time) {
+		for (TimeRangeEventProcess process : allProcesses.values()) {
+			process.trimTraceEvents(time);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#detachChildren()
+	 */
+	@Override
+	public void detachChildren() {
+		for (TimeRangeEventProcess process : allProcesses.values()) {
+			process.detachTraceEvents();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#attachChildren(long)
+	 */
+	@Override
+	public void attachChildren(long time) {
+		for (TimeRangeEventProcess process : allProcesses.values()) {
+			process.attachTraceEvents(time);
+		}
+	}
 	
 	/**
      * Clear all process items
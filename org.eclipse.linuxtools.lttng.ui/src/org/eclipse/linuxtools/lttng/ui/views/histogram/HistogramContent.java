@@ -177,6 +177,52 @@ public class HistogramContent {
 		}
 	}
 	
+	/**
+	 * Fill the elements table from the event counts of a pyramid, without reading the trace.<p>
+	 * NOTE : For this to be consistent and usuable, "startTime", "endTime" and "intervalTime" need to be set already.
+	 * 
+	 * @param pyramid	The (complete) pyramid of the experiment
+	 * 
+	 * @return	true if the table was filled, false if the pyramid is not complete or not fine enough for the interval
+	 */
+	public boolean fillFromPyramid(HistogramPyramid pyramid) {
+		long[] counts = pyramid.getEventCounts(startTime, endTime, elementsTimeInterval, elementTable.length);
+		if ( counts == null ) {
+			return false;
+		}
+		
+		long nbEvents = 0L;
+		int nbIntervalNotEmpty = 0;
+		heighestEventCount = 0L;
+		for ( int x=0; x<elementTable.length; x++) {
+			elementTable[x].index = x;
+			elementTable[x].firstIntervalTimestamp = startTime + (x*elementsTimeInterval);
+			elementTable[x].intervalNbEvents = counts[x];
+			
+			if ( counts[x] > heighestEventCount ) {
+				heighestEventCount = counts[x];
+			}
+			if ( counts[x] > 0 ) {
+				nbIntervalNotEmpty++;
+			}
+			nbEvents += counts[x];
+		}
+		readyUpToPosition = elementTable.length;
+		
+		// Same average as the one of HistogramRequest
+		if ( HistogramConstant.SKIP_EMPTY_INTERVALS_WHEN_CALCULATING_AVERAGE ) {
+			averageNumberOfEvents = (int)Math.ceil((double)nbEvents / (double)Math.max(1, nbIntervalNotEmpty));
+		}
+		else {
+			averageNumberOfEvents = (int)Math.ceil((double)nbEvents / (double)elementTable.length);
+		}
+		
+		recalculateHeightFactor();
+		recalculateEventHeight();
+		
+		return true;
+	}
+	
 	/**
 	 * Print all HistogramContent attributes, but the elements table.
 	 */
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+package org.eclipse.linuxtools.lttng.ui.views.histogram;
+
+/**
+ * <b><u>HistogramPyramid</u></b>
+ * <p>
+ * Multi-resolution event counts of an experiment.
+ * <p>
+ * The experiment time range is cut in buckets whose width is a power of two
+ * (in nanoseconds). Each level of the pyramid doubles the bucket width of the
+ * level below, up to a single bucket holding the whole range. The finest
+ * level is sized so that it holds at most MAX_BUCKETS buckets. The buckets are
+ * allocated by chunks, only where there are events.
+ * <p>
+ * The pyramid is filled once, while reading the whole experiment, and is then
+ * read-only: any histogram whose interval is not smaller than the finest
+ * bucket can be computed in O(number of bars * number of levels) without
+ * reading the trace. The counts are exact for the bars whose bounds fall on
+ * finest bucket bounds.
+ * <p>
+ * The events are added by a single thread; the counts can be read by any
+ * thread once the pyramid is complete.
+ */
+public class HistogramPyramid {
+
+	// ------------------------------------------------------------------------
+	// Constants
+	// ------------------------------------------------------------------------
+
+	/** Maximum number of buckets of the finest level */
+	public static final int MAX_BUCKETS = 1 << 19;
+
+	private static final int CHUNK_SHIFT = 9;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	private final long startTime;
+	private final long endTime;
+
+	// The bucket width of the finest level is (1 << finestShift)
+	private final int finestShift;
+	private final Level[] levels;
+
+	private long nbEvents = 0L;
+	private volatile boolean isComplete = false;
+
+	// ------------------------------------------------------------------------
+	// Constructors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Constructor for HistogramPyramid.<p>
+	 * Events outside the given range are ignored.
+	 *
+	 * @param newStartTime	The start time of the experiment (in nanoseconds)
+	 * @param newEndTime	The end time of the experiment (in nanoseconds)
+	 */
+	public HistogramPyramid(long newStartTime, long newEndTime) {
+		if (newEndTime < newStartTime) {
+			throw new IllegalArgumentException("End time before start time"); //$NON-NLS-1$
+		}
+		startTime = newStartTime;
+		endTime = newEndTime;
+
+		int shift = 0;
+		while (((newEndTime - newStartTime) >>> shift) >= MAX_BUCKETS) {
+			shift++;
+		}
+		finestShift = shift;
+
+		int nbLevels = 1;
+		while (((newEndTime - newStartTime) >>> (shift + nbLevels - 1)) > 0) {
+			nbLevels++;
+		}
+		levels = new Level[nbLevels];
+		for (int x = 0; x < nbLevels; x++) {
+			levels[x] = new Level(((newEndTime - newStartTime) >>> (finestShift + x)) + 1);
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @return The number of events counted so far
+	 */
+	public long getNbEvents() {
+		return nbEvents;
+	}
+
+	/**
+	 * @return true if all the events were counted and the pyramid can be queried
+	 */
+	public boolean isComplete() {
+		return isComplete;
+	}
+
+	/**
+	 * @return The width (in nanoseconds) of the finest buckets
+	 */
+	public long getFinestBucketWidth() {
+		return 1L << finestShift;
+	}
+
+	// ------------------------------------------------------------------------
+	// Operations
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Count an event.<p>
+	 * This is called for every event of the experiment, in order or not.
+	 *
+	 * @param timestamp	The time of the event (in nanoseconds)
+	 */
+	public void addEvent(long timestamp) {
+		if (isComplete || timestamp < startTime || timestamp > endTime) {
+			return;
+		}
+		levels[0].add((timestamp - startTime) >>> finestShift, 1L);
+		nbEvents++;
+	}
+
+	/**
+	 * Compute the coarser levels of the pyramid from the finest one.<p>
+	 * Nothing can be added after this and the pyramid can be queried.
+	 */
+	public void complete() {
+		if (isComplete) {
+			return;
+		}
+		for (int x = 1; x < levels.length; x++) {
+			long[][] lowerChunks = levels[x - 1].chunks;
+			for (int c = 0; c < lowerChunks.length; c++) {
+				long[] chunk = lowerChunks[c];
+				if (chunk != null) {
+					long firstBucket = (long) c << CHUNK_SHIFT;
+					for (int b = 0; b < CHUNK_SIZE; b++) {
+						if (chunk[b] != 0) {
+							levels[x].add((firstBucket + b) >>> 1, chunk[b]);
+						}
+					}
+				}
+			}
+		}
+		isComplete = true;
+	}
+
+	/**
+	 * Get the number of events of the experiment in each interval of a histogram.<p>
+	 * The histogram starts at "barsStartTime" and its bars are "barsInterval" wide;
+	 * events after "barsEndTime" are not counted.<p>
+	 * The whole finest buckets of a bar are counted exactly. A finest bucket
+	 * cut by a bar bound is spread over the bars in proportion of the overlap.
+	 *
+	 * @param barsStartTime	The start time of the first bar
+	 * @param barsEndTime	The last time to count, inclusive
+	 * @param barsInterval	The width (in nanoseconds) of the bars
+	 * @param nbBars		The number of bars
+	 *
+	 * @return The number of events of each bar, or null if the pyramid is not complete
+	 * 			or not fine enough for the given interval
+	 */
+	public long[] getEventCounts(long barsStartTime, long barsEndTime, long barsInterval, int nbBars) {
+		if (!isComplete || barsInterval <= 0 || nbBars <= 0 || getFinestBucketWidth() > barsInterval) {
+			return null;
+		}
+
+		// Range to count, end exclusive
+		long from = Math.max(barsStartTime, startTime);
+		long to = Math.min(barsEndTime, endTime) + 1;
+
+		long[] counts = new long[nbBars];
+		for (int x = 0; x < nbBars; x++) {
+			long barStart = Math.max(barsStartTime + x * barsInterval, from);
+			long barEnd = Math.min(barsStartTime + (x + 1) * barsInterval, to);
+			if (barStart < barEnd) {
+				counts[x] = Math.round(countEvents(barStart - startTime, barEnd - startTime));
+			}
+		}
+		return counts;
+	}
+
+	/*
+	 * Counts the events of the offsets range [from, to[. The finest buckets
+	 * cut by the range bounds are prorated, the whole ones in between are
+	 * counted exactly, using the coarsest buckets they fill.
+	 */
+	private double countEvents(long from, long to) {
+		long width = getFinestBucketWidth();
+		long first = from >>> finestShift;
+		long last = (to - 1) >>> finestShift;
+		if (first == last) {
+			return prorate(first, from, to);
+		}
+
+		double sum = 0.0;
+		if ((from & (width - 1)) != 0) {
+			sum += prorate(first, from, (first + 1) << finestShift);
+			first++;
+		}
+		if ((to & (width - 1)) != 0) {
+			sum += prorate(last, last << finestShift, to);
+		}
+		else {
+			last++;
+		}
+
+		// Whole buckets [first, last[, climbing the levels
+		for (int level = 0; first < last && level < levels.length; level++) {
+			if ((first & 1) != 0) {
+				sum += levels[level].get(first);
+				first++;
+			}
+			if ((last & 1) != 0) {
+				last--;
+				sum += levels[level].get(last);
+			}
+			first >>>= 1;
+			last >>>= 1;
+		}
+		return sum;
+	}
+
+	/*
+	 * The part of a finest bucket count in the offsets range [from, to[. The
+	 * last bucket can extend past the end of the range, where there are no
+	 * events.
+	 */
+	private double prorate(long bucket, long from, long to) {
+		long count = levels[0].get(bucket);
+		if (count == 0) {
+			return 0.0;
+		}
+		long bucketStart = bucket << finestShift;
+		long bucketEnd = Math.min(bucketStart + getFinestBucketWidth(), endTime - startTime + 1);
+		if (from <= bucketStart && to >= bucketEnd) {
+			return count;
+		}
+		return count * ((double) (Math.min(to, bucketEnd) - from) / (bucketEnd - bucketStart));
+	}
+
+	// ------------------------------------------------------------------------
+	// Helper classes
+	// ------------------------------------------------------------------------
+
+	/*
+	 * The buckets of one level, allocated by chunks.
+	 */
+	private static final class Level {
+		private final long[][] chunks;
+
+		Level(long nbBuckets) {
+			chunks = new long[(int) ((nbBuckets + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)][];
+		}
+
+		void add(long bucket, long count) {
+			int index = (int) (bucket >>> CHUNK_SHIFT);
+			long[] chunk = chunks[index];
+			if (chunk == null) {
+				chunk = new long[CHUNK_SIZE];
+				chunks[index] = chunk;
+			}
+			chunk[(int) (bucket & CHUNK_MASK)] += count;
+		}
+
+		long get(long bucket) {
+			int index = (int) (bucket >>> CHUNK_SHIFT);
+			if (index >= chunks.length || chunks[index] == null) {
+				return 0L;
+			}
+			return chunks[index][(int) (bucket & CHUNK_MASK)];
+		}
+	}
+}
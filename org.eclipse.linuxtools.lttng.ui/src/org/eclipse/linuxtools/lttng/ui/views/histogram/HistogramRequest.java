@@ -43,6 +43,9 @@ public class HistogramRequest extends TmfEventRequest<LttngEvent> {
 	
 	private boolean	isCompleted = false;
 	
+	// Pyramid filled with every event read, if any
+	private HistogramPyramid pyramid = null;
+	
 	/**
 	 * Constructor for HistogramRequest.<p>
 	 * Prepare the request in TMF and reset the histogram content.
@@ -99,19 +102,26 @@ public class HistogramRequest extends TmfEventRequest<LttngEvent> {
         
 //			Tracer.trace("Hst: " + event.getTimestamp());
         	
+        	long eventTime = event.getTimestamp().getValue();
+        	
+        	// The pyramid covers the whole experiment, it is not limited to the content
+        	if ( pyramid != null ) {
+        		pyramid.addEvent(eventTime);
+        	}
+
         	// This check is linked to the evil fix mentionned above
-        	if ( ( event.getTimestamp().getValue() >= parentCanvas.getHistogramContent().getStartTime() ) &&
-        		 ( event.getTimestamp().getValue() <= parentCanvas.getHistogramContent().getEndTime() ) )
+        	if ( ( eventTime >= parentCanvas.getHistogramContent().getStartTime() ) &&
+        		 ( eventTime <= parentCanvas.getHistogramContent().getEndTime() ) )
         	{
         		
         		// Distance (in time) between this event and the last one we read
-	        	long distance = ( event.getTimestamp().getValue() - lastRangeTime );
+	        	long distance = ( eventTime - lastRangeTime );
 				
 	        	// Check if we changed of interval (the distance is higher than the interval time)
 				if  ( distance > parentCanvas.getHistogramContent().getElementsTimeInterval() ) {
 					
 					parentCanvas.getHistogramContent().getElementByIndex(lastInterval).intervalNbEvents = nbEventsInInterval;
-					lastRangeTime = event.getTimestamp().getValue();
+					lastRangeTime = eventTime;
 					
 					// * NOTE *
 					// We can skip several interval at once, so we need to find what was our interval now
@@ -181,13 +191,16 @@ public class HistogramRequest extends TmfEventRequest<LttngEvent> {
 //		System.out.println(System.currentTimeMillis() + ": HistogramView (" + ((getExecType() == ExecutionType.LONG) ? "long" : "short") + ") completed");
     }
     
-//    /**
-//	 * Function that is called when the request completed successfully.<p>
-//	 */
-//    @Override
-//    public void handleSuccess() {
-//    	// Nothing different from completed.
-//    }
+    /**
+	 * Function that is called when the request completed successfully.<p>
+	 * Every event was read, so the pyramid (if any) is complete.
+	 */
+    @Override
+    public void handleSuccess() {
+    	if ( pyramid != null ) {
+    		pyramid.complete();
+    	}
+    }
     
 //    /**
 //	 * Function that is called when the request completed in failure.<p>
@@ -247,6 +260,24 @@ public class HistogramRequest extends TmfEventRequest<LttngEvent> {
     	parentCanvas.redrawAsynchronously();
     }
 
+	/**
+	 * Getter for the pyramid filled by the request
+	 * @return the pyramid, or null if none
+	 */
+	public HistogramPyramid getPyramid() {
+		return pyramid;
+	}
+
+	/**
+	 * Setter for the pyramid filled by the request.<p>
+	 * Every event read is added to the pyramid, which is completed if the request succeeds.
+	 * The request should then read the whole range of the pyramid.
+	 * @param newPyramid the pyramid to fill
+	 */
+	public void setPyramid(HistogramPyramid newPyramid) {
+		pyramid = newPyramid;
+	}
+
 	/**
 	 * Getter for isCompleted variable
 	 * @return true if the request is completed
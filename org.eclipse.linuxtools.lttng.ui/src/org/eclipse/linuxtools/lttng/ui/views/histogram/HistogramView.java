@@ -18,6 +18,10 @@
 
 package org.eclipse.linuxtools.lttng.ui.views.histogram;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.eclipse.linuxtools.lttng.event.LttngEvent;
 import org.eclipse.linuxtools.lttng.event.LttngTimestamp;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
@@ -123,6 +127,11 @@ public class HistogramView extends TmfView implements ControlListener {
 	private HistogramRequest selectedWindowRequest = null;
     private static ChildrenHistogramCanvas selectedWindowCanvas = null;
     
+    // Event count pyramid of each experiment, built by its "full trace" request
+    //	Once complete, the histograms of the experiment are filled from it without reading the trace
+    private final Map<TmfExperiment<LttngEvent>, HistogramPyramid> histogramPyramids =
+    	Collections.synchronizedMap(new WeakHashMap<TmfExperiment<LttngEvent>, HistogramPyramid>());
+    
     // Content of the timeTextGroup
     //	Since the user can modify them with erroneous value, 
     //	we will keep track of the value internally 
@@ -473,7 +482,7 @@ public class HistogramView extends TmfView implements ControlListener {
 		// WARNING : This does not seem to be thread safe
 		TmfExperiment<LttngEvent> tmpExperiment = (TmfExperiment<LttngEvent>)TmfExperiment.getCurrentExperiment();
 		
-		if ( (dataBackgroundFullRequest == null) && (tmpExperiment != null) ) {
+		if ( (lastUsedExperiment == null) && (tmpExperiment != null) ) {
 			createCanvasAndRequests(tmpExperiment);
 		}
 		
@@ -719,7 +728,13 @@ public class HistogramView extends TmfView implements ControlListener {
 	        // Set a (dynamic) time interval
 	        long intervalTime = ( (ts2.getValue() - ts1.getValue()) / selectedWindowCanvas.getHistogramContent().getNbElement() );
 	        
-			selectedWindowRequest = performRequest(experiment, selectedWindowCanvas, tmpRange, intervalTime, ExecutionType.FOREGROUND);
+	        // Once the experiment pyramid is complete, we don't need to read the trace anymore
+	        if ( fillFromPyramid(experiment, selectedWindowCanvas, ts1.getValue(), ts2.getValue()) ) {
+	        	selectedWindowRequest = null;
+	        }
+	        else {
+	        	selectedWindowRequest = performRequest(experiment, selectedWindowCanvas, tmpRange, intervalTime, ExecutionType.FOREGROUND, null);
+	        }
 	        selectedWindowCanvas.redrawAsynchronously();
     	}
     	
@@ -755,7 +770,16 @@ public class HistogramView extends TmfView implements ControlListener {
         // It would be interesting if there was a way to tell the framework to run the request "in parallel" here.
         // Mean a completetly independant copy of the Expereiment would be done and we would proceed on that.
         //
-        dataBackgroundFullRequest = performRequest(experiment, fullExperimentCanvas, tmpRange, intervalTime, ExecutionType.BACKGROUND);
+        // The request also builds the experiment pyramid, unless it was already built
+        //	in which case the experiment is not read again
+        if ( fillFromPyramid(experiment, fullExperimentCanvas, startTime.getValue(), endTime.getValue()) ) {
+        	dataBackgroundFullRequest = null;
+        }
+        else {
+        	HistogramPyramid pyramid = new HistogramPyramid(startTime.getValue(), endTime.getValue());
+        	histogramPyramids.put(experiment, pyramid);
+        	dataBackgroundFullRequest = performRequest(experiment, fullExperimentCanvas, tmpRange, intervalTime, ExecutionType.BACKGROUND, pyramid);
+        }
         
 		
         fullExperimentCanvas.getCurrentWindow().setWindowXPositionLeft(fullExperimentCanvas.getHistogramContent().getClosestXPositionFromTimestamp(fullExperimentCanvas.getCurrentWindow().getTimestampOfLeftPosition()));
@@ -777,8 +801,9 @@ public class HistogramView extends TmfView implements ControlListener {
      * @param targetCanvas		The canvas that will received the result
      * @param newRange			The range of the request
      * @param newInterval		The interval of time we use to store the result into the HistogramContent
+     * @param pyramid			The pyramid to fill with the events read, or null
      */
-    private synchronized HistogramRequest performRequest(TmfExperiment<LttngEvent> experiment, HistogramCanvas targetCanvas, TmfTimeRange newRange, long newInterval, ITmfDataRequest.ExecutionType execType) {
+    private synchronized HistogramRequest performRequest(TmfExperiment<LttngEvent> experiment, HistogramCanvas targetCanvas, TmfTimeRange newRange, long newInterval, ITmfDataRequest.ExecutionType execType, HistogramPyramid pyramid) {
     	HistogramRequest returnedRequest = null;
     	
         // *** FIXME ***
@@ -787,6 +812,7 @@ public class HistogramView extends TmfView implements ControlListener {
         // HOWEVER, this would cause the request to run forever (or until it reach the end of trace).
         // Seeting an EndTime does not seems to stop the request
         returnedRequest = new HistogramRequest(newRange, Integer.MAX_VALUE, targetCanvas, newInterval, execType );
+        returnedRequest.setPyramid(pyramid);
         
         // Send the request to the framework : it will be queued and processed later
         experiment.sendRequest(returnedRequest);
@@ -794,6 +820,36 @@ public class HistogramView extends TmfView implements ControlListener {
         return returnedRequest;
     }
     
+    /**
+     * Fill the content of a canvas from the pyramid of the experiment.<p>
+     * This only works once the pyramid is complete, if it covers the given range and if it is fine enough.
+     * 
+     * @param experiment 		The experiment of the pyramid
+     * @param targetCanvas		The canvas to fill
+     * @param startTime			The start time of the content
+     * @param endTime			The end time of the content
+     * 
+     * @return	true if the content was filled, false if a request is needed
+     */
+    private boolean fillFromPyramid(TmfExperiment<LttngEvent> experiment, HistogramCanvas targetCanvas, long startTime, long endTime) {
+    	HistogramPyramid pyramid = histogramPyramids.get(experiment);
+    	if ( (pyramid == null) || !pyramid.isComplete() ||
+    		 (startTime < pyramid.getStartTime()) || (endTime > pyramid.getEndTime()) ) {
+    		return false;
+    	}
+    	
+    	// Same reset as in the HistogramRequest constructor
+    	HistogramContent content = targetCanvas.getHistogramContent();
+    	content.clearContentData();
+    	content.resetTable(startTime, endTime);
+    	if ( !content.fillFromPyramid(pyramid) ) {
+    		return false;
+    	}
+    	
+    	targetCanvas.notifyParentUpdatedInformationAsynchronously();
+    	return true;
+    }
+    
     /**
      * Function used to warn that the selection window changed.<p>
      * This might be called because the window moved or because its size changed.<p>
@@ -187,6 +187,7 @@ public class ProjectView extends TmfView {
                 traces[i] = trace;
         	}
             fSelectedExperiment = new LTTngExperiment<LttngEvent>(LttngEvent.class, expId, traces);
+            fSelectedExperiment.restoreIndex();
             TmfExperiment.setCurrentExperiment(fSelectedExperiment);
             
 			// Make sure the lttng-core, experiment selection context is ready
@@ -501,6 +501,18 @@ public class ResourcesView extends AbsTimeUpdateView implements
 		// The data will be refreshed on the next request
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.linuxtools.lttng.ui.views.common.AbsTimeUpdateView#
+	 * isIncrementalUpdate()
+	 */
+	@Override
+	protected boolean isIncrementalUpdate() {
+		// Zoom and pagination reuse the loaded time range events
+		return true;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -11,13 +11,10 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.views.resources.evProcessor;
 
-import java.util.Vector;
-
 import org.eclipse.linuxtools.lttng.event.LttngEvent;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
 import org.eclipse.linuxtools.lttng.ui.TraceDebug;
-import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeComponent;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEvent;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEvent.Type;
 import org.eclipse.linuxtools.lttng.ui.model.trange.TimeRangeEventResource;
@@ -245,27 +242,11 @@ public abstract class AbsResourcesTRangeUpdate extends AbsTRangeUpdate
 		// as long as its previous event is visible.
 		boolean visible = true;
 		if (pixels < 1.0) {
-			boolean prevEventVisibility = true;
-			// Get the visibility indication on previous event for
-			// this process
-			Vector<TimeRangeComponent> inMemEvents = localResource
-					.getTraceEvents();
-			if (inMemEvents.size() != 0) {
-				TimeRangeComponent prevEvent = inMemEvents.get(inMemEvents
-						.size() - 1);
-				prevEventVisibility = prevEvent.isVisible();
-
-				// if previous event visibility is false and the time span
-				// between events less than two pixels, there is no need to
-				// load it in memory i.e. not visible and a more indicator is
-				// within two pixels.
-				// return i.e. event discarded to free up memory
-				Long eventSpan = stime - prevEvent.getStartTime();
-				if (prevEventVisibility == false
-						&& ((double) eventSpan * k) < 2.0) {
-					params.incrementEventsDiscarded(ParamsUpdater.NOT_VISIBLE);
-					return false;
-				}
+			// if previous event is not visible either and within the same
+			// pixel column, it is extended to this one i.e. no need to
+			// load another event in memory
+			if (mergeIntoPixel(localResource, etime, k, params)) {
+				return false;
 			}
 
 			// if previous event is visible, set this one to not
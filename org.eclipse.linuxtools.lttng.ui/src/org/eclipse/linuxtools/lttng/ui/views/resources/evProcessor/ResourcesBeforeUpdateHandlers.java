@@ -82,12 +82,10 @@ public class ResourcesBeforeUpdateHandlers {
 					return false;
 				} else {
 
-					if (trcEvent.getMarkerName().equals(
-							Events.LTT_EVENT_IRQ_ENTRY.getInName())) {
+					if (trcEvent.getMarkerId() == Events.LTT_EVENT_IRQ_ENTRY.getMarkerId()) {
 						irqId = getAFieldLong(trcEvent, traceSt,
 								Fields.LTT_FIELD_IRQ_ID);
-					} else if (trcEvent.getMarkerName().equals(
-							Events.LTT_EVENT_IRQ_EXIT.getInName())) {
+					} else if (trcEvent.getMarkerId() == Events.LTT_EVENT_IRQ_EXIT.getMarkerId()) {
 						long cpu = trcEvent.getCpuId();
 						irqId = traceSt.getCpu_states().get(cpu)
 								.peekFromIrqStack();
@@ -164,15 +162,11 @@ public class ResourcesBeforeUpdateHandlers {
 					return false;
 				} else {
 
-					if ((trcEvent.getMarkerName()
-							.equals(Events.LTT_EVENT_SOFT_IRQ_RAISE.getInName()))
-							|| (trcEvent.getMarkerName()
-									.equals(Events.LTT_EVENT_SOFT_IRQ_ENTRY
-											.getInName()))) {
+					if ((trcEvent.getMarkerId() == Events.LTT_EVENT_SOFT_IRQ_RAISE.getMarkerId())
+							|| (trcEvent.getMarkerId() == Events.LTT_EVENT_SOFT_IRQ_ENTRY.getMarkerId())) {
 						softIrqId = getAFieldLong(trcEvent, traceSt,
 								Fields.LTT_FIELD_SOFT_IRQ_ID);
-					} else if (trcEvent.getMarkerName().equals(
-							Events.LTT_EVENT_SOFT_IRQ_EXIT.getInName())) {
+					} else if (trcEvent.getMarkerId() == Events.LTT_EVENT_SOFT_IRQ_EXIT.getMarkerId()) {
 						long cpu = trcEvent.getCpuId();
 						softIrqId = traceSt.getCpu_states().get(cpu)
 								.peekFromSoftIrqStack();
@@ -253,24 +247,14 @@ public class ResourcesBeforeUpdateHandlers {
 					return false;
 				} else {
 
-					if ((trcEvent.getMarkerName()
-							.equals(Events.LTT_EVENT_TRAP_ENTRY.getInName()))
-							|| (trcEvent.getMarkerName()
-									.equals(Events.LTT_EVENT_PAGE_FAULT_ENTRY
-											.getInName()))
-							|| (trcEvent.getMarkerName()
-									.equals(Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
-											.getInName()))) {
+					if ((trcEvent.getMarkerId() == Events.LTT_EVENT_TRAP_ENTRY.getMarkerId())
+							|| (trcEvent.getMarkerId() == Events.LTT_EVENT_PAGE_FAULT_ENTRY.getMarkerId())
+							|| (trcEvent.getMarkerId() == Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY.getMarkerId())) {
 						trapId = getAFieldLong(trcEvent, traceSt,
 								Fields.LTT_FIELD_TRAP_ID);
-					} else if ((trcEvent.getMarkerName()
-							.equals(Events.LTT_EVENT_TRAP_EXIT.getInName()))
-							|| (trcEvent.getMarkerName()
-									.equals(Events.LTT_EVENT_PAGE_FAULT_EXIT
-											.getInName()))
-							|| (trcEvent.getMarkerName()
-									.equals(Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
-											.getInName()))) {
+					} else if ((trcEvent.getMarkerId() == Events.LTT_EVENT_TRAP_EXIT.getMarkerId())
+							|| (trcEvent.getMarkerId() == Events.LTT_EVENT_PAGE_FAULT_EXIT.getMarkerId())
+							|| (trcEvent.getMarkerId() == Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT.getMarkerId())) {
 						long cpu = trcEvent.getCpuId();
 						trapId = traceSt.getCpu_states().get(cpu)
 								.peekFromTrapStack();
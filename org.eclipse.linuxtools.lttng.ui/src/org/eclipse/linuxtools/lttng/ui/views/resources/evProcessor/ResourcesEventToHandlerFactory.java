@@ -11,23 +11,21 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.ui.views.resources.evProcessor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.linuxtools.lttng.event.LttngEvent;
 import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent;
 import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent.SequenceInd;
 import org.eclipse.linuxtools.lttng.state.StateStrings;
 import org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventToHandlerResolver;
+import org.eclipse.linuxtools.lttng.state.evProcessor.EventToProcessorTable;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
 
 /**
- * Builds a Map from string event name to a processing handler object, the
+ * Builds a table from event marker id to a processing handler object, the
  * processors implement the same interface to facilitate transparent methods
  * call,
  * 
- * The map key String is the entry point of the raw events. Using a hash speeds
+ * The marker id is the entry point of the raw events, indexing an array speeds
  * up the resolution of the appropriate processor
  * 
  * @author alvaro
@@ -37,8 +35,8 @@ public class ResourcesEventToHandlerFactory extends AbsEventToHandlerResolver {
 	// ========================================================================
 	// Data
 	// =======================================================================
-	private final Map<String, ILttngEventProcessor> eventNametoBeforeProcessor = new HashMap<String, ILttngEventProcessor>();
-	private final Map<String, ILttngEventProcessor> eventNametoAfterProcessor = new HashMap<String, ILttngEventProcessor>();
+	private final EventToProcessorTable eventIdtoBeforeProcessor = new EventToProcessorTable();
+	private final EventToProcessorTable eventIdtoAfterProcessor = new EventToProcessorTable();
 	private ResourcesFinishUpdateHandler finishProcessor = null;
 	private static ResourcesEventToHandlerFactory instance = null;
 	private ResourcesBeforeUpdateHandlers instantiateBeforeHandler = new ResourcesBeforeUpdateHandlers();
@@ -50,57 +48,57 @@ public class ResourcesEventToHandlerFactory extends AbsEventToHandlerResolver {
 		// instance to the map
 
 		// *** BEFORE HOOKS ***
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName(),
 				instantiateBeforeHandler.getBeforeSchedChangeHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
 				.getInName(), instantiateBeforeHandler
 				.getBeforeExecutionModeTrap());
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
 				.getInName(), instantiateBeforeHandler
 				.getBeforeExecutionModeTrap());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY.getInName(),
 				instantiateBeforeHandler.getBeforeExecutionModeTrap());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT.getInName(),
 				instantiateBeforeHandler.getBeforeExecutionModeTrap());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
 						.getInName(), instantiateBeforeHandler
 						.getBeforeExecutionModeTrap());
-		eventNametoBeforeProcessor
+		eventIdtoBeforeProcessor
 				.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
 						.getInName(), instantiateBeforeHandler
 						.getBeforeExecutionModeTrap());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
 				.getInName(), instantiateBeforeHandler
 				.getBeforeExecutionModeIrq());
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
 				.getInName(), instantiateBeforeHandler
 				.getBeforeExecutionModeIrq());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SOFT_IRQ_RAISE.getInName(),
 				instantiateBeforeHandler.getBeforeExecutionModeSoftIrq());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY.getInName(),
 				instantiateBeforeHandler.getBeforeExecutionModeSoftIrq());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT.getInName(),
 				instantiateBeforeHandler.getBeforeExecutionModeSoftIrq());
 
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_REQUEST_ISSUE.getInName(),
 				instantiateBeforeHandler.getBeforeBdevEvent());
-		eventNametoBeforeProcessor.put(
+		eventIdtoBeforeProcessor.put(
 				StateStrings.Events.LTT_EVENT_REQUEST_COMPLETE.getInName(),
 				instantiateBeforeHandler.getBeforeBdevEvent());
 
 		// *** AFTER HOOKS ***
-		eventNametoAfterProcessor.put(
+		eventIdtoAfterProcessor.put(
 				StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName(),
 				instantiateAfterHandler.getAfterSchedChangeHandler());
 
@@ -118,13 +116,13 @@ public class ResourcesEventToHandlerFactory extends AbsEventToHandlerResolver {
 	}
 
 	@Override
-	public ILttngEventProcessor getAfterProcessor(String eventType) {
-		return eventNametoAfterProcessor.get(eventType);
+	public ILttngEventProcessor getAfterProcessor(int markerId) {
+		return eventIdtoAfterProcessor.get(markerId);
 	}
 
 	@Override
-	public ILttngEventProcessor getBeforeProcessor(String eventType) {
-		return eventNametoBeforeProcessor.get(eventType);
+	public ILttngEventProcessor getBeforeProcessor(int markerId) {
+		return eventIdtoBeforeProcessor.get(markerId);
 	}
 
 	@Override
@@ -137,14 +135,14 @@ public class ResourcesEventToHandlerFactory extends AbsEventToHandlerResolver {
 		if (trcEvent instanceof LttngSyntheticEvent) {
 
 			LttngSyntheticEvent synEvent = (LttngSyntheticEvent) trcEvent;
-			String eventType = synEvent.getMarkerName();
+			int markerId = synEvent.getMarkerId();
 			ILttngEventProcessor processor = null;
 			if (synEvent.getSynType() == SequenceInd.BEFORE) {
-				processor = getBeforeProcessor(eventType);
+				processor = getBeforeProcessor(markerId);
 			}
 
 			if (synEvent.getSynType() == SequenceInd.AFTER) {
-				processor = getAfterProcessor(eventType);
+				processor = getAfterProcessor(markerId);
 			}
 
 			if (synEvent.getSynType() == SequenceInd.ENDREQ) {
@@ -159,7 +157,7 @@ public class ResourcesEventToHandlerFactory extends AbsEventToHandlerResolver {
 	}
 
 	@Override
-	public ILttngEventProcessor getStateUpdaterProcessor(String eventType) {
+	public ILttngEventProcessor getStateUpdaterProcessor(int markerId) {
 		return null;
 	}
 }
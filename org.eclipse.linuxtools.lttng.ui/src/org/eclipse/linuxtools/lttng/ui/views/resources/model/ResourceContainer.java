@@ -91,6 +91,36 @@ public class ResourceContainer implements ItemContainer<TimeRangeEventResource>
         }
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#trimChildren(long)
+	 */
+	@Override
+	public void trimChildren(long time) {
+		for (TimeRangeEventResource resource : resources.values()) {
+			resource.trimTraceEvents(time);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#detachChildren()
+	 */
+	@Override
+	public void detachChildren() {
+		for (TimeRangeEventResource resource : resources.values()) {
+			resource.detachTraceEvents();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.lttng.ui.model.trange.ItemContainer#attachChildren(long)
+	 */
+	@Override
+	public void attachChildren(long time) {
+		for (TimeRangeEventResource resource : resources.values()) {
+			resource.attachTraceEvents(time);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.linuxtools.lttng.ui.views.resources.model.ItemContainer#clearItems()
 	 */
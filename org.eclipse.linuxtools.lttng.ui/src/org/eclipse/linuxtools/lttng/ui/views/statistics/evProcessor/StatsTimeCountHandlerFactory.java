@@ -13,22 +13,20 @@
 
 package org.eclipse.linuxtools.lttng.ui.views.statistics.evProcessor;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.linuxtools.lttng.state.StateStrings;
 import org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventToHandlerResolver;
+import org.eclipse.linuxtools.lttng.state.evProcessor.EventToProcessorTable;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 
 /**
  * Provide the handlers that will count the CPU Time, Cumulative CPU Time and
  * Elapsed Time and update the appropriate tree.
  * 
- * Builds a Map from string event name to a processing handler object, the
+ * Builds a table from event marker id to a processing handler object, the
  * processors implement the same interface to facilitate transparent methods
  * call,
  * 
- * The map key STring is the entry point of the raw events, using a hash speeds
+ * The marker id is the entry point of the raw events, indexing an array speeds
  * up the resolution of the appropriate processor
  * 
  * @author alvaro
@@ -40,7 +38,7 @@ public class StatsTimeCountHandlerFactory extends AbsEventToHandlerResolver {
 	// Data
 	// -----------------------------------------------------------------------
 
-	private final Map<String, ILttngEventProcessor> eventNametoBeforeProcessor = new HashMap<String, ILttngEventProcessor>();
+	private final EventToProcessorTable eventIdtoBeforeProcessor = new EventToProcessorTable();
 	ILttngEventProcessor afterhandler;
 	private static StatsTimeCountHandlerFactory instance = null;
 	private StatsTimeCountHandlers instantiateHandler = new StatsTimeCountHandlers();
@@ -52,52 +50,52 @@ public class StatsTimeCountHandlerFactory extends AbsEventToHandlerResolver {
 	private StatsTimeCountHandlerFactory() {
 		super();
 		//create one instance of each individual event handler and add the instance to the map
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_ENTRY
 				.getInName(), instantiateHandler.getSyscallEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_EXIT
 				.getInName(), instantiateHandler.getsySyscallExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
 				.getInName(), instantiateHandler.getTrapExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT
 				.getInName(), instantiateHandler.getTrapExitBeforeHandler());
 
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
 				.getInName(), instantiateHandler.getTrapExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
 				.getInName(), instantiateHandler.getIrqEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
 				.getInName(), instantiateHandler.getIrqExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY
 				.getInName(), instantiateHandler.getSoftIrqEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT
 				.getInName(), instantiateHandler.getSoftIrqExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_ENTRY
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_ENTRY
 				.getInName(), instantiateHandler.getFunctionEntryBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_EXIT
 				.getInName(), instantiateHandler.getFunctionExitBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE
 				.getInName(), instantiateHandler.getSchedChangeBeforeHandler());
 		
-		eventNametoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_EXIT
+		eventIdtoBeforeProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_EXIT
 				.getInName(), instantiateHandler.getProcessExitHandler());
 		
 		afterhandler = instantiateHandler.getAfterHandler();
@@ -122,13 +120,13 @@ public class StatsTimeCountHandlerFactory extends AbsEventToHandlerResolver {
 
 
 	@Override
-	public ILttngEventProcessor getAfterProcessor(String eventType) {
+	public ILttngEventProcessor getAfterProcessor(int markerId) {
 		return afterhandler;
 	}
 
 	@Override
-	public ILttngEventProcessor getBeforeProcessor(String eventType) {
-		return eventNametoBeforeProcessor.get(eventType);
+	public ILttngEventProcessor getBeforeProcessor(int markerId) {
+		return eventIdtoBeforeProcessor.get(markerId);
 	}
 
 	@Override
@@ -137,7 +135,7 @@ public class StatsTimeCountHandlerFactory extends AbsEventToHandlerResolver {
 	}
 
 	@Override
-	public ILttngEventProcessor getStateUpdaterProcessor(String eventType) {
+	public ILttngEventProcessor getStateUpdaterProcessor(int markerId) {
 		return null;
 	}
 }
@@ -157,16 +157,14 @@ class StatsTimeCountHandlers {
 	 */
 	final ILttngEventProcessor getAfterHandler() {
 		AbstractStatsEventHandler handler = new StatsModeChangeHandler(null) {
-			int sched_hash = StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName().hashCode();
+			int sched_id = StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getMarkerId();
 			@Override
 			public boolean process(LttngEvent event, LttngTraceState traceState) {
 				// Step the event counter for any after event
 				stepCount(event, traceState);
 
-				int eventNameHash = event.getMarkerName().hashCode();
 				// specific processing for after sched schedule
-				if (sched_hash == eventNameHash
-						&& event.getMarkerName().equals(StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE.getInName())) {
+				if (sched_id == event.getMarkerId()) {
 					return super.process(event, traceState);
 				}
 
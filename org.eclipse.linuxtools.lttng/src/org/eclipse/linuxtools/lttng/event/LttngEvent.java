@@ -110,6 +110,17 @@ public class LttngEvent extends TmfEvent {
         return ( (LttngEventType)this.getType() ).getMarkerName();
     }
     
+    /**
+     * Interned id of the marker name of this event.<p>
+     * 
+     * @return Marker id
+     * 
+     * @see org.eclipse.linuxtools.lttng.event.LttngEventType#internMarkerName(String)
+     */
+    public int getMarkerId() {
+        return this.getType().getMarkerId();
+    }
+    
     @Override
     public LttngEventContent getContent() {
         return (LttngEventContent)fContent;
@@ -12,22 +12,39 @@
 
 package org.eclipse.linuxtools.lttng.event;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.eclipse.linuxtools.lttng.jni.JniEvent;
 import org.eclipse.linuxtools.tmf.event.TmfEventContent;
+import org.eclipse.linuxtools.tmf.event.TmfEventType;
 import org.eclipse.linuxtools.tmf.event.TmfNoSuchFieldException;
 
 /**
  * <b><u>LttngEventContent</u></b><p>
  * 
  * Lttng specific implementation of the TmfEventContent.<p>
+ * 
+ * The fields are parsed only when requested, and kept in an array indexed by their position in the event type.
+ * The array is reused from event to event.
  */
 public class LttngEventContent extends TmfEventContent {
     
-    // Hash map that contain the (parsed) fields. This is the actual payload of the event.
+    // Hash map that contain the already parsed fields, when the content is given at construction.
+    // It is also filled with the parsed fields by getRawContent().
     HashMap<String, LttngEventField> fFieldsMap = new HashMap<String, LttngEventField>();
     
+    // The parsed fields, by position in the event type. This is the actual payload of the event.
+    private LttngEventField[] fFieldSlots = new LttngEventField[0];
+    private int fNbParsedFields = 0;
+    // The type the parsed fields belong to
+    private TmfEventType fSlotsType = null;
+    
+    // Work arrays to parse several fields at once
+    private int[] fParsePositions = new int[0];
+    private int[] fParseIds = new int[0];
+    private Object[] fParsedValues = new Object[0];
+    
     /**
      * Default constructor.<p>
      * 
@@ -95,8 +112,14 @@ public class LttngEventContent extends TmfEventContent {
     
     // ***TODO***
     // Find a better way to ensure content is sane!!
-    public void emptyContent() {
-        fFieldsMap.clear();
+    public synchronized void emptyContent() {
+        if ( (fFieldsMap != null) && (!fFieldsMap.isEmpty()) ) {
+            fFieldsMap.clear();
+        }
+        if ( fNbParsedFields > 0 ) {
+            Arrays.fill(fFieldSlots, null);
+            fNbParsedFields = 0;
+        }
     }
     
     // ***VERIFY***
@@ -109,7 +132,8 @@ public class LttngEventContent extends TmfEventContent {
      */
     @Override
     public Object[] getContent() {
-        Object[] returnedContent = fFieldsMap.values().toArray( new Object[fFieldsMap.size()] );
+        HashMap<String, LttngEventField> parsedContent = getRawContent();
+        Object[] returnedContent = parsedContent.values().toArray( new Object[parsedContent.size()] );
         
         return returnedContent;
     }
@@ -119,34 +143,25 @@ public class LttngEventContent extends TmfEventContent {
      * 
      * @return  Currently parsed fields.
      */
-    public HashMap<String, LttngEventField> getRawContent() {
+    public synchronized HashMap<String, LttngEventField> getRawContent() {
+        if ( fNbParsedFields > 0 ) {
+            if ( fFieldsMap == null ) {
+                fFieldsMap = new HashMap<String, LttngEventField>();
+            }
+            for ( int pos=0; pos<fFieldSlots.length; pos++ ) {
+                if ( fFieldSlots[pos] != null ) {
+                    fFieldsMap.put(fFieldSlots[pos].getId(), fFieldSlots[pos]);
+                }
+            }
+        }
         return fFieldsMap;
     }
     
-//    @SuppressWarnings("unchecked")
-//    @Override
-//    public LttngEventField[] getFields() {
-//        LttngEventField tmpField = null;
-//        
-//        // *** TODO ***
-//        // SLOW! SLOW! SLOW! We should prevent the user to use this!!
-//        HashMap<String, Object> parsedContent = parseContent();
-//        
-//        String contentKey = null;
-//        Iterator<String> contentItr = parsedContent.keySet().iterator();
-//        while ( contentItr.hasNext() ) {
-//            contentKey = contentItr.next();
-//            
-//            tmpField = new LttngEventField(this, contentKey, parsedContent.get(contentKey));
-//            ((HashMap<String, LttngEventField>)fFields).put(contentKey, tmpField);
-//        }
-//        
-//        return fFields.values().toArray(new LttngEventField[fFields.size()]);
-//    }
-    
     /**
      * Parse all fields and return them as an array of LttngFields.<p>
      * 
+     * The fields not parsed yet are parsed together, by their position in the marker.<p>
+     * 
      * Note : This function is heavy and should only be called if all fields are really needed.
      * 
      * @return  All fields.
@@ -155,32 +170,60 @@ public class LttngEventContent extends TmfEventContent {
      */
     @Override
     public synchronized LttngEventField[] getFields() {
-        if ( fFieldsMap.size() < fParentEvent.getType().getNbFields() ) {
-        	LttngEventField tmpField = null;
-        	LttngEventType tmpType = (LttngEventType)fParentEvent.getType();
-        	
-	        for ( int pos=0; pos<tmpType.getNbFields(); pos++ ) {
-	            String name = null;
-	            LttngEvent lttngTmpEvent = (LttngEvent)getEvent(); //added for easier debugging
-				JniEvent tmpEvent = (lttngTmpEvent).convertEventTmfToJni();
-				
-				// tmpEvent == null probably mean there is a discrepancy between Eclipse and C library
-				// An error was probably printed in convertEventTmfToJni() already, but keep in mind this is SERIOUS
-				if ( tmpEvent != null ) {
-					try {
-						name = tmpType.getLabel(pos);
-					
-						Object newValue = tmpEvent.parseFieldByName(name);
-						tmpField = new LttngEventField(this, name, newValue );
-						fFieldsMap.put(name, tmpField);
-					}
-					catch (TmfNoSuchFieldException e) {
-						System.out.println("Invalid field position requested : " + pos + ", ignoring (getFields).");
-					}
-	            }
-	        }
+        TmfEventType tmpType = fParentEvent.getType();
+        int nbFields = tmpType.getNbFields();
+        prepareFieldSlots(tmpType);
+        
+        if ( fNbParsedFields < nbFields ) {
+            // Fields given at construction are not parsed again
+            int nbToParse = 0;
+            for ( int pos=0; pos<nbFields; pos++ ) {
+                if ( fFieldSlots[pos] == null ) {
+                    LttngEventField mappedField = getMappedField(tmpType.getLabels()[pos]);
+                    if ( mappedField != null ) {
+                        setFieldSlot(pos, mappedField);
+                    }
+                    else {
+                        fParsePositions[nbToParse++] = pos;
+                    }
+                }
+            }
+            
+            LttngEvent lttngTmpEvent = (LttngEvent)getEvent(); //added for easier debugging
+            JniEvent tmpEvent = (nbToParse > 0) ? lttngTmpEvent.convertEventTmfToJni() : null;
+            
+            // tmpEvent == null probably mean there is a discrepancy between Eclipse and C library
+            // An error was probably printed in convertEventTmfToJni() already, but keep in mind this is SERIOUS
+            if ( tmpEvent != null ) {
+                int[] markerFieldIds = getMarkerFieldIds(tmpType);
+                if ( markerFieldIds != null ) {
+                    for ( int i=0; i<nbToParse; i++ ) {
+                        fParseIds[i] = markerFieldIds[fParsePositions[i]];
+                    }
+                    tmpEvent.parseFieldsById(fParseIds, nbToParse, fParsedValues);
+                }
+                else {
+                    for ( int i=0; i<nbToParse; i++ ) {
+                        fParsedValues[i] = tmpEvent.parseFieldByName(tmpType.getLabels()[fParsePositions[i]]);
+                    }
+                }
+                
+                for ( int i=0; i<nbToParse; i++ ) {
+                    int pos = fParsePositions[i];
+                    setFieldSlot(pos, new LttngEventField(this, tmpType.getLabels()[pos], fParsedValues[i]) );
+                    fParsedValues[i] = null;
+                }
+            }
+        }
+        
+        LttngEventField[] returnedFields = new LttngEventField[fNbParsedFields];
+        int nbReturned = 0;
+        for ( int pos=0; pos<nbFields; pos++ ) {
+            if ( fFieldSlots[pos] != null ) {
+                returnedFields[nbReturned++] = fFieldSlots[pos];
+            }
         }
-        return fFieldsMap.values().toArray(new LttngEventField[fFieldsMap.size()]);
+        return returnedFields;
     }
     
     /**
@@ -191,17 +234,36 @@ public class LttngEventContent extends TmfEventContent {
      * @see @see org.eclipse.linuxtools.lttng.event.LttngEventField
      */
     @Override
-    public LttngEventField getField(int position) {
-        LttngEventField returnedField = null;
-        String label = null;
-		try {
-			label = fParentEvent.getType().getLabel(position);
-			
-			returnedField = this.getField(label);
-		} 
-		catch (TmfNoSuchFieldException e) {
-			System.out.println("Invalid field position requested : " + position + ", ignoring (getField).");
-		}
+    public synchronized LttngEventField getField(int position) {
+        TmfEventType tmpType = fParentEvent.getType();
+        if ( (position < 0) || (position >= tmpType.getNbFields()) ) {
+            System.out.println("Invalid field position requested : " + position + ", ignoring (getField).");
+            return null;
+        }
+        prepareFieldSlots(tmpType);
+        
+        LttngEventField returnedField = fFieldSlots[position];
+        if ( returnedField == null ) {
+            String label = tmpType.getLabels()[position];
+            returnedField = getMappedField(label);
+            
+            if ( returnedField == null ) {
+                JniEvent tmpEvent = ((LttngEvent)getEvent()).convertEventTmfToJni();
+                
+                if ( tmpEvent != null ) {
+                    int[] markerFieldIds = getMarkerFieldIds(tmpType);
+                    Object newValue = (markerFieldIds != null) ? tmpEvent.parseFieldById(markerFieldIds[position]) : tmpEvent.parseFieldByName(label);
+                    
+                    if ( newValue != null ) {
+                        returnedField = new LttngEventField(this, label, newValue);
+                    }
+                }
+            }
+            
+            if ( returnedField != null ) {
+                setFieldSlot(position, returnedField);
+            }
+        }
         
         return returnedField;
     }
@@ -215,24 +277,15 @@ public class LttngEventContent extends TmfEventContent {
      */
     @Override
     public synchronized LttngEventField getField(String name) {
-    	// *** VERIFY ***
-        // Should we check if the field exists in LttngType before parsing? 
-        // It could avoid calling parse for non-existent fields but would waste some cpu cycle on check?
-        LttngEventField returnedField = fFieldsMap.get(name);
+        LttngEventField returnedField = getMappedField(name);
         
         if ( returnedField == null ) {
-            // *** VERIFY ***
-            // Should we really make sure we didn't get null before creating/inserting a field?
-        	JniEvent tmpEvent = ((LttngEvent)getEvent()).convertEventTmfToJni();
-        	
-        	if ( tmpEvent != null) {
-	        	Object newValue =  tmpEvent.parseFieldByName(name);
-	            
-	            if ( newValue!= null ) {
-	                returnedField = new LttngEventField(this, name, newValue);
-	                fFieldsMap.put(name, returnedField );
-	            }
-        	}
+            // The fields are parsed by position, so the name has to be in the type
+            try {
+                returnedField = getField(fParentEvent.getType().getFieldIndex(name));
+            }
+            catch (TmfNoSuchFieldException e) {
+            }
         }
         
         return returnedField;
@@ -268,14 +321,72 @@ public class LttngEventContent extends TmfEventContent {
 		LttngEventContent clone = (LttngEventContent) super.clone();
 		LttngEventField[] fields = getFields();
 		clone.fFields = new LttngEventField[fields.length];
+		clone.fFieldsMap = new HashMap<String, LttngEventField>();
 		for (int i = 0; i < fields.length; i++) {
 			clone.fFields[i] = fields[i].clone();
+			clone.fFieldsMap.put(new String(fields[i].getId()), (LttngEventField) clone.fFields[i]);
 		}
-		clone.fFieldsMap = new HashMap<String, LttngEventField>();
-		for (String key : fFieldsMap.keySet()) {
-			clone.fFieldsMap.put(new String(key), ((LttngEventField) fFieldsMap.get(key)).clone());
+		if (fFieldsMap != null) {
+			for (String key : fFieldsMap.keySet()) {
+				if (!clone.fFieldsMap.containsKey(key)) {
+					clone.fFieldsMap.put(new String(key), ((LttngEventField) fFieldsMap.get(key)).clone());
+				}
+			}
 		}
+		// The clone gets its fields from its map
+		clone.fFieldSlots = new LttngEventField[0];
+		clone.fNbParsedFields = 0;
+		clone.fSlotsType = null;
+		clone.fParsePositions = new int[0];
+		clone.fParseIds = new int[0];
+		clone.fParsedValues = new Object[0];
 		return clone;
 	}
+	
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+	
+	/*
+	 * Resets the field slots if the type of the event changed, and makes them large enough for the type
+	 */
+	private void prepareFieldSlots(TmfEventType type) {
+		if ( type != fSlotsType ) {
+			int nbFields = type.getNbFields();
+			if ( fFieldSlots.length < nbFields ) {
+				fFieldSlots = new LttngEventField[nbFields];
+				fParsePositions = new int[nbFields];
+				fParseIds = new int[nbFields];
+				fParsedValues = new Object[nbFields];
+			}
+			else if ( fNbParsedFields > 0 ) {
+				Arrays.fill(fFieldSlots, null);
+			}
+			fNbParsedFields = 0;
+			fSlotsType = type;
+		}
+	}
+	
+	private void setFieldSlot(int position, LttngEventField field) {
+		fFieldSlots[position] = field;
+		fNbParsedFields++;
+	}
+	
+	/*
+	 * Returns the field of the given name in the hash map, without hashing the name if the map is empty
+	 */
+	private LttngEventField getMappedField(String name) {
+		if ( (fFieldsMap == null) || fFieldsMap.isEmpty() ) {
+			return null;
+		}
+		return fFieldsMap.get(name);
+	}
+	
+	private static int[] getMarkerFieldIds(TmfEventType type) {
+		if ( type instanceof LttngEventType ) {
+			return ((LttngEventType)type).getMarkerFieldIds();
+		}
+		return null;
+	}
 
 }
\ No newline at end of file
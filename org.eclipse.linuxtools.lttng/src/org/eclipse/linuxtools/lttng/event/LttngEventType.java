@@ -12,6 +12,8 @@
 
 package org.eclipse.linuxtools.lttng.event;
 
+import java.util.HashMap;
+
 import org.eclipse.linuxtools.tmf.event.*;
 
 /**
@@ -23,10 +25,22 @@ import org.eclipse.linuxtools.tmf.event.*;
  */
 public class LttngEventType extends TmfEventType {
     
+    /**
+     * Marker id of the types without a marker name.
+     */
+    public static final int UNKNOWN_MARKER_ID = -1;
+    
+    // Dense ids of the marker names, shared by all the traces
+    private static final HashMap<String, Integer> markerNameIds = new HashMap<String, Integer>();
+    
     private String tracefileName    = null;
     private Long   cpuId            = null;
     private String markerName       = null;
     
+    // Position of each field (label) in the marker fields, or null if unknown
+    private int[]  markerFieldIds   = null;
+    private int    markerId         = UNKNOWN_MARKER_ID;
+    
     /**
      * Default Constructor.<p>
      * 
@@ -43,20 +57,62 @@ public class LttngEventType extends TmfEventType {
      * @param thisMarkerfieldsName  MarkerFields related to this marker	
      */
     public LttngEventType(String thisTracefileName, Long thisCpuId, String thisMarkerName, String[] thisMarkerfieldsName) {
+        this(thisTracefileName, thisCpuId, thisMarkerName, thisMarkerfieldsName, null, internMarkerName(thisMarkerName));
+    }
+    
+    /**
+     * Constructor with parameters, with the fields layout.<p>
+     * 
+     * @param thisTracefileName		Tracefile (channel) name in Ltt
+     * @param thisMarkerName 		Marker name in LTT
+     * @param thisMarkerfieldsName  MarkerFields related to this marker	
+     * @param thisMarkerFieldIds	Position of each MarkerField in the marker, in the same order as the names
+     */
+    public LttngEventType(String thisTracefileName, Long thisCpuId, String thisMarkerName, String[] thisMarkerfieldsName, int[] thisMarkerFieldIds) {
+        this(thisTracefileName, thisCpuId, thisMarkerName, thisMarkerfieldsName, thisMarkerFieldIds, internMarkerName(thisMarkerName));
+    }
+
+    /**
+     * Copy constructor.<p>
+     * 
+     * @param oldType   Type we want to copy from
+     */
+    public LttngEventType(LttngEventType oldType) {
+        this(oldType.tracefileName, oldType.cpuId, oldType.markerName, oldType.getLabels(), oldType.markerFieldIds, oldType.markerId);
+    }
+    
+    private LttngEventType(String thisTracefileName, Long thisCpuId, String thisMarkerName, String[] thisMarkerfieldsName, int[] thisMarkerFieldIds, int thisMarkerId) {
         super( thisTracefileName + "/" + thisCpuId + "/" + thisMarkerName, thisMarkerfieldsName);
         
         tracefileName   = thisTracefileName;
         cpuId           = thisCpuId;
         markerName      = thisMarkerName;
+        markerFieldIds  = thisMarkerFieldIds;
+        markerId        = thisMarkerId;
     }
-
+    
     /**
-     * Copy constructor.<p>
+     * Intern a marker name into a marker id.<p>
      * 
-     * @param oldType   Type we want to copy from
+     * The ids are dense, starting at 0, and the same name always get the same id. 
+     * They can be used to index arrays instead of hashing the marker names of the events.
+     * 
+     * @param thisMarkerName    Marker name in LTT
+     * 
+     * @return The marker id, or UNKNOWN_MARKER_ID if the name is null
      */
-    public LttngEventType(LttngEventType oldType) {
-        this(oldType.tracefileName, oldType.cpuId, oldType.markerName, oldType.getLabels());
+    public static int internMarkerName(String thisMarkerName) {
+        if (thisMarkerName == null) {
+            return UNKNOWN_MARKER_ID;
+        }
+        synchronized (markerNameIds) {
+            Integer id = markerNameIds.get(thisMarkerName);
+            if (id == null) {
+                id = markerNameIds.size();
+                markerNameIds.put(thisMarkerName, id);
+            }
+            return id;
+        }
     }
     
     
@@ -72,6 +128,26 @@ public class LttngEventType extends TmfEventType {
         return markerName;
     }
     
+    /**
+     * Interned id of the marker name.<p>
+     * 
+     * @return The marker id, or UNKNOWN_MARKER_ID
+     * 
+     * @see #internMarkerName(String)
+     */
+    public int getMarkerId() {
+        return markerId;
+    }
+    
+    /**
+     * Position of each field in the marker, to parse the fields by position.<p>
+     * 
+     * @return The marker field ids, indexed by label position, or null if unknown
+     */
+    public int[] getMarkerFieldIds() {
+        return markerFieldIds;
+    }
+    
     /**
      * toString() method.
      * 
@@ -91,6 +167,9 @@ public class LttngEventType extends TmfEventType {
 		clone.tracefileName = new String(tracefileName);
 		clone.cpuId         = new Long(cpuId);
 		clone.markerName    = new String(markerName);
+		if (markerFieldIds != null) {
+			clone.markerFieldIds = markerFieldIds.clone();
+		}
     	return clone;
     }
 
@@ -192,6 +192,20 @@ public class LttngSyntheticEvent extends LttngEvent {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.eclipse.linuxtools.lttng.event.LttngEvent#getMarkerId()
+	 */
+	@Override
+	public int getMarkerId() {
+		if (baseEvent != null) {
+			return baseEvent.getMarkerId();
+		} else {
+			return super.getMarkerId();
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -14,6 +14,8 @@ package org.eclipse.linuxtools.lttng.state;
 import java.util.HashMap;
 import java.util.HashSet;
 
+import org.eclipse.linuxtools.lttng.event.LttngEventType;
+
 /**
  * Singleton
  * Establishes relationships of state related strings, since the strings and
@@ -139,6 +141,7 @@ public class StateStrings {
 		LTT_EVENT_KPROBE("kprobe"); /* */
 
 		private final String inName;
+		private final int markerId;
 		private final HashSet<Fields> children = new HashSet<Fields>();
 		private Channels parent = null;
 		// Expected to cause a state transition default flag
@@ -150,12 +153,21 @@ public class StateStrings {
 
 		private Events(String name) {
 			this.inName = name;
+			this.markerId = LttngEventType.internMarkerName(name);
 		}
 
 		public String getInName() {
 			return this.inName;
 		}
 
+		/**
+		 * @return the interned marker name, to compare with
+		 *         LttngEvent.getMarkerId()
+		 */
+		public int getMarkerId() {
+			return this.markerId;
+		}
+
 		public Channels getParent() {
 			return this.parent;
 		}
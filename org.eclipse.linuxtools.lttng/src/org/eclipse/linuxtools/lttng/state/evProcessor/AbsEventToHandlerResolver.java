@@ -32,16 +32,16 @@ public abstract class AbsEventToHandlerResolver implements
 	Long filteredOutEventsCount = 0L;
 
 	/* (non-Javadoc)
-	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getBeforeProcessor(java.lang.String)
+	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getBeforeProcessor(int)
 	 */
 	@Override
-	public abstract ILttngEventProcessor getBeforeProcessor(String eventType);
+	public abstract ILttngEventProcessor getBeforeProcessor(int markerId);
 
 	/* (non-Javadoc)
-	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getAfterProcessor(java.lang.String)
+	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getAfterProcessor(int)
 	 */
 	@Override
-	public abstract ILttngEventProcessor getAfterProcessor(String eventType);
+	public abstract ILttngEventProcessor getAfterProcessor(int markerId);
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getfinishProcessor()
@@ -50,11 +50,11 @@ public abstract class AbsEventToHandlerResolver implements
 	public abstract ILttngEventProcessor getfinishProcessor();
 
 	/* (non-Javadoc)
-	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getStateUpdaterProcessor(java.lang.String)
+	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.IEventToHandlerResolver#getStateUpdaterProcessor(int)
 	 */
 	@Override
 	public abstract ILttngEventProcessor getStateUpdaterProcessor(
-			String eventType);
+			int markerId);
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor#process(org.eclipse.linuxtools.lttng.event.LttngEvent, org.eclipse.linuxtools.lttng.state.model.LttngTraceState)
@@ -66,7 +66,7 @@ public abstract class AbsEventToHandlerResolver implements
 			// prepare to dispatch synthetic events to its corresponding handler
 			LttngSyntheticEvent synEvent = (LttngSyntheticEvent) trcEvent;
 			ILttngEventProcessor processor = null;
-			String eventType = synEvent.getMarkerName();
+			int markerId = synEvent.getMarkerId();
 
 			switch (synEvent.getSynType()) {
 				case STARTREQ: {
@@ -76,7 +76,7 @@ public abstract class AbsEventToHandlerResolver implements
 				}
 	
 				case BEFORE: {
-					processor = getBeforeProcessor(eventType);
+					processor = getBeforeProcessor(markerId);
 					// increment event count only for one sequence indicator,
 					// Note: BEFORE is selected to be used as an indicator to
 					// prevent duplicated updates in the state system
@@ -85,13 +85,13 @@ public abstract class AbsEventToHandlerResolver implements
 				}
 	
 				case UPDATE: {
-					processor = getStateUpdaterProcessor(eventType);
+					processor = getStateUpdaterProcessor(markerId);
 					incrementStateUpdateCount();
 					break;
 				}
 	
 				case AFTER: {
-					processor = getAfterProcessor(eventType);
+					processor = getAfterProcessor(markerId);
 					break;
 				}
 				
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ * 
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.evProcessor;
+
+import org.eclipse.linuxtools.lttng.event.LttngEventType;
+
+/**
+ * Table of event processors, indexed by the marker id of the events.
+ * 
+ * The processors are registered by marker name, interned into a marker id, so
+ * the processor of an event is resolved without hashing its marker name.
+ * 
+ * @see org.eclipse.linuxtools.lttng.event.LttngEventType#internMarkerName(String)
+ */
+public class EventToProcessorTable {
+	// ========================================================================
+	// Data
+	// =======================================================================
+	private ILttngEventProcessor[] processors = new ILttngEventProcessor[0];
+
+	// ========================================================================
+	// Public methods
+	// =======================================================================
+	/**
+	 * Registers the processor of an event marker
+	 * 
+	 * @param markerName
+	 * @param processor
+	 */
+	public void put(String markerName, ILttngEventProcessor processor) {
+		int markerId = LttngEventType.internMarkerName(markerName);
+		if (markerId >= processors.length) {
+			ILttngEventProcessor[] newProcessors = new ILttngEventProcessor[markerId + 1];
+			System.arraycopy(processors, 0, newProcessors, 0, processors.length);
+			processors = newProcessors;
+		}
+		processors[markerId] = processor;
+	}
+
+	/**
+	 * @param markerId
+	 * @return the processor of the event marker, or null if none
+	 */
+	public ILttngEventProcessor get(int markerId) {
+		if (markerId < 0 || markerId >= processors.length) {
+			return null;
+		}
+		return processors[markerId];
+	}
+}
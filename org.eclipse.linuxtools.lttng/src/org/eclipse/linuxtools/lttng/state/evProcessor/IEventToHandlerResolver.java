@@ -4,17 +4,21 @@ public interface IEventToHandlerResolver {
 
 	/**
 	 * 
+	 * @param markerId
+	 *            the interned marker name of the event
 	 * @return The Event Handler for received event before the State data model
 	 *         is updated.
 	 */
-	public abstract ILttngEventProcessor getBeforeProcessor(String eventType);
+	public abstract ILttngEventProcessor getBeforeProcessor(int markerId);
 
 	/**
 	 * 
+	 * @param markerId
+	 *            the interned marker name of the event
 	 * @return The Event Handler for received event after the State data model
 	 *         is updated.
 	 */
-	public abstract ILttngEventProcessor getAfterProcessor(String eventType);
+	public abstract ILttngEventProcessor getAfterProcessor(int markerId);
 
 	/**
 	 * 
@@ -25,10 +29,12 @@ public interface IEventToHandlerResolver {
 
 	/**
 	 * 
+	 * @param markerId
+	 *            the interned marker name of the event
 	 * @return The Event Handler for received event in charge to update the
 	 *         state. Only one handler is expected so other factories must not
 	 *         override this method.
 	 */
-	public abstract ILttngEventProcessor getStateUpdaterProcessor(String eventType);
+	public abstract ILttngEventProcessor getStateUpdaterProcessor(int markerId);
 
 }
\ No newline at end of file
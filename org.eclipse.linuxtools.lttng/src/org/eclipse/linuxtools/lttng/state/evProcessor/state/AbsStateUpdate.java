@@ -38,7 +38,7 @@ public abstract class AbsStateUpdate extends AbsStateProcessing implements
 	// ========================================================================
 	// push and pop from stack
 	// =======================================================================
-	protected void push_state(Long cpu, StateStrings.ExecutionMode execMode,
+	protected void push_state(long cpu, StateStrings.ExecutionMode execMode,
 			String submode, TmfTimestamp eventTime, LttngTraceState traceSt) {
 
 		LttngProcessState process = traceSt.getRunning_process().get(cpu);
@@ -53,7 +53,7 @@ public abstract class AbsStateUpdate extends AbsStateProcessing implements
 		process.pushToExecutionStack(exe_state);
 	}
 
-	protected void pop_state(Long cpu, StateStrings.ExecutionMode execMode,
+	protected void pop_state(long cpu, StateStrings.ExecutionMode execMode,
 			LttngTraceState traceSt, TmfTimestamp eventTime) {
 
 		LttngProcessState process = traceSt.getRunning_process().get(cpu);
@@ -111,7 +111,7 @@ public abstract class AbsStateUpdate extends AbsStateProcessing implements
 	 * @param funcptr
 	 * @param cpu
 	 */
-	protected void push_function(LttngTraceState traceSt, Long funcptr, Long cpu) {
+	protected void push_function(LttngTraceState traceSt, Long funcptr, long cpu) {
 		// Get the related process
 		LttngProcessState process = traceSt.getRunning_process().get(cpu);
 
@@ -125,7 +125,7 @@ public abstract class AbsStateUpdate extends AbsStateProcessing implements
 
 	protected void pop_function(LttngTraceState traceSt, LttngEvent trcEvent,
 			Long funcptr) {
-		Long cpu = trcEvent.getCpuId();
+		long cpu = trcEvent.getCpuId();
 		LttngProcessState process = traceSt.getRunning_process().get(cpu);
 		Long curr_function = process.getCurrent_function();
 
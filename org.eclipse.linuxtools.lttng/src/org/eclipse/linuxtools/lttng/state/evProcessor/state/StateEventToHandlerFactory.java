@@ -11,19 +11,17 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.state.evProcessor.state;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.linuxtools.lttng.state.StateStrings;
 import org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventToHandlerResolver;
+import org.eclipse.linuxtools.lttng.state.evProcessor.EventToProcessorTable;
 import org.eclipse.linuxtools.lttng.state.evProcessor.ILttngEventProcessor;
 
 /**
- * Builds a Map from string event name to a processing handler object, the
+ * Builds a table from event marker id to a processing handler object, the
  * processors implement the same interface to facilitate transparent methods
  * call,
  * 
- * The map key STring is the entry point of the raw events, using a hash speeds
+ * The marker id is the entry point of the raw events, indexing an array speeds
  * up the resolution of the appropriate processor
  * 
  * @author alvaro
@@ -33,7 +31,7 @@ public class StateEventToHandlerFactory extends AbsEventToHandlerResolver {
 	// ========================================================================
 	// Data
 	// =======================================================================
-	private final Map<String, ILttngEventProcessor> eventNametoStateProcessor = new HashMap<String, ILttngEventProcessor>();
+	private final EventToProcessorTable eventIdtoStateProcessor = new EventToProcessorTable();
 	private final static StateEventToHandlerFactory instance = new StateEventToHandlerFactory();
 	private StateUpdateHandlers instantiateHandler = new StateUpdateHandlers();
 
@@ -42,94 +40,94 @@ public class StateEventToHandlerFactory extends AbsEventToHandlerResolver {
 	// =======================================================================
 	protected StateEventToHandlerFactory() {
 		//create one instance of each individual event handler and add the instance to the map
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_ENTRY
 				.getInName(), instantiateHandler.getSyscallEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYSCALL_EXIT
 				.getInName(), instantiateHandler.getsySyscallExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_TRAP_EXIT
 				.getInName(), instantiateHandler.getTrapExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_EXIT
 				.getInName(), instantiateHandler.getTrapExitHandler());
 
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_ENTRY
 				.getInName(), instantiateHandler.getTrapEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PAGE_FAULT_NOSEM_EXIT
 				.getInName(), instantiateHandler.getTrapExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_ENTRY
 				.getInName(), instantiateHandler.getIrqEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_IRQ_EXIT
 				.getInName(), instantiateHandler.getIrqExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_RAISE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_RAISE
 				.getInName(), instantiateHandler.getSoftIrqRaiseHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_ENTRY
 				.getInName(), instantiateHandler.getSoftIrqEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFT_IRQ_EXIT
 				.getInName(), instantiateHandler.getSoftIrqExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_LIST_INTERRUPT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_LIST_INTERRUPT
 				.getInName(), instantiateHandler.getEnumInterruptHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_REQUEST_ISSUE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_REQUEST_ISSUE
 				.getInName(), instantiateHandler.getBdevRequestIssueHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_REQUEST_COMPLETE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_REQUEST_COMPLETE
 				.getInName(), instantiateHandler.getBdevRequestCompleteHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_ENTRY
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_ENTRY
 				.getInName(), instantiateHandler.getFunctionEntryHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_FUNCTION_EXIT
 				.getInName(), instantiateHandler.getFunctionExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYS_CALL_TABLE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SYS_CALL_TABLE
 				.getInName(), instantiateHandler.getDumpSyscallHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_KPROBE_TABLE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_KPROBE_TABLE
 				.getInName(), instantiateHandler.getDumpKprobeHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFTIRQ_VEC
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SOFTIRQ_VEC
 				.getInName(), instantiateHandler.getDumpSoftIrqHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_SCHED_SCHEDULE
 				.getInName(), instantiateHandler.getSchedChangeHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_FORK
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_FORK
 				.getInName(), instantiateHandler.getProcessForkHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_KTHREAD_CREATE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_KTHREAD_CREATE
 				.getInName(), instantiateHandler.getProcessKernelThreadHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_EXIT
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_EXIT
 				.getInName(), instantiateHandler.getProcessExitHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_FREE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_FREE
 				.getInName(), instantiateHandler.getProcessFreeHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_EXEC
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_EXEC
 				.getInName(), instantiateHandler.getProcessExecHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_THREAD_BRAND
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_THREAD_BRAND
 				.getInName(), instantiateHandler.GetThreadBrandHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_STATEDUMP_END
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_STATEDUMP_END
 				.getInName(), instantiateHandler.getStateDumpEndHandler());
 		
-		eventNametoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_STATE
+		eventIdtoStateProcessor.put(StateStrings.Events.LTT_EVENT_PROCESS_STATE
 				.getInName(), instantiateHandler.getEnumProcessStateHandler());
 
 
@@ -150,18 +148,18 @@ public class StateEventToHandlerFactory extends AbsEventToHandlerResolver {
 
 
 	/* (non-Javadoc)
-	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventProcessorFactory#getAfterProcessor(java.lang.String)
+	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventProcessorFactory#getAfterProcessor(int)
 	 */
 	@Override
-	public ILttngEventProcessor getAfterProcessor(String eventType) {
+	public ILttngEventProcessor getAfterProcessor(int markerId) {
 		return null;
 	}
 
 	/* (non-Javadoc)
-	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventProcessorFactory#getBeforeProcessor(java.lang.String)
+	 * @see org.eclipse.linuxtools.lttng.state.evProcessor.AbsEventProcessorFactory#getBeforeProcessor(int)
 	 */
 	@Override
-	public ILttngEventProcessor getBeforeProcessor(String eventType) {
+	public ILttngEventProcessor getBeforeProcessor(int markerId) {
 		return null;
 	}
 	
@@ -171,8 +169,8 @@ public class StateEventToHandlerFactory extends AbsEventToHandlerResolver {
 	 * 
 	 */
 	@Override
-	public ILttngEventProcessor getStateUpdaterProcessor(String eventType) {
-		return eventNametoStateProcessor.get(eventType);
+	public ILttngEventProcessor getStateUpdaterProcessor(int markerId) {
+		return eventIdtoStateProcessor.get(markerId);
 	}
 
 	@Override
@@ -53,7 +53,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 
 				// No syscall_entry update for initialization process
 				LttngProcessState process = traceSt.getRunning_process().get(
@@ -96,7 +96,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LttngProcessState process = traceSt.getRunning_process().get(
 						cpu);
 
@@ -126,7 +126,7 @@ class StateUpdateHandlers {
 			// @Override
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 
 				Long trap = getAFieldLong(trcEvent, traceSt,
 						Fields.LTT_FIELD_TRAP_ID);
@@ -187,7 +187,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LTTngCPUState cpust = traceSt.getCpu_states().get(cpu);
 				Long trap = cpust.popFromTrapStack();
 
@@ -223,7 +223,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 
 				Long irq = getAFieldLong(trcEvent, traceSt,
 						Fields.LTT_FIELD_IRQ_ID);
@@ -275,7 +275,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LTTngCPUState cpust = traceSt.getCpu_states().get(cpu);
 				Long softirq = cpust.popFromSoftIrqStack();
 
@@ -312,7 +312,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 
 				/* update process state */
 				pop_state(cpu, ExecutionMode.LTTV_STATE_IRQ, traceSt, trcEvent
@@ -350,7 +350,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				// Long cpu = trcEvent.getCpuId();
+				// long cpu = trcEvent.getCpuId();
 
 				// get event field
 				Long softirq = getAFieldLong(trcEvent, traceSt,
@@ -401,7 +401,7 @@ class StateUpdateHandlers {
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
 				// obtrain cpu
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 
 				// get event field
 				Long softirq = getAFieldLong(trcEvent, traceSt,
@@ -619,7 +619,7 @@ class StateUpdateHandlers {
 			// @Override
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				Long funcptr = getAFieldLong(trcEvent, traceSt,
 						Fields.LTT_FIELD_THIS_FN);
 
@@ -773,7 +773,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				TmfTimestamp eventTime = trcEvent.getTimestamp();
 
 				LttngProcessState process = traceSt.getRunning_process().get(
@@ -919,7 +919,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LttngProcessState process = traceSt.getRunning_process().get(
 						cpu);
 				TmfTimestamp timeStamp = trcEvent.getTimestamp();
@@ -1215,7 +1215,7 @@ class StateUpdateHandlers {
 			@Override
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LttngProcessState process = traceSt.getRunning_process().get(
 						cpu);
 
@@ -1264,7 +1264,7 @@ class StateUpdateHandlers {
 			public boolean process(LttngEvent trcEvent, LttngTraceState traceSt) {
 
 				String name;
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				LttngProcessState process = traceSt.getRunning_process().get(
 						cpu);
 
@@ -1409,7 +1409,7 @@ class StateUpdateHandlers {
 				Long pid;
 				Long tgid;
 				String command;
-				Long cpu = trcEvent.getCpuId();
+				long cpu = trcEvent.getCpuId();
 				
 				LttngProcessState process = traceSt.getRunning_process().get(
 						cpu);
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.experiment;
+
+/**
+ * <b><u>IStateBuildListener</u></b>
+ * <p>
+ * Notified of the progress of the state check points build of the traces,
+ * see {@link StateBuildService}.
+ */
+public interface IStateBuildListener {
+
+	/**
+	 * Called from the builder threads as check points are published, and once
+	 * the build of a trace ends (see {@link StateBuildProgress#isDone()}).
+	 *
+	 * @param progress
+	 *            the progress of the build of a trace
+	 */
+	public void buildProgress(StateBuildProgress progress);
+}
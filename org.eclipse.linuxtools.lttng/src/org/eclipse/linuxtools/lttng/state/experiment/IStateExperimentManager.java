@@ -80,4 +80,12 @@ public interface IStateExperimentManager {
 	 */
 	public abstract void waitForCompletion(boolean wait);
 
+	/**
+	 * Provides the service building the state check points of the selected
+	 * experiment traces, e.g. to follow its progress
+	 * 
+	 * @return
+	 */
+	public abstract StateBuildService getBuildService();
+
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.experiment;
+
+import org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager;
+
+/**
+ * <b><u>StateBuildProgress</u></b>
+ * <p>
+ * The progress of the state check points build of a trace, at some point.
+ */
+public class StateBuildProgress {
+
+	// ------------------------------------------------------------------------
+	// Status
+	// ------------------------------------------------------------------------
+
+	public enum Status {
+		RUNNING,	// Check points are being built
+		COMPLETED,	// All the check points were built
+		REUSED,		// All the check points were reused from a previous build
+		CANCELLED,	// The build was cancelled, the check points are partial
+		FAILED		// The trace could not be read, the check points are partial
+	}
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	private final IStateTraceManager fManager;
+	private final Status fStatus;
+	private final long fNbEvents;
+	private final int fNbCheckPoints;
+	private final long fTime;
+	private final long fElapsedTime;
+
+	// ------------------------------------------------------------------------
+	// Constructors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @param manager the manager of the trace
+	 * @param status the build status
+	 * @param nbEvents the number of events read
+	 * @param nbCheckPoints the number of check points published
+	 * @param time the timestamp value of the last event read
+	 * @param elapsedTime the build duration so far, in ms
+	 */
+	public StateBuildProgress(IStateTraceManager manager, Status status, long nbEvents, int nbCheckPoints, long time,
+			long elapsedTime) {
+		fManager = manager;
+		fStatus = status;
+		fNbEvents = nbEvents;
+		fNbCheckPoints = nbCheckPoints;
+		fTime = time;
+		fElapsedTime = elapsedTime;
+	}
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	public IStateTraceManager getManager() {
+		return fManager;
+	}
+
+	public Status getStatus() {
+		return fStatus;
+	}
+
+	/**
+	 * @return true if the build of the trace ended
+	 */
+	public boolean isDone() {
+		return fStatus != Status.RUNNING;
+	}
+
+	public long getNbEvents() {
+		return fNbEvents;
+	}
+
+	public int getNbCheckPoints() {
+		return fNbCheckPoints;
+	}
+
+	/**
+	 * @return the timestamp value of the last event read: the check points
+	 *         cover the trace up to it
+	 */
+	public long getTime() {
+		return fTime;
+	}
+
+	/**
+	 * @return the build duration so far, in ms
+	 */
+	public long getElapsedTime() {
+		return fElapsedTime;
+	}
+
+	/**
+	 * @return the fraction of the trace time range covered, from 0 to 1
+	 */
+	public double getFraction() {
+		if (fStatus == Status.COMPLETED || fStatus == Status.REUSED) {
+			return 1.0;
+		}
+		long start = fManager.getTrace().getStartTime().getValue();
+		long end = fManager.getTrace().getEndTime().getValue();
+		if (end <= start || fNbEvents == 0) {
+			return 0.0;
+		}
+		return Math.max(0.0, Math.min(1.0, (double) (fTime - start) / (end - start)));
+	}
+
+	/**
+	 * @return the number of events read per second
+	 */
+	public double getThroughput() {
+		return (fElapsedTime > 0) ? fNbEvents * 1000.0 / fElapsedTime : 0.0;
+	}
+
+	@Override
+	public String toString() {
+		return "[StateBuildProgress(" + fManager.getTrace().getName() + "," + fStatus + ",events=" + fNbEvents
+				+ ",checkpoints=" + fNbCheckPoints + ",fraction=" + getFraction() + ",events/s=" + (long) getThroughput()
+				+ ")]";
+	}
+}
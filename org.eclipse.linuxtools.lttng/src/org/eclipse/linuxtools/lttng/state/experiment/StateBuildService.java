@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.experiment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.linuxtools.lttng.TraceDebug;
+import org.eclipse.linuxtools.lttng.event.LttngEvent;
+import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent;
+import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent.SequenceInd;
+import org.eclipse.linuxtools.lttng.state.experiment.StateBuildProgress.Status;
+import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
+import org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager;
+import org.eclipse.linuxtools.lttng.state.trace.StateCheckPointPolicy;
+import org.eclipse.linuxtools.lttng.state.trace.StateCheckPoints;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+
+/**
+ * <b><u>StateBuildService</u></b>
+ * <p>
+ * Builds the state check points of the traces in the background, one builder
+ * thread per trace, each reading its own copy of the trace (see
+ * {@link ITmfTrace#createTraceCopy()}) instead of going through the request
+ * executor of the experiment shared with the views.
+ * <p>
+ * The check points are published as they are built, so the views can restore
+ * the state from them before the build completes. The listeners are notified
+ * of the progress and throughput of each trace build.
+ * <p>
+ * The complete check points of the last traces built are kept for the
+ * session, within a memory budget, keyed by trace path and time range: a
+ * trace of an experiment selected again gets them back at once instead of
+ * being read again.
+ */
+public class StateBuildService {
+
+	// ========================================================================
+	// Constants
+	// ========================================================================
+
+	// Number of events between two progress notifications
+	private static final long PROGRESS_INTERVAL = 50000L;
+
+	// Estimated memory of the complete check points kept, see
+	// StateCheckPoints.getEstimatedSize()
+	public static final long DEFAULT_KEPT_MEMORY_BUDGET = 2 * StateCheckPointPolicy.DEFAULT_MEMORY_BUDGET;
+
+	// ========================================================================
+	// Data
+	// ========================================================================
+
+	private final ExecutorService fExecutor;
+	private final List<IStateBuildListener> fListeners = new Vector<IStateBuildListener>();
+
+	// The builds of the traces of the current experiment
+	private final Map<IStateTraceManager, TraceBuilder> fBuilders = new HashMap<IStateTraceManager, TraceBuilder>();
+
+	// The cancelled builds that may still be running, by manager
+	private final Map<IStateTraceManager, TraceBuilder> fCancelledBuilders = new HashMap<IStateTraceManager, TraceBuilder>();
+
+	// Serializes the builds requests
+	private final Object fBuildLock = new Object();
+
+	// The complete check points kept, by trace path, in access order
+	private final Map<String, StateCheckPoints> fKeptCheckPoints = new LinkedHashMap<String, StateCheckPoints>(16,
+			0.75f, true);
+	private long fKeptMemoryBudget = DEFAULT_KEPT_MEMORY_BUDGET;
+	private long fKeptSize = 0;
+
+	// ========================================================================
+	// Constructors
+	// ========================================================================
+
+	public StateBuildService() {
+		int nbThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+		fExecutor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+			private int fNbThreads = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "State Builder " + (++fNbThreads));
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	// ========================================================================
+	// Methods
+	// ========================================================================
+
+	public void addListener(IStateBuildListener listener) {
+		fListeners.add(listener);
+	}
+
+	public void removeListener(IStateBuildListener listener) {
+		fListeners.remove(listener);
+	}
+
+	/**
+	 * @param budget
+	 *            the estimated memory of the complete check points kept for
+	 *            the session, in bytes
+	 */
+	public synchronized void setKeptMemoryBudget(long budget) {
+		fKeptMemoryBudget = budget;
+		dropOldCheckPoints();
+	}
+
+	/**
+	 * Builds the check points of the traces of an experiment. The builds of
+	 * the traces of the previous experiment are cancelled, except for the
+	 * managers in both. The managers whose check points are built, or being
+	 * built, are left as they are.
+	 * <p>
+	 * A manager is only cleared once its previous build, if cancelled, has
+	 * stopped: this waits for the builder threads to notice the cancellation.
+	 *
+	 * @param managers
+	 *            the managers of the traces of the experiment
+	 */
+	public void build(IStateTraceManager[] managers) {
+		synchronized (fBuildLock) {
+			List<TraceBuilder> toBuild = new ArrayList<TraceBuilder>();
+			List<TraceBuilder> toJoin = new ArrayList<TraceBuilder>();
+			synchronized (this) {
+				Map<IStateTraceManager, TraceBuilder> previous = new HashMap<IStateTraceManager, TraceBuilder>(fBuilders);
+				fBuilders.clear();
+
+				for (IStateTraceManager manager : managers) {
+					TraceBuilder builder = previous.remove(manager);
+					if (builder != null && (builder.isRunning() || builder.isComplete()) && !builder.isCancelled()) {
+						fBuilders.put(manager, builder);
+						continue;
+					}
+					if (builder == null) {
+						builder = fCancelledBuilders.remove(manager);
+					}
+					if (builder != null) {
+						builder.cancel();
+						toJoin.add(builder);
+					}
+
+					builder = new TraceBuilder(manager);
+					fBuilders.put(manager, builder);
+					toBuild.add(builder);
+				}
+
+				for (TraceBuilder builder : previous.values()) {
+					builder.cancel();
+					fCancelledBuilders.put(builder.fManager, builder);
+				}
+				Iterator<TraceBuilder> iterator = fCancelledBuilders.values().iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next().hasExited()) {
+						iterator.remove();
+					}
+				}
+			}
+
+			// A manager must not be cleared while a cancelled build still
+			// updates its check points
+			for (TraceBuilder builder : toJoin) {
+				builder.join();
+			}
+
+			List<StateBuildProgress> reused = new ArrayList<StateBuildProgress>();
+			synchronized (this) {
+				for (TraceBuilder builder : toBuild) {
+					if (builder.isCancelled()) {
+						// Cancelled while waiting for the previous builds
+						builder.done(Status.CANCELLED);
+						continue;
+					}
+					IStateTraceManager manager = builder.fManager;
+					ITmfTrace trace = manager.getTrace();
+					StateCheckPoints checkPoints = fKeptCheckPoints.get(trace.getPath());
+					if (checkPoints != null
+							&& checkPoints.isValidFor(trace.getPath(), trace.getTimeRange(), manager
+									.getCheckPointInterval())) {
+						manager.importCheckPoints(checkPoints);
+						builder.reuse();
+						reused.add(builder.getProgress());
+					} else {
+						// Clear all previously created check points as
+						// preparation to re-build, and get the TraceState at
+						// the beginning of the trace for the views
+						manager.clearCheckPoints();
+						manager.restoreCheckPointByTimestamp(trace.getStartTime());
+						builder.fFuture = fExecutor.submit(builder);
+					}
+				}
+				dropOldCheckPoints();
+			}
+
+			for (StateBuildProgress progress : reused) {
+				fireProgress(progress);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the running builds. Their check points are left partial.
+	 */
+	public synchronized void cancel() {
+		for (TraceBuilder builder : fBuilders.values()) {
+			builder.cancel();
+		}
+	}
+
+	/**
+	 * Waits for the end of the builds of the current experiment.
+	 */
+	public void waitForCompletion() {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		synchronized (this) {
+			for (TraceBuilder builder : fBuilders.values()) {
+				if (builder.fFuture != null) {
+					futures.add(builder.fFuture);
+				}
+			}
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (CancellationException e) {
+				// The build was cancelled before it started
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * @param manager
+	 *            the manager of a trace of the current experiment
+	 * @return the progress of the build of its check points, null if none
+	 */
+	public synchronized StateBuildProgress getProgress(IStateTraceManager manager) {
+		TraceBuilder builder = fBuilders.get(manager);
+		return (builder != null) ? builder.getProgress() : null;
+	}
+
+	/**
+	 * @return the progress of the builds of the current experiment
+	 */
+	public synchronized StateBuildProgress[] getProgress() {
+		List<StateBuildProgress> progress = new ArrayList<StateBuildProgress>();
+		for (TraceBuilder builder : fBuilders.values()) {
+			progress.add(builder.getProgress());
+		}
+		return progress.toArray(new StateBuildProgress[progress.size()]);
+	}
+
+	/**
+	 * Cancels the builds and stops the builder threads
+	 */
+	public void dispose() {
+		cancel();
+		fExecutor.shutdownNow();
+		synchronized (this) {
+			fBuilders.clear();
+			fCancelledBuilders.clear();
+			fKeptCheckPoints.clear();
+			fKeptSize = 0;
+		}
+	}
+
+	// ========================================================================
+	// Helper functions
+	// ========================================================================
+
+	private void fireProgress(StateBuildProgress progress) {
+		IStateBuildListener[] listeners;
+		synchronized (fListeners) {
+			listeners = fListeners.toArray(new IStateBuildListener[fListeners.size()]);
+		}
+		for (IStateBuildListener listener : listeners) {
+			listener.buildProgress(progress);
+		}
+	}
+
+	/*
+	 * Keeps the complete check points of a trace, replacing the previous ones
+	 */
+	private synchronized void keep(StateCheckPoints checkPoints) {
+		StateCheckPoints previous = fKeptCheckPoints.put(checkPoints.getTracePath(), checkPoints);
+		fKeptSize += checkPoints.getEstimatedSize();
+		if (previous != null) {
+			fKeptSize -= previous.getEstimatedSize();
+		}
+		dropOldCheckPoints();
+	}
+
+	/*
+	 * Drops the least recently used check points beyond the memory budget.
+	 * The managers that imported them keep their own copy.
+	 */
+	private void dropOldCheckPoints() {
+		Iterator<StateCheckPoints> iterator = fKeptCheckPoints.values().iterator();
+		while (fKeptSize > fKeptMemoryBudget && iterator.hasNext()) {
+			StateCheckPoints checkPoints = iterator.next();
+			iterator.remove();
+			fKeptSize -= checkPoints.getEstimatedSize();
+		}
+	}
+
+	// ========================================================================
+	// Inner Class
+	// ========================================================================
+
+	/**
+	 * Builds the check points of a trace, reading a copy of the trace
+	 */
+	private class TraceBuilder implements Runnable {
+
+		private final IStateTraceManager fManager;
+		private Future<?> fFuture = null;
+
+		private volatile Status fStatus = Status.RUNNING;
+		private volatile boolean fCancelled = false;
+		private volatile long fNbEvents = 0;
+		private volatile long fTime = 0;
+		private volatile long fStartTime = 0;
+		private volatile long fEndTime = 0;
+
+		TraceBuilder(IStateTraceManager manager) {
+			fManager = manager;
+			fTime = manager.getTrace().getStartTime().getValue();
+			fStartTime = System.currentTimeMillis();
+		}
+
+		boolean isRunning() {
+			return fStatus == Status.RUNNING;
+		}
+
+		boolean isComplete() {
+			return fStatus == Status.COMPLETED || fStatus == Status.REUSED;
+		}
+
+		boolean isCancelled() {
+			return fCancelled;
+		}
+
+		void cancel() {
+			fCancelled = true;
+			if (fFuture != null && fFuture.cancel(false)) {
+				// Not started
+				done(Status.CANCELLED);
+			}
+		}
+
+		/*
+		 * @return true if the builder thread no longer uses the manager
+		 */
+		boolean hasExited() {
+			return fFuture == null || fFuture.isDone();
+		}
+
+		/*
+		 * Waits for the builder thread to stop using the manager
+		 */
+		void join() {
+			if (fFuture == null) {
+				return;
+			}
+			try {
+				fFuture.get();
+			} catch (CancellationException e) {
+				// Cancelled before it started
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+
+		void reuse() {
+			fTime = fManager.getTrace().getEndTime().getValue();
+			fStatus = Status.REUSED;
+			fEndTime = fStartTime;
+		}
+
+		StateBuildProgress getProgress() {
+			long endTime = isRunning() ? System.currentTimeMillis() : fEndTime;
+			return new StateBuildProgress(fManager, fStatus, fNbEvents, fManager.getNbCheckPoints(), fTime, endTime
+					- fStartTime);
+		}
+
+		@Override
+		public void run() {
+			fStartTime = System.currentTimeMillis();
+			ITmfTrace trace = fManager.getTrace();
+			ITmfTrace traceCopy = trace.createTraceCopy();
+			if (traceCopy == null) {
+				done(Status.FAILED);
+				return;
+			}
+
+			try {
+				// The check point state model, cleared before the build; the
+				// state model of the views is left alone
+				LttngTraceState stateModel = fManager.getCheckPointStateModel();
+
+				TmfContext context = traceCopy.seekEvent(trace.getStartTime());
+				LttngSyntheticEvent synEvent = null;
+				TmfEvent event;
+				long nbEvents = 0;
+				while (!fCancelled && (event = traceCopy.getNextEvent(context)) != null) {
+					if (!(event instanceof LttngEvent)) {
+						continue;
+					}
+					nbEvents++;
+
+					// obtain synthetic event
+					if (synEvent == null || synEvent.getBaseEvent() != event) {
+						synEvent = new LttngSyntheticEvent((LttngEvent) event);
+					}
+					// Trace model needed by application handlers
+					synEvent.setTraceModel(stateModel);
+					synEvent.setSequenceInd(SequenceInd.UPDATE);
+
+					// update state system, and save check points as needed
+					fManager.handleEvent(synEvent, nbEvents);
+
+					if (nbEvents % PROGRESS_INTERVAL == 0) {
+						fNbEvents = nbEvents;
+						fTime = event.getTimestamp().getValue();
+						fireProgress(getProgress());
+					}
+				}
+				fNbEvents = nbEvents;
+
+				if (fCancelled) {
+					done(Status.CANCELLED);
+				} else {
+					fTime = trace.getEndTime().getValue();
+					keep(fManager.exportCheckPoints());
+					done(Status.COMPLETED);
+				}
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				done(Status.FAILED);
+			} finally {
+				traceCopy.dispose();
+			}
+		}
+
+		private void done(Status status) {
+			fEndTime = System.currentTimeMillis();
+			fStatus = status;
+			StateBuildProgress progress = getProgress();
+			if (TraceDebug.isDEBUG()) {
+				TraceDebug.debug("Trace check point building ended: " + progress + "\n\t\t" + fManager.toString());
+			}
+			fireProgress(progress);
+		}
+	}
+}
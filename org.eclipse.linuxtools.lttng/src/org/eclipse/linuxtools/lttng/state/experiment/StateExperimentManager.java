@@ -12,25 +12,15 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.state.experiment;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.linuxtools.lttng.TraceDebug;
 import org.eclipse.linuxtools.lttng.control.LttngCoreProviderFactory;
 import org.eclipse.linuxtools.lttng.event.LttngEvent;
-import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent;
-import org.eclipse.linuxtools.lttng.event.LttngSyntheticEvent.SequenceInd;
 import org.eclipse.linuxtools.lttng.model.LTTngTreeNode;
 import org.eclipse.linuxtools.lttng.signal.ILttExperimentSelectedListener;
 import org.eclipse.linuxtools.lttng.signal.StateExperimentListener;
-import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
 import org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
 import org.eclipse.linuxtools.tmf.experiment.TmfExperiment;
-import org.eclipse.linuxtools.tmf.request.ITmfDataRequest;
-import org.eclipse.linuxtools.tmf.request.ITmfEventRequest;
-import org.eclipse.linuxtools.tmf.request.TmfDataRequest;
-import org.eclipse.linuxtools.tmf.request.TmfEventRequest;
 import org.eclipse.linuxtools.tmf.signal.TmfExperimentUpdatedSignal;
 import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
 
@@ -49,13 +39,9 @@ public class StateExperimentManager extends LTTngTreeNode implements
 	private final StateExperimentListener fexperimentListener;
 	private boolean fwaitForCompletion = false;
 	/**
-	 * Used to route incoming events to proper trace manager, during check point
-	 * building
+	 * Builds the state system check points of the selected experiment traces
 	 */
-	private final Map<ITmfTrace, StateTraceHelper> ftraceToManagerMap = new HashMap<ITmfTrace, StateTraceHelper>();
-
-	private LttngSyntheticEvent syntheticEvent = null;
-	private ITmfEventRequest<LttngEvent> fStateCheckPointRequest = null;
+	private final StateBuildService fBuildService = new StateBuildService();
 
 
 	// ========================================================================
@@ -196,14 +182,9 @@ public class StateExperimentManager extends LTTngTreeNode implements
 			return;
 		}
 
-		// If previous request is ongoing, cancel it before requesting a new
-		// one.
-		if (fStateCheckPointRequest != null && !fStateCheckPointRequest.isCompleted()) {
-			fStateCheckPointRequest.cancel();
-		}
-
-		// trigger data request to build the state system check points
-		fStateCheckPointRequest = buildCheckPoints(experiment);
+		// build the state system check points, the builds of the traces of a
+		// previously selected experiment are cancelled
+		buildCheckPoints(experiment);
 	}
 
 	/*
@@ -252,6 +233,7 @@ public class StateExperimentManager extends LTTngTreeNode implements
 	@Override
 	protected void finalize() {
 		fexperimentListener.dispose();
+		fBuildService.dispose();
 	}
 
 
@@ -267,221 +249,47 @@ public class StateExperimentManager extends LTTngTreeNode implements
 		fwaitForCompletion = wait;
 	}
 
-	private ITmfEventRequest<LttngEvent> buildCheckPoints(TmfExperiment<LttngEvent> experiment) {
-		// validate
-		if (experiment == null) {
-			TraceDebug.debug("Received expriment is null");
-			return null;
-		}
-		
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.linuxtools.lttng.state.experiment.IStateExperimentManager
+	 * #getBuildService()
+	 */
+	@Override
+	public StateBuildService getBuildService() {
+		return fBuildService;
+	}
+
+	private void buildCheckPoints(TmfExperiment<LttngEvent> experiment) {
 		LTTngTreeNode experimentNode = getChildByName(experiment.getName());
 		if (experimentNode == null) {
 			TraceDebug.debug("Expriment Node " + experiment.getName() + " does not exist");
-			return null;
+			return;
 		}
-		
+
 		// get the trace manager nodes associated to the experiment
 		LTTngTreeNode[] traceNodes = experimentNode.getChildren();
-		synchronized (this) {
-			ftraceToManagerMap.clear();
-		}
-
-		ITmfTrace trace;
-		for (LTTngTreeNode traceStateManagerNode : traceNodes) {
-			IStateTraceManager traceManager;
+		IStateTraceManager[] traceManagers = new IStateTraceManager[traceNodes.length];
+		for (int i = 0; i < traceNodes.length; i++) {
 			try {
-				traceManager = (IStateTraceManager) traceStateManagerNode;
+				traceManagers[i] = (IStateTraceManager) traceNodes[i];
 			} catch (ClassCastException e) {
 				System.out.println(e.getStackTrace().toString());
-				return null;
-			}
-		
-			// Clear all previously created check points as preparation to
-			// re-build
-			traceManager.clearCheckPoints();
-		
-			// build the trace to manager mapping for event dispatching
-			trace = traceManager.getTrace();
-			synchronized (this) {
-				ftraceToManagerMap.put(trace, new StateTraceHelper(traceManager));
+				return;
 			}
 		}
 
 		// if no trace mapping
-		if (ftraceToManagerMap.size() < 1) {
+		if (traceManagers.length < 1) {
 			TraceDebug.debug("No traces associated to experiment " + experiment.getName());
-			return null;
+			return;
 		}
-		
-		// Prepare event data request to build state model
-		ITmfEventRequest<LttngEvent> request = new TmfEventRequest<LttngEvent>(
-				LttngEvent.class, TmfTimeRange.Eternity,
-				TmfDataRequest.ALL_DATA, 1, ITmfDataRequest.ExecutionType.BACKGROUND) {
-		
-			long nbEventsHandled = 0;
-			
-			/*
-			 * (non-Javadoc)
-			 * 
-			 * @see
-			 * org.eclipse.linuxtools.tmf.request.TmfDataRequest#handleData()
-			 */
-			@Override
-			public void handleData(LttngEvent event) {
-				super.handleData(event);
-				if (event != null) {
-//					Tracer.trace("Chk: " + event.getTimestamp());
-					nbEventsHandled++;
-					ITmfTrace trace = event.getParentTrace();
-
-					StateTraceHelper helper = ftraceToManagerMap.get(trace);
 
-					if (helper != null) {
-						helper.incrementNumberRead();
-
-						// obtain synthetic event
-						LttngSyntheticEvent synEvent = updateSynEvent(event, helper.getTraceModel());
-
-						// update state system, and save check points as needed
-						helper.getStateManager().handleEvent(synEvent, helper.getNumberRead());
-					} else {
-						TraceDebug.debug("StateTraceManager not found for trace"
-								+ trace.getName());
-					}
-				}
-			}
-
-			/*
-			 * (non-Javadoc)
-			 * 
-			 * @see
-			 * org.eclipse.linuxtools.tmf.request.TmfDataRequest#handleFailure()
-			 */
-			@Override
-			public void handleFailure() {
-				printCompletedMessage();
-			}
-
-			/*
-			 * (non-Javadoc)
-			 * 
-			 * @see
-			 * org.eclipse.linuxtools.tmf.request.TmfDataRequest#handleCancel()
-			 */
-			@Override
-			public void handleCancel() {
-				printCompletedMessage();
-			}
-
-			/*
-			 * (non-Javadoc)
-			 * 
-			 * @see
-			 * org.eclipse.linuxtools.tmf.request.TmfDataRequest#handleSuccess()
-			 */
-			@Override
-			public void handleSuccess() {
-				printCompletedMessage();
-			}
-
-			/**
-			 * @param header
-			 */
-			private void printCompletedMessage() {
-				if (TraceDebug.isDEBUG()) {
-					TraceDebug.debug("Trace check point building completed, number of events handled: " + nbEventsHandled + "\n\t\t");
-					for (StateTraceHelper helper : ftraceToManagerMap.values()) {
-						TraceDebug.debug(helper.getStateManager().toString() + "\n\t\t");
-					}
-				}
-			}
-		};
-
-		// Execute event data request
-		experiment.sendRequest(request);
+		fBuildService.build(traceManagers);
 
 		if (fwaitForCompletion) {
-			try {
-				request.waitForCompletion();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
-
-		return request;
-	}
-
-	private LttngSyntheticEvent updateSynEvent(LttngEvent e, LttngTraceState stateModel) {
-		if (syntheticEvent == null || syntheticEvent.getBaseEvent() != e) {
-			syntheticEvent = new LttngSyntheticEvent(e);
-		}
-
-		// Trace model needed by application handlers
-		syntheticEvent.setTraceModel(stateModel);
-		syntheticEvent.setSequenceInd(SequenceInd.UPDATE);
-
-		return syntheticEvent;
-	}
-
-	/**
-	 * Helper class that wraps the StateTraceManager, the current
-	 * LTTngTraceState and the number of read events
-	 * 
-	 * @author bHufmann
-	 * 
-	 */
-	private class StateTraceHelper {
-
-		IStateTraceManager stateTraceManager = null;
-		long numberEventsRead = 0;
-		LttngTraceState stateTraceModel = null;
-
-		/**
-		 * Constructor
-		 * 
-		 * @param stateManager
-		 *            The StateTraceManager the helper is for
-		 */
-		public StateTraceHelper(IStateTraceManager stateManager) {
-			this.stateTraceManager = stateManager;
-			// Get the TraceState at the beginning of the trace
-			this.stateTraceManager.restoreCheckPointByTimestamp(stateManager
-					.getTrace().getStartTime());
-			this.stateTraceModel = this.stateTraceManager.getStateModel();
-		}
-
-		/**
-		 * Returns the StateTraceManager
-		 * 
-		 * @return IStateTraceManager
-		 */
-		public IStateTraceManager getStateManager() {
-			return stateTraceManager;
-		}
-
-		/**
-		 * Returns the number of read events
-		 * 
-		 * @return long
-		 */
-		public long getNumberRead() {
-			return numberEventsRead;
-		}
-
-		/**
-		 * Increments the number of read events
-		 */
-		public void incrementNumberRead() {
-			++numberEventsRead;
-		}
-
-		/**
-		 * Returns the current LTTngTraceState
-		 * 
-		 * @return LttngTraceState
-		 */
-		public LttngTraceState getTraceModel() {
-			return stateTraceModel;
+			fBuildService.waitForCompletion();
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.model;
+
+import java.util.Map;
+
+/**
+ * <b><u>CopyOnWriteLongStateMap</u></b>
+ * <p>
+ * A {@link CopyOnWriteStateMap} keyed by CPU, IRQ, trap, ... ids, whose hash
+ * table is a {@link LongKeyHashMap}: the lookups by a long do not box it, and
+ * the hash table is copied by cloning arrays.
+ * <p>
+ * The state handlers look the entries up by a primitive id, with
+ * {@link #get(long)} and {@link #put(long, Object)}.
+ */
+public class CopyOnWriteLongStateMap<V> extends CopyOnWriteStateMap<Long, V> {
+
+	// ========================================================================
+	// Constructors
+	// ========================================================================
+
+	CopyOnWriteLongStateMap(Owner<V> owner) {
+		super(owner);
+	}
+
+	private CopyOnWriteLongStateMap(Map<Long, V> entries, Owner<V> owner) {
+		super(entries, owner);
+	}
+
+	// ========================================================================
+	// Operations
+	// ========================================================================
+
+	@Override
+	CopyOnWriteLongStateMap<V> snapshot(Owner<V> owner) {
+		return (CopyOnWriteLongStateMap<V>) super.snapshot(owner);
+	}
+
+	/**
+	 * @param key the key
+	 * @return the entry of the key, owned by the map owner, or null if none
+	 */
+	public V get(long key) {
+		V value = entries().get(key);
+		if (value == null) {
+			return null;
+		}
+		V owned = own(value);
+		if (owned != value) {
+			unshare();
+			entries().put(key, owned);
+		}
+		return owned;
+	}
+
+	/**
+	 * @param key the key
+	 * @param value the entry of the key, now owned by the map owner
+	 * @return the previous entry of the key, or null if none
+	 */
+	public V put(long key, V value) {
+		unshare();
+		if (value != null) {
+			adopt(value);
+		}
+		return entries().put(key, value);
+	}
+
+	/**
+	 * @param key the key
+	 * @return true if the map has an entry for the key
+	 */
+	public boolean containsKey(long key) {
+		return entries().containsKey(key);
+	}
+
+	// ========================================================================
+	// Hash table
+	// ========================================================================
+
+	@Override
+	Map<Long, V> newEntries() {
+		return new LongKeyHashMap<V>();
+	}
+
+	@Override
+	Map<Long, V> copyEntries(Map<Long, V> entries) {
+		return new LongKeyHashMap<V>((LongKeyHashMap<V>) entries);
+	}
+
+	@Override
+	CopyOnWriteStateMap<Long, V> newSnapshot(Map<Long, V> entries, Owner<V> owner) {
+		return new CopyOnWriteLongStateMap<V>(entries, owner);
+	}
+
+	private LongKeyHashMap<V> entries() {
+		return (LongKeyHashMap<V>) getEntries();
+	}
+}
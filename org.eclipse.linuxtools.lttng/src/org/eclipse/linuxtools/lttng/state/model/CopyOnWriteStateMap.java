@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <b><u>CopyOnWriteStateMap</u></b>
+ * <p>
+ * A map of mutable state entries (process, CPU, IRQ, ... states) that can be
+ * snapshot in O(1).
+ * <p>
+ * A snapshot shares the hash table and the entries of its source. Each side
+ * copies the hash table (shallow) the first time it is modified, and copies
+ * an entry the first time it hands it out, since the caller may modify it.
+ * An entry that was never accessed after a snapshot is never copied.
+ * <p>
+ * Which entries belong to a state (and so can be modified in place) is
+ * tracked by an {@link Owner}, which can be shared by several maps holding
+ * the same entries (e.g. the processes and the running processes) so that
+ * an entry is copied once and both maps return the same copy.
+ * <p>
+ * Entries shared with a snapshot must never be modified in place: they are
+ * only read (and copied) afterwards, possibly by other threads.
+ * <p>
+ * The hash table is a HashMap by default, subclasses may provide another
+ * one (see {@link CopyOnWriteLongStateMap}).
+ */
+class CopyOnWriteStateMap<K, V> extends AbstractMap<K, V> {
+
+	// ========================================================================
+	// Owner
+	// ========================================================================
+
+	/**
+	 * Tracks the entries that belong to a state, and the copies made of the
+	 * entries it shares with its snapshots.
+	 */
+	static abstract class Owner<V> {
+
+		// owned entry -> itself, shared entry -> its owned copy
+		private IdentityHashMap<V, V> fOwned = new IdentityHashMap<V, V>();
+
+		/**
+		 * @param value a shared entry
+		 * @return a copy of the entry
+		 */
+		abstract V copy(V value);
+
+		V own(V value) {
+			V owned = fOwned.get(value);
+			if (owned == null) {
+				owned = copy(value);
+				fOwned.put(value, owned);
+				fOwned.put(owned, owned);
+			}
+			return owned;
+		}
+
+		void adopt(V value) {
+			fOwned.put(value, value);
+		}
+
+		/**
+		 * All the current entries become shared (with a new snapshot).
+		 */
+		void disown() {
+			fOwned = new IdentityHashMap<V, V>();
+		}
+	}
+
+	// ========================================================================
+	// Attributes
+	// ========================================================================
+
+	private Map<K, V> fEntries;
+	private boolean fIsShared;
+	private final Owner<V> fOwner;
+
+	// ========================================================================
+	// Constructors
+	// ========================================================================
+
+	CopyOnWriteStateMap(Owner<V> owner) {
+		fEntries = newEntries();
+		fIsShared = false;
+		fOwner = owner;
+	}
+
+	/**
+	 * @param entries the shared hash table of a snapshot
+	 * @param owner the owner of the new map
+	 */
+	CopyOnWriteStateMap(Map<K, V> entries, Owner<V> owner) {
+		fEntries = entries;
+		fIsShared = true;
+		fOwner = owner;
+	}
+
+	// ========================================================================
+	// Operations
+	// ========================================================================
+
+	/**
+	 * Returns a map sharing the entries of this one. The caller is
+	 * responsible for disowning the entries of this map owner.
+	 *
+	 * @param owner the owner of the new map
+	 * @return the snapshot
+	 */
+	CopyOnWriteStateMap<K, V> snapshot(Owner<V> owner) {
+		fIsShared = true;
+		return newSnapshot(fEntries, owner);
+	}
+
+	/**
+	 * Reads an entry without taking ownership of it. The returned entry must
+	 * not be modified.
+	 */
+	V peek(Object key) {
+		return fEntries.get(key);
+	}
+
+	/**
+	 * @return the entries, which must not be modified
+	 */
+	Iterable<V> peekValues() {
+		return Collections.unmodifiableCollection(fEntries.values());
+	}
+
+	// ========================================================================
+	// Hash table
+	// ========================================================================
+
+	/**
+	 * @return a new empty hash table
+	 */
+	Map<K, V> newEntries() {
+		return new HashMap<K, V>();
+	}
+
+	/**
+	 * @param entries a hash table
+	 * @return a shallow copy of the hash table
+	 */
+	Map<K, V> copyEntries(Map<K, V> entries) {
+		return new HashMap<K, V>(entries);
+	}
+
+	/**
+	 * @param entries the hash table to share
+	 * @param owner the owner of the new map
+	 * @return a new map sharing the hash table
+	 */
+	CopyOnWriteStateMap<K, V> newSnapshot(Map<K, V> entries, Owner<V> owner) {
+		return new CopyOnWriteStateMap<K, V>(entries, owner);
+	}
+
+	/**
+	 * @return the hash table, to be read or modified (after
+	 *         {@link #unshare()}) by subclasses
+	 */
+	Map<K, V> getEntries() {
+		return fEntries;
+	}
+
+	/**
+	 * @param value an entry of the map
+	 * @return the entry owned by the map owner
+	 */
+	V own(V value) {
+		return fOwner.own(value);
+	}
+
+	/**
+	 * @param value a new entry of the map, owned by the map owner
+	 */
+	void adopt(V value) {
+		fOwner.adopt(value);
+	}
+
+	// ========================================================================
+	// Helper functions
+	// ========================================================================
+
+	private static boolean eq(Object o1, Object o2) {
+		return (o1 == null) ? (o2 == null) : o1.equals(o2);
+	}
+
+	/**
+	 * Copies the hash table if it is shared with a snapshot
+	 */
+	void unshare() {
+		if (fIsShared) {
+			fEntries = copyEntries(fEntries);
+			fIsShared = false;
+		}
+	}
+
+	// ========================================================================
+	// Map
+	// ========================================================================
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		V value = fEntries.get(key);
+		if (value == null) {
+			return null;
+		}
+		V owned = fOwner.own(value);
+		if (owned != value) {
+			unshare();
+			// The key is equal to the stored one, which is kept
+			fEntries.put((K) key, owned);
+		}
+		return owned;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		unshare();
+		if (value != null) {
+			fOwner.adopt(value);
+		}
+		return fEntries.put(key, value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		unshare();
+		return fEntries.remove(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return fEntries.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return fEntries.size();
+	}
+
+	@Override
+	public void clear() {
+		if (fIsShared) {
+			fEntries = newEntries();
+			fIsShared = false;
+		} else {
+			fEntries.clear();
+		}
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return Collections.unmodifiableSet(fEntries.keySet());
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				// The entries handed out are owned
+				unshare();
+				final Iterator<Map.Entry<K, V>> iterator = fEntries.entrySet().iterator();
+				return new Iterator<Map.Entry<K, V>>() {
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<K, V> next() {
+						final Map.Entry<K, V> entry = iterator.next();
+						return new Map.Entry<K, V>() {
+							@Override
+							public K getKey() {
+								return entry.getKey();
+							}
+
+							@Override
+							public V getValue() {
+								V value = entry.getValue();
+								V owned = (value != null) ? fOwner.own(value) : null;
+								if (owned != value) {
+									entry.setValue(owned);
+								}
+								return owned;
+							}
+
+							@Override
+							public V setValue(V value) {
+								if (value != null) {
+									fOwner.adopt(value);
+								}
+								return entry.setValue(value);
+							}
+
+							@Override
+							public boolean equals(Object other) {
+								if (!(other instanceof Map.Entry<?, ?>)) {
+									return false;
+								}
+								Map.Entry<?, ?> o = (Map.Entry<?, ?>) other;
+								return eq(getKey(), o.getKey()) && eq(entry.getValue(), o.getValue());
+							}
+
+							@Override
+							public int hashCode() {
+								return entry.hashCode();
+							}
+						};
+					}
+
+					@Override
+					public void remove() {
+						iterator.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return fEntries.size();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <b><u>LongKeyHashMap</u></b>
+ * <p>
+ * A map keyed by primitive longs (CPU, IRQ, trap, ... ids), stored in
+ * arrays with open addressing and linear probing.
+ * <p>
+ * Unlike a HashMap, it allocates no entry per key, and it is copied by
+ * cloning its arrays. The Map methods taking or returning Long keys are
+ * kept for the existing callers, the long methods avoid the boxing.
+ */
+public class LongKeyHashMap<V> extends AbstractMap<Long, V> implements Cloneable {
+
+	// ========================================================================
+	// Constants
+	// ========================================================================
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	// The table is grown beyond 1/2 full
+	private static final int LOAD_FACTOR_SHIFT = 1;
+
+	// ========================================================================
+	// Attributes
+	// ========================================================================
+
+	private long[] fKeys;
+	private Object[] fValues;
+	private boolean[] fUsed;
+	private int fSize = 0;
+	private int fModCount = 0;
+
+	// ========================================================================
+	// Constructors
+	// ========================================================================
+
+	public LongKeyHashMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize the number of keys the map will hold
+	 */
+	public LongKeyHashMap(int expectedSize) {
+		int capacity = DEFAULT_CAPACITY;
+		while ((capacity >> LOAD_FACTOR_SHIFT) < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Copy constructor, the values are shared.
+	 *
+	 * @param other the map to copy
+	 */
+	public LongKeyHashMap(LongKeyHashMap<V> other) {
+		fKeys = other.fKeys.clone();
+		fValues = other.fValues.clone();
+		fUsed = other.fUsed.clone();
+		fSize = other.fSize;
+	}
+
+	// ========================================================================
+	// Operations
+	// ========================================================================
+
+	/**
+	 * @param key the key
+	 * @return the value of the key, or null if none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int index = indexOf(key);
+		return (index < 0) ? null : (V) fValues[index];
+	}
+
+	/**
+	 * @param key the key
+	 * @return true if the key is in the map
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @param key the key
+	 * @param value the value
+	 * @return the previous value of the key, or null if none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		int mask = fKeys.length - 1;
+		int index = hash(key) & mask;
+		while (fUsed[index]) {
+			if (fKeys[index] == key) {
+				V previous = (V) fValues[index];
+				fValues[index] = value;
+				return previous;
+			}
+			index = (index + 1) & mask;
+		}
+
+		fUsed[index] = true;
+		fKeys[index] = key;
+		fValues[index] = value;
+		fSize++;
+		fModCount++;
+		if (fSize > (fKeys.length >> LOAD_FACTOR_SHIFT)) {
+			rehash(fKeys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @param key the key
+	 * @return the value of the removed key, or null if none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		V previous = (V) fValues[index];
+		removeAt(index);
+		return previous;
+	}
+
+	// ========================================================================
+	// Map
+	// ========================================================================
+
+	@Override
+	public V get(Object key) {
+		return (key instanceof Long) ? get(((Long) key).longValue()) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return (key instanceof Long) ? containsKey(((Long) key).longValue()) : false;
+	}
+
+	@Override
+	public V put(Long key, V value) {
+		return put(key.longValue(), value);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return (key instanceof Long) ? remove(((Long) key).longValue()) : null;
+	}
+
+	@Override
+	public int size() {
+		return fSize;
+	}
+
+	@Override
+	public void clear() {
+		if (fSize > 0) {
+			allocate(fKeys.length);
+			fSize = 0;
+			fModCount++;
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<Long, V>> entrySet() {
+		return new AbstractSet<Map.Entry<Long, V>>() {
+			@Override
+			public Iterator<Map.Entry<Long, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return fSize;
+			}
+		};
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public LongKeyHashMap<V> clone() {
+		LongKeyHashMap<V> clone = null;
+		try {
+			clone = (LongKeyHashMap<V>) super.clone();
+			clone.fKeys = fKeys.clone();
+			clone.fValues = fValues.clone();
+			clone.fUsed = fUsed.clone();
+		} catch (CloneNotSupportedException e) {
+			System.out.println("Cloning failed with : " + e.getMessage());
+		}
+		return clone;
+	}
+
+	// ========================================================================
+	// Helper functions
+	// ========================================================================
+
+	private static int hash(long key) {
+		// The ids are mostly small and consecutive: spread them
+		int h = (int) (key ^ (key >>> 32));
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void allocate(int capacity) {
+		fKeys = new long[capacity];
+		fValues = new Object[capacity];
+		fUsed = new boolean[capacity];
+	}
+
+	private int indexOf(long key) {
+		int mask = fKeys.length - 1;
+		int index = hash(key) & mask;
+		while (fUsed[index]) {
+			if (fKeys[index] == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rehash(int capacity) {
+		long[] keys = fKeys;
+		Object[] values = fValues;
+		boolean[] used = fUsed;
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				int index = hash(keys[i]) & mask;
+				while (fUsed[index]) {
+					index = (index + 1) & mask;
+				}
+				fUsed[index] = true;
+				fKeys[index] = keys[i];
+				fValues[index] = values[i];
+			}
+		}
+	}
+
+	/*
+	 * Removes the key at an index, moving back the following keys of the
+	 * probe sequence so that no key is separated from its slot by a hole.
+	 */
+	private void removeAt(int index) {
+		int mask = fKeys.length - 1;
+		int hole = index;
+		int next = (hole + 1) & mask;
+		while (fUsed[next]) {
+			int slot = hash(fKeys[next]) & mask;
+			// Move the key if its slot is not between the hole and it
+			if (((next - slot) & mask) >= ((next - hole) & mask)) {
+				fKeys[hole] = fKeys[next];
+				fValues[hole] = fValues[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		fUsed[hole] = false;
+		fValues[hole] = null;
+		fSize--;
+		fModCount++;
+	}
+
+	/*
+	 * Iterates over the entries in table order. A removal may move back a
+	 * key from the start of the table to its end (already iterated), so the
+	 * iterator goes on over a copy of the table after its first removal.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<Long, V>> {
+		private long[] fIteratedKeys = fKeys;
+		private boolean[] fIteratedUsed = fUsed;
+		private boolean fIsCopy = false;
+		private int fNext = -1;
+		private boolean fHasCurrent = false;
+		private long fCurrentKey = 0;
+		private int fExpectedModCount = fModCount;
+
+		EntryIterator() {
+			fNext = findNext(0);
+		}
+
+		private int findNext(int start) {
+			for (int i = start; i < fIteratedUsed.length; i++) {
+				if (fIteratedUsed[i]) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return fNext >= 0;
+		}
+
+		@Override
+		public Map.Entry<Long, V> next() {
+			if (fModCount != fExpectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (fNext < 0) {
+				throw new NoSuchElementException();
+			}
+			final long key = fIteratedKeys[fNext];
+			fCurrentKey = key;
+			fHasCurrent = true;
+			fNext = findNext(fNext + 1);
+			return new Map.Entry<Long, V>() {
+				@Override
+				public Long getKey() {
+					return key;
+				}
+
+				@Override
+				public V getValue() {
+					return get(key);
+				}
+
+				@Override
+				public V setValue(V value) {
+					// The key is in the map: not a structural modification
+					return put(key, value);
+				}
+
+				@Override
+				public boolean equals(Object other) {
+					if (!(other instanceof Map.Entry<?, ?>)) {
+						return false;
+					}
+					Map.Entry<?, ?> o = (Map.Entry<?, ?>) other;
+					Object value = getValue();
+					return getKey().equals(o.getKey()) && ((value == null) ? o.getValue() == null : value.equals(o.getValue()));
+				}
+
+				@Override
+				public int hashCode() {
+					Object value = getValue();
+					return getKey().hashCode() ^ ((value == null) ? 0 : value.hashCode());
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			if (!fHasCurrent) {
+				throw new IllegalStateException();
+			}
+			if (fModCount != fExpectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!fIsCopy) {
+				fIteratedKeys = fIteratedKeys.clone();
+				fIteratedUsed = fIteratedUsed.clone();
+				fIsCopy = true;
+			}
+			LongKeyHashMap.this.remove(fCurrentKey);
+			fExpectedModCount = fModCount;
+			fHasCurrent = false;
+		}
+	}
+}
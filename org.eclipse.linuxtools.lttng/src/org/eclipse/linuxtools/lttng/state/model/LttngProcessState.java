@@ -40,7 +40,7 @@ public class LttngProcessState implements Cloneable {
 	private Long ppid = null;
 	private Long insertion_time = null;
 	private String pid_time = null;
-	private Long free_events = null;
+	private long free_events = 0;
 	private LttngExecutionState state = null; // top of stack
 	private Stack<LttngExecutionState> execution_stack = new Stack<LttngExecutionState>();
 	private Stack<Long> user_stack = new Stack<Long>(); // user space
@@ -138,32 +138,27 @@ public class LttngProcessState implements Cloneable {
             newState.creation_time = this.creation_time;
             newState.insertion_time = this.insertion_time;
             
-            // Call clone on our own object is safe as Long it implements Clonable
-            newState.state = (LttngExecutionState)this.state.clone();
-            
             // Clone should work correctly for all stack object that contain basic java object (String, Long, etc...)
             newState.user_stack = (Stack<Long>)this.user_stack.clone();
             
-            
-            // This is worst case : Stack that contain user defined object. We have to unstack it and clone every object in a new stack!
-            // Why does java does not call clone() for every object in the stack it clone? It would probably be too useful...
+            // Stack that contain user defined object: clone every object, bottom first.
+            // The original stack is only read, as it may be shared with other
+            // trace state snapshots (see LttngTraceState.clone())
             newState.execution_stack = new Stack<LttngExecutionState>();
-            
-            // Work stack we will use to "pop" item
-            Stack<LttngExecutionState> tmpStack = new Stack<LttngExecutionState>();
-            
-            // First, we pop every ExecutionState, and insert a CLONED copy into our new cloned stack
-            while ( this.execution_stack.empty() == false ) {
-                // Save a copy of the original reference
-                tmpStack.push(this.execution_stack.peek());
-                // Push a CLONED copy into the new stack while poping it from the original stack
-                newState.execution_stack.push( this.execution_stack.pop().clone() );
+            newState.state = null;
+            for (int i = 0; i < this.execution_stack.size(); i++) {
+                LttngExecutionState executionState = this.execution_stack.get(i);
+                LttngExecutionState clonedState = executionState.clone();
+                newState.execution_stack.push(clonedState);
+                // Keep the current state pointing in the stack
+                if (executionState == this.state) {
+                    newState.state = clonedState;
+                }
             }
             
-            // Second, we reinsert back our content into the original stack
-            while ( tmpStack.empty() == false ) {
-                // Pop the cloned copy and push it back into the original stack
-                this.execution_stack.push( tmpStack.pop() );
+            // Call clone on our own object is safe as Long it implements Clonable
+            if (newState.state == null && this.state != null) {
+                newState.state = (LttngExecutionState)this.state.clone();
             }
         }
         catch ( CloneNotSupportedException e ) {
@@ -11,9 +11,6 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.lttng.state.model;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
 
 import org.eclipse.linuxtools.lttng.TraceDebug;
 import org.eclipse.linuxtools.lttng.state.LttngStateException;
@@ -44,24 +41,35 @@ public class LttngTraceState implements Cloneable {
 	private Long max_time_state_recomputed_in_seek = null;
 	private boolean has_precomputed_states = false;
 
-	private HashMap<ProcessStateKey, LttngProcessState> processes = new HashMap<ProcessStateKey, LttngProcessState>();
+	// The state entries are shared with the snapshots (see clone()), the
+	// owners track the ones this state can modify in place
+	private CopyOnWriteStateMap.Owner<LttngProcessState> fProcessOwner;
+	private CopyOnWriteStateMap.Owner<LTTngCPUState> fCpuOwner;
+	private CopyOnWriteStateMap.Owner<LttngIRQState> fIrqOwner;
+	private CopyOnWriteStateMap.Owner<LttngSoftIRQState> fSoftIrqOwner;
+	private CopyOnWriteStateMap.Owner<LttngTrapState> fTrapOwner;
+	private CopyOnWriteStateMap.Owner<LttngBdevState> fBdevOwner;
+
+	// The keys reference the process they were created for, which may be
+	// shared with a snapshot: the key fields (pid, cpu, trace) never change.
+	private CopyOnWriteStateMap<ProcessStateKey, LttngProcessState> processes;
 
 	// by cpu
-	private Map<Long, LttngProcessState> running_process = new HashMap<Long, LttngProcessState>();
+	private CopyOnWriteLongStateMap<LttngProcessState> running_process;
 
 	// Get state tables
-	private Map<Long, LTTngCPUState> cpu_states = new HashMap<Long, LTTngCPUState>();
-	private Map<Long, LttngIRQState> irq_states = new HashMap<Long, LttngIRQState>();
-	private Map<Long, LttngSoftIRQState> soft_irq_states = new HashMap<Long, LttngSoftIRQState>();
-	private Map<Long, LttngTrapState> trap_states = new HashMap<Long, LttngTrapState>();
-	private Map<Long, LttngBdevState> bdev_states = new HashMap<Long, LttngBdevState>();
+	private CopyOnWriteLongStateMap<LTTngCPUState> cpu_states;
+	private CopyOnWriteLongStateMap<LttngIRQState> irq_states;
+	private CopyOnWriteLongStateMap<LttngSoftIRQState> soft_irq_states;
+	private CopyOnWriteLongStateMap<LttngTrapState> trap_states;
+	private CopyOnWriteLongStateMap<LttngBdevState> bdev_states;
 
 	// Get name tables
-	private Map<Long, String> syscall_names = new HashMap<Long, String>();
-	private Map<Long, String> kprobe_table = new HashMap<Long, String>();
-	private Map<Long, String> soft_irq_names = new HashMap<Long, String>();
-	private Map<Long, String> trap_names = new HashMap<Long, String>();
-	private Map<Long, String> irq_names = new HashMap<Long, String>();
+	private LongKeyHashMap<String> syscall_names = new LongKeyHashMap<String>();
+	private LongKeyHashMap<String> kprobe_table = new LongKeyHashMap<String>();
+	private LongKeyHashMap<String> soft_irq_names = new LongKeyHashMap<String>();
+	private LongKeyHashMap<String> trap_names = new LongKeyHashMap<String>();
+	private LongKeyHashMap<String> irq_names = new LongKeyHashMap<String>();
 
 	private int nb_events = 0;
 
@@ -73,37 +81,55 @@ public class LttngTraceState implements Cloneable {
 	// Constructor
 	// =======================================================================
 	LttngTraceState() {
+		// State tables
+		createOwners();
+		processes = new CopyOnWriteStateMap<ProcessStateKey, LttngProcessState>(fProcessOwner);
+		running_process = new CopyOnWriteLongStateMap<LttngProcessState>(fProcessOwner);
+		cpu_states = new CopyOnWriteLongStateMap<LTTngCPUState>(fCpuOwner);
+		irq_states = new CopyOnWriteLongStateMap<LttngIRQState>(fIrqOwner);
+		soft_irq_states = new CopyOnWriteLongStateMap<LttngSoftIRQState>(fSoftIrqOwner);
+		trap_states = new CopyOnWriteLongStateMap<LttngTrapState>(fTrapOwner);
+		bdev_states = new CopyOnWriteLongStateMap<LttngBdevState>(fBdevOwner);
+
 		// Get name tables
 		StateStrings strings = StateStrings.getInstance();
 
 		// initialize sycall_names
 		String[] ref_name_table = strings.getSyscallNames();
-		for (Long i = 0L; i < ref_name_table.length; i++) {
-			syscall_names.put(i, ref_name_table[i.intValue()]);
+		for (int i = 0; i < ref_name_table.length; i++) {
+			syscall_names.put(i, ref_name_table[i]);
 		}
 
 		// trap names
 		ref_name_table = strings.getTrapNames();
-		for (Long i = 0L; i < ref_name_table.length; i++) {
-			trap_names.put(i, ref_name_table[i.intValue()]);
+		for (int i = 0; i < ref_name_table.length; i++) {
+			trap_names.put(i, ref_name_table[i]);
 		}
 
 		// irq names
 		ref_name_table = strings.getIrqNames();
-		for (Long i = 0L; i < ref_name_table.length; i++) {
-			irq_names.put(i, ref_name_table[i.intValue()]);
+		for (int i = 0; i < ref_name_table.length; i++) {
+			irq_names.put(i, ref_name_table[i]);
 		}
 
 		// softirq names
 		ref_name_table = strings.getSoftIrqNames();
-		for (Long i = 0L; i < ref_name_table.length; i++) {
-			soft_irq_names.put(i, ref_name_table[i.intValue()]);
+		for (int i = 0; i < ref_name_table.length; i++) {
+			soft_irq_names.put(i, ref_name_table[i]);
 		}
 	}
 
 	// =======================================================================
 	// Methods
 	// =======================================================================
+	/**
+	 * Returns a snapshot of the state, in O(1).
+	 * <p>
+	 * The snapshot shares the state entries (processes, CPU, IRQ, ... states)
+	 * with this state. Both sides copy an entry the first time they hand it
+	 * out after the snapshot, so only the entries that are accessed
+	 * afterwards are ever copied.
+	 */
 	@Override
 	public LttngTraceState clone() {
 		LttngTraceState newState = null;
@@ -134,76 +160,72 @@ public class LttngTraceState implements Cloneable {
 			// This reference should never need to be updated, should it?
 			newState.fContext = this.fContext;
 
-			// *** We need loop on each ArrayList and HashMap, as java implement
-			// nothing that's remotely near deep copying.
-			// *** TODO ***
-			// In the future, implement something better here... serialization
-			// perhaps? Or copy the array chunk of memory in C?
-			
-			Iterator<Long> iteratorL = null;
-			Iterator<ProcessStateKey> iteratorP = null;
-			Long mapKey = null;
-			ProcessStateKey processKey = null;
-			
-			newState.processes = new HashMap<ProcessStateKey, LttngProcessState>();
-			iteratorP = this.processes.keySet().iterator();
-			while (iteratorP.hasNext()) {
-				processKey = iteratorP.next();
-				newState.processes.put(processKey, this.processes.get(processKey).clone());
-			}
+			// The current entries are now shared with the snapshot: both
+			// sides copy them on access from now on
+			fProcessOwner.disown();
+			fCpuOwner.disown();
+			fIrqOwner.disown();
+			fSoftIrqOwner.disown();
+			fTrapOwner.disown();
+			fBdevOwner.disown();
+
+			newState.createOwners();
+			newState.processes = this.processes.snapshot(newState.fProcessOwner);
+			newState.running_process = this.running_process.snapshot(newState.fProcessOwner);
+			newState.cpu_states = this.cpu_states.snapshot(newState.fCpuOwner);
+			newState.irq_states = this.irq_states.snapshot(newState.fIrqOwner);
+			newState.soft_irq_states = this.soft_irq_states.snapshot(newState.fSoftIrqOwner);
+			newState.trap_states = this.trap_states.snapshot(newState.fTrapOwner);
+			newState.bdev_states = this.bdev_states.snapshot(newState.fBdevOwner);
 
-			newState.running_process = new HashMap<Long, LttngProcessState>();
-			iteratorL = this.running_process.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.running_process.put(mapKey, this.running_process.get(mapKey).clone());
-			}
+		} catch (CloneNotSupportedException e) {
+			System.out.println("Cloning failed with : " + e.getMessage());
+		}
 
-			newState.cpu_states = new HashMap<Long, LTTngCPUState>();
-			iteratorL = this.cpu_states.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.cpu_states.put(mapKey, this.cpu_states.get(mapKey)
-						.clone());
-			}
+		return newState;
+	}
 
-			newState.irq_states = new HashMap<Long, LttngIRQState>();
-			iteratorL = this.irq_states.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.irq_states.put(mapKey, this.irq_states.get(mapKey)
-						.clone());
+	/**
+	 * Creates the owners of the state entries, i.e. of the entries that can
+	 * be modified in place.
+	 */
+	private void createOwners() {
+		fProcessOwner = new CopyOnWriteStateMap.Owner<LttngProcessState>() {
+			@Override
+			LttngProcessState copy(LttngProcessState value) {
+				return value.clone();
 			}
-
-			newState.soft_irq_states = new HashMap<Long, LttngSoftIRQState>();
-			iteratorL = this.soft_irq_states.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.soft_irq_states.put(mapKey, this.soft_irq_states.get(
-						mapKey).clone());
+		};
+		fCpuOwner = new CopyOnWriteStateMap.Owner<LTTngCPUState>() {
+			@Override
+			LTTngCPUState copy(LTTngCPUState value) {
+				return value.clone();
 			}
-
-			newState.trap_states = new HashMap<Long, LttngTrapState>();
-			iteratorL = this.trap_states.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.trap_states.put(mapKey, this.trap_states.get(mapKey)
-						.clone());
+		};
+		fIrqOwner = new CopyOnWriteStateMap.Owner<LttngIRQState>() {
+			@Override
+			LttngIRQState copy(LttngIRQState value) {
+				return value.clone();
 			}
-
-			newState.bdev_states = new HashMap<Long, LttngBdevState>();
-			iteratorL = this.bdev_states.keySet().iterator();
-			while (iteratorL.hasNext()) {
-				mapKey = iteratorL.next();
-				newState.bdev_states.put(mapKey, this.bdev_states.get(mapKey)
-						.clone());
+		};
+		fSoftIrqOwner = new CopyOnWriteStateMap.Owner<LttngSoftIRQState>() {
+			@Override
+			LttngSoftIRQState copy(LttngSoftIRQState value) {
+				return value.clone();
 			}
-
-		} catch (CloneNotSupportedException e) {
-			System.out.println("Cloning failed with : " + e.getMessage());
-		}
-
-		return newState;
+		};
+		fTrapOwner = new CopyOnWriteStateMap.Owner<LttngTrapState>() {
+			@Override
+			LttngTrapState copy(LttngTrapState value) {
+				return value.clone();
+			}
+		};
+		fBdevOwner = new CopyOnWriteStateMap.Owner<LttngBdevState>() {
+			@Override
+			LttngBdevState copy(LttngBdevState value) {
+				return value.clone();
+			}
+		};
 	}
 
 	public void init(ILttngStateContext context)
@@ -229,25 +251,25 @@ public class LttngTraceState implements Cloneable {
 		// Obtain the total num of available CPUs and initialize the map
 		// to the corresponding size
 		int numCpus = fContext.getNumberOfCpus();
-		for (Long i = 0L; i < numCpus; i++) {
+		for (long i = 0; i < numCpus; i++) {
 			cpu_states.put(i, new LTTngCPUState());
 		}
 
 		// irq states
 		irq_states.clear();
-		for (Long i = 0L; i < irq_names.size(); i++) {
+		for (long i = 0; i < irq_names.size(); i++) {
 			irq_states.put(i, new LttngIRQState());
 		}
 
 		// soft irqs
 		soft_irq_states.clear();
-		for (Long i = 0L; i < soft_irq_names.size(); i++) {
+		for (long i = 0; i < soft_irq_names.size(); i++) {
 			soft_irq_states.put(i, new LttngSoftIRQState());
 		}
 
 		// traps
 		trap_states.clear();
-		for (Long i = 0L; i < trap_names.size(); i++) {
+		for (long i = 0; i < trap_names.size(); i++) {
 			trap_states.put(i, new LttngTrapState(0L));
 		}
 
@@ -260,7 +282,7 @@ public class LttngTraceState implements Cloneable {
 		TmfTimeRange timeWin = fContext.getTraceTimeWindow();
 
 		/* Put the per cpu running_process to beginning state : process 0. */
-		for (Long i = 0L; i < numCpus; i++) {
+		for (long i = 0; i < numCpus; i++) {
 			LttngProcessState process = new LttngProcessState(timeWin.getStartTime().getValue(), traceId );
 
 			/*
@@ -339,6 +361,16 @@ public class LttngTraceState implements Cloneable {
 		return fContext;
 	}
 
+	/**
+	 * Binds the state to another provider of the same trace input data, e.g.
+	 * a check point built by the trace manager of a previous experiment
+	 * 
+	 * @param context
+	 */
+	public void setContext(ILttngStateContext context) {
+		fContext = context;
+	}
+
 	public Long getMax_time_state_recomputed_in_seek() {
 		return max_time_state_recomputed_in_seek;
 	}
@@ -356,47 +388,47 @@ public class LttngTraceState implements Cloneable {
 		has_precomputed_states = hasPrecomputedStates;
 	}
 
-	public Map<Long, LttngProcessState> getRunning_process() {
+	public CopyOnWriteLongStateMap<LttngProcessState> getRunning_process() {
 		return running_process;
 	}
 
-	public Map<Long, String> getSyscall_names() {
+	public LongKeyHashMap<String> getSyscall_names() {
 		return syscall_names;
 	}
 
-	public Map<Long, String> getTrap_names() {
+	public LongKeyHashMap<String> getTrap_names() {
 		return trap_names;
 	}
 
-	public Map<Long, String> getIrq_names() {
+	public LongKeyHashMap<String> getIrq_names() {
 		return irq_names;
 	}
 
-	public Map<Long, String> getSoft_irq_names() {
+	public LongKeyHashMap<String> getSoft_irq_names() {
 		return soft_irq_names;
 	}
 
-	public Map<Long, LTTngCPUState> getCpu_states() {
+	public CopyOnWriteLongStateMap<LTTngCPUState> getCpu_states() {
 		return cpu_states;
 	}
 
-	public Map<Long, LttngIRQState> getIrq_states() {
+	public CopyOnWriteLongStateMap<LttngIRQState> getIrq_states() {
 		return irq_states;
 	}
 
-	public Map<Long, LttngSoftIRQState> getSoft_irq_states() {
+	public CopyOnWriteLongStateMap<LttngSoftIRQState> getSoft_irq_states() {
 		return soft_irq_states;
 	}
 
-	public Map<Long, LttngTrapState> getTrap_states() {
+	public CopyOnWriteLongStateMap<LttngTrapState> getTrap_states() {
 		return trap_states;
 	}
 
-	public Map<Long, LttngBdevState> getBdev_states() {
+	public CopyOnWriteLongStateMap<LttngBdevState> getBdev_states() {
 		return bdev_states;
 	}
 
-	public Map<Long, String> getKprobe_table() {
+	public LongKeyHashMap<String> getKprobe_table() {
 		return kprobe_table;
 	}
 	
@@ -415,6 +447,30 @@ public class LttngTraceState implements Cloneable {
 	public LttngProcessState[] getProcesses() {
 		return processes.values().toArray(new LttngProcessState[processes.size()]);
 	}
+
+	/**
+	 * Return an array of Processes, for reading only.
+	 * <p>
+	 * Unlike getProcesses(), the returned processes may be shared with
+	 * snapshots of this state (see clone()): they must not be modified.
+	 * 
+	 * @return LttngProcessState
+	 */
+	public LttngProcessState[] peekProcesses() {
+		LttngProcessState[] result = new LttngProcessState[processes.size()];
+		int i = 0;
+		for (LttngProcessState process : processes.peekValues()) {
+			result[i++] = process;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of processes
+	 */
+	public int getNbProcesses() {
+		return processes.size();
+	}
 	
 	/**
 	 * Clear all process state items e.g. when a new experiment is selected
@@ -84,4 +84,37 @@ public interface IStateTraceManager {
 	 * @param eventCount
 	 */
 	public void handleEvent(LttngSyntheticEvent synEvent, Long eventCount);
+
+	/**
+	 * @return the maximum number of events between two check points
+	 */
+	public long getCheckPointInterval();
+
+	/**
+	 * @return the replay lengths of the restores, see
+	 *         restoreCheckPointByTimestamp
+	 */
+	public StateReplayMetrics getReplayMetrics();
+
+	/**
+	 * @return the number of check points available so far
+	 */
+	public int getNbCheckPoints();
+
+	/**
+	 * Returns the check points built so far, to be reused by another manager
+	 * of the same trace. The check points must be complete, i.e. the last
+	 * event of the trace was handled.
+	 * 
+	 * @return the check points
+	 */
+	public StateCheckPoints exportCheckPoints();
+
+	/**
+	 * Replaces the check points by check points exported by another manager
+	 * of the same trace, instead of building them
+	 * 
+	 * @param checkPoints
+	 */
+	public void importCheckPoints(StateCheckPoints checkPoints);
 }
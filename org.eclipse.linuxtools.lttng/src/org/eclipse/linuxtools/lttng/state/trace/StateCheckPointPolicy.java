@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.trace;
+
+/**
+ * <b><u>StateCheckPointPolicy</u></b>
+ * <p>
+ * Decides when the state check points of a trace are saved, bounding both
+ * the cost of restoring the state at any time and the memory held by the
+ * check points.
+ * <p>
+ * A check point is saved every <i>max events</i> events, which bounds the
+ * number of events replayed after a restore. In sparse parts of the trace, it
+ * is also saved once <i>max time</i> elapsed since the previous one (with at
+ * least <i>min events</i> in between), which bounds the replayed time range.
+ * <p>
+ * The size of the check points is estimated from the number of processes
+ * they hold. Once the memory budget is exceeded, the intervals are doubled
+ * so that the next check points are sparser. The intervals are doubled once
+ * per crossing: the next doubling happens when another budget's worth of
+ * check points was saved (or kept, when check points are dropped). If
+ * dropping is enabled, every other intermediate check point is dropped too,
+ * which is also done when the heap is nearly full. The heap pressure may be
+ * transient, so it doesn't stretch the intervals.
+ */
+public class StateCheckPointPolicy {
+
+	// ------------------------------------------------------------------------
+	// Constants
+	// ------------------------------------------------------------------------
+
+	public static final long DEFAULT_MAX_EVENTS = 15000L;
+	public static final long DEFAULT_MIN_EVENTS = 1000L;
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+	// Without a configured max time, the trace duration is split in this
+	// number of intervals
+	public static final int DEFAULT_NB_TIME_INTERVALS = 1000;
+
+	// Estimated sizes, in bytes, of the state tables and of a process state
+	private static final long STATE_BASE_SIZE = 16 * 1024;
+	private static final long PROCESS_STATE_SIZE = 512;
+
+	// Fraction of the maximum heap size above which the heap is nearly full
+	private static final double HEAP_PRESSURE_RATIO = 0.9;
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	// Configuration
+	private long fMaxEvents = DEFAULT_MAX_EVENTS;
+	private long fMinEvents = DEFAULT_MIN_EVENTS;
+	private long fMaxTime = 0;
+	private long fMemoryBudget = DEFAULT_MEMORY_BUDGET;
+	private boolean fDropEnabled = true;
+
+	// Current intervals, stretched when over budget
+	private long fEventInterval = DEFAULT_MAX_EVENTS;
+	private long fTimeInterval = 0;
+
+	// The last check point saved, and the check points memory
+	private long fLastCount = -1;
+	private long fLastTime = 0;
+	private long fMemoryUsed = 0;
+
+	// The memory above which the intervals are stretched
+	private long fStretchThreshold = DEFAULT_MEMORY_BUDGET;
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @return the maximum number of events between two check points
+	 */
+	public synchronized long getMaxEvents() {
+		return fMaxEvents;
+	}
+
+	/**
+	 * @param maxEvents
+	 *            the maximum number of events between two check points
+	 */
+	public synchronized void setMaxEvents(long maxEvents) {
+		fMaxEvents = Math.max(1, maxEvents);
+		fEventInterval = fMaxEvents;
+	}
+
+	/**
+	 * @return the minimum number of events between two check points saved
+	 *         for the time bound
+	 */
+	public synchronized long getMinEvents() {
+		return fMinEvents;
+	}
+
+	/**
+	 * @param minEvents
+	 *            the minimum number of events between two check points saved
+	 *            for the time bound
+	 */
+	public synchronized void setMinEvents(long minEvents) {
+		fMinEvents = Math.max(1, minEvents);
+	}
+
+	/**
+	 * @return the maximum time between two check points, in ns, 0 if it is
+	 *         derived from the trace duration
+	 */
+	public synchronized long getMaxTime() {
+		return fMaxTime;
+	}
+
+	/**
+	 * @param maxTime
+	 *            the maximum time between two check points, in ns, 0 to
+	 *            derive it from the trace duration
+	 */
+	public synchronized void setMaxTime(long maxTime) {
+		fMaxTime = Math.max(0, maxTime);
+	}
+
+	/**
+	 * @return the memory budget of the check points, in bytes
+	 */
+	public synchronized long getMemoryBudget() {
+		return fMemoryBudget;
+	}
+
+	/**
+	 * @param memoryBudget
+	 *            the memory budget of the check points, in bytes
+	 */
+	public synchronized void setMemoryBudget(long memoryBudget) {
+		fMemoryBudget = memoryBudget;
+		fStretchThreshold = memoryBudget;
+	}
+
+	/**
+	 * @return true if check points are dropped under memory pressure
+	 */
+	public synchronized boolean isDropEnabled() {
+		return fDropEnabled;
+	}
+
+	/**
+	 * @param dropEnabled
+	 *            true to drop check points under memory pressure
+	 */
+	public synchronized void setDropEnabled(boolean dropEnabled) {
+		fDropEnabled = dropEnabled;
+	}
+
+	/**
+	 * @return the current number of events between two check points
+	 */
+	public synchronized long getEventInterval() {
+		return fEventInterval;
+	}
+
+	/**
+	 * @return the current maximum time between two check points, in ns, 0 if
+	 *         none
+	 */
+	public synchronized long getTimeInterval() {
+		return fTimeInterval;
+	}
+
+	/**
+	 * @return the estimated memory held by the check points, in bytes
+	 */
+	public synchronized long getMemoryUsed() {
+		return fMemoryUsed;
+	}
+
+	// ------------------------------------------------------------------------
+	// Operations
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Prepares a new build of the check points.
+	 *
+	 * @param traceDuration
+	 *            the duration of the trace, in ns
+	 */
+	public synchronized void reset(long traceDuration) {
+		fEventInterval = fMaxEvents;
+		if (fMaxTime > 0) {
+			fTimeInterval = fMaxTime;
+		} else {
+			fTimeInterval = Math.max(0, traceDuration / DEFAULT_NB_TIME_INTERVALS);
+		}
+		fLastCount = -1;
+		fLastTime = 0;
+		fMemoryUsed = 0;
+		fStretchThreshold = fMemoryBudget;
+	}
+
+	/**
+	 * @param count
+	 *            the count of the event, from 0
+	 * @param time
+	 *            the timestamp value of the event
+	 * @return true if a check point must be saved at the event
+	 */
+	public synchronized boolean isCheckPointNeeded(long count, long time) {
+		if (fLastCount < 0) {
+			return true;
+		}
+		long nbEvents = count - fLastCount;
+		if (nbEvents >= fEventInterval) {
+			return true;
+		}
+		return fTimeInterval > 0 && nbEvents >= fMinEvents && time - fLastTime >= fTimeInterval;
+	}
+
+	/**
+	 * Records a check point saved.
+	 *
+	 * @param count
+	 *            the count of the event
+	 * @param time
+	 *            the timestamp value of the event
+	 * @param size
+	 *            the estimated size of the check point
+	 * @return true if the check points just crossed the budget (the
+	 *         intervals were stretched) or if the heap is nearly full:
+	 *         intermediate check points should be dropped if
+	 *         {@link #isDropEnabled()}
+	 */
+	public synchronized boolean checkPointSaved(long count, long time, long size) {
+		fLastCount = count;
+		fLastTime = time;
+		fMemoryUsed += size;
+		if (fMemoryUsed > fStretchThreshold) {
+			fEventInterval *= 2;
+			fTimeInterval *= 2;
+			fStretchThreshold = fMemoryUsed + fMemoryBudget;
+			return true;
+		}
+		return fDropEnabled && isHeapNearlyFull();
+	}
+
+	/**
+	 * Records a check point dropped.
+	 *
+	 * @param size
+	 *            the estimated size of the check point
+	 */
+	public synchronized void checkPointDropped(long size) {
+		fMemoryUsed -= size;
+		fStretchThreshold = Math.max(fMemoryBudget, fStretchThreshold - size);
+	}
+
+	/**
+	 * @param nbProcesses
+	 *            the number of processes of a state
+	 * @return the estimated size of a check point of the state, in bytes
+	 */
+	public static long estimateSize(int nbProcesses) {
+		return STATE_BASE_SIZE + nbProcesses * PROCESS_STATE_SIZE;
+	}
+
+	// ------------------------------------------------------------------------
+	// Helper functions
+	// ------------------------------------------------------------------------
+
+	private static boolean isHeapNearlyFull() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return used > runtime.maxMemory() * HEAP_PRESSURE_RATIO;
+	}
+}
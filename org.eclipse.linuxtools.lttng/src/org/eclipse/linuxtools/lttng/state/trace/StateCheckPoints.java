@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.trace;
+
+import java.util.HashMap;
+import java.util.Vector;
+
+import org.eclipse.linuxtools.lttng.state.model.LttngTraceState;
+import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
+import org.eclipse.linuxtools.tmf.trace.TmfCheckpoint;
+
+/**
+ * <b><u>StateCheckPoints</u></b>
+ * <p>
+ * The complete set of state check points of a trace, as built by a
+ * {@link StateTraceManager}. It can be handed to another manager of the same
+ * trace (e.g. when the experiment is selected again) instead of rebuilding
+ * the check points.
+ * <p>
+ * The check point states are shared, and must not be modified.
+ */
+public class StateCheckPoints {
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	private final String fTracePath;
+	private final TmfTimeRange fTraceRange;
+	private final long fCheckPointInterval;
+	private final HashMap<Long, LttngTraceState> fStates;
+	private final Vector<TmfCheckpoint> fTimestamps;
+	private final LttngTraceState fFinalState;
+	private final long fEstimatedSize;
+
+	// ------------------------------------------------------------------------
+	// Constructors
+	// ------------------------------------------------------------------------
+
+	StateCheckPoints(String tracePath, TmfTimeRange traceRange, long checkPointInterval,
+			HashMap<Long, LttngTraceState> states, Vector<TmfCheckpoint> timestamps, LttngTraceState finalState) {
+		fTracePath = tracePath;
+		fTraceRange = traceRange;
+		fCheckPointInterval = checkPointInterval;
+		fStates = states;
+		fTimestamps = timestamps;
+		fFinalState = finalState;
+
+		long size = StateCheckPointPolicy.estimateSize(finalState.getNbProcesses());
+		for (LttngTraceState state : states.values()) {
+			size += StateCheckPointPolicy.estimateSize(state.getNbProcesses());
+		}
+		fEstimatedSize = size;
+	}
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @return the path of the trace
+	 */
+	public String getTracePath() {
+		return fTracePath;
+	}
+
+	/**
+	 * @return the time range of the trace when the check points were built
+	 */
+	public TmfTimeRange getTraceRange() {
+		return fTraceRange;
+	}
+
+	/**
+	 * @return the number of events between two check points
+	 */
+	public long getCheckPointInterval() {
+		return fCheckPointInterval;
+	}
+
+	/**
+	 * @return the number of check points
+	 */
+	public int getNbCheckPoints() {
+		return fTimestamps.size();
+	}
+
+	/**
+	 * @return the estimated memory held by the check point states, in bytes
+	 *         (see {@link StateCheckPointPolicy#estimateSize(int)})
+	 */
+	public long getEstimatedSize() {
+		return fEstimatedSize;
+	}
+
+	HashMap<Long, LttngTraceState> getStates() {
+		return fStates;
+	}
+
+	Vector<TmfCheckpoint> getTimestamps() {
+		return fTimestamps;
+	}
+
+	/*
+	 * The state at the end of the trace
+	 */
+	LttngTraceState getFinalState() {
+		return fFinalState;
+	}
+
+	// ------------------------------------------------------------------------
+	// Operations
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @param path the path of a trace
+	 * @param range the time range of the trace
+	 * @param checkPointInterval the check point interval of its manager
+	 * @return true if the check points were built for that trace, as it is
+	 */
+	public boolean isValidFor(String path, TmfTimeRange range, long checkPointInterval) {
+		return fTracePath.equals(path) && fTraceRange.equals(range) && fCheckPointInterval == checkPointInterval;
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.state.trace;
+
+/**
+ * <b><u>StateReplayMetrics</u></b>
+ * <p>
+ * The replay lengths of the state restores of a trace: after restoring the
+ * closest check point before a time, the events from the check point to
+ * that time are replayed.
+ * <p>
+ * The number of events replayed is estimated from the counts and times of
+ * the check points around the time.
+ */
+public class StateReplayMetrics {
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	private long fNbRestores = 0;
+	private long fLastEvents = 0;
+	private long fLastTime = 0;
+	private long fMaxEvents = 0;
+	private long fMaxTime = 0;
+	private long fTotalEvents = 0;
+	private long fTotalTime = 0;
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @return the number of restores recorded
+	 */
+	public synchronized long getNbRestores() {
+		return fNbRestores;
+	}
+
+	/**
+	 * @return the estimated number of events replayed by the last restore
+	 */
+	public synchronized long getLastReplayEvents() {
+		return fLastEvents;
+	}
+
+	/**
+	 * @return the time range replayed by the last restore, in ns
+	 */
+	public synchronized long getLastReplayTime() {
+		return fLastTime;
+	}
+
+	/**
+	 * @return the largest estimated number of events replayed by a restore
+	 */
+	public synchronized long getMaxReplayEvents() {
+		return fMaxEvents;
+	}
+
+	/**
+	 * @return the largest time range replayed by a restore, in ns
+	 */
+	public synchronized long getMaxReplayTime() {
+		return fMaxTime;
+	}
+
+	/**
+	 * @return the average estimated number of events replayed by a restore
+	 */
+	public synchronized double getAverageReplayEvents() {
+		return (fNbRestores > 0) ? (double) fTotalEvents / fNbRestores : 0.0;
+	}
+
+	/**
+	 * @return the average time range replayed by a restore, in ns
+	 */
+	public synchronized double getAverageReplayTime() {
+		return (fNbRestores > 0) ? (double) fTotalTime / fNbRestores : 0.0;
+	}
+
+	// ------------------------------------------------------------------------
+	// Operations
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Records a restore.
+	 *
+	 * @param nbEvents
+	 *            the estimated number of events to replay
+	 * @param time
+	 *            the time range to replay, in ns
+	 */
+	public synchronized void record(long nbEvents, long time) {
+		fNbRestores++;
+		fLastEvents = nbEvents;
+		fLastTime = time;
+		fMaxEvents = Math.max(fMaxEvents, nbEvents);
+		fMaxTime = Math.max(fMaxTime, time);
+		fTotalEvents += nbEvents;
+		fTotalTime += time;
+	}
+
+	/**
+	 * Forgets the restores recorded, e.g. once the check points are rebuilt
+	 */
+	public synchronized void reset() {
+		fNbRestores = 0;
+		fLastEvents = 0;
+		fLastTime = 0;
+		fMaxEvents = 0;
+		fMaxTime = 0;
+		fTotalEvents = 0;
+		fTotalTime = 0;
+	}
+
+	/**
+	 * Estimates the number of events between a check point and a time,
+	 * assuming the events are evenly spread until the next check point.
+	 *
+	 * @param count
+	 *            the count of the check point event
+	 * @param time
+	 *            the time of the check point event
+	 * @param nextCount
+	 *            the count of the next check point event
+	 * @param nextTime
+	 *            the time of the next check point event
+	 * @param targetTime
+	 *            the time to restore, between the check points
+	 * @return the estimated number of events
+	 */
+	public static long estimateEvents(long count, long time, long nextCount, long nextTime, long targetTime) {
+		if (targetTime <= time || nextCount <= count) {
+			return 0;
+		}
+		if (targetTime >= nextTime) {
+			return nextCount - count;
+		}
+		return (long) ((double) (nextCount - count) * (targetTime - time) / (nextTime - time));
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "[StateReplayMetrics(restores=" + fNbRestores + ",lastEvents=" + fLastEvents + ",maxEvents="
+				+ fMaxEvents + ",avgEvents=" + (long) getAverageReplayEvents() + ",lastTime=" + fLastTime
+				+ ",maxTime=" + fMaxTime + ")]";
+	}
+}
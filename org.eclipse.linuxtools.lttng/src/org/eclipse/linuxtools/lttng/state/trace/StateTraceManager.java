@@ -13,6 +13,7 @@ package org.eclipse.linuxtools.lttng.state.trace;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Vector;
 
 import org.eclipse.linuxtools.lttng.TraceDebug;
@@ -47,9 +48,9 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 	private static final long DEFAULT_OFFSET = 0L;
 	private static final int DEFAULT_CHUNK = 1;
 
-	// configurable check point interval
-	private static final long LTTNG_CHECK_POINT_INTERVAL = 15000L;
-	private long fcheckPointInterval = LTTNG_CHECK_POINT_INTERVAL;
+	// configurable check point intervals and memory budget
+	private final StateCheckPointPolicy fCheckPointPolicy = new StateCheckPointPolicy();
+	private final StateReplayMetrics fReplayMetrics = new StateReplayMetrics();
 
 	private TmfExperiment<LttngEvent> fExperiment = null;
 
@@ -135,8 +136,9 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 	/**
 	 * Save a checkpoint if it is needed at that point
 	 * <p>
-	 * The function will use "eventCount" internally to determine if a save was
-	 * needed
+	 * The check point policy determines if a save is needed from the events
+	 * and the time elapsed since the previous check point, and from the memory
+	 * held by the check points
 	 * 
 	 * @param eventCounter
 	 *            The event "count" or event "id" so far
@@ -146,8 +148,7 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 	 * @return boolean True if a checkpoint was saved, false otherwise
 	 */
 	private void saveCheckPointIfNeeded(Long eventCounter, TmfTimestamp eventTime) {
-		// Save a checkpoint every LTTNG_STATE_SAVE_INTERVAL event
-		if ((eventCounter.longValue() % fcheckPointInterval) == 0) {
+		if (fCheckPointPolicy.isCheckPointNeeded(eventCounter.longValue(), eventTime.getValue())) {
 
 			LttngTraceState stateCheckPoint;
 			synchronized (fCheckPointsLock) {
@@ -166,23 +167,83 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 
 				timestampCheckpointsList.add(new TmfCheckpoint(new TmfTimestamp(eventTime), new TmfLocation<Long>(
 						eventCounter)));
+
+				long size = StateCheckPointPolicy.estimateSize(stateCheckPoint.getNbProcesses());
+				if (fCheckPointPolicy.checkPointSaved(eventCounter.longValue(), eventTime.getValue(), size)
+						&& fCheckPointPolicy.isDropEnabled()) {
+					dropCheckPoints();
+				}
 			}
 		}
 	}
 
 	/**
-	 * @return the lttng_check_point_interval
+	 * Drops every other intermediate check point, keeping the first and the
+	 * last ones, once the check points cross their memory budget (the policy
+	 * intervals were doubled, so the next check points are as sparse as the
+	 * remaining ones) or the heap is nearly full.
+	 * <p>
+	 * Must be called holding the check points lock
 	 */
+	@SuppressWarnings("unchecked")
+	private void dropCheckPoints() {
+		Collections.sort(timestampCheckpointsList);
+		int last = timestampCheckpointsList.size() - 1;
+		Vector<TmfCheckpoint> keptCheckPoints = new Vector<TmfCheckpoint>(last / 2 + 2);
+		for (int i = 0; i <= last; i++) {
+			TmfCheckpoint checkpoint = timestampCheckpointsList.get(i);
+			if (i == 0 || i == last || (i % 2) == 0) {
+				keptCheckPoints.add(checkpoint);
+			} else {
+				Long counter = ((TmfLocation<Long>) checkpoint.getLocation()).getLocation();
+				LttngTraceState state = stateCheckpointsList.remove(counter);
+				if (state != null) {
+					fCheckPointPolicy.checkPointDropped(StateCheckPointPolicy.estimateSize(state.getNbProcesses()));
+				}
+			}
+		}
+		timestampCheckpointsList.clear();
+		timestampCheckpointsList.addAll(keptCheckPoints);
+
+		TraceDebug.debug("Check points dropped: " + (last + 1 - keptCheckPoints.size()) + " of " + (last + 1)
+				+ ", event interval now " + fCheckPointPolicy.getEventInterval() + " ************"
+				+ getTrace().getName());
+	}
+
+	/**
+	 * @return the maximum number of events between two check points
+	 */
+	@Override
 	public long getCheckPointInterval() {
-		return fcheckPointInterval;
+		return fCheckPointPolicy.getMaxEvents();
 	}
 
 	/**
 	 * @param check_point_interval
-	 *            , the lttng_check_point_interval to set
+	 *            , the maximum number of events between two check points
 	 */
 	public void setCheckPointInterval(long check_point_interval) {
-		this.fcheckPointInterval = check_point_interval;
+		fCheckPointPolicy.setMaxEvents(check_point_interval);
+	}
+
+	/**
+	 * @return the policy deciding when check points are saved, to configure
+	 *         before building them
+	 */
+	public StateCheckPointPolicy getCheckPointPolicy() {
+		return fCheckPointPolicy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager#getReplayMetrics
+	 * ()
+	 */
+	@Override
+	public StateReplayMetrics getReplayMetrics() {
+		return fReplayMetrics;
 	}
 
 	/*
@@ -211,6 +272,7 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 		}
 
 	    LttngTraceState traceState;
+	    long replayEvents;
 		synchronized (fCheckPointsLock) {
 		    Collections.sort(timestampCheckpointsList);
 		    // Initiate the compare with a checkpoint containing the target time
@@ -237,8 +299,14 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 		        traceState = stateCheckpointsList.get(location.getLocation()).clone();
 		    }
 
+		    replayEvents = estimateReplayEvents(index, eventTime.getValue());
 		}
 
+		long replayTime = eventTime.getValue() - nearestTimeStamp.getValue();
+		fReplayMetrics.record(replayEvents, replayTime);
+		TraceDebug.debug("Check point restored: " + nearestTimeStamp + ", replaying ~" + replayEvents + " events over "
+				+ replayTime + " ns ************" + getTrace().getName());
+
 		// Restore the stored traceState
 		synchronized (fStateModelLock) {
 			fStateModel = traceState;
@@ -247,6 +315,41 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 		return nearestTimeStamp;
 	}
 
+	/**
+	 * Estimates the number of events to replay from a check point to a time,
+	 * from the counts and times of the check point and of the next one.
+	 * <p>
+	 * Must be called holding the check points lock, the check points sorted
+	 * 
+	 * @param index
+	 *            the index of the check point restored, 0 for the trace start
+	 * @param time
+	 *            the time to restore
+	 * @return the estimated number of events
+	 */
+	@SuppressWarnings("unchecked")
+	private long estimateReplayEvents(int index, long time) {
+		long count = 0;
+		long startTime = fTrace.getStartTime().getValue();
+		if (index > 0) {
+			TmfCheckpoint checkpoint = timestampCheckpointsList.get(index);
+			count = ((TmfLocation<Long>) checkpoint.getLocation()).getLocation();
+			startTime = checkpoint.getTimestamp().getValue();
+		}
+
+		// Past the last check point, the next one would have been saved at
+		// most one event interval later
+		long nextCount = count + fCheckPointPolicy.getEventInterval();
+		long nextTime = fTrace.getEndTime().getValue();
+		if (index + 1 < timestampCheckpointsList.size()) {
+			TmfCheckpoint next = timestampCheckpointsList.get(index + 1);
+			nextCount = ((TmfLocation<Long>) next.getLocation()).getLocation();
+			nextTime = next.getTimestamp().getValue();
+		}
+
+		return StateReplayMetrics.estimateEvents(count, startTime, nextCount, nextTime, time);
+	}
+
 	/**
 	 * Adjust the result from a binary search to the round down position
 	 * 
@@ -495,6 +598,65 @@ public class StateTraceManager extends LTTngTreeNode implements IStateTraceManag
 			} catch (LttngStateException e) {
 				e.printStackTrace();
 			}
+
+			TmfTimeRange range = fTrace.getTimeRange();
+			fCheckPointPolicy.reset(range.getEndTime().getValue() - range.getStartTime().getValue());
+			fReplayMetrics.reset();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager#getNbCheckPoints
+	 * ()
+	 */
+	@Override
+	public int getNbCheckPoints() {
+		synchronized (fCheckPointsLock) {
+			return timestampCheckpointsList.size();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager#exportCheckPoints
+	 * ()
+	 */
+	@Override
+	public StateCheckPoints exportCheckPoints() {
+		synchronized (fCheckPointsLock) {
+			return new StateCheckPoints(fTrace.getPath(), fTrace.getTimeRange(), fCheckPointPolicy.getMaxEvents(),
+					new HashMap<Long, LttngTraceState>(stateCheckpointsList), new Vector<TmfCheckpoint>(
+							timestampCheckpointsList), fCheckPointStateModel.clone());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.linuxtools.lttng.state.trace.IStateTraceManager#importCheckPoints
+	 * (org.eclipse.linuxtools.lttng.state.trace.StateCheckPoints)
+	 */
+	@Override
+	public void importCheckPoints(StateCheckPoints checkPoints) {
+		synchronized (fCheckPointsLock) {
+			// The states are shared with the exporting manager: rebind
+			// snapshots of them to this manager input data
+			stateCheckpointsList.clear();
+			for (Map.Entry<Long, LttngTraceState> entry : checkPoints.getStates().entrySet()) {
+				LttngTraceState state = entry.getValue().clone();
+				state.setContext(this);
+				stateCheckpointsList.put(entry.getKey(), state);
+			}
+			timestampCheckpointsList.clear();
+			timestampCheckpointsList.addAll(checkPoints.getTimestamps());
+			fCheckPointStateModel = checkPoints.getFinalState().clone();
+			fCheckPointStateModel.setContext(this);
 		}
 	}
 
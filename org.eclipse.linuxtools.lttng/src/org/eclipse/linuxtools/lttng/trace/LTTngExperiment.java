@@ -103,7 +103,7 @@ public class LTTngExperiment<T extends TmfEvent> extends TmfExperiment<T> implem
 			return null;	// Throw an exception?
 		}
 
-		if (!context.equals(fExperimentContext)) {
+		if (context != fExperimentContext && !context.equals(fExperimentContext)) {
 //    		Tracer.trace("Ctx: Restoring context");
 			seekLocation(context.getLocation());
 		}
@@ -115,8 +115,7 @@ public class LTTngExperiment<T extends TmfEvent> extends TmfExperiment<T> implem
 		// If an event was consumed previously, get the next one from that trace
 		int lastTrace = expContext.getLastTrace();
 		if (lastTrace != TmfExperimentContext.NO_TRACE) {
-		    TmfContext traceContext = expContext.getContexts()[lastTrace];
-			expContext.getEvents()[lastTrace] = expContext.getTraces()[lastTrace].getNextEvent(traceContext);
+			expContext.setEvent(lastTrace, expContext.readNextEvent(lastTrace));
 			expContext.setLastTrace(TmfExperimentContext.NO_TRACE);
 		}
 
@@ -131,15 +130,9 @@ public class LTTngExperiment<T extends TmfEvent> extends TmfExperiment<T> implem
 			timestamp = eventArray[0].getTimestamp();
 			trace = 0;
 		} else {
-			for (int i = 0; i < eventArray.length; i++) {
-				TmfEvent event = eventArray[i];
-				if (event != null && event.getTimestamp() != null) {
-					TmfTimestamp otherTS = event.getTimestamp();
-					if (otherTS.compareTo(timestamp, true) < 0) {
-						trace = i;
-						timestamp = otherTS;
-					}
-				}
+			trace = expContext.getNextTrace();
+			if (trace != TmfExperimentContext.NO_TRACE) {
+				timestamp = eventArray[trace].getTimestamp();
 			}
 		}
 
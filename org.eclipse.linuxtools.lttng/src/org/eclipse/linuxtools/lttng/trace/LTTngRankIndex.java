@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.lttng.trace;
+
+/**
+ * <b><u>LTTngRankIndex</u></b>
+ * <p>
+ * Dense rank index of an LTTng trace: the timestamp of every N-th event, and
+ * the number of events before it that have the same timestamp.
+ * <p>
+ * LTTng can only seek by time, to the first event at or after that time. The
+ * event of an entry is reached by seeking to its timestamp and skipping the
+ * events with the same timestamp, and the event of any rank by reading at most
+ * N - 1 more events.
+ * <p>
+ * The entries are added as the events are read in rank order, from the start
+ * of the trace. Reads of the events out of that order are ignored, so
+ * concurrent readers do not break the index.
+ */
+public class LTTngRankIndex {
+
+	// ------------------------------------------------------------------------
+	// Constants
+	// ------------------------------------------------------------------------
+
+	public static final int DEFAULT_INTERVAL = 32;
+
+	// The entries are stored in blocks, to grow without copying
+	private static final int BLOCK_SIZE = 4096;
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
+	private final int fInterval;
+
+	private long[][] fTimes = new long[0][];
+	private int[][] fSkips = new int[0][];
+	private int fNbEntries = 0;
+
+	// The last event read in rank order
+	private long fLastRank = -1;
+	private long fLastTime = 0;
+	private int fLastSkip = 0;
+
+	// ------------------------------------------------------------------------
+	// Constructors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @param interval the number of events between two entries
+	 */
+	public LTTngRankIndex(int interval) {
+		fInterval = (interval > 0) ? interval : DEFAULT_INTERVAL;
+	}
+
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	public int getInterval() {
+		return fInterval;
+	}
+
+	public synchronized int getNbEntries() {
+		return fNbEntries;
+	}
+
+	/**
+	 * @param rank the rank of an event
+	 * @return the last entry at or before the rank, or -1 if none
+	 */
+	public synchronized int getEntry(long rank) {
+		if (fNbEntries == 0 || rank < 0) {
+			return -1;
+		}
+		return (int) Math.min(rank / fInterval, fNbEntries - 1);
+	}
+
+	/**
+	 * @param entry an entry
+	 * @return the rank of the entry event
+	 */
+	public long getRank(int entry) {
+		return (long) entry * fInterval;
+	}
+
+	/**
+	 * @param entry an entry
+	 * @return the timestamp value of the entry event
+	 */
+	public synchronized long getTime(int entry) {
+		return fTimes[entry / BLOCK_SIZE][entry % BLOCK_SIZE];
+	}
+
+	/**
+	 * @param entry an entry
+	 * @return the number of events before the entry event that have the same
+	 *         timestamp
+	 */
+	public synchronized int getSkip(int entry) {
+		return fSkips[entry / BLOCK_SIZE][entry % BLOCK_SIZE];
+	}
+
+	// ------------------------------------------------------------------------
+	// Operations
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Records the read of an event.
+	 *
+	 * @param rank the event rank
+	 * @param time the event timestamp value
+	 */
+	public synchronized void update(long rank, long time) {
+		if (rank == 0) {
+			fLastSkip = 0;
+		} else if (rank == fLastRank + 1) {
+			fLastSkip = (time == fLastTime) ? fLastSkip + 1 : 0;
+		} else {
+			// Not the next event in rank order
+			return;
+		}
+		fLastRank = rank;
+		fLastTime = time;
+
+		if (rank == (long) fNbEntries * fInterval) {
+			int block = fNbEntries / BLOCK_SIZE;
+			if (block == fTimes.length) {
+				long[][] times = new long[block + 1][];
+				int[][] skips = new int[block + 1][];
+				System.arraycopy(fTimes, 0, times, 0, block);
+				System.arraycopy(fSkips, 0, skips, 0, block);
+				times[block] = new long[BLOCK_SIZE];
+				skips[block] = new int[BLOCK_SIZE];
+				fTimes = times;
+				fSkips = skips;
+			}
+			fTimes[block][fNbEntries % BLOCK_SIZE] = time;
+			fSkips[block][fNbEntries % BLOCK_SIZE] = fLastSkip;
+			fNbEntries++;
+		}
+	}
+}
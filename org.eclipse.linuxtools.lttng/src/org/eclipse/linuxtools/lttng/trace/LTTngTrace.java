@@ -12,6 +12,9 @@
 
 package org.eclipse.linuxtools.lttng.trace;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Vector;
@@ -35,6 +38,7 @@ import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
 import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
 import org.eclipse.linuxtools.tmf.trace.ITmfContext;
 import org.eclipse.linuxtools.tmf.trace.ITmfLocation;
+import org.eclipse.linuxtools.tmf.trace.ITmfLocationCodec;
 import org.eclipse.linuxtools.tmf.trace.TmfCheckpoint;
 import org.eclipse.linuxtools.tmf.trace.TmfContext;
 import org.eclipse.linuxtools.tmf.trace.TmfTrace;
@@ -66,6 +70,9 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 	// Reference to our JNI trace
 	private JniTrace currentJniTrace = null;
 
+	// The dense rank index, to seek by rank with few reads
+	private LTTngRankIndex fRankIndex = new LTTngRankIndex(LTTngRankIndex.DEFAULT_INTERVAL);
+
 	// ***
 	// UNHACKED : We can no longer do that because TCF need to maintain several
 	// events at once.
@@ -204,6 +211,7 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 		// *** VERIFY ***
 		// Is this safe?
 		this.fCheckpoints = oldTrace.fCheckpoints;
+		this.fRankIndex = oldTrace.fRankIndex;
 
 		/*
 		 * // This would only work if the index is already done
@@ -223,6 +231,29 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 
 	
     
+    /*
+     * LTTng seeks by time: only the location operation time is persisted in
+     * the checkpoint index.
+     */
+    private static final ITmfLocationCodec LOCATION_CODEC = new ITmfLocationCodec() {
+		@Override
+		public void writeLocation(DataOutput out, ITmfLocation<?> location) throws IOException {
+			if (!(location instanceof LttngLocation)) {
+				throw new IOException("Unsupported location: " + location);
+			}
+			out.writeLong(((LttngLocation) location).getOperationTimeValue());
+		}
+		@Override
+		public ITmfLocation<?> readLocation(ByteBuffer in) throws IOException {
+			return new LttngLocation(in.getLong());
+		}
+    };
+
+    @Override
+    public ITmfLocationCodec getLocationCodec() {
+    	return LOCATION_CODEC;
+    }
+
     @Override
 	public LTTngTrace createTraceCopy() { 
     	LTTngTrace returnedTrace = null;
@@ -291,6 +322,7 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 		// Work variables
 		LttngEventType tmpType = null;
 		String[] markerFieldsLabels = null;
+		int[] markerFieldIds = null;
 
 		String newTracefileKey = null;
 		Integer newMarkerKey = null;
@@ -321,9 +353,17 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 						.toArray(
 								new String[newMarker.getMarkerFieldsHashMap()
 										.size()]);
+				// The position of each label in the MARKERFIELDS, to parse
+				// the fields by position
+				markerFieldIds = new int[markerFieldsLabels.length];
+				for (int pos = 0; pos < markerFieldsLabels.length; pos++) {
+					markerFieldIds[pos] = newMarker.getMarkerFieldsArrayList()
+							.indexOf(newMarker.getMarkerFieldsHashMap().get(
+									markerFieldsLabels[pos]));
+				}
 				tmpType = new LttngEventType(newTracefile.getTracefileName(),
 						newTracefile.getCpuNumber(), newMarker.getName(),
-						markerFieldsLabels);
+						markerFieldsLabels, markerFieldIds);
 
 				// Add the type to the map/vector
 				addEventTypeToMap(tmpType);
@@ -558,17 +598,27 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 		}
 		// If none, take the start time of the trace
 		else {
+			index = 0;
 			timestamp = getStartTime();
 		}
 
+		// Ajust the index of the event we found at this check point position
+		Long currentPosition = index * getCacheSize();
+
+		// Start from the rank index entry instead, if it is closer. Seeking
+		// to its time positions the trace on the first event with that time,
+		// so the events before the entry event with the same time are read too.
+		int entry = fRankIndex.getEntry(position);
+		if (entry >= 0 && fRankIndex.getRank(entry) > currentPosition) {
+			timestamp = new LttngTimestamp(fRankIndex.getTime(entry));
+			currentPosition = fRankIndex.getRank(entry) - fRankIndex.getSkip(entry);
+		}
+
 		// Seek to the found time
 		TmfContext tmpContext = seekEvent(timestamp);
 		tmpContext.setRank((index + 1) * fIndexPageSize);
 		previousLocation = (LttngLocation) tmpContext.getLocation();
 
-		// Ajust the index of the event we found at this check point position
-		Long currentPosition = index * getCacheSize();
-
 		Long lastTimeValueRead = 0L;
 
 		// Get the event at current position. This won't move to the next one
@@ -718,6 +768,9 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 
 		
 		}
+		else {
+			updateIndexEnd(context);
+		}
 
 		return returnedEvent;
 	}
@@ -741,13 +794,17 @@ public class LTTngTrace extends TmfTrace<LttngEvent> {
 		if (rank != ITmfContext.UNKNOWN_RANK) {
 			if (fNbEvents <= rank)
 				fNbEvents = rank + 1;
+			fRankIndex.update(rank, timestamp.getValue());
 			// Build the index as we go along
 			if ((rank % fIndexPageSize) == 0) {
 				// Determine the table position
 				long position = rank / fIndexPageSize;
-				// Add new entry at proper location (if empty) 
-				if (fCheckpoints.size() == position) {
-					addCheckPoint(context, timestamp);
+				// Add new entry at proper location (if empty). The index is
+				// shared with the trace copies.
+				synchronized (fCheckpoints) {
+					if (fCheckpoints.size() == position) {
+						addCheckPoint(context, timestamp);
+					}
 				}
 			}
 		}
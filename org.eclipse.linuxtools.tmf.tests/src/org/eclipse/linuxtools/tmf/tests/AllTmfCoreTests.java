@@ -31,6 +31,7 @@ public class AllTmfCoreTests {
 		suite.addTest(org.eclipse.linuxtools.tmf.tests.component.AllTests.suite());
 		suite.addTest(org.eclipse.linuxtools.tmf.tests.trace.AllTests.suite());
 		suite.addTest(org.eclipse.linuxtools.tmf.tests.experiment.AllTests.suite());
+		suite.addTest(org.eclipse.linuxtools.tmf.tests.signal.AllTests.suite());
 		//$JUnit-END$
 		return suite;
 	}
@@ -10,6 +10,7 @@ public class AllTests {
 		//$JUnit-BEGIN$
 		suite.addTestSuite(TmfProviderManagerTest.class);
 		suite.addTestSuite(TmfEventProviderTest.class);
+		suite.addTestSuite(TmfDataProviderTest.class);
 		//$JUnit-END$
 		return suite;
 	}
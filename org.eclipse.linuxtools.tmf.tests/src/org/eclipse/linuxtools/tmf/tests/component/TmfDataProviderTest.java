@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.component;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.tmf.component.TmfDataProvider;
+import org.eclipse.linuxtools.tmf.event.TmfData;
+import org.eclipse.linuxtools.tmf.request.ITmfDataRequest;
+import org.eclipse.linuxtools.tmf.request.ITmfDataRequest.ExecutionType;
+import org.eclipse.linuxtools.tmf.request.TmfDataRequest;
+import org.eclipse.linuxtools.tmf.trace.ITmfContext;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+
+/**
+ * <b><u>TmfDataProviderTest</u></b>
+ * <p>
+ * Test suite for the preemption of the BACKGROUND requests of a
+ * TmfDataProvider by its FOREGROUND requests.
+ */
+public class TmfDataProviderTest extends TestCase {
+
+	private static final int BLOCK_SIZE = TmfDataProvider.DEFAULT_BLOCK_SIZE;
+	private static final int NB_BACKGROUND = 3 * BLOCK_SIZE;
+	private static final int NB_FOREGROUND = 100;
+
+	// ------------------------------------------------------------------------
+	// Housekeeping
+	// ------------------------------------------------------------------------
+
+	public TmfDataProviderTest(String name) {
+		super(name);
+	}
+
+	// ------------------------------------------------------------------------
+	// Stubs
+	// ------------------------------------------------------------------------
+
+	private static class DataStub extends TmfData {
+		@Override
+		public boolean isNullRef() {
+			return false;
+		}
+	}
+
+	/**
+	 * Serves an endless stream of data. A stateful provider, like the LTTng
+	 * synthetic event provider, cancels the request being serviced when it
+	 * arms a new request.
+	 */
+	private static class DataProviderStub extends TmfDataProvider<TmfData> {
+
+		private final boolean fStateful;
+		private ITmfDataRequest<TmfData> fCurrentRequest;
+
+		public DataProviderStub(boolean stateful, boolean preemptive) {
+			super("DataProviderStub", TmfData.class, DEFAULT_QUEUE_SIZE, 1, preemptive);
+			fStateful = stateful;
+		}
+
+		@Override
+		public synchronized ITmfContext armRequest(ITmfDataRequest<TmfData> request) {
+			if (fStateful && fCurrentRequest != null && !fCurrentRequest.isCompleted()) {
+				fCurrentRequest.cancel();
+			}
+			fCurrentRequest = request;
+			return new TmfContext(null, 0);
+		}
+
+		@Override
+		public TmfData getNext(ITmfContext context) {
+			context.updateRank(1);
+			return new DataStub();
+		}
+	}
+
+	private static class DataRequestStub extends TmfDataRequest<TmfData> {
+
+		private final TmfDataProvider<TmfData> fProvider;
+		private final TmfDataRequest<TmfData> fForeground;
+
+		public DataRequestStub(int nbRequested, ExecutionType execType, TmfDataProvider<TmfData> provider,
+				TmfDataRequest<TmfData> foreground) {
+			super(TmfData.class, 0, nbRequested, BLOCK_SIZE, execType);
+			fProvider = provider;
+			fForeground = foreground;
+		}
+
+		@Override
+		public void handleData(TmfData data) {
+			super.handleData(data);
+			// The foreground request arrives while the background one is running
+			if (fForeground != null && getNbRead() == 10) {
+				fProvider.sendRequest(fForeground);
+			}
+		}
+	}
+
+	private static class ForegroundRequestStub extends DataRequestStub {
+
+		private DataRequestStub fBackground;
+		private int fBackgroundNbRead = -1;
+		private boolean fBackgroundCompleted;
+
+		public ForegroundRequestStub() {
+			super(NB_FOREGROUND, ExecutionType.FOREGROUND, null, null);
+		}
+
+		@Override
+		public void handleData(TmfData data) {
+			super.handleData(data);
+			if (getNbRead() == 1) {
+				fBackgroundNbRead = fBackground.getNbRead();
+				fBackgroundCompleted = fBackground.isCompleted();
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Tests
+	// ------------------------------------------------------------------------
+
+	public void testNoPreemptionByDefault() throws InterruptedException {
+		DataProviderStub provider = new DataProviderStub(true, false);
+		ForegroundRequestStub foreground = new ForegroundRequestStub();
+		DataRequestStub background = new DataRequestStub(NB_BACKGROUND, ExecutionType.BACKGROUND, provider, foreground);
+		foreground.fBackground = background;
+
+		provider.sendRequest(background);
+		background.waitForCompletion();
+		foreground.waitForCompletion();
+
+		// The stateful provider would have cancelled the background request
+		// if it had been suspended to arm the foreground request
+		assertFalse("background cancelled", background.isCancelled());
+		assertEquals("background nbRead", NB_BACKGROUND, background.getNbRead());
+		assertFalse("foreground cancelled", foreground.isCancelled());
+		assertEquals("foreground nbRead", NB_FOREGROUND, foreground.getNbRead());
+		assertTrue("foreground after background", foreground.fBackgroundCompleted);
+		assertEquals("nbPreemptions", 0, provider.getExecutor().getNbPreemptions());
+		provider.dispose();
+	}
+
+	public void testPreemptionOptIn() throws InterruptedException {
+		DataProviderStub provider = new DataProviderStub(false, true);
+		ForegroundRequestStub foreground = new ForegroundRequestStub();
+		DataRequestStub background = new DataRequestStub(NB_BACKGROUND, ExecutionType.BACKGROUND, provider, foreground);
+		foreground.fBackground = background;
+
+		provider.sendRequest(background);
+		background.waitForCompletion();
+		foreground.waitForCompletion();
+
+		assertFalse("background cancelled", background.isCancelled());
+		assertEquals("background nbRead", NB_BACKGROUND, background.getNbRead());
+		assertEquals("foreground nbRead", NB_FOREGROUND, foreground.getNbRead());
+		assertFalse("foreground during background", foreground.fBackgroundCompleted);
+		assertEquals("background yielded at block boundary", BLOCK_SIZE, foreground.fBackgroundNbRead);
+		assertEquals("nbPreemptions", 1, provider.getExecutor().getNbPreemptions());
+		provider.dispose();
+	}
+}
@@ -417,4 +417,38 @@ public class TmfTimestampTest extends TestCase {
 		assertEquals("CompareTo", -1, ts4.compareTo(TmfTimestamp.BigCrunch, false));
 	}
 
+	// ------------------------------------------------------------------------
+	// compare (primitive)
+	// ------------------------------------------------------------------------
+
+	public void testCompareSameScale() throws Exception {
+		assertEquals("compare",  0, TmfTimestamp.compare(1000, (byte) -3, 1000, (byte) -3));
+		assertEquals("compare", -1, TmfTimestamp.compare( 999, (byte) -3, 1000, (byte) -3));
+		assertEquals("compare",  1, TmfTimestamp.compare(1001, (byte) -3, 1000, (byte) -3));
+		assertEquals("compare", -1, TmfTimestamp.compare(Long.MIN_VALUE, (byte) 0, Long.MAX_VALUE, (byte) 0));
+	}
+
+	public void testCompareDifferentScale() throws Exception {
+		assertEquals("compare",  0, TmfTimestamp.compare(1000, (byte) 0, 1, (byte) 3));
+		assertEquals("compare", -1, TmfTimestamp.compare(9000, (byte) -1, 1000, (byte) 0));
+		assertEquals("compare",  1, TmfTimestamp.compare(110, (byte) 1, 1000, (byte) 0));
+		assertEquals("compare", -1, TmfTimestamp.compare(1000, (byte) 0, 110, (byte) 1));
+	}
+
+	public void testCompareMatchesCompareTo() throws Exception {
+		TmfTimestamp[] timestamps = new TmfTimestamp[] {
+				ts0, ts1, ts2, ts3, bigBang, bigCrunch,
+				new TmfTimestamp( 0, Byte.MAX_VALUE), new TmfTimestamp( 0, Byte.MIN_VALUE),
+				new TmfTimestamp(-1, Byte.MAX_VALUE), new TmfTimestamp(-1, Byte.MIN_VALUE),
+				new TmfTimestamp( 1, Byte.MAX_VALUE), new TmfTimestamp( 1, Byte.MIN_VALUE),
+				new TmfTimestamp(123456789, (byte) -9), new TmfTimestamp(123, (byte) -3)
+		};
+		for (TmfTimestamp t1 : timestamps) {
+			for (TmfTimestamp t2 : timestamps) {
+				assertEquals("compare", t1.compareTo(t2, false),
+						TmfTimestamp.compare(t1.getValue(), t1.getScale(), t2.getValue(), t2.getScale()));
+			}
+		}
+	}
+
 }
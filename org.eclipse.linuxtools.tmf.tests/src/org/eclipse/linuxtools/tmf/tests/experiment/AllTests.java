@@ -12,6 +12,8 @@ public class AllTests {
 		//$JUnit-BEGIN$
 		suite.addTestSuite(TmfExperimentTest.class);
 		suite.addTestSuite(TmfMultiTraceExperimentTest.class);
+		suite.addTestSuite(TmfExperimentMergeTest.class);
+		suite.addTestSuite(TmfExperimentIndexingTest.class);
 		//$JUnit-END$
 		return suite;
 	}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.experiment;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.experiment.TmfExperiment;
+import org.eclipse.linuxtools.tmf.signal.TmfExperimentSelectedSignal;
+import org.eclipse.linuxtools.tmf.tests.TmfCoreTestPlugin;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfCheckpoint;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+import org.eclipse.linuxtools.tmf.trace.TmfTraceStub;
+
+/**
+ * <b><u>TmfExperimentIndexingTest</u></b>
+ * <p>
+ * Test suite for the partitioned (parallel) experiment indexing. The index
+ * must be the same as the one built sequentially.
+ */
+public class TmfExperimentIndexingTest extends TestCase {
+
+    private static final String DIRECTORY    = "testfiles";
+    private static final String[] STREAMS    = { "A-Test-10K", "E-Test-10K", "O-Test-10K", "R-Test-10K" };
+    private static final int    NB_EVENTS    = 10000;
+    private static final int    BLOCK_SIZE   = 1000;
+    private static final long   TIMEOUT      = 60000;	// ms
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+	public TmfExperimentIndexingTest(String name) throws Exception {
+		super(name);
+	}
+
+	/*
+	 * Indexes the experiment as when it is selected, and waits until all its
+	 * events are indexed
+	 */
+	private static TmfExperiment<TmfEvent> createExperiment(int nbTraces, int nbPartitions) throws Exception {
+		ITmfTrace[] traces = new ITmfTrace[nbTraces];
+		for (int i = 0; i < nbTraces; i++) {
+	        URL location = FileLocator.find(TmfCoreTestPlugin.getDefault().getBundle(), new Path(DIRECTORY + File.separator + STREAMS[i % STREAMS.length]), null);
+			File test = new File(FileLocator.toFileURL(location).toURI());
+			traces[i] = new TmfTraceStub(test.getPath(), true);
+		}
+		TmfExperiment<TmfEvent> experiment = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexingExperiment", traces, BLOCK_SIZE);
+		experiment.setIndexingPartitions(nbPartitions);
+		experiment.experimentSelected(new TmfExperimentSelectedSignal<TmfEvent>(experiment, experiment));
+
+		long nbEvents = nbTraces * NB_EVENTS;
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while ((experiment.getNbEvents() < nbEvents || experiment.getCheckpoints().size() < nbEvents / BLOCK_SIZE)
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		return experiment;
+	}
+
+	private static void validateIndex(int nbTraces, int nbPartitions) throws Exception {
+		TmfExperiment<TmfEvent> expected = createExperiment(nbTraces, 1);
+		TmfExperiment<TmfEvent> experiment = createExperiment(nbTraces, nbPartitions);
+
+		assertEquals("getNbEvents", nbTraces * NB_EVENTS, experiment.getNbEvents());
+		assertEquals("getNbEvents", expected.getNbEvents(), experiment.getNbEvents());
+		assertEquals("getStartTime", expected.getStartTime(), experiment.getStartTime());
+		assertEquals("getEndTime", expected.getEndTime(), experiment.getEndTime());
+
+		Vector<TmfCheckpoint> expectedCheckpoints = expected.getCheckpoints();
+		Vector<TmfCheckpoint> checkpoints = experiment.getCheckpoints();
+		assertEquals("nbCheckpoints", expectedCheckpoints.size(), checkpoints.size());
+		for (int i = 0; i < checkpoints.size(); i++) {
+			assertEquals("timestamp", expectedCheckpoints.get(i).getTimestamp(), checkpoints.get(i).getTimestamp());
+			assertEquals("location", expectedCheckpoints.get(i).getLocation().toString(), checkpoints.get(i).getLocation().toString());
+		}
+
+		// Seeking a checkpoint lands on the same event
+		for (int rank = 0; rank < experiment.getNbEvents(); rank += 3 * BLOCK_SIZE + 7) {
+			TmfContext expectedContext = expected.seekEvent(rank);
+			TmfContext context = experiment.seekEvent(rank);
+			assertEquals("rank", rank, context.getRank());
+			TmfEvent expectedEvent = expected.getNextEvent(expectedContext);
+			TmfEvent event = experiment.getNextEvent(context);
+			assertEquals("timestamp", expectedEvent.getTimestamp(), event.getTimestamp());
+			assertEquals("content", expectedEvent.getContent().toString(), event.getContent().toString());
+		}
+
+		expected.dispose();
+		experiment.dispose();
+	}
+
+    // ------------------------------------------------------------------------
+    // Partitioned indexing
+    // ------------------------------------------------------------------------
+
+	public void testSetIndexingPartitions() throws Exception {
+		TmfExperiment<TmfEvent> experiment = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexingExperiment", new ITmfTrace[0]);
+		assertEquals("getIndexingPartitions", TmfExperiment.DEFAULT_INDEXING_PARTITIONS, experiment.getIndexingPartitions());
+		experiment.setIndexingPartitions(4);
+		assertEquals("getIndexingPartitions", 4, experiment.getIndexingPartitions());
+		experiment.setIndexingPartitions(0);
+		assertEquals("getIndexingPartitions", 1, experiment.getIndexingPartitions());
+		experiment.dispose();
+	}
+
+	public void testSingleTrace() throws Exception {
+		validateIndex(1, 4);
+	}
+
+	public void testMultipleTraces() throws Exception {
+		validateIndex(4, 3);
+	}
+
+	public void testMorePartitionsThanCheckpoints() throws Exception {
+		validateIndex(2, 32);
+	}
+
+	public void testTooManyPartitions() throws Exception {
+		// The time range can't be split in that many slices: sequential indexing
+		TmfExperiment<TmfEvent> experiment = createExperiment(1, 2 * NB_EVENTS);
+		assertEquals("getNbEvents", NB_EVENTS, experiment.getNbEvents());
+		assertEquals("nbCheckpoints", NB_EVENTS / BLOCK_SIZE, experiment.getCheckpoints().size());
+		experiment.dispose();
+	}
+
+}
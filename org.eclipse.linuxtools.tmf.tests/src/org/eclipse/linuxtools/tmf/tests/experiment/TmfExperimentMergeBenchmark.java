@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.experiment;
+
+import java.io.File;
+import java.net.URL;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.experiment.TmfExperiment;
+import org.eclipse.linuxtools.tmf.experiment.TmfReadAheadBuffer;
+import org.eclipse.linuxtools.tmf.request.TmfEventRequest;
+import org.eclipse.linuxtools.tmf.tests.TmfCoreTestPlugin;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfSingleEventTraceStub;
+import org.eclipse.linuxtools.tmf.trace.TmfTraceStub;
+
+/**
+ * <b><u>TmfExperimentMergeBenchmark</u></b>
+ * <p>
+ * Measures how the experiment merge scales with the number of traces, with
+ * and without the read-ahead buffers, for traces that return a new event for
+ * each read (TmfTraceStub) and for traces that reuse their event instance
+ * (TmfSingleEventTraceStub, like LTTng). The throughput is printed for each
+ * configuration.
+ * <p>
+ * It is not part of the test suites (it takes a while): run it on its own as
+ * a JUnit plug-in test.
+ */
+public class TmfExperimentMergeBenchmark extends TestCase {
+
+    private static final String   DIRECTORY  = "testfiles";
+    private static final String[] STREAMS    = { "A-Test-10K", "E-Test-10K", "O-Test-10K", "R-Test-10K" };
+    private static final int      NB_EVENTS  = 10000;	// Per trace
+    private static final int      BLOCK_SIZE = 1000;
+    private static final int[]    NB_TRACES  = { 1, 2, 4, 8, 16, 32 };
+    private static final int      NB_RUNS    = 3;		// The best run is kept
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+	public TmfExperimentMergeBenchmark(String name) throws Exception {
+		super(name);
+	}
+
+	private static TmfExperiment<TmfEvent> createExperiment(int nbTraces, boolean singleEvent) throws Exception {
+		ITmfTrace[] traces = new ITmfTrace[nbTraces];
+		for (int i = 0; i < nbTraces; i++) {
+	        URL location = FileLocator.find(TmfCoreTestPlugin.getDefault().getBundle(), new Path(DIRECTORY + File.separator + STREAMS[i % STREAMS.length]), null);
+			File test = new File(FileLocator.toFileURL(location).toURI());
+			traces[i] = singleEvent ? new TmfSingleEventTraceStub(test.getPath(), true) : new TmfTraceStub(test.getPath(), true);
+		}
+		return new TmfExperiment<TmfEvent>(TmfEvent.class, "MergeBenchmark", traces, TmfTimestamp.Zero, BLOCK_SIZE, false);
+	}
+
+	// Returns the time to read the whole experiment (in ns)
+	private static long readAll(TmfExperiment<TmfEvent> experiment, int nbTraces) throws Exception {
+		TmfTimeRange range = new TmfTimeRange(TmfTimestamp.BigBang, TmfTimestamp.BigCrunch);
+		TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class, range) {};
+		long start = System.nanoTime();
+		experiment.sendRequest(request);
+		request.waitForCompletion();
+		long elapsed = System.nanoTime() - start;
+		assertTrue("isCompleted", request.isCompleted());
+		assertEquals("nbRead", nbTraces * NB_EVENTS, request.getNbRead());
+		return elapsed;
+	}
+
+    // ------------------------------------------------------------------------
+    // Benchmark
+    // ------------------------------------------------------------------------
+
+	private void benchmark(boolean singleEvent) throws Exception {
+		System.out.println("Merge benchmark (" + (singleEvent ? "single event" : "new event") + " traces, "
+				+ Runtime.getRuntime().availableProcessors() + " CPUs)");
+		System.out.println("  traces   events/s (no read-ahead)   events/s (read-ahead)");
+		for (int nbTraces : NB_TRACES) {
+			TmfExperiment<TmfEvent> experiment = createExperiment(nbTraces, singleEvent);
+			long[] best = new long[] { Long.MAX_VALUE, Long.MAX_VALUE };
+			for (int run = 0; run < NB_RUNS; run++) {
+				experiment.setReadAheadSize(0);
+				best[0] = Math.min(best[0], readAll(experiment, nbTraces));
+				experiment.setReadAheadSize(TmfReadAheadBuffer.DEFAULT_BUFFER_SIZE);
+				best[1] = Math.min(best[1], readAll(experiment, nbTraces));
+			}
+			experiment.dispose();
+
+			long nbEvents = (long) nbTraces * NB_EVENTS;
+			System.out.println(String.format("  %6d   %22d   %21d", nbTraces,
+					nbEvents * 1000000000L / best[0], nbEvents * 1000000000L / best[1]));
+		}
+	}
+
+	public void testMergeScaling() throws Exception {
+		benchmark(false);
+	}
+
+	public void testMergeScalingSingleEvent() throws Exception {
+		benchmark(true);
+	}
+
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.experiment;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Random;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.experiment.TmfExperiment;
+import org.eclipse.linuxtools.tmf.experiment.TmfExperimentContext;
+import org.eclipse.linuxtools.tmf.request.TmfEventRequest;
+import org.eclipse.linuxtools.tmf.tests.TmfCoreTestPlugin;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+import org.eclipse.linuxtools.tmf.trace.TmfLocation;
+import org.eclipse.linuxtools.tmf.trace.TmfSingleEventTraceStub;
+import org.eclipse.linuxtools.tmf.trace.TmfTraceStub;
+
+/**
+ * <b><u>TmfExperimentMergeTest</u></b>
+ * <p>
+ * Test suite for the experiment merge (TmfExperimentContext merge heap and
+ * read-ahead buffers). The merged order must be the same as the one of a
+ * linear scan of the traces.
+ */
+public class TmfExperimentMergeTest extends TestCase {
+
+    private static final String DIRECTORY    = "testfiles";
+    private static final String[] STREAMS    = { "A-Test-10K", "E-Test-10K", "O-Test-10K", "R-Test-10K" };
+    private static final int    NB_TRACES    = 8;
+    private static final int    BLOCK_SIZE   = 1000;
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+	public TmfExperimentMergeTest(String name) throws Exception {
+		super(name);
+	}
+
+	private static TmfExperiment<TmfEvent> createExperiment() throws Exception {
+		return createExperiment(false);
+	}
+
+	private static TmfExperiment<TmfEvent> createExperiment(boolean singleEvent) throws Exception {
+		ITmfTrace[] traces = new ITmfTrace[NB_TRACES];
+		for (int i = 0; i < NB_TRACES; i++) {
+	        URL location = FileLocator.find(TmfCoreTestPlugin.getDefault().getBundle(), new Path(DIRECTORY + File.separator + STREAMS[i % STREAMS.length]), null);
+			File test = new File(FileLocator.toFileURL(location).toURI());
+			traces[i] = singleEvent ? new TmfSingleEventTraceStub(test.getPath(), true) : new TmfTraceStub(test.getPath(), true);
+		}
+		return new TmfExperiment<TmfEvent>(TmfEvent.class, "MergeExperiment", traces, TmfTimestamp.Zero, BLOCK_SIZE, true);
+	}
+
+	private static TmfEvent newEvent(long value, byte scale, long precision) {
+		return new TmfEvent(new TmfTimestamp(value, scale, precision), null, null, null);
+	}
+
+	// The reference algorithm: pick the earliest event, the lowest trace index first
+	private static int linearScan(TmfEvent[] events) {
+		int trace = TmfExperimentContext.NO_TRACE;
+		TmfTimestamp timestamp = TmfTimestamp.BigCrunch;
+		for (int i = 0; i < events.length; i++) {
+			if (events[i] != null && events[i].getTimestamp().compareTo(timestamp, true) < 0) {
+				trace = i;
+				timestamp = events[i].getTimestamp();
+			}
+		}
+		return trace;
+	}
+
+	private static Vector<String> readAll(final TmfExperiment<TmfEvent> experiment) throws Exception {
+		final Vector<String> events = new Vector<String>();
+		TmfTimeRange range = new TmfTimeRange(TmfTimestamp.BigBang, TmfTimestamp.BigCrunch);
+		TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class, range) {
+			@Override
+			public void handleData(TmfEvent event) {
+				super.handleData(event);
+				events.add(event.getTimestamp().toString() + event.getSource() + event.getReference() + event.getContent());
+			}
+		};
+		experiment.sendRequest(request);
+		request.waitForCompletion();
+		assertTrue("isCompleted",  request.isCompleted());
+		assertFalse("isCancelled", request.isCancelled());
+		return events;
+	}
+
+    // ------------------------------------------------------------------------
+    // Merge heap
+    // ------------------------------------------------------------------------
+
+	public void testMergeOrder() {
+		final int nbTraces = 64;
+		Random random = new Random(1234);
+		TmfExperimentContext context = new TmfExperimentContext(new ITmfTrace[nbTraces]);
+		TmfEvent[] expected = new TmfEvent[nbTraces];
+
+		// Few distinct values to get a lot of ties
+		for (int i = 0; i < nbTraces; i++) {
+			TmfEvent event = (i % 7 == 0) ? null : newEvent(random.nextInt(50), (byte) 0, 0);
+			context.setEvent(i, event);
+			expected[i] = event;
+		}
+
+		int nbEvents = 0;
+		int trace = context.getNextTrace();
+		while (trace != TmfExperimentContext.NO_TRACE) {
+			assertEquals("next trace", linearScan(expected), trace);
+			long value = context.getEvents()[trace].getTimestamp().getValue();
+			TmfEvent event = (random.nextInt(100) == 0) ? null : newEvent(value + random.nextInt(10), (byte) 0, 0);
+			context.setEvent(trace, event);
+			expected[trace] = event;
+			trace = context.getNextTrace();
+			nbEvents++;
+		}
+		assertTrue("nbEvents", nbEvents > nbTraces);
+		assertEquals("next trace", linearScan(expected), trace);
+	}
+
+	public void testMergeOrderWithPrecision() {
+		// Within-precision comparisons are not transitive: the order must
+		// still be the one of the linear scan
+		TmfExperimentContext context = new TmfExperimentContext(new ITmfTrace[3]);
+		TmfEvent[] events = new TmfEvent[] {
+				newEvent(10, (byte) 0, 0),
+				newEvent(8,  (byte) 0, 3),
+				newEvent(9,  (byte) 0, 0)
+		};
+		for (int i = 0; i < events.length; i++) {
+			context.setEvent(i, events[i]);
+		}
+		assertEquals("next trace", linearScan(events), context.getNextTrace());
+	}
+
+	public void testMergeOrderMixedScales() {
+		TmfExperimentContext context = new TmfExperimentContext(new ITmfTrace[3]);
+		TmfEvent[] events = new TmfEvent[] {
+				newEvent(3000, (byte) -3, 0),
+				newEvent(2,    (byte)  0, 0),
+				newEvent(2500, (byte) -3, 0)
+		};
+		for (int i = 0; i < events.length; i++) {
+			context.setEvent(i, events[i]);
+		}
+		assertEquals("next trace", linearScan(events), context.getNextTrace());
+		context.setEvent(1, null);
+		events[1] = null;
+		assertEquals("next trace", linearScan(events), context.getNextTrace());
+	}
+
+	public void testClone() {
+		TmfExperimentContext context = new TmfExperimentContext(new ITmfTrace[2], new TmfContext[] { new TmfContext(new TmfLocation<Long>(0L)), new TmfContext(new TmfLocation<Long>(0L)) });
+		context.setEvent(0, newEvent(2, (byte) 0, 0));
+		context.setEvent(1, newEvent(1, (byte) 0, 0));
+
+		TmfExperimentContext clone = context.clone();
+		context.setEvent(1, null);
+		assertEquals("next trace", 0, context.getNextTrace());
+		assertEquals("next trace", 1, clone.getNextTrace());
+		assertNotNull("event", clone.getEvents()[1]);
+	}
+
+    // ------------------------------------------------------------------------
+    // Read-ahead
+    // ------------------------------------------------------------------------
+
+	public void testReadAhead() throws Exception {
+		TmfExperiment<TmfEvent> experiment = createExperiment();
+		int nbCheckpoints = experiment.getCheckpoints().size();
+
+		experiment.setReadAheadSize(0);
+		Vector<String> expected = readAll(experiment);
+		assertEquals("nbEvents", NB_TRACES * 10000, expected.size());
+
+		experiment.setReadAheadSize(16);
+		Vector<String> events = readAll(experiment);
+		assertEquals("nbEvents", expected.size(), events.size());
+		for (int i = 0; i < expected.size(); i++) {
+			if (!expected.get(i).equals(events.get(i))) {
+				fail("Event " + i + ": expected " + expected.get(i) + " but was " + events.get(i));
+			}
+		}
+		assertEquals("nbCheckpoints", nbCheckpoints, experiment.getCheckpoints().size());
+
+		experiment.dispose();
+	}
+
+	public void testReadAheadSingleEventTraces() throws Exception {
+		// The traces reuse their event instance: the read-ahead must copy them
+		TmfExperiment<TmfEvent> experiment = createExperiment(true);
+		assertEquals("getBatchSize", 1, experiment.getBatchSize());
+
+		experiment.setReadAheadSize(0);
+		Vector<String> expected = readAll(experiment);
+		assertEquals("nbEvents", NB_TRACES * 10000, expected.size());
+
+		experiment.setReadAheadSize(16);
+		Vector<String> events = readAll(experiment);
+		assertEquals("nbEvents", expected.size(), events.size());
+		for (int i = 0; i < expected.size(); i++) {
+			if (!expected.get(i).equals(events.get(i))) {
+				fail("Event " + i + ": expected " + expected.get(i) + " but was " + events.get(i));
+			}
+		}
+
+		experiment.dispose();
+	}
+
+	public void testReadAheadCancel() throws Exception {
+		final int NB_EVENTS = 5000;
+		TmfExperiment<TmfEvent> experiment = createExperiment();
+		final Vector<TmfEvent> events = new Vector<TmfEvent>();
+		TmfTimeRange range = new TmfTimeRange(TmfTimestamp.BigBang, TmfTimestamp.BigCrunch);
+		TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class, range) {
+			@Override
+			public void handleData(TmfEvent event) {
+				super.handleData(event);
+				events.add(event);
+				if (getNbRead() == NB_EVENTS) {
+					cancel();
+				}
+			}
+		};
+		experiment.sendRequest(request);
+		request.waitForCompletion();
+		assertTrue("isCancelled", request.isCancelled());
+		assertEquals("nbEvents", NB_EVENTS, events.size());
+
+		// The experiment is still usable
+		TmfContext context = experiment.seekEvent(NB_EVENTS);
+		assertEquals("rank", NB_EVENTS, context.getRank());
+		assertNotNull("event", experiment.getNextEvent(context));
+
+		experiment.dispose();
+	}
+
+}
@@ -29,6 +29,7 @@ import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
 import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
 import org.eclipse.linuxtools.tmf.request.TmfCoalescedDataRequest;
 import org.eclipse.linuxtools.tmf.request.TmfCoalescedEventRequest;
+import org.eclipse.linuxtools.tmf.request.ITmfDataRequest.ExecutionType;
 import org.eclipse.linuxtools.tmf.request.TmfEventRequest;
 import org.eclipse.linuxtools.tmf.request.TmfEventRequestStub;
 import org.eclipse.linuxtools.tmf.signal.TmfSignal;
@@ -269,7 +270,132 @@ public class TmfCoalescedEventRequestTest extends TestCase {
 
         assertTrue ("isCompatible", coalescedRequest.isCompatible(request1));
         assertTrue ("isCompatible", coalescedRequest.isCompatible(request2));
-        assertFalse("isCompatible", coalescedRequest.isCompatible(request3));
+        assertTrue ("isCompatible", coalescedRequest.isCompatible(request3));
+        assertEquals("getNbRequested", TmfEventRequest.ALL_DATA, coalescedRequest.getNbRequested());
+	}
+
+	public void testIsCompatibleRanges() {
+		TmfTimeRange range = new TmfTimeRange(new TmfTimestamp(100), new TmfTimestamp(200));
+		TmfCoalescedEventRequest<TmfEvent> coalescedRequest = new TmfCoalescedEventRequest<TmfEvent>(TmfEvent.class, range, 100, 200);
+		TmfEventRequest<TmfEvent> overlapping = new TmfEventRequestStub<TmfEvent>(TmfEvent.class, new TmfTimeRange(new TmfTimestamp(150), new TmfTimestamp(250)), 100, 200);
+		TmfEventRequest<TmfEvent> adjacent    = new TmfEventRequestStub<TmfEvent>(TmfEvent.class, new TmfTimeRange(new TmfTimestamp(50), new TmfTimestamp(100)), 100, 200);
+		TmfEventRequest<TmfEvent> disjoint    = new TmfEventRequestStub<TmfEvent>(TmfEvent.class, new TmfTimeRange(new TmfTimestamp(300), new TmfTimestamp(400)), 100, 200);
+		TmfEventRequest<TmfEvent> background  = new TmfEventRequest<TmfEvent>(TmfEvent.class, range, 100, 200, ExecutionType.BACKGROUND) {};
+
+        assertTrue ("isCompatible", coalescedRequest.isCompatible(overlapping));
+        assertEquals("getRange", new TmfTimeRange(new TmfTimestamp(100), new TmfTimestamp(250)), coalescedRequest.getRange());
+        assertTrue ("isCompatible", coalescedRequest.isCompatible(adjacent));
+        assertEquals("getRange", new TmfTimeRange(new TmfTimestamp(50), new TmfTimestamp(250)), coalescedRequest.getRange());
+        assertFalse("isCompatible", coalescedRequest.isCompatible(disjoint));
+        assertFalse("isCompatible", coalescedRequest.isCompatible(background));
+        assertEquals("getRange", new TmfTimeRange(new TmfTimestamp(50), new TmfTimestamp(250)), coalescedRequest.getRange());
+	}
+
+	// ------------------------------------------------------------------------
+	// handleData
+	// ------------------------------------------------------------------------
+
+	private TmfEventRequest<TmfEvent> setupSubRequest(long start, long end, int nbRequested, final Vector<TmfEvent> events) {
+		TmfTimeRange range = new TmfTimeRange(new TmfTimestamp(start), new TmfTimestamp(end));
+		return new TmfEventRequest<TmfEvent>(TmfEvent.class, range, nbRequested) {
+			@Override
+			public void handleData(TmfEvent event) {
+				super.handleData(event);
+				events.add(event);
+			}
+		};
+	}
+
+	public void testHandleData() {
+		Vector<TmfEvent> events1 = new Vector<TmfEvent>();
+		Vector<TmfEvent> events2 = new Vector<TmfEvent>();
+		Vector<TmfEvent> events3 = new Vector<TmfEvent>();
+		TmfEventRequest<TmfEvent> subRequest1 = setupSubRequest(10, 20, TmfEventRequest.ALL_DATA, events1);
+		TmfEventRequest<TmfEvent> subRequest2 = setupSubRequest(15, Long.MAX_VALUE, 3, events2);
+		TmfEventRequest<TmfEvent> subRequest3 = setupSubRequest(30, 40, TmfEventRequest.ALL_DATA, events3);
+
+		TmfCoalescedEventRequest<TmfEvent> request = new TmfCoalescedEventRequest<TmfEvent>(TmfEvent.class, subRequest3.getRange());
+		request.addRequest(subRequest3);
+		assertTrue("isCompatible", request.isCompatible(subRequest2));
+		request.addRequest(subRequest2);
+		assertTrue("isCompatible", request.isCompatible(subRequest1));
+		request.addRequest(subRequest1);
+
+		request.start();
+		for (int i = 0; i <= 25; i++) {
+			request.handleData(new TmfEvent(new TmfTimestamp(i), null, null, null));
+		}
+		assertTrue ("isCompleted", subRequest1.isCompleted());
+		assertTrue ("isCompleted", subRequest2.isCompleted());
+		assertFalse("isCompleted", subRequest3.isCompleted());
+		assertFalse("isCompleted", request.isCompleted());
+
+		for (int i = 26; i <= 50; i++) {
+			request.handleData(new TmfEvent(new TmfTimestamp(i), null, null, null));
+		}
+		assertTrue("isCompleted", subRequest3.isCompleted());
+		assertTrue("isCompleted", request.isCompleted());
+
+		assertEquals("nbEvents", 11, events1.size());
+		assertEquals("nbEvents",  3, events2.size());
+		assertEquals("nbEvents", 11, events3.size());
+		for (int i = 0; i < events1.size(); i++) {
+			assertEquals("timestamp", 10 + i, events1.get(i).getTimestamp().getValue());
+		}
+		for (int i = 0; i < events2.size(); i++) {
+			assertEquals("timestamp", 15 + i, events2.get(i).getTimestamp().getValue());
+		}
+		for (int i = 0; i < events3.size(); i++) {
+			assertEquals("timestamp", 30 + i, events3.get(i).getTimestamp().getValue());
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// attachRequest
+	// ------------------------------------------------------------------------
+
+	public void testAttachRequest() {
+		Vector<TmfEvent> events1 = new Vector<TmfEvent>();
+		Vector<TmfEvent> events2 = new Vector<TmfEvent>();
+		TmfEventRequest<TmfEvent> subRequest1 = setupSubRequest(0, 100, TmfEventRequest.ALL_DATA, events1);
+		TmfCoalescedEventRequest<TmfEvent> request = new TmfCoalescedEventRequest<TmfEvent>(TmfEvent.class, subRequest1.getRange());
+		request.addRequest(subRequest1);
+
+		request.start();
+		for (int i = 0; i < 10; i++) {
+			request.handleData(new TmfEvent(new TmfTimestamp(i), null, null, null));
+		}
+
+		// Already read past its start time
+		assertFalse("attachRequest", request.attachRequest(setupSubRequest(9, 50, TmfEventRequest.ALL_DATA, events2)));
+		// Disjoint
+		assertFalse("attachRequest", request.attachRequest(setupSubRequest(101, 150, TmfEventRequest.ALL_DATA, events2)));
+
+		TmfEventRequest<TmfEvent> subRequest2 = setupSubRequest(10, 150, TmfEventRequest.ALL_DATA, events2);
+		assertTrue("attachRequest", request.attachRequest(subRequest2));
+		assertEquals("getRange", new TmfTimeRange(new TmfTimestamp(0), new TmfTimestamp(150)), request.getRange());
+
+		for (int i = 10; i <= 150; i++) {
+			request.handleData(new TmfEvent(new TmfTimestamp(i), null, null, null));
+		}
+		request.done();
+
+		assertTrue  ("isRunning",   subRequest2.isCompleted());
+		assertEquals("nbEvents", 101, events1.size());
+		assertEquals("nbEvents", 141, events2.size());
+		assertEquals("timestamp", 10, events2.get(0).getTimestamp().getValue());
+
+		// No more late requests
+		assertFalse("attachRequest", request.attachRequest(setupSubRequest(200, 300, TmfEventRequest.ALL_DATA, events2)));
+	}
+
+	public void testAttachRequestLimited() {
+		Vector<TmfEvent> events = new Vector<TmfEvent>();
+		TmfCoalescedEventRequest<TmfEvent> request = new TmfCoalescedEventRequest<TmfEvent>(TmfEvent.class, range1, 100);
+		request.addRequest(setupSubRequest(0, 100, 100, events));
+
+		// The read stops after 100 events: it can't service late requests
+		assertFalse("attachRequest", request.attachRequest(setupSubRequest(10, 50, TmfEventRequest.ALL_DATA, events)));
 	}
 
 	// ------------------------------------------------------------------------
@@ -515,6 +641,74 @@ public class TmfCoalescedEventRequestTest extends TestCase {
         fTrace = null;
     }
     
+    private class TmfLateTriggerSignal extends TmfSignal {
+    	public final TmfEventRequest<TmfEvent> lateRequest;
+		public TmfLateTriggerSignal(Object source, TmfEventRequest<TmfEvent> request) {
+			super(source);
+			lateRequest = request;
+		}
+    }
+
+    @SuppressWarnings("unchecked")
+	@TmfSignalHandler
+    public void lateTrigger(final TmfLateTriggerSignal signal) {
+
+        TmfTimeRange range = new TmfTimeRange(TmfTimestamp.BigBang, TmfTimestamp.BigCrunch);
+
+        // Sends the late request once the read is in progress
+        requestedEvents1 = new Vector<TmfEvent>();
+        request1 = new TmfEventRequest<TmfEvent>(TmfEvent.class, range) {
+            @Override
+            public void handleData(TmfEvent event) {
+        		super.handleData(event);
+       			requestedEvents1.add(event);
+       			if (requestedEvents1.size() == 1) {
+       				providers[0].sendRequest(signal.lateRequest);
+       			}
+            }
+        };
+
+        providers = (ITmfDataProvider<TmfEvent>[]) TmfProviderManager.getProviders(TmfEvent.class, TmfTraceStub.class);
+        providers[0].sendRequest(request1);
+    }
+
+    public void testLateRequest() throws Exception {
+
+		fTrace = setupTrace(DIRECTORY + File.separator + TEST_STREAM);
+
+        final int[] nbRead1 = new int[1];
+        final Vector<TmfEvent> lateEvents = new Vector<TmfEvent>();
+        TmfTimeRange lateRange = new TmfTimeRange(new TmfTimestamp(5000, (byte) -3, 0), TmfTimestamp.BigCrunch);
+        TmfEventRequest<TmfEvent> lateRequest = new TmfEventRequest<TmfEvent>(TmfEvent.class, lateRange) {
+            @Override
+            public void handleData(TmfEvent event) {
+            	super.handleData(event);
+            	if (lateEvents.size() == 0) {
+            		nbRead1[0] = requestedEvents1.size();
+            	}
+            	lateEvents.add(event);
+            }
+        };
+
+    	TmfSignalManager.register(this);
+    	TmfSignalManager.dispatchSignal(new TmfLateTriggerSignal(this, lateRequest));
+
+        request1.waitForCompletion();
+        lateRequest.waitForCompletion();
+
+        assertEquals("Request1: nbEvents", NB_EVENTS, requestedEvents1.size());
+        assertTrue  ("LateRequest: isCompleted", lateRequest.isCompleted());
+        assertEquals("LateRequest: nbEvents", NB_EVENTS - 5000 + 1, lateEvents.size());
+        assertEquals("LateRequest: first event", 5000, lateEvents.get(0).getTimestamp().getValue());
+
+        // Serviced by the same read: request1 got the preceding events first
+        assertEquals("LateRequest: attached", 5000, nbRead1[0]);
+
+        TmfSignalManager.deregister(this);
+        fTrace.dispose();
+        fTrace = null;
+    }
+
 	public void testCancelCoalescedRequest() throws Exception {
 
 		fTrace = setupTrace(DIRECTORY + File.separator + TEST_STREAM);
@@ -12,9 +12,12 @@
 
 package org.eclipse.linuxtools.tmf.tests.request;
 
+import java.util.Vector;
+
 import junit.framework.TestCase;
 
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
 import org.eclipse.linuxtools.tmf.request.TmfDataRequest;
 import org.eclipse.linuxtools.tmf.request.TmfDataRequestStub;
 
@@ -218,6 +221,52 @@ public class TmfDataRequestTest extends TestCase {
         assertEquals("toString", expected4, fRequest4.toString());
 	}
 
+	// ------------------------------------------------------------------------
+	// handleData
+	// ------------------------------------------------------------------------
+
+	public void testHandleDataBatch() {
+		TmfEvent[] batch = new TmfEvent[4];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new TmfEvent(new TmfTimestamp(i), null, null, null);
+		}
+		final Vector<TmfEvent> events = new Vector<TmfEvent>();
+		TmfDataRequest<TmfEvent> request = new TmfDataRequestStub<TmfEvent>(TmfEvent.class, 10, 100, 200) {
+			@Override
+			public void handleData(TmfEvent data) {
+				super.handleData(data);
+				events.add(data);
+			}
+		};
+
+		request.handleData(batch, 3);
+		assertEquals("getNbRead", 3, request.getNbRead());
+		assertEquals("nbEvents",  3, events.size());
+		for (int i = 0; i < 3; i++) {
+			assertSame("event", batch[i], events.get(i));
+		}
+	}
+
+	public void testHandleDataBatchCancelled() {
+		TmfEvent[] batch = new TmfEvent[10];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = new TmfEvent(new TmfTimestamp(i), null, null, null);
+		}
+		TmfDataRequest<TmfEvent> request = new TmfDataRequestStub<TmfEvent>(TmfEvent.class, 10, 100, 200) {
+			@Override
+			public void handleData(TmfEvent data) {
+				super.handleData(data);
+				if (getNbRead() == 4) {
+					cancel();
+				}
+			}
+		};
+
+		request.handleData(batch, batch.length);
+		assertEquals("getNbRead", 4, request.getNbRead());
+		assertTrue("isCancelled", request.isCancelled());
+	}
+
 	// ------------------------------------------------------------------------
 	// done
 	// ------------------------------------------------------------------------
@@ -278,6 +327,41 @@ public class TmfDataRequestTest extends TestCase {
 		assertTrue ("handleCancel",    flags[3]);
 	}
 
+	// ------------------------------------------------------------------------
+	// waitForStart
+	// ------------------------------------------------------------------------
+
+	public void testWaitForStartCancelledBeforeStart() throws InterruptedException {
+		final boolean[] flags = new boolean[4];
+		final TmfDataRequest<TmfEvent> request = setupTestRequest(flags);
+
+		// The request is cancelled while a client waits for its start
+		final boolean[] returned = new boolean[1];
+		Thread waiter = new Thread("waitForStart") {
+			@Override
+			public void run() {
+				try {
+					request.waitForStart();
+					returned[0] = true;
+				} catch (InterruptedException e) {
+				}
+			}
+		};
+		waiter.start();
+		for (int i = 0; i < 1000 && waiter.getState() != Thread.State.WAITING; i++) {
+			Thread.sleep(10);
+		}
+		request.cancel();
+		waiter.join(10000);
+		if (waiter.isAlive()) {
+			waiter.interrupt();
+		}
+
+		assertTrue ("waitForStart", returned[0]);
+		assertFalse("isRunning",    request.isRunning());
+		assertTrue ("isCancelled",  request.isCancelled());
+	}
+
 	// ------------------------------------------------------------------------
 	// waitForCompletion
 	// ------------------------------------------------------------------------
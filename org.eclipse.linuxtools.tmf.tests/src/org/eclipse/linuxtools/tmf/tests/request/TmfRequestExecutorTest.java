@@ -12,10 +12,16 @@
 
 package org.eclipse.linuxtools.tmf.tests.request;
 
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 
+import org.eclipse.linuxtools.tmf.component.TmfThread;
+import org.eclipse.linuxtools.tmf.request.ITmfDataRequest.ExecutionType;
 import org.eclipse.linuxtools.tmf.request.TmfRequestExecutor;
 
 /**
@@ -29,6 +35,8 @@ public class TmfRequestExecutorTest extends TestCase {
 	// Variables
 	// ------------------------------------------------------------------------
 
+	private static final long TIMEOUT = 10; // seconds
+
 	// ------------------------------------------------------------------------
 	// Housekeeping
 	// ------------------------------------------------------------------------
@@ -59,6 +67,8 @@ public class TmfRequestExecutorTest extends TestCase {
 	 */
 	public void testTmfRequestExecutor() {
 		TmfRequestExecutor executor = new TmfRequestExecutor();
+		assertEquals("maxConcurrency", TmfRequestExecutor.DEFAULT_MAX_CONCURRENCY, executor.getMaxConcurrency());
+		assertFalse("canPreempt", executor.canPreempt());
 		assertEquals("nbPendingRequests", 0, executor.getNbPendingRequests());
 		assertFalse("isShutdown",   executor.isShutdown());
 		assertFalse("isTerminated", executor.isTerminated());
@@ -92,8 +102,193 @@ public class TmfRequestExecutorTest extends TestCase {
 	/**
 	 * Test method for {@link org.eclipse.linuxtools.tmf.request.TmfRequestExecutor#execute(java.lang.Runnable)}.
 	 */
-	public void testExecute() {
-//		fail("Not yet implemented");
+	public void testExecute() throws Exception {
+		TmfRequestExecutor executor = new TmfRequestExecutor();
+		final CountDownLatch done = new CountDownLatch(3);
+		for (int i = 0; i < 3; i++) {
+			executor.execute(new TmfThread(ExecutionType.FOREGROUND) {
+				@Override
+				public void run() {
+					done.countDown();
+				}
+			});
+		}
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+		waitForIdle(executor);
+		assertEquals("nbExecutedRequests", 3, executor.getNbExecutedRequests());
+		assertEquals("nbPendingRequests",  0, executor.getNbPendingRequests());
+		assertTrue("maxWaitTime", executor.getMaxWaitTime() >= executor.getAverageWaitTime());
+		executor.stop();
+	}
+
+	public void testExecuteConcurrency() throws Exception {
+		final int maxConcurrency = 3;
+		final int nbRequests = 12;
+		TmfRequestExecutor executor = new TmfRequestExecutor(maxConcurrency);
+		assertEquals("maxConcurrency", maxConcurrency, executor.getMaxConcurrency());
+
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final CountDownLatch done = new CountDownLatch(nbRequests);
+		for (int i = 0; i < nbRequests; i++) {
+			executor.execute(new TmfThread(ExecutionType.BACKGROUND) {
+				@Override
+				public void run() {
+					int n = running.incrementAndGet();
+					synchronized (maxRunning) {
+						maxRunning.set(Math.max(maxRunning.get(), n));
+					}
+					pause(20);
+					running.decrementAndGet();
+					done.countDown();
+				}
+			});
+		}
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertTrue("concurrent", maxRunning.get() > 1);
+		assertTrue("bounded", maxRunning.get() <= maxConcurrency);
+		waitForIdle(executor);
+		assertEquals("nbExecutedRequests", nbRequests, executor.getNbExecutedRequests());
+		executor.stop();
+	}
+
+	public void testExecutePriority() throws Exception {
+		TmfRequestExecutor executor = new TmfRequestExecutor();
+		final CountDownLatch blocker = new CountDownLatch(1);
+		final Vector<String> order = new Vector<String>();
+		final CountDownLatch done = new CountDownLatch(5);
+
+		// Occupy the single slot while the other requests are queued
+		executor.execute(new TmfThread(ExecutionType.FOREGROUND) {
+			@Override
+			public void run() {
+				try {
+					blocker.await(TIMEOUT, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+				}
+				done.countDown();
+			}
+		});
+		executor.execute(newOrderedRequest(ExecutionType.BACKGROUND, "B1", order, done));
+		executor.execute(newOrderedRequest(ExecutionType.FOREGROUND, "F1", order, done));
+		executor.execute(newOrderedRequest(ExecutionType.BACKGROUND, "B2", order, done));
+		executor.execute(newOrderedRequest(ExecutionType.FOREGROUND, "F2", order, done));
+		assertEquals("nbPendingRequests", 4, executor.getNbPendingRequests());
+		assertEquals("maxQueueDepth",     4, executor.getMaxQueueDepth());
+
+		blocker.countDown();
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals("order", "[F1, F2, B1, B2]", order.toString());
+		executor.stop();
+	}
+
+	public void testYieldToForeground() throws Exception {
+		final TmfRequestExecutor executor = new TmfRequestExecutor(1, true);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch queued = new CountDownLatch(1);
+		final Vector<String> order = new Vector<String>();
+		final CountDownLatch done = new CountDownLatch(3);
+
+		executor.execute(new TmfThread(ExecutionType.BACKGROUND) {
+			@Override
+			public void run() {
+				order.add("B1-start");
+				started.countDown();
+				try {
+					queued.await(TIMEOUT, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+				}
+				executor.yieldToForeground();
+				order.add("B1-end");
+				done.countDown();
+			}
+		});
+		assertTrue("started", started.await(TIMEOUT, TimeUnit.SECONDS));
+		executor.execute(newOrderedRequest(ExecutionType.BACKGROUND, "B2", order, done));
+		executor.execute(newOrderedRequest(ExecutionType.FOREGROUND, "F1", order, done));
+		queued.countDown();
+
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals("order", "[B1-start, F1, B1-end, B2]", order.toString());
+		assertEquals("nbPreemptions", 1, executor.getNbPreemptions());
+		executor.stop();
+	}
+
+	public void testYieldToForegroundNoPending() throws Exception {
+		final TmfRequestExecutor executor = new TmfRequestExecutor(1, true);
+		final CountDownLatch done = new CountDownLatch(1);
+		executor.execute(new TmfThread(ExecutionType.BACKGROUND) {
+			@Override
+			public void run() {
+				executor.yieldToForeground();
+				done.countDown();
+			}
+		});
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+
+		// No effect outside of the executor threads
+		executor.yieldToForeground();
+		assertEquals("nbPreemptions", 0, executor.getNbPreemptions());
+		executor.stop();
+	}
+
+	public void testYieldToForegroundNotPreemptive() throws Exception {
+		final TmfRequestExecutor executor = new TmfRequestExecutor(1);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch queued = new CountDownLatch(1);
+		final Vector<String> order = new Vector<String>();
+		final CountDownLatch done = new CountDownLatch(2);
+
+		executor.execute(new TmfThread(ExecutionType.BACKGROUND) {
+			@Override
+			public void run() {
+				order.add("B1-start");
+				started.countDown();
+				try {
+					queued.await(TIMEOUT, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+				}
+				executor.yieldToForeground();
+				order.add("B1-end");
+				done.countDown();
+			}
+		});
+		assertTrue("started", started.await(TIMEOUT, TimeUnit.SECONDS));
+		executor.execute(newOrderedRequest(ExecutionType.FOREGROUND, "F1", order, done));
+		queued.countDown();
+
+		assertTrue("completed", done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals("order", "[B1-start, B1-end, F1]", order.toString());
+		assertEquals("nbPreemptions", 0, executor.getNbPreemptions());
+		executor.stop();
+	}
+
+	// ------------------------------------------------------------------------
+	// Helper functions
+	// ------------------------------------------------------------------------
+
+	private static TmfThread newOrderedRequest(ExecutionType execType, final String name, final Vector<String> order, final CountDownLatch done) {
+		return new TmfThread(execType) {
+			@Override
+			public void run() {
+				order.add(name);
+				done.countDown();
+			}
+		};
+	}
+
+	private static void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+		}
+	}
+
+	// The completion bookkeeping is done after the request itself returns
+	private static void waitForIdle(TmfRequestExecutor executor) {
+		for (int i = 0; i < TIMEOUT * 100 && executor.getNbRunningRequests() > 0; i++) {
+			pause(10);
+		}
 	}
 
 	// ------------------------------------------------------------------------
@@ -0,0 +1,16 @@
+package org.eclipse.linuxtools.tmf.tests.signal;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+public class AllTests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(AllTests.class.getName());
+		//$JUnit-BEGIN$
+		suite.addTestSuite(TmfSignalManagerTest.class);
+		//$JUnit-END$
+		return suite;
+	}
+
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.signal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.signal.TmfSignal;
+import org.eclipse.linuxtools.tmf.signal.TmfSignalHandler;
+import org.eclipse.linuxtools.tmf.signal.TmfSignalManager;
+import org.eclipse.linuxtools.tmf.signal.TmfTimeSynchSignal;
+
+/**
+ * <b><u>TmfSignalManagerTest</u></b>
+ * <p>
+ * Test suite for the TmfSignalManager dispatch table and asynchronous
+ * dispatching.
+ */
+public class TmfSignalManagerTest extends TestCase {
+
+	private static final long TIMEOUT = 10;	// seconds
+
+	private final Object fSource = new Object();
+	private final Object fOtherSource = new Object();
+
+	// ------------------------------------------------------------------------
+	// Housekeeping
+	// ------------------------------------------------------------------------
+
+	public TmfSignalManagerTest(String name) {
+		super(name);
+	}
+
+	// ------------------------------------------------------------------------
+	// Stubs
+	// ------------------------------------------------------------------------
+
+	private static class TestSignal extends TmfSignal {
+		public TestSignal(Object source) {
+			super(source);
+		}
+	}
+
+	private static class BlockingSignal extends TmfSignal {
+		public BlockingSignal(Object source) {
+			super(source);
+		}
+	}
+
+	/**
+	 * Records the test signals and the time synch signals of the test
+	 * sources, in the order they are received.
+	 */
+	private class Listener {
+
+		final List<TmfSignal> fReceived = new ArrayList<TmfSignal>();
+		final CountDownLatch fBlocked = new CountDownLatch(1);
+		final CountDownLatch fRelease = new CountDownLatch(1);
+		CountDownLatch fExpected = new CountDownLatch(0);
+
+		@TmfSignalHandler
+		public void testSignal(TestSignal signal) {
+			record(signal);
+		}
+
+		@TmfSignalHandler
+		public void timeSynch(TmfTimeSynchSignal signal) {
+			if (signal.getSource() == fSource || signal.getSource() == fOtherSource) {
+				record(signal);
+			}
+		}
+
+		@TmfSignalHandler
+		public void blockingSignal(BlockingSignal signal) throws InterruptedException {
+			fBlocked.countDown();
+			fRelease.await(TIMEOUT, TimeUnit.SECONDS);
+		}
+
+		synchronized void record(TmfSignal signal) {
+			fReceived.add(signal);
+			fExpected.countDown();
+		}
+
+		synchronized List<TmfSignal> getReceived() {
+			return new ArrayList<TmfSignal>(fReceived);
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Dispatch table
+	// ------------------------------------------------------------------------
+
+	public void testRegisterListener() {
+		Listener listener1 = new Listener();
+		Listener listener2 = new Listener();
+		try {
+			TmfSignalManager.register(listener1);
+			TmfSignalManager.dispatchSignal(new TestSignal(fSource));
+			assertEquals("listener1", 1, listener1.getReceived().size());
+
+			// The dispatch table of the signal class is rebuilt with the new listener
+			TmfSignalManager.register(listener2);
+			TmfSignalManager.dispatchSignal(new TestSignal(fSource));
+			assertEquals("listener1", 2, listener1.getReceived().size());
+			assertEquals("listener2", 1, listener2.getReceived().size());
+		} finally {
+			TmfSignalManager.deregister(listener1);
+			TmfSignalManager.deregister(listener2);
+		}
+	}
+
+	public void testDeregisterListener() {
+		Listener listener1 = new Listener();
+		Listener listener2 = new Listener();
+		try {
+			TmfSignalManager.register(listener1);
+			TmfSignalManager.register(listener2);
+			TmfSignalManager.dispatchSignal(new TestSignal(fSource));
+			assertEquals("listener1", 1, listener1.getReceived().size());
+			assertEquals("listener2", 1, listener2.getReceived().size());
+
+			// The deregistered listener is no longer in the dispatch table
+			TmfSignalManager.deregister(listener1);
+			TmfSignalManager.dispatchSignal(new TestSignal(fSource));
+			assertEquals("listener1", 1, listener1.getReceived().size());
+			assertEquals("listener2", 2, listener2.getReceived().size());
+
+			TmfSignalManager.deregister(listener2);
+			TmfSignalManager.dispatchSignal(new TestSignal(fSource));
+			assertEquals("listener2", 2, listener2.getReceived().size());
+		} finally {
+			TmfSignalManager.deregister(listener1);
+			TmfSignalManager.deregister(listener2);
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// Asynchronous dispatching
+	// ------------------------------------------------------------------------
+
+	public void testDispatchSignalAsync() throws InterruptedException {
+		Listener listener = new Listener();
+		listener.fExpected = new CountDownLatch(3);
+		TmfSignalManager.register(listener);
+		try {
+			TestSignal signal1 = new TestSignal(fSource);
+			TestSignal signal2 = new TestSignal(fSource);
+			TestSignal signal3 = new TestSignal(fOtherSource);
+			TmfSignalManager.dispatchSignalAsync(signal1);
+			TmfSignalManager.dispatchSignalAsync(signal2);
+			TmfSignalManager.dispatchSignalAsync(signal3);
+			assertTrue("dispatched", listener.fExpected.await(TIMEOUT, TimeUnit.SECONDS));
+
+			// Other signals are neither collapsed nor reordered
+			List<TmfSignal> received = listener.getReceived();
+			assertEquals("nbReceived", 3, received.size());
+			assertSame("signal1", signal1, received.get(0));
+			assertSame("signal2", signal2, received.get(1));
+			assertSame("signal3", signal3, received.get(2));
+		} finally {
+			TmfSignalManager.deregister(listener);
+		}
+	}
+
+	public void testDispatchSignalAsyncCollapse() throws InterruptedException {
+		Listener listener = new Listener();
+		listener.fExpected = new CountDownLatch(3);
+		TmfSignalManager.register(listener);
+		try {
+			// Hold the dispatcher while the signals are queued
+			TmfSignalManager.dispatchSignalAsync(new BlockingSignal(fSource));
+			assertTrue("blocked", listener.fBlocked.await(TIMEOUT, TimeUnit.SECONDS));
+
+			TmfTimeSynchSignal synch1 = new TmfTimeSynchSignal(fSource, new TmfTimestamp(1));
+			TestSignal signal = new TestSignal(fSource);
+			TmfTimeSynchSignal synch2 = new TmfTimeSynchSignal(fSource, new TmfTimestamp(2));
+			TmfTimeSynchSignal otherSynch = new TmfTimeSynchSignal(fOtherSource, new TmfTimestamp(3));
+			TmfSignalManager.dispatchSignalAsync(synch1);
+			TmfSignalManager.dispatchSignalAsync(signal);
+			TmfSignalManager.dispatchSignalAsync(synch2);
+			TmfSignalManager.dispatchSignalAsync(otherSynch);
+			listener.fRelease.countDown();
+			assertTrue("dispatched", listener.fExpected.await(TIMEOUT, TimeUnit.SECONDS));
+
+			// The newer synch signal took the place of the pending one from
+			// the same source
+			List<TmfSignal> received = listener.getReceived();
+			assertEquals("nbReceived", 3, received.size());
+			assertSame("superseded", synch2, received.get(0));
+			assertSame("in order", signal, received.get(1));
+			assertSame("other source", otherSynch, received.get(2));
+		} finally {
+			listener.fRelease.countDown();
+			TmfSignalManager.deregister(listener);
+		}
+	}
+}
@@ -14,6 +14,8 @@ public class AllTests {
 		suite.addTestSuite(TmfCheckpointTest.class);
 		suite.addTestSuite(TmfContextTest.class);
 		suite.addTestSuite(TmfTraceTest.class);
+		suite.addTestSuite(TmfIndexFileTest.class);
+		suite.addTestSuite(TmfEventRowCacheTest.class);
 		//$JUnit-END$
 		return suite;
 	}
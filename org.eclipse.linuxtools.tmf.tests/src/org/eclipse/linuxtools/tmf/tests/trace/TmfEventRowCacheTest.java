@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.trace;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.tests.TmfCoreTestPlugin;
+import org.eclipse.linuxtools.tmf.trace.TmfEventRowCache;
+import org.eclipse.linuxtools.tmf.trace.TmfTraceStub;
+
+/**
+ * <b><u>TmfEventRowCacheTest</u></b>
+ * <p>
+ * Test suite for the TmfEventRowCache class.
+ */
+public class TmfEventRowCacheTest extends TestCase {
+
+    private static final String DIRECTORY   = "testfiles";
+    private static final String TEST_STREAM = "A-Test-10K";
+    private static final int    NB_EVENTS   = 10000;
+    private static final int    PAGE_SIZE   = 100;
+    private static final long   TIMEOUT     = 10000; // ms
+
+    private TmfTraceStub fTrace;
+    private RowCache fCache;
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+    private class RowCache extends TmfEventRowCache {
+    	private final List<Integer> fLoaded = new ArrayList<Integer>();
+
+    	RowCache(int nbPages) {
+    		super(fTrace, PAGE_SIZE, nbPages);
+    	}
+
+		@Override
+		protected String[] renderEvent(TmfEvent event) {
+			return new String[] { Long.toString(event.getTimestamp().getValue()), event.getType().getTypeId() };
+		}
+
+		@Override
+		protected synchronized void pageLoaded(int startRank, int nbEvents) {
+			fLoaded.add(startRank);
+			notifyAll();
+		}
+
+		synchronized void waitForPage(int startRank) throws InterruptedException {
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (!fLoaded.contains(startRank) && System.currentTimeMillis() < end) {
+				wait(100);
+			}
+			assertTrue("page " + startRank + " loaded", fLoaded.contains(startRank));
+		}
+
+		synchronized int getNbLoaded() {
+			return fLoaded.size();
+		}
+    }
+
+    public TmfEventRowCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+        URL location = FileLocator.find(TmfCoreTestPlugin.getDefault().getBundle(), new Path(DIRECTORY + File.separator + TEST_STREAM), null);
+		File test = new File(FileLocator.toFileURL(location).toURI());
+        fTrace = new TmfTraceStub(test.getPath(), 500, true);
+        fCache = new RowCache(4);
+        fCache.setNbEvents(NB_EVENTS);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		fTrace.dispose();
+	}
+
+    // ------------------------------------------------------------------------
+    // getFields
+    // ------------------------------------------------------------------------
+
+	public void testMissThenHit() throws Exception {
+		assertNull("miss", fCache.getFields(150));
+		assertNull("no timestamp", fCache.getTimestamp(150));
+
+		fCache.waitForPage(100);
+		String[] fields = fCache.getFields(150);
+		assertEquals("nb fields", 2, fields.length);
+		assertEquals("timestamp field", "151", fields[0]);
+
+		TmfTimestamp timestamp = fCache.getTimestamp(150);
+		assertEquals("timestamp", 151, timestamp.getValue());
+		assertEquals("scale", (byte) -3, timestamp.getScale());
+	}
+
+	public void testReadAhead() throws Exception {
+		fCache.getFields(250);
+		fCache.waitForPage(100);
+		fCache.waitForPage(200);
+		fCache.waitForPage(300);
+		assertEquals("before", "200", fCache.getFields(199)[0]);
+		assertEquals("after", "301", fCache.getFields(300)[0]);
+	}
+
+	public void testLastPage() throws Exception {
+		fCache.setNbEvents(150);
+		fCache.getFields(120);
+		fCache.waitForPage(100);
+		fCache.waitForPage(0);
+		assertEquals("last event", "150", fCache.getFields(149)[0]);
+		assertEquals("only the events known", 2, fCache.getNbLoaded());
+	}
+
+	public void testNewEvents() throws Exception {
+		fCache.setNbEvents(150);
+		fCache.getFields(120);
+		fCache.waitForPage(0);
+		fCache.waitForPage(100);
+		assertNull("beyond the known events", fCache.getFields(250));
+		assertNull("beyond the known events", fCache.getFields(250));
+		assertEquals("not loaded", 2, fCache.getNbLoaded());
+
+		fCache.setNbEvents(NB_EVENTS);
+		assertNull("miss", fCache.getFields(250));
+		fCache.waitForPage(200);
+		assertEquals("new event", "251", fCache.getFields(250)[0]);
+	}
+
+	public void testEviction() throws Exception {
+		fCache = new RowCache(3);
+		fCache.setNbEvents(NB_EVENTS);
+		fCache.getFields(150);
+		fCache.waitForPage(0);
+		fCache.waitForPage(100);
+		fCache.waitForPage(200);
+		fCache.getFields(850);
+		fCache.waitForPage(900);
+		fCache.waitForPage(800);
+		fCache.waitForPage(700);
+		assertNull("evicted", fCache.getTimestamp(150));
+		assertNotNull("kept", fCache.getTimestamp(850));
+	}
+
+	public void testClear() throws Exception {
+		fCache.getFields(150);
+		fCache.waitForPage(100);
+		fCache.clear();
+		assertNull("cleared", fCache.getTimestamp(150));
+		assertNull("miss", fCache.getFields(150));
+	}
+
+}
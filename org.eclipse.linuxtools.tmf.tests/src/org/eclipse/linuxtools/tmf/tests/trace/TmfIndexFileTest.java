@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.tests.trace;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.experiment.TmfExperiment;
+import org.eclipse.linuxtools.tmf.request.TmfEventRequest;
+import org.eclipse.linuxtools.tmf.tests.TmfCoreTestPlugin;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfCheckpoint;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+import org.eclipse.linuxtools.tmf.trace.TmfIndexFile;
+import org.eclipse.linuxtools.tmf.trace.TmfTraceStub;
+
+/**
+ * <b><u>TmfIndexFileTest</u></b>
+ * <p>
+ * Test suite for the TmfIndexFile class (persistent checkpoint index).
+ */
+public class TmfIndexFileTest extends TestCase {
+
+    private static final String DIRECTORY   = "testfiles";
+    private static final String TEST_STREAM = "A-Test-10K";
+    private static final int    BLOCK_SIZE  = 500;
+    private static final int    NB_EVENTS   = 10000;
+
+    private File fTraceFile;
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+	public TmfIndexFileTest(String name) throws Exception {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// Work on a copy of the test trace: the index is written next to it
+        URL location = FileLocator.find(TmfCoreTestPlugin.getDefault().getBundle(), new Path(DIRECTORY + File.separator + TEST_STREAM), null);
+		File original = new File(FileLocator.toFileURL(location).toURI());
+		fTraceFile = File.createTempFile(TEST_STREAM, "");
+		copy(original, fTraceFile);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+		TmfIndexFile.getIndexFile(fTraceFile.getPath()).delete();
+		fTraceFile.delete();
+	}
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+	private static void copy(File from, File to) throws IOException {
+		FileInputStream in = new FileInputStream(from);
+		FileOutputStream out = new FileOutputStream(to);
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		in.close();
+		out.close();
+	}
+
+	private TmfTraceStub openIndexedTrace() throws Exception {
+		TmfTraceStub trace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+    	TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class) {
+			@Override
+			public void handleData(TmfEvent event) {
+        		super.handleData(event);
+			}
+    	};
+    	trace.sendRequest(request);
+    	request.waitForCompletion();
+    	return trace;
+	}
+
+    // ------------------------------------------------------------------------
+    // Save/restore
+    // ------------------------------------------------------------------------
+
+	public void testNoIndex() throws Exception {
+		TmfTraceStub trace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertFalse("restoreIndex", trace.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.INVALID, trace.getIndexFile().getStatus());
+		assertEquals("getNbEvents", 0, trace.getNbEvents());
+		trace.dispose();
+	}
+
+	public void testSaveRestore() throws Exception {
+		TmfTraceStub trace = openIndexedTrace();
+		Vector<TmfCheckpoint> checkpoints = trace.getCheckpoints();
+		assertTrue("saveIndex", trace.saveIndex());
+		trace.dispose();
+
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.COMPLETE, restored.getIndexFile().getStatus());
+		assertEquals("getNbEvents", NB_EVENTS, restored.getNbEvents());
+		assertEquals("getStartTime", 1, restored.getStartTime().getValue());
+		assertEquals("getEndTime", NB_EVENTS, restored.getEndTime().getValue());
+
+		Vector<TmfCheckpoint> restoredCheckpoints = restored.getCheckpoints();
+		assertEquals("nbCheckpoints", checkpoints.size(), restoredCheckpoints.size());
+		for (int i = 0; i < checkpoints.size(); i++) {
+			assertEquals("timestamp", checkpoints.get(i).getTimestamp(), restoredCheckpoints.get(i).getTimestamp());
+			assertEquals("location", checkpoints.get(i).getLocation(), restoredCheckpoints.get(i).getLocation());
+		}
+
+		// Seek without reading the trace first
+		TmfContext context = restored.seekEvent(6543);
+		TmfEvent event = restored.getNextEvent(context);
+		assertEquals("Event timestamp", 6544, event.getTimestamp().getValue());
+
+		context = restored.seekEvent(new TmfTimestamp(4321, (byte) -3, 0));
+		assertEquals("Event rank", 4320, context.getRank());
+		restored.dispose();
+	}
+
+	public void testSaveOnDispose() throws Exception {
+		TmfTraceStub trace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertFalse("restoreIndex", trace.restoreIndex());
+    	TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class) {};
+    	trace.sendRequest(request);
+    	request.waitForCompletion();
+		trace.dispose();
+		assertTrue("index file", TmfIndexFile.getIndexFile(fTraceFile.getPath()).exists());
+
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getNbEvents", NB_EVENTS, restored.getNbEvents());
+		restored.dispose();
+	}
+
+	public void testSaveInterruptedIndexing() throws Exception {
+		TmfTraceStub trace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertFalse("restoreIndex", trace.restoreIndex());
+		TmfContext context = trace.seekEvent(0);
+		for (int i = 0; i < NB_EVENTS / 4; i++) {
+			trace.getNextEvent(context);
+		}
+		trace.dispose();
+		assertTrue("index file", TmfIndexFile.getIndexFile(fTraceFile.getPath()).exists());
+
+		// The index is usable but flagged as partial
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.PARTIAL, restored.getIndexFile().getStatus());
+		assertEquals("getNbEvents", NB_EVENTS / 4, restored.getNbEvents());
+
+		// Completing the indexing makes it complete
+		int nbCheckpoints = restored.getCheckpoints().size();
+		context = restored.seekEvent((long) (nbCheckpoints - 1) * BLOCK_SIZE);
+		while (restored.getNextEvent(context) != null) {
+		}
+		assertTrue("saveIndex", restored.saveIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.COMPLETE, restored.getIndexFile().getStatus());
+		assertEquals("getNbEvents", NB_EVENTS, restored.getNbEvents());
+		restored.dispose();
+	}
+
+	public void testDifferentPageSize() throws Exception {
+		TmfTraceStub trace = openIndexedTrace();
+		assertTrue("saveIndex", trace.saveIndex());
+		trace.dispose();
+
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE * 2);
+		assertFalse("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.INVALID, restored.getIndexFile().getStatus());
+		restored.dispose();
+	}
+
+    // ------------------------------------------------------------------------
+    // Stale/grown traces
+    // ------------------------------------------------------------------------
+
+	public void testTruncatedTrace() throws Exception {
+		TmfTraceStub trace = openIndexedTrace();
+		assertTrue("saveIndex", trace.saveIndex());
+		trace.dispose();
+
+		RandomAccessFile raf = new RandomAccessFile(fTraceFile, "rw");
+		raf.setLength(raf.length() / 2);
+		raf.close();
+
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertFalse("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.INVALID, restored.getIndexFile().getStatus());
+		assertEquals("nbCheckpoints", 0, restored.getCheckpoints().size());
+		restored.dispose();
+	}
+
+	public void testGrownTrace() throws Exception {
+		TmfTraceStub trace = openIndexedTrace();
+		assertTrue("saveIndex", trace.saveIndex());
+		int nbCheckpoints = trace.getCheckpoints().size();
+		trace.dispose();
+
+		// Append the trace to itself
+		File original = File.createTempFile(TEST_STREAM, "");
+		copy(fTraceFile, original);
+		FileInputStream in = new FileInputStream(original);
+		FileOutputStream out = new FileOutputStream(fTraceFile, true);
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) > 0) {
+			out.write(buffer, 0, n);
+		}
+		in.close();
+		out.close();
+		original.delete();
+
+		TmfTraceStub restored = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.PARTIAL, restored.getIndexFile().getStatus());
+		assertEquals("nbCheckpoints", nbCheckpoints, restored.getCheckpoints().size());
+
+		// The index is extended from the last checkpoint
+		TmfContext context = restored.seekEvent((long) (nbCheckpoints - 1) * BLOCK_SIZE);
+		while (restored.getNextEvent(context) != null) {
+		}
+		assertEquals("getNbEvents", 2 * NB_EVENTS, restored.getNbEvents());
+		assertEquals("nbCheckpoints", 2 * nbCheckpoints, restored.getCheckpoints().size());
+		restored.dispose();
+	}
+
+    // ------------------------------------------------------------------------
+    // Experiment index
+    // ------------------------------------------------------------------------
+
+	public void testExperimentIndex() throws Exception {
+		ITmfTrace[] traces = new ITmfTrace[] { new TmfTraceStub(fTraceFile.getPath(), true) };
+		TmfExperiment<TmfEvent> experiment = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexedExperiment", traces, TmfTimestamp.Zero, 1000, true);
+		assertTrue("saveIndex", experiment.saveIndex());
+		File indexFile = experiment.getIndexFile().getFile();
+		Vector<TmfCheckpoint> checkpoints = experiment.getCheckpoints();
+		int nbCheckpoints = checkpoints.size();
+		TmfCheckpoint lastCheckpoint = checkpoints.lastElement();
+		experiment.dispose();
+
+		traces = new ITmfTrace[] { new TmfTraceStub(fTraceFile.getPath(), true) };
+		TmfExperiment<TmfEvent> restored = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexedExperiment", traces, 1000);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.COMPLETE, restored.getIndexFile().getStatus());
+		assertEquals("getNbEvents", NB_EVENTS, restored.getNbEvents());
+		assertEquals("nbCheckpoints", nbCheckpoints, restored.getCheckpoints().size());
+		assertEquals("location", lastCheckpoint.getLocation().toString(), restored.getCheckpoints().lastElement().getLocation().toString());
+
+		TmfContext context = restored.seekEvent(5678);
+		assertEquals("Event rank", 5678, context.getRank());
+		TmfEvent event = restored.getNextEvent(context);
+		assertEquals("Event timestamp", 5679, event.getTimestamp().getValue());
+
+		restored.dispose();
+		indexFile.delete();
+	}
+
+	public void testExperimentRestoresTraceIndex() throws Exception {
+		TmfTraceStub trace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		TmfExperiment<TmfEvent> experiment = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexedExperiment", new ITmfTrace[] { trace }, 1000);
+		assertFalse("restoreIndex", experiment.restoreIndex());
+		assertNotNull("getIndexFile", trace.getIndexFile());
+    	TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class) {};
+    	experiment.sendRequest(request);
+    	request.waitForCompletion();
+		assertTrue("saveIndex", experiment.saveIndex());
+		File indexFile = experiment.getIndexFile().getFile();
+		experiment.dispose();
+		assertTrue("index file", TmfIndexFile.getIndexFile(fTraceFile.getPath()).exists());
+
+		TmfTraceStub restoredTrace = new TmfTraceStub(fTraceFile.getPath(), BLOCK_SIZE);
+		TmfExperiment<TmfEvent> restored = new TmfExperiment<TmfEvent>(TmfEvent.class, "IndexedExperiment", new ITmfTrace[] { restoredTrace }, 1000);
+		assertTrue("restoreIndex", restored.restoreIndex());
+		assertEquals("getStatus", TmfIndexFile.Status.COMPLETE, restoredTrace.getIndexFile().getStatus());
+		assertEquals("getNbEvents", NB_EVENTS, restoredTrace.getNbEvents());
+		assertEquals("nbCheckpoints", NB_EVENTS / BLOCK_SIZE, restoredTrace.getCheckpoints().size());
+
+		TmfContext context = restoredTrace.seekEvent(5678);
+		assertEquals("Event rank", 5678, context.getRank());
+
+		restored.dispose();
+		indexFile.delete();
+	}
+
+}
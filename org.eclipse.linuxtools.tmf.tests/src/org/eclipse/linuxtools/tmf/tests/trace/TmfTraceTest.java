@@ -23,6 +23,7 @@ import junit.framework.TestCase;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.linuxtools.tmf.component.ITmfDataProvider;
+import org.eclipse.linuxtools.tmf.component.TmfDataProvider;
 import org.eclipse.linuxtools.tmf.component.TmfProviderManager;
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
@@ -755,6 +756,41 @@ public class TmfTraceTest extends TestCase {
         }
     }
     
+    @SuppressWarnings("unchecked")
+	public void testProcessRequestInBatches() throws Exception {
+        final int NB_EVENTS  = 1000;
+        final Vector<TmfEvent> requestedEvents = new Vector<TmfEvent>();
+        final int[] nbBatches = new int[1];
+
+        TmfTimeRange range = new TmfTimeRange(TmfTimestamp.BigBang, TmfTimestamp.BigCrunch);
+        final TmfEventRequest<TmfEvent> request = new TmfEventRequest<TmfEvent>(TmfEvent.class, range, NB_EVENTS, BLOCK_SIZE) {
+        	@Override
+        	public void handleData(TmfEvent[] events, int count) {
+        		assertTrue("batch size", count <= TmfDataProvider.DEFAULT_BATCH_SIZE);
+        		nbBatches[0]++;
+        		super.handleData(events, count);
+        	}
+        	@Override
+        	public void handleData(TmfEvent event) {
+        		super.handleData(event);
+        		requestedEvents.add(event);
+        	}
+        };
+        ITmfDataProvider<TmfEvent>[] providers = (ITmfDataProvider<TmfEvent>[]) TmfProviderManager.getProviders(TmfEvent.class, TmfTraceStub.class);
+        providers[0].sendRequest(request);
+        request.waitForCompletion();
+
+        assertEquals("nbEvents", NB_EVENTS, requestedEvents.size());
+        assertEquals("nbRead",   NB_EVENTS, request.getNbRead());
+        assertEquals("nbBatches", (NB_EVENTS + TmfDataProvider.DEFAULT_BATCH_SIZE - 1) / TmfDataProvider.DEFAULT_BATCH_SIZE, nbBatches[0]);
+        assertTrue("isCompleted",  request.isCompleted());
+        assertFalse("isCancelled", request.isCancelled());
+
+        for (int i = 0; i < NB_EVENTS; i++) {
+            assertEquals("Distinct events", i+1, requestedEvents.get(i).getTimestamp().getValue());
+        }
+    }
+    
     // ------------------------------------------------------------------------
     // cancel
     // ------------------------------------------------------------------------
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.trace;
+
+import java.io.FileNotFoundException;
+
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+
+/**
+ * <b><u>TmfSingleEventTraceStub</u></b>
+ * <p>
+ * Dummy test trace that returns the same event instance for every read
+ * (like LTTngTrace): an event is only valid until the next read.
+ */
+public class TmfSingleEventTraceStub extends TmfTraceStub {
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+	// The event overwritten by each read
+	private SingleEvent fEvent = new SingleEvent();
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    /**
+     * @param filename
+     * @param waitForCompletion
+     * @throws FileNotFoundException
+     */
+	public TmfSingleEventTraceStub(String filename, boolean waitForCompletion) throws FileNotFoundException {
+		super(filename, waitForCompletion);
+	}
+
+    @Override
+	public TmfSingleEventTraceStub clone() {
+		TmfSingleEventTraceStub clone = (TmfSingleEventTraceStub) super.clone();
+		if (clone != null) {
+			clone.fEvent = new SingleEvent();
+		}
+		return clone;
+	}
+
+    // ------------------------------------------------------------------------
+    // Operators
+    // ------------------------------------------------------------------------
+
+	// The event instance is reused
+	@Override
+	public int getBatchSize() {
+		return 1;
+	}
+
+	@Override
+	public synchronized TmfEvent getNextEvent(TmfContext context) {
+		TmfEvent event = super.getNextEvent(context);
+		if (event == null) {
+			return null;
+		}
+		fEvent.set(event);
+		return fEvent;
+	}
+
+    // ------------------------------------------------------------------------
+    // SingleEvent
+    // ------------------------------------------------------------------------
+
+	private static class SingleEvent extends TmfEvent {
+
+		SingleEvent() {
+			super(null, null, null, null);
+		}
+
+		void set(TmfEvent other) {
+			fOriginalTimestamp  = other.getOriginalTimestamp();
+			fEffectiveTimestamp = other.getTimestamp();
+			fSource             = other.getSource();
+			fType               = other.getType();
+			fReference          = other.getReference();
+			fContent            = other.getContent();
+		}
+	}
+
+}
@@ -149,6 +149,12 @@ public class TmfTraceStub extends TmfTrace<TmfEvent> {
         return null;
     }
 
+	// The parser creates a new event for each read
+	@Override
+	public int getBatchSize() {
+		return DEFAULT_BATCH_SIZE;
+	}
+
 	@Override
 	public TmfEvent parseEvent(TmfContext context) {
        	try {
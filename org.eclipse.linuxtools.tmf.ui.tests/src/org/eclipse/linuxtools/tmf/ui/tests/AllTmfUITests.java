@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.tests;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * <b><u>AllTmfUITests</u></b>
+ * <p>
+ * Master test suite for TMF UI.
+ */
+public class AllTmfUITests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(AllTmfUITests.class.getName());
+		//$JUnit-BEGIN$
+		suite.addTest(org.eclipse.linuxtools.tmf.ui.tests.parsers.custom.AllTests.suite());
+		//$JUnit-END$
+		return suite;
+	}
+
+}
@@ -0,0 +1,18 @@
+package org.eclipse.linuxtools.tmf.ui.tests.parsers.custom;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.linuxtools.tmf.ui.TmfUiPlugin;
+
+public class AllTests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite("Test suite for " + TmfUiPlugin.PLUGIN_ID + ".parsers.custom"); //$NON-NLS-1$);
+		//$JUnit-BEGIN$
+		suite.addTestSuite(CustomTimestampFormatTest.class);
+		//$JUnit-END$
+		return suite;
+	}
+
+}
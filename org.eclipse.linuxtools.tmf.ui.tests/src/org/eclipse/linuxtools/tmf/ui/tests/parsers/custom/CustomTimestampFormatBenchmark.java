@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.tests.parsers.custom;
+
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomTimestampFormat;
+
+/**
+ * <b><u>CustomTimestampFormatBenchmark</u></b>
+ * <p>
+ * Compares the parse and format times of CustomTimestampFormat with the ones
+ * of SimpleDateFormat, for the layouts of its fast path and for a layout left
+ * to the SimpleDateFormat. The times per call are printed.
+ * <p>
+ * It is not part of the test suites: run it on its own as a JUnit plug-in
+ * test.
+ */
+public class CustomTimestampFormatBenchmark extends TestCase {
+
+	private static final String[] PATTERNS = {
+		"yyyy-MM-dd HH:mm:ss.SSS",
+		"yyyy-MM-dd'T'HH:mm:ss",
+		"yyyyMMddHHmmss",
+		"dd MMM yyyy HH:mm:ss",
+	};
+
+	private static final long START_TIME = 1276605296789L;	// 2010-06-15
+	private static final int  NB_CALLS   = 200000;
+	private static final int  NB_RUNS    = 5;		// The best run is kept
+
+	public CustomTimestampFormatBenchmark(String name) {
+		super(name);
+	}
+
+	// Returns the time per call (in ns)
+	private static long timeParse(CustomTimestampFormat format, SimpleDateFormat dateFormat, String[] texts) throws Exception {
+		long best = Long.MAX_VALUE;
+		for (int run = 0; run < NB_RUNS; run++) {
+			long sum = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < NB_CALLS; i++) {
+				String text = texts[i % texts.length];
+				sum += (format != null) ? format.parse(text) : dateFormat.parse(text).getTime();
+			}
+			best = Math.min(best, System.nanoTime() - start);
+			assertTrue(sum != 0);
+		}
+		return best / NB_CALLS;
+	}
+
+	// Returns the time per call (in ns)
+	private static long timeFormat(CustomTimestampFormat format, SimpleDateFormat dateFormat) {
+		long best = Long.MAX_VALUE;
+		for (int run = 0; run < NB_RUNS; run++) {
+			int length = 0;
+			long start = System.nanoTime();
+			for (int i = 0; i < NB_CALLS; i++) {
+				long time = START_TIME + i * 1001L;
+				length += (format != null) ? format.format(time).length() : dateFormat.format(time).length();
+			}
+			best = Math.min(best, System.nanoTime() - start);
+			assertTrue(length > 0);
+		}
+		return best / NB_CALLS;
+	}
+
+	public void testBenchmark() throws Exception {
+		TimeZone timeZone = TimeZone.getTimeZone("UTC");
+		System.out.println("CustomTimestampFormat benchmark (ns per call)");
+		System.out.println("  pattern                      parse (SDF)  parse (custom)  format (SDF)  format (custom)");
+		for (String pattern : PATTERNS) {
+			CustomTimestampFormat format = new CustomTimestampFormat(pattern, timeZone);
+			SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+			dateFormat.setTimeZone(timeZone);
+			String[] texts = new String[1000];
+			for (int i = 0; i < texts.length; i++) {
+				texts[i] = dateFormat.format(START_TIME + i * 1001L);
+			}
+
+			long sdfParse     = timeParse(null, dateFormat, texts);
+			long customParse  = timeParse(format, null, texts);
+			long sdfFormat    = timeFormat(null, dateFormat);
+			long customFormat = timeFormat(format, null);
+			System.out.println(String.format("  %-27s %12d %15d %13d %16d", pattern, sdfParse, customParse, sdfFormat, customFormat));
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.tests.parsers.custom;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Random;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomTimestampFormat;
+
+/**
+ * <b><u>CustomTimestampFormatTest</u></b>
+ * <p>
+ * Test suite for the CustomTimestampFormat class. The results of its fast
+ * path must be the same as the ones of the SimpleDateFormat.
+ */
+public class CustomTimestampFormatTest extends TestCase {
+
+	// The fast path layouts (numeric fields and literals)
+	private static final String[] NUMERIC_PATTERNS = {
+		"yyyy-MM-dd HH:mm:ss",
+		"yyyy-MM-dd HH:mm:ss.SSS",
+		"yyyy-MM-dd'T'HH:mm:ss",
+		"yyyy-MM-dd'T'HH:mm:ss.SSS",
+		"yyyyMMdd'T'HHmmss",
+		"yyyyMMddHHmmssSSS",
+		"yyyy.MM.dd",
+		"dd/MM/yyyy HH:mm",
+		"HH:mm:ss.SSS",
+		"'['yyyy-MM-dd HH:mm:ss']' ''S''",
+		"y-M-d H:m:s.S",
+	};
+
+	// The layouts left to the SimpleDateFormat
+	private static final String[] OTHER_PATTERNS = {
+		"yy-MM-dd HH:mm:ss",
+		"dd MMM yyyy HH:mm:ss",
+		"EEE, d MMM yyyy HH:mm:ss Z",
+		"yyyy-MM-dd hh:mm:ss a",
+	};
+
+	private static final String[] TIME_ZONES = { "UTC", "America/Montreal", "Asia/Kolkata" };
+
+	private static final int NB_TIMES = 2000;
+
+    // ------------------------------------------------------------------------
+    // Housekeeping
+    // ------------------------------------------------------------------------
+
+	public CustomTimestampFormatTest(String name) {
+		super(name);
+	}
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+	private static SimpleDateFormat newDateFormat(String pattern, TimeZone timeZone) {
+		SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+		dateFormat.setTimeZone(timeZone);
+		return dateFormat;
+	}
+
+	// Random times from 1970 to 2038, some of them on a second boundary
+	private static long[] randomTimes(long seed) {
+		Random random = new Random(seed);
+		long[] times = new long[NB_TIMES];
+		for (int i = 0; i < NB_TIMES; i++) {
+			long time = (random.nextLong() >>> 1) % (1L << 31) * 1000L + random.nextInt(1000);
+			times[i] = (i % 10 == 0) ? time / 1000 * 1000 : time;
+		}
+		return times;
+	}
+
+	private static void assertSameParse(String text, CustomTimestampFormat format, SimpleDateFormat dateFormat) {
+		Long expected = null;
+		try {
+			expected = dateFormat.parse(text).getTime();
+		} catch (ParseException e) {
+		}
+		Long actual = null;
+		try {
+			actual = format.parse(text);
+		} catch (ParseException e) {
+		}
+		assertEquals("parse(\"" + text + "\") [" + format.getPattern() + "]", expected, actual);
+	}
+
+	private static void checkPattern(String pattern) {
+		for (String id : TIME_ZONES) {
+			TimeZone timeZone = TimeZone.getTimeZone(id);
+			CustomTimestampFormat format = new CustomTimestampFormat(pattern, timeZone);
+			SimpleDateFormat dateFormat = newDateFormat(pattern, timeZone);
+			for (long time : randomTimes(pattern.hashCode())) {
+				String expected = dateFormat.format(time);
+				assertEquals("format(" + time + ") [" + pattern + ", " + id + "]", expected, format.format(time));
+				assertSameParse(expected, format, dateFormat);
+			}
+		}
+	}
+
+    // ------------------------------------------------------------------------
+    // format/parse
+    // ------------------------------------------------------------------------
+
+	public void testGetPattern() {
+		CustomTimestampFormat format = new CustomTimestampFormat("yyyy-MM-dd", TimeZone.getTimeZone("UTC"));
+		assertEquals("getPattern", "yyyy-MM-dd", format.getPattern());
+	}
+
+	public void testNumericPatterns() {
+		for (String pattern : NUMERIC_PATTERNS) {
+			checkPattern(pattern);
+		}
+	}
+
+	public void testOtherPatterns() {
+		for (String pattern : OTHER_PATTERNS) {
+			checkPattern(pattern);
+		}
+	}
+
+	public void testInvalidPattern() {
+		try {
+			new CustomTimestampFormat("yyyy-MM-dd qq", TimeZone.getTimeZone("UTC"));
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+    // ------------------------------------------------------------------------
+    // parse (unusual text)
+    // ------------------------------------------------------------------------
+
+	public void testParseIso8601() {
+		String[] texts = {
+			"2010-06-15T12:34:56.789",
+			"2010-06-15T12:34:56.7",		// Short millisecond field
+			"2010-06-15T12:34:56.789123",	// Long millisecond field
+			"2010-6-5T2:4:6.7",				// Unpadded fields
+			"2010-13-32T25:61:61.1000",		// Lenient overflow
+			"2010-02-29T00:00:00.000",		// Not a leap year
+			"2010-03-14T02:30:00.000",		// DST gap (Montreal)
+			"2010-11-07T01:30:00.000",		// DST overlap (Montreal)
+			"2010-06-15T12:34:56.789Z",		// Trailing text
+			"2010-06-15T12:34:56.",			// Missing field
+			"2010-06-15 12:34:56.789",		// Wrong literal
+			" 2010-06-15T12:34:56.789",		// Leading space
+			"2010- 06-15T12:34:56.789",		// Space before a number
+			"+2010-06-15T12:34:56.789",		// Signed number
+			"2010--06-15T12:34:56.789",
+			"2010-06-15T12:34:56.1E3",		// Exponent
+			"12345678901-06-15T12:34:56.789",	// Too many digits
+			"",
+		};
+		String pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+		for (String id : TIME_ZONES) {
+			TimeZone timeZone = TimeZone.getTimeZone(id);
+			CustomTimestampFormat format = new CustomTimestampFormat(pattern, timeZone);
+			SimpleDateFormat dateFormat = newDateFormat(pattern, timeZone);
+			for (String text : texts) {
+				assertSameParse(text, format, dateFormat);
+			}
+		}
+	}
+
+	public void testParseAdjacentFields() {
+		String[] texts = {
+			"20100615123456789",
+			"2010061512345678",				// Last field shorter
+			"2010061512345678901",			// Last field longer
+			"2010O615123456789",			// Not a digit
+			"201006151234",					// Too short
+		};
+		String pattern = "yyyyMMddHHmmssSSS";
+		CustomTimestampFormat format = new CustomTimestampFormat(pattern, TimeZone.getTimeZone("UTC"));
+		SimpleDateFormat dateFormat = newDateFormat(pattern, TimeZone.getTimeZone("UTC"));
+		for (String text : texts) {
+			assertSameParse(text, format, dateFormat);
+		}
+	}
+
+	public void testParseException() {
+		CustomTimestampFormat format = new CustomTimestampFormat("yyyy-MM-dd", TimeZone.getTimeZone("UTC"));
+		try {
+			format.parse("June 15, 2010");
+			fail("ParseException expected");
+		} catch (ParseException e) {
+		}
+	}
+
+}
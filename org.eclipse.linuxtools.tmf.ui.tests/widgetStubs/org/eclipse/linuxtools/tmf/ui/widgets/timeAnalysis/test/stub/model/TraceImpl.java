@@ -28,6 +28,7 @@ public class TraceImpl implements ITmfTimeAnalysisEntry {
 	private String groupName = "defaultGroupName";
 	private String className = "defaultClassName";
 	private Vector<TimeEvent> traceEvents = new Vector<TimeEvent>();
+	private long modificationCount = 0;
 	
 	// ========================================================================
 	// Constructor
@@ -106,4 +107,19 @@ public class TraceImpl implements ITmfTimeAnalysisEntry {
 		return traceEvents;
 	}
 
+	@Override
+	public int getTraceEventIndex(long time) {
+		return TimeEvent.getFirstEventIndex(traceEvents, time);
+	}
+
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	public void addTraceEvent(TimeEvent event) {
+		traceEvents.add(event);
+		modificationCount++;
+	}
+
 }
@@ -13,8 +13,6 @@
 package org.eclipse.linuxtools.tmf.ui.parsers.custom;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -80,12 +78,13 @@ public class CustomEvent extends TmfEvent {
     private void processData() {
         String timeStampString = fData.get(CustomTraceDefinition.TAG_TIMESTAMP);
         String timeStampInputFormat = fData.get(TIMESTAMP_INPUT_FORMAT_KEY);
-        Date date = null;
+        boolean timeStampParsed = false;
+        long time = 0;
         if (timeStampInputFormat != null && timeStampString != null) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat(timeStampInputFormat);
             try {
-                date = dateFormat.parse(timeStampString);
-                fOriginalTimestamp = fEffectiveTimestamp = new TmfTimestamp(date.getTime(), TIMESTAMP_SCALE);
+                time = fDefinition.getTimestampFormat(timeStampInputFormat).parse(timeStampString);
+                timeStampParsed = true;
+                fOriginalTimestamp = fEffectiveTimestamp = new TmfTimestamp(time, TIMESTAMP_SCALE);
             } catch (ParseException e) {
                 fOriginalTimestamp = fEffectiveTimestamp = TmfTimestamp.Zero;
             }
@@ -97,9 +96,8 @@ public class CustomEvent extends TmfEvent {
         fColumnData = new String[fDefinition.outputs.size()];
         for (OutputColumn outputColumn : fDefinition.outputs) {
             String value = fData.get(outputColumn.name);
-            if (outputColumn.name.equals(CustomTraceDefinition.TAG_TIMESTAMP) && date != null) {
-                SimpleDateFormat dateFormat = new SimpleDateFormat(fDefinition.timeStampOutputFormat);
-                fColumnData[i++] = dateFormat.format(date);
+            if (outputColumn.name.equals(CustomTraceDefinition.TAG_TIMESTAMP) && timeStampParsed) {
+                fColumnData[i++] = fDefinition.getTimestampFormat(fDefinition.timeStampOutputFormat).format(time);
             } else {
                 fColumnData[i++] = value;
             }
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.parsers.custom;
+
+import java.text.DecimalFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * A compiled SimpleDateFormat pattern, shared by the events of a trace
+ * definition. It is thread-safe.
+ * <p>
+ * The patterns made only of numeric fields (yyyy, MM, dd, HH, mm, ss, SSS)
+ * and literals, such as ISO-8601 layouts, are parsed and formatted without
+ * the SimpleDateFormat. Their results are the same: the fields are set in a
+ * calendar like the SimpleDateFormat does, and any text that the fast path
+ * does not handle, such as spaces before a number or signed numbers, is
+ * left to the SimpleDateFormat.
+ */
+public class CustomTimestampFormat {
+
+    // The numeric fields of the fast path, by pattern letter
+    private static final String FAST_LETTERS = "yMdHmsS";
+    private static final int[] FAST_FIELDS = { Calendar.YEAR, Calendar.MONTH, Calendar.DAY_OF_MONTH,
+            Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND, Calendar.MILLISECOND };
+
+    // Larger numbers are left to the SimpleDateFormat
+    private static final int MAX_DIGITS = 9;
+
+    private final String fPattern;
+    private final SimpleDateFormat fDateFormat;
+
+    // The fast path tokens: a literal, or a calendar field and its width
+    private final boolean fFast;
+    private String[] fLiterals;
+    private int[] fFields;
+    private int[] fWidths;
+    private boolean[] fFixedWidths;
+    private Calendar fCalendar;
+
+    /**
+     * @param pattern the SimpleDateFormat pattern
+     * @param timeZone the time zone
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public CustomTimestampFormat(String pattern, TimeZone timeZone) {
+        fPattern = pattern;
+        fDateFormat = new SimpleDateFormat(pattern);
+        fDateFormat.setTimeZone(timeZone);
+        fFast = compile(pattern);
+    }
+
+    /**
+     * @return the pattern
+     */
+    public String getPattern() {
+        return fPattern;
+    }
+
+    /**
+     * @param text the text to parse, from its start
+     * @return the time, in milliseconds since the epoch
+     * @throws ParseException if the start of the text can't be parsed
+     */
+    public synchronized long parse(String text) throws ParseException {
+        if (fFast && parseFields(text)) {
+            return fCalendar.getTimeInMillis();
+        }
+        return fDateFormat.parse(text).getTime();
+    }
+
+    /**
+     * @param time the time, in milliseconds since the epoch
+     * @return the formatted time
+     */
+    public synchronized String format(long time) {
+        if (!fFast) {
+            return fDateFormat.format(time);
+        }
+        fCalendar.setTimeInMillis(time);
+        StringBuilder buffer = new StringBuilder(fPattern.length() + 8);
+        for (int i = 0; i < fFields.length; i++) {
+            if (fLiterals[i] != null) {
+                buffer.append(fLiterals[i]);
+                continue;
+            }
+            int value = fCalendar.get(fFields[i]);
+            if (fFields[i] == Calendar.MONTH) {
+                value++;
+            }
+            String digits = Integer.toString(value);
+            for (int j = digits.length(); j < fWidths[i]; j++) {
+                buffer.append('0');
+            }
+            buffer.append(digits);
+        }
+        return buffer.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+    /*
+     * Splits the pattern into fast path tokens. Returns false if the pattern
+     * has other fields, or if the formats are not plain Gregorian and ASCII.
+     */
+    private boolean compile(String pattern) {
+        if (!(fDateFormat.getCalendar() instanceof GregorianCalendar) || !(fDateFormat.getNumberFormat() instanceof DecimalFormat)
+                || ((DecimalFormat) fDateFormat.getNumberFormat()).getDecimalFormatSymbols().getZeroDigit() != '0') {
+            return false;
+        }
+        List<String> literals = new ArrayList<String>();
+        List<Integer> fields = new ArrayList<Integer>();
+        List<Integer> widths = new ArrayList<Integer>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                // Quoted literal, with '' for a quote
+                int end = i + 1;
+                if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                    literal.append('\'');
+                    i = end + 1;
+                    continue;
+                }
+                while (end < pattern.length()) {
+                    if (pattern.charAt(end) == '\'') {
+                        if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+                            literal.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(pattern.charAt(end++));
+                }
+                i = end + 1;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int index = FAST_LETTERS.indexOf(c);
+                int count = 1;
+                while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                    count++;
+                }
+                // Two-digit years have a century, and MMM is a month name
+                if (index == -1 || (c == 'y' && count < 3) || (c == 'M' && count > 2) || count > MAX_DIGITS) {
+                    return false;
+                }
+                if (literal.length() > 0) {
+                    literals.add(literal.toString());
+                    fields.add(-1);
+                    widths.add(0);
+                    literal.setLength(0);
+                }
+                literals.add(null);
+                fields.add(FAST_FIELDS[index]);
+                widths.add(count);
+                i += count;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            literals.add(literal.toString());
+            fields.add(-1);
+            widths.add(0);
+        }
+
+        int nbTokens = fields.size();
+        fLiterals = literals.toArray(new String[nbTokens]);
+        fFields = new int[nbTokens];
+        fWidths = new int[nbTokens];
+        fFixedWidths = new boolean[nbTokens];
+        for (int j = 0; j < nbTokens; j++) {
+            fFields[j] = fields.get(j);
+            fWidths[j] = widths.get(j);
+            // As in SimpleDateFormat, a number followed by another number has
+            // the width of its field, otherwise it takes all the digits
+            fFixedWidths[j] = (j + 1 < nbTokens && fLiterals[j + 1] == null);
+        }
+        fCalendar = (Calendar) fDateFormat.getCalendar().clone();
+        return true;
+    }
+
+    /*
+     * Sets the fields of the calendar from the text. Returns false if the
+     * text must be parsed by the SimpleDateFormat.
+     */
+    private boolean parseFields(String text) {
+        fCalendar.clear();
+        int position = 0;
+        for (int i = 0; i < fFields.length; i++) {
+            if (fLiterals[i] != null) {
+                if (!text.startsWith(fLiterals[i], position)) {
+                    return false;
+                }
+                position += fLiterals[i].length();
+                continue;
+            }
+            int end = position;
+            if (fFixedWidths[i]) {
+                end += fWidths[i];
+                if (end > text.length()) {
+                    return false;
+                }
+                for (int j = position; j < end; j++) {
+                    if (!isAsciiDigit(text.charAt(j))) {
+                        return false;
+                    }
+                }
+            } else {
+                while (end < text.length() && isAsciiDigit(text.charAt(end))) {
+                    end++;
+                }
+                if (end == position || end - position > MAX_DIGITS) {
+                    return false;
+                }
+                // Other digits, or an exponent, would be read by the number format
+                if (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == 'E')) {
+                    return false;
+                }
+            }
+            int value = 0;
+            for (int j = position; j < end; j++) {
+                value = value * 10 + (text.charAt(j) - '0');
+            }
+            if (fFields[i] == Calendar.MONTH) {
+                value--;
+            }
+            fCalendar.set(fFields[i], value);
+            position = end;
+        }
+        return true;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -12,8 +12,9 @@
 
 package org.eclipse.linuxtools.tmf.ui.parsers.custom;
 
-import java.text.SimpleDateFormat;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
@@ -33,6 +34,10 @@ public abstract class CustomTraceDefinition {
     public List<OutputColumn> outputs;
     public String timeStampOutputFormat;
     
+    // The timestamp formats of the events, by pattern
+    private final Map<String, CustomTimestampFormat> fTimestampFormats = new HashMap<String, CustomTimestampFormat>();
+    private CustomTimestampFormat fGmtOutputFormat;
+    
     public static class OutputColumn {
         public String name;
 
@@ -49,9 +54,33 @@ public abstract class CustomTraceDefinition {
     }
 
     public String formatTimeStamp(TmfTimestamp timestamp) {
-        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(timeStampOutputFormat);
-        simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-        return simpleDateFormat.format(timestamp.getValue());
+        CustomTimestampFormat format;
+        synchronized (fTimestampFormats) {
+            if (fGmtOutputFormat == null || !fGmtOutputFormat.getPattern().equals(timeStampOutputFormat)) {
+                fGmtOutputFormat = new CustomTimestampFormat(timeStampOutputFormat, TimeZone.getTimeZone("GMT"));
+            }
+            format = fGmtOutputFormat;
+        }
+        return format.format(timestamp.getValue());
+    }
+    
+    /**
+     * Returns the compiled format of a timestamp pattern, in the default time
+     * zone. The formats are kept for all the events of the definition.
+     * 
+     * @param pattern the SimpleDateFormat pattern
+     * @return the shared, thread-safe format
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public CustomTimestampFormat getTimestampFormat(String pattern) {
+        synchronized (fTimestampFormats) {
+            CustomTimestampFormat format = fTimestampFormats.get(pattern);
+            if (format == null) {
+                format = new CustomTimestampFormat(pattern, TimeZone.getDefault());
+                fTimestampFormats.put(pattern, format);
+            }
+            return format;
+        }
     }
     
     public abstract void save();
@@ -15,7 +15,7 @@ package org.eclipse.linuxtools.tmf.ui.parsers.custom;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -39,6 +39,7 @@ import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomTxtTraceDefinition.Inp
 public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
 
     private CustomTxtTraceDefinition fDefinition;
+    private MappedTraceFile fFile;
     
     public CustomTxtTrace(String name, CustomTxtTraceDefinition definition, String path, int cacheSize) throws FileNotFoundException {
         super(name, CustomTxtEvent.class, path, cacheSize);
@@ -60,30 +61,25 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
             return context;
         }
         try {
-            RandomAccessFile raFile = new RandomAccessFile(getPath(), "r");
+            CustomTxtTraceReader reader = new CustomTxtTraceReader(getFile(), Charset.defaultCharset());
             if (location != null && location.getLocation() instanceof Long) {
-                raFile.seek((Long)location.getLocation());
+                reader.seek((Long)location.getLocation());
             }
-            String line;
-            long rawPos = raFile.getFilePointer();
-            while ((line = raFile.readLine()) != null) {
-                for (InputLine input : getFirstLines()) {
-                    Matcher matcher = input.getPattern().matcher(line);
-                    if (matcher.find()) {
-                        context.setLocation(new TmfLocation<Long>(rawPos));
-                        context.raFile = raFile;
-                        context.firstLineMatcher = matcher;
-                        context.nextLineLocation = raFile.getFilePointer();
-                        context.inputLine = input;
-                        return context;
-                    }
+            CharSequence line;
+            long rawPos = reader.getFilePointer();
+            while ((line = reader.readLine()) != null) {
+                InputLine input = matchFirstLine(reader, line);
+                if (input != null) {
+                    context.setLocation(new TmfLocation<Long>(rawPos));
+                    context.reader = reader;
+                    context.firstLineMatcher = getFirstLineMatcher(input, line);
+                    context.nextLineLocation = reader.getFilePointer();
+                    context.inputLine = input;
+                    return context;
                 }
-                rawPos = raFile.getFilePointer();
+                rawPos = reader.getFilePointer();
             }
             return context;
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            return context;
         } catch (IOException e) {
             e.printStackTrace();
             return context;
@@ -91,6 +87,25 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
         
     }
 
+    /*
+     * The trace file is shared by the readers of all the contexts
+     */
+    private synchronized MappedTraceFile getFile() throws IOException {
+        if (fFile == null) {
+            fFile = MappedTraceFile.open(getPath());
+        }
+        return fFile;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (fFile != null) {
+            fFile.release();
+            fFile = null;
+        }
+        super.dispose();
+    }
+
     @Override
     public ITmfLocation<?> getCurrentLocation() {
         // TODO Auto-generated method stub
@@ -105,9 +120,18 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
             updateIndex(savedContext, savedContext.getRank(), event.getTimestamp());
             context.updateRank(1);
         }
+        else {
+            updateIndexEnd(context);
+        }
         return event;
     }
 
+    // A new event is created for each read
+    @Override
+    public int getBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
     @Override
     public TmfEvent parseEvent(TmfContext tmfContext) {
         //System.out.println(Thread.currentThread().getName() + ":: " + getName() + " parseEvent(" + tmfContext.getRank() + " @ " + (tmfContext.getLocation().getLocation() == null ? "null" : tmfContext.getLocation()));
@@ -129,43 +153,40 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
             countMap.put(currentInput, 0);
         }
         
-        synchronized (context.raFile) {
+        CustomTxtTraceReader reader = context.reader;
+        synchronized (reader) {
             try {
-                if (context.raFile.getFilePointer() != context.nextLineLocation) {
-                    context.raFile.seek(context.nextLineLocation);
+                if (reader.getFilePointer() != context.nextLineLocation) {
+                    reader.seek(context.nextLineLocation);
                 }
-                String line;
-                long rawPos = context.raFile.getFilePointer();
-                while ((line = context.raFile.readLine()) != null) {
+                CharSequence line;
+                long rawPos = reader.getFilePointer();
+                while ((line = reader.readLine()) != null) {
                     boolean processed = false;
                     if (currentInput == null) {
-                        for (InputLine input : getFirstLines()) {
-                            Matcher matcher = input.getPattern().matcher(line);
-                            if (matcher.find()) {
-                                context.setLocation(new TmfLocation<Long>(rawPos));
-                                context.firstLineMatcher = matcher;
-                                context.nextLineLocation = context.raFile.getFilePointer();
-                                context.inputLine = input;
-                                return event;
-                            }
+                        InputLine input = matchFirstLine(reader, line);
+                        if (input != null) {
+                            context.setLocation(new TmfLocation<Long>(rawPos));
+                            context.firstLineMatcher = getFirstLineMatcher(input, line);
+                            context.nextLineLocation = reader.getFilePointer();
+                            context.inputLine = input;
+                            return event;
                         }
                     } else {
                         if (countMap.get(currentInput) >= currentInput.getMinCount()) {
                             List<InputLine> nextInputs = currentInput.getNextInputs(countMap);
                             if (nextInputs.size() == 0 || nextInputs.get(nextInputs.size() - 1).getMinCount() == 0) {
-                                for (InputLine input : getFirstLines()) {
-                                    Matcher matcher = input.getPattern().matcher(line);
-                                    if (matcher.find()) {
-                                        context.setLocation(new TmfLocation<Long>(rawPos));
-                                        context.firstLineMatcher = matcher;
-                                        context.nextLineLocation = context.raFile.getFilePointer();
-                                        context.inputLine = input;
-                                        return event;
-                                    }
+                                InputLine input = matchFirstLine(reader, line);
+                                if (input != null) {
+                                    context.setLocation(new TmfLocation<Long>(rawPos));
+                                    context.firstLineMatcher = getFirstLineMatcher(input, line);
+                                    context.nextLineLocation = reader.getFilePointer();
+                                    context.inputLine = input;
+                                    return event;
                                 }
                             }
                             for (InputLine input : nextInputs) {
-                                Matcher matcher = input.getPattern().matcher(line);
+                                Matcher matcher = reader.getMatcher(input.getPattern(), line);
                                 if (matcher.find()) {
                                     event.processGroups(input, matcher);
                                     currentInput = input;
@@ -209,7 +230,7 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
                             }
                         }
                         if (! processed) {
-                            Matcher matcher = currentInput.getPattern().matcher(line);
+                            Matcher matcher = reader.getMatcher(currentInput.getPattern(), line);
                             if (matcher.find()) {
                                 event.processGroups(currentInput, matcher);
                                 countMap.put(currentInput, countMap.get(currentInput) + 1);
@@ -238,7 +259,7 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
                             }
                         }
                     }
-                    rawPos = context.raFile.getFilePointer();
+                    rawPos = reader.getFilePointer();
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -256,6 +277,30 @@ public class CustomTxtTrace extends TmfTrace<CustomTxtEvent> {
     public List<InputLine> getFirstLines() {
         return fDefinition.inputs;
     }
+
+    /*
+     * Returns the first line input matching a line, if any. The line is
+     * matched with the reader matchers.
+     */
+    private InputLine matchFirstLine(CustomTxtTraceReader reader, CharSequence line) {
+        for (InputLine input : getFirstLines()) {
+            if (reader.getMatcher(input.getPattern(), line).find()) {
+                return input;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Returns a matcher of the first line of an event. The event is parsed
+     * after the reader has moved on, so the matcher works on a copy of the
+     * line.
+     */
+    private Matcher getFirstLineMatcher(InputLine input, CharSequence line) {
+        Matcher matcher = input.getPattern().matcher(line.toString());
+        matcher.find();
+        return matcher;
+    }
     
     public CustomTxtEvent parseFirstLine(CustomTxtTraceContext context) {
         CustomTxtEvent event = new CustomTxtEvent(fDefinition, TmfTimestamp.Zero, new TmfEventSource(""), new TmfEventType(fDefinition.definitionName, new String[0]), new TmfEventReference(""));
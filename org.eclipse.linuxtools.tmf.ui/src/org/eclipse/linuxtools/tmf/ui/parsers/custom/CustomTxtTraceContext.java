@@ -12,7 +12,6 @@
 
 package org.eclipse.linuxtools.tmf.ui.parsers.custom;
 
-import java.io.RandomAccessFile;
 import java.util.regex.Matcher;
 
 import org.eclipse.linuxtools.tmf.trace.ITmfLocation;
@@ -20,7 +19,7 @@ import org.eclipse.linuxtools.tmf.trace.TmfContext;
 import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomTxtTraceDefinition.InputLine;
 
 public class CustomTxtTraceContext extends TmfContext {
-    public RandomAccessFile raFile;
+    public CustomTxtTraceReader reader;
     public Matcher firstLineMatcher;
     public long nextLineLocation;
     public InputLine inputLine;
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.parsers.custom;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A line reader of a custom text trace, reading its mapped file.
+ * <p>
+ * The lines are decoded in a buffer reused from line to line: a line returned
+ * by readLine() is only valid until the next read, and so are the matchers
+ * returned by getMatcher(), which are also reused. The lines of ASCII
+ * characters are decoded without the charset decoder.
+ * <p>
+ * As with RandomAccessFile.readLine(), the lines are terminated by '\n', '\r'
+ * or "\r\n" and the positions are byte offsets in the file. The charset must
+ * encode these characters as single bytes: ISO-8859-1 is used otherwise.
+ */
+public class CustomTxtTraceReader {
+
+    private static final int INITIAL_LINE_SIZE = 256;
+
+    private final MappedTraceFile fFile;
+    private final CharsetDecoder fDecoder;
+    private long fPosition = 0;
+
+    // The segment of the last read
+    private MappedByteBuffer fSegment = null;
+    private long fSegmentStart = 0;
+
+    // The bytes of a line spanning two segments
+    private ByteBuffer fBytes = ByteBuffer.allocate(INITIAL_LINE_SIZE);
+    // The current line
+    private CharBuffer fChars = CharBuffer.allocate(INITIAL_LINE_SIZE);
+
+    private final Map<Pattern, Matcher> fMatchers = new IdentityHashMap<Pattern, Matcher>();
+
+    /**
+     * @param file the trace file
+     * @param charset the trace charset
+     */
+    public CustomTxtTraceReader(MappedTraceFile file, Charset charset) {
+        fFile = file;
+        if (!Arrays.equals("\r\n".getBytes(charset), new byte[] { '\r', '\n' })) {
+            charset = Charset.forName("ISO-8859-1");
+        }
+        fDecoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * @return the position of the next line
+     */
+    public long getFilePointer() {
+        return fPosition;
+    }
+
+    /**
+     * @param position the position of the next line
+     */
+    public void seek(long position) {
+        fPosition = position;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line, valid until the next read, or null at the end of the
+     *         file
+     * @throws IOException if the file can't be read
+     */
+    public CharSequence readLine() throws IOException {
+        long start = fPosition;
+        MappedByteBuffer segment = getSegment(start);
+        if (segment == null) {
+            return null;
+        }
+
+        // Find the end of the line, and whether it is all ASCII
+        long end = start;
+        boolean ascii = true;
+        int terminator = -1;
+        while (segment != null && terminator < 0) {
+            int offset = (int) (end - fSegmentStart);
+            int limit = segment.limit();
+            while (offset < limit) {
+                byte b = segment.get(offset);
+                if (b == '\n' || b == '\r') {
+                    terminator = b;
+                    break;
+                }
+                if (b < 0) {
+                    ascii = false;
+                }
+                offset++;
+            }
+            end = fSegmentStart + offset;
+            if (terminator < 0) {
+                segment = getSegment(end);
+            }
+        }
+
+        decode(start, (int) (end - start), ascii);
+
+        // Skip the line terminator
+        fPosition = end;
+        if (terminator >= 0) {
+            fPosition++;
+            if (terminator == '\r') {
+                segment = getSegment(fPosition);
+                if (segment != null && segment.get((int) (fPosition - fSegmentStart)) == '\n') {
+                    fPosition++;
+                }
+            }
+        }
+        return fChars;
+    }
+
+    /**
+     * Returns the matcher of a pattern, reset to a line.
+     *
+     * @param pattern the pattern
+     * @param line the line
+     * @return the matcher, valid until the next call for the same pattern
+     */
+    public Matcher getMatcher(Pattern pattern, CharSequence line) {
+        Matcher matcher = fMatchers.get(pattern);
+        if (matcher == null) {
+            matcher = pattern.matcher(line);
+            fMatchers.put(pattern, matcher);
+        } else {
+            matcher.reset(line);
+        }
+        return matcher;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+    private MappedByteBuffer getSegment(long position) throws IOException {
+        if (fSegment == null || position < fSegmentStart || position >= fSegmentStart + fSegment.limit()) {
+            fSegment = fFile.getSegment(position);
+            fSegmentStart = MappedTraceFile.getSegmentStart(position);
+        }
+        return fSegment;
+    }
+
+    /*
+     * Decodes the line bytes into fChars
+     */
+    private void decode(long start, int length, boolean ascii) throws IOException {
+        // The line bytes, from the segment when possible
+        ByteBuffer bytes;
+        int offset;
+        MappedByteBuffer segment = getSegment(start);
+        if (segment != null && start + length <= fSegmentStart + segment.limit()) {
+            bytes = segment;
+            offset = (int) (start - fSegmentStart);
+        } else {
+            if (fBytes.capacity() < length) {
+                fBytes = ByteBuffer.allocate(Math.max(length, fBytes.capacity() * 2));
+            }
+            for (int i = 0; i < length; i++) {
+                fBytes.put(i, getSegment(start + i).get((int) (start + i - fSegmentStart)));
+            }
+            bytes = fBytes;
+            offset = 0;
+        }
+
+        int maxLength = ascii ? length : (int) Math.ceil(length * (double) fDecoder.maxCharsPerByte());
+        if (fChars.capacity() < maxLength) {
+            fChars = CharBuffer.allocate(Math.max(maxLength, fChars.capacity() * 2));
+        }
+        fChars.clear();
+        if (ascii) {
+            char[] chars = fChars.array();
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) bytes.get(offset + i);
+            }
+            fChars.limit(length);
+        } else {
+            ByteBuffer in = bytes.duplicate();
+            in.limit(offset + length);
+            in.position(offset);
+            fDecoder.reset();
+            fDecoder.decode(in, fChars, true);
+            fDecoder.flush(fChars);
+            fChars.flip();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.parsers.custom;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomXmlTraceDefinition.InputAttribute;
+import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomXmlTraceDefinition.InputElement;
+
+/**
+ * Extracts the inputs of a record element into an event, in a single pass
+ * of a StAX parser.
+ * <p>
+ * The inputs are the same, and in the same order, as those extracted from
+ * the element DOM by CustomXmlTrace.extractEvent(): the value of an element
+ * input, which is its content rendered by CustomXmlTrace.parseElement(), then
+ * its attributes inputs, then the inputs of its child elements. Since the
+ * value of an element is only known at its end, the inputs of its child
+ * elements are held until then.
+ * <p>
+ * The content of an element is only rendered when needed: for an element
+ * input, or within such an element.
+ */
+public class CustomXmlEventExtractor {
+
+    private static final String CDATA_EVENT_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private final XMLInputFactory fFactory;
+
+    // The current text node
+    private final StringBuilder fText = new StringBuilder();
+    private boolean fInText = false;
+
+    /*
+     * An input value extracted from the record
+     */
+    private static class Input {
+        final String value;
+        final String name;
+        final int action;
+        final String format;
+
+        Input(String value, String name, int action, String format) {
+            this.value = value;
+            this.name = name;
+            this.action = action;
+            this.format = format;
+        }
+    }
+
+    /*
+     * An element being parsed
+     */
+    private static class Frame {
+        final String name;
+        final InputElement input;           // null if the element is not an input
+        final StringBuilder content;        // null if not rendered
+        final List<Input> inputs = new ArrayList<Input>();
+        String[] attributeValues;
+
+        // The child nodes, as seen by the DOM
+        int nbChildNodes = 0;
+        boolean lastChildIsText = false;
+        String lastText = null;
+        boolean elementSeen = false;
+
+        Frame(String name, InputElement input, boolean rendered) {
+            this.name = name;
+            this.input = input;
+            this.content = rendered ? new StringBuilder() : null;
+        }
+    }
+
+    public CustomXmlEventExtractor() {
+        fFactory = XMLInputFactory.newInstance();
+        // Same configuration as the default DocumentBuilderFactory
+        fFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        fFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        fFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        if (fFactory.isPropertySupported(CDATA_EVENT_PROPERTY)) {
+            fFactory.setProperty(CDATA_EVENT_PROPERTY, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Extracts the inputs of a record. A malformed record is extracted up to
+     * the error.
+     *
+     * @param stream the bytes of the record element
+     * @param encoding the encoding of the bytes, or null to detect it
+     * @param recordInput the input of the record element
+     * @param event the event to fill
+     */
+    public synchronized void extract(InputStream stream, String encoding, InputElement recordInput, CustomXmlEvent event) {
+        XMLStreamReader reader = null;
+        List<Frame> stack = new ArrayList<Frame>();
+        fText.setLength(0);
+        fInText = false;
+        try {
+            reader = (encoding != null) ? fFactory.createXMLStreamReader(stream, encoding) : fFactory.createXMLStreamReader(stream);
+            while (reader.hasNext()) {
+                int type = reader.next();
+                Frame frame = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+                switch (type) {
+                case XMLStreamConstants.START_ELEMENT:
+                    stack.add(startElement(reader, frame, recordInput));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    stack.remove(stack.size() - 1);
+                    endElement(frame, stack.isEmpty() ? null : stack.get(stack.size() - 1), event);
+                    if (stack.isEmpty()) {
+                        return;
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (frame != null) {
+                        if (frame.content != null) {
+                            fText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        fInText = true;
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    if (frame != null) {
+                        flushText(frame);
+                        frame.nbChildNodes++;
+                        frame.lastChildIsText = false;
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            // Malformed record: keep the inputs extracted so far, as the text
+            // parser does with the lines that don't match
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+    private Frame startElement(XMLStreamReader reader, Frame parent, InputElement recordInput) {
+        String name = reader.getLocalName();
+        InputElement input = null;
+        boolean rendered;
+        if (parent == null) {
+            input = recordInput;
+            rendered = false;
+        } else {
+            flushText(parent);
+            parent.nbChildNodes++;
+            parent.lastChildIsText = false;
+            if (parent.content != null) {
+                if (parent.elementSeen) {
+                    parent.content.append(" | ");
+                }
+            }
+            parent.elementSeen = true;
+            if (parent.input != null && parent.input.childElements != null) {
+                for (InputElement child : parent.input.childElements) {
+                    if (name.equals(child.elementName)) {
+                        input = child;
+                        break;
+                    }
+                }
+            }
+            rendered = parent.content != null;
+        }
+        if (input != null && input.inputName != null && !input.inputName.equals(CustomXmlTraceDefinition.TAG_IGNORE)) {
+            rendered = true;
+        }
+
+        Frame frame = new Frame(name, input, rendered);
+        if (input != null && input.attributes != null) {
+            frame.attributeValues = new String[input.attributes.size()];
+            for (int i = 0; i < frame.attributeValues.length; i++) {
+                String value = reader.getAttributeValue(null, input.attributes.get(i).attributeName);
+                frame.attributeValues[i] = (value != null) ? value : "";
+            }
+        }
+        return frame;
+    }
+
+    private void endElement(Frame frame, Frame parent, CustomXmlEvent event) {
+        flushText(frame);
+
+        // The element rendering in its parent content
+        if (parent != null && parent.content != null) {
+            if (frame.nbChildNodes == 0) {
+                parent.content.append(frame.name);
+            } else if (frame.nbChildNodes == 1 && frame.lastChildIsText) {
+                parent.content.append(frame.name).append(':').append(frame.lastText);
+            } else {
+                parent.content.append(frame.name).append(" [ ").append(frame.content).append(" ]");
+            }
+        }
+
+        if (frame.input == null) {
+            return;
+        }
+        List<Input> inputs = (parent != null) ? parent.inputs : new ArrayList<Input>();
+        InputElement input = frame.input;
+        if (input.inputName != null && !input.inputName.equals(CustomXmlTraceDefinition.TAG_IGNORE)) {
+            inputs.add(new Input(frame.content.toString(), input.inputName, input.inputAction, input.inputFormat));
+        }
+        if (input.attributes != null) {
+            for (int i = 0; i < frame.attributeValues.length; i++) {
+                InputAttribute attribute = input.attributes.get(i);
+                inputs.add(new Input(frame.attributeValues[i], attribute.inputName, attribute.inputAction, attribute.inputFormat));
+            }
+        }
+        inputs.addAll(frame.inputs);
+
+        if (parent == null) {
+            for (Input extracted : inputs) {
+                event.parseInput(extracted.value, extracted.name, extracted.action, extracted.format);
+            }
+        }
+    }
+
+    /*
+     * Ends the current text node, if any
+     */
+    private void flushText(Frame frame) {
+        if (!fInText) {
+            return;
+        }
+        frame.nbChildNodes++;
+        frame.lastChildIsText = true;
+        if (frame.content != null) {
+            String text = fText.toString().trim();
+            if (text.length() != 0) {
+                frame.content.append(text);
+            }
+            frame.lastText = text;
+        }
+        fText.setLength(0);
+        fInText = false;
+    }
+}
@@ -12,15 +12,10 @@
 
 package org.eclipse.linuxtools.tmf.ui.parsers.custom;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.io.UnsupportedEncodingException;
 
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
 import org.eclipse.linuxtools.tmf.event.TmfEventReference;
@@ -35,25 +30,28 @@ import org.eclipse.linuxtools.tmf.trace.TmfLocation;
 import org.eclipse.linuxtools.tmf.trace.TmfTrace;
 import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomXmlTraceDefinition.InputAttribute;
 import org.eclipse.linuxtools.tmf.ui.parsers.custom.CustomXmlTraceDefinition.InputElement;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
 public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
 
     private CustomXmlTraceDefinition fDefinition;
     private InputElement fRecordInputElement;
+    private byte[] fRecordElementStart;
+    private CustomXmlEventExtractor fExtractor = new CustomXmlEventExtractor();
+    private MappedTraceFile fFile;
+    private String fEncoding;
     
     public CustomXmlTrace(String name, CustomXmlTraceDefinition definition, String path, int cacheSize) throws FileNotFoundException {
         super(name, CustomXmlEvent.class, path, cacheSize);
         fDefinition = definition;
         fRecordInputElement = getRecordInputElement(fDefinition.rootInputElement);
+        try {
+            fRecordElementStart = ("<" + fRecordInputElement.elementName).getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            fRecordElementStart = ("<" + fRecordInputElement.elementName).getBytes();
+        }
     }
 
     @Override
@@ -65,27 +63,16 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
             return context;
         }
         try {
-            context.raFile = new RandomAccessFile(getPath(), "r");
+            context.reader = new CustomXmlTraceReader(getFile());
+            long rawPos = 0;
             if (location != null && location.getLocation() instanceof Long) {
-                context.raFile.seek((Long)location.getLocation());
+                rawPos = (Long)location.getLocation();
             }
-            
-            String line;
-            String recordElementStart = "<" + fRecordInputElement.elementName;
-            long rawPos = context.raFile.getFilePointer();
-            
-            while ((line = context.raFile.readLine()) != null) {
-                int idx = line.indexOf(recordElementStart); 
-                if (idx != -1) {
-                    context.setLocation(new TmfLocation<Long>(rawPos + idx));
-                    return context;
-                }
-                rawPos = context.raFile.getFilePointer();
+            rawPos = context.reader.indexOf(fRecordElementStart, rawPos);
+            if (rawPos != -1) {
+                context.setLocation(new TmfLocation<Long>(rawPos));
             }
             return context;
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            return context;
         } catch (IOException e) {
             e.printStackTrace();
             return context;
@@ -93,6 +80,26 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
         
     }
 
+    /*
+     * The trace file is shared by the readers of all the contexts
+     */
+    private synchronized MappedTraceFile getFile() throws IOException {
+        if (fFile == null) {
+            fFile = MappedTraceFile.open(getPath());
+            fEncoding = new CustomXmlTraceReader(fFile).getDeclaredEncoding();
+        }
+        return fFile;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (fFile != null) {
+            fFile.release();
+            fFile = null;
+        }
+        super.dispose();
+    }
+
     @Override
 	public ITmfTrace createTraceCopy() {
         // TODO Auto-generated method stub
@@ -112,9 +119,18 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
             updateIndex(savedContext, savedContext.getRank(), event.getTimestamp());
             context.updateRank(1);
         }
+        else {
+            updateIndexEnd(context);
+        }
         return event;
     }
 
+    // A new event is created for each read
+    @Override
+    public int getBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
     @Override
     public TmfEvent parseEvent(TmfContext tmfContext) {
         //System.out.println(Thread.currentThread().getName() + ":: " + getName() + " parseEvent(" + tmfContext.getRank() + " @ " + (tmfContext.getLocation().getLocation() == null ? "null" : tmfContext.getLocation()));
@@ -127,29 +143,19 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
             return null;
         }
 
-        synchronized (context.raFile) {
+        synchronized (context.reader) {
             CustomXmlEvent event = null;
             try {
-                if (context.raFile.getFilePointer() != (Long)context.getLocation().getLocation() + 1) {
-                    context.raFile.seek((Long)context.getLocation().getLocation() + 1); // +1 is for the <
-                }
-                StringBuffer elementBuffer = new StringBuffer("<");
-                readElement(elementBuffer, context.raFile);
-                Element element = parseElementBuffer(elementBuffer);
-                
-                event = extractEvent(element, fRecordInputElement);
+                // The record element is parsed as it is read from the file
+                long start = (Long)context.getLocation().getLocation();
+                long end = context.reader.skipElement(start + 1); // +1 is for the <
+                event = createEvent();
+                fExtractor.extract(context.reader.getInputStream(start, end), fEncoding, fRecordInputElement, event);
                 
-                String line;
-                String recordElementStart = "<" + fRecordInputElement.elementName;
-                long rawPos = context.raFile.getFilePointer();
-                
-                while ((line = context.raFile.readLine()) != null) {
-                    int idx = line.indexOf(recordElementStart); 
-                    if (idx != -1) {
-                        context.setLocation(new TmfLocation<Long>(rawPos + idx));
-                        return event;
-                    }
-                    rawPos = context.raFile.getFilePointer();
+                long rawPos = context.reader.indexOf(fRecordElementStart, end);
+                if (rawPos != -1) {
+                    context.setLocation(new TmfLocation<Long>(rawPos));
+                    return event;
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -159,114 +165,6 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
         }
     }
 
-    private Element parseElementBuffer(StringBuffer elementBuffer) {
-        try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            DocumentBuilder db = dbf.newDocumentBuilder();
-
-            // The following allows xml parsing without access to the dtd
-            EntityResolver resolver = new EntityResolver () {
-                @Override
-				public InputSource resolveEntity (String publicId, String systemId) {
-                    String empty = "";
-                    ByteArrayInputStream bais = new ByteArrayInputStream(empty.getBytes());
-                    return new InputSource(bais);
-                }
-            };
-            db.setEntityResolver(resolver);
-
-            // The following catches xml parsing exceptions
-            db.setErrorHandler(new ErrorHandler(){
-                @Override
-				public void error(SAXParseException saxparseexception) throws SAXException {}
-                @Override
-				public void warning(SAXParseException saxparseexception) throws SAXException {}
-                @Override
-				public void fatalError(SAXParseException saxparseexception) throws SAXException {
-                    throw saxparseexception;
-                }});
-            
-            Document doc = db.parse(new ByteArrayInputStream(elementBuffer.toString().getBytes()));
-            return doc.getDocumentElement();
-        } catch (ParserConfigurationException e) {
-            e.printStackTrace();
-        } catch (SAXException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    private void readElement(StringBuffer buffer, RandomAccessFile raFile) {
-        try {
-            int numRead = 0;
-            boolean startTagClosed = false;
-            int i;
-            while ((i = raFile.read()) != -1) {
-                numRead++;
-                char c = (char)i;
-                buffer.append(c);
-                if (c == '"') {
-                    readQuote(buffer, raFile, '"');
-                } else if (c == '\'') {
-                    readQuote(buffer, raFile, '\'');
-                } else if (c == '<') {
-                    readElement(buffer, raFile);
-                } else if (c == '/' && numRead == 1) {
-                    break; // found "</"
-                } else if (c == '-' && numRead == 3 && buffer.substring(buffer.length() - 3, buffer.length() - 1).equals("!-")) {
-                    readComment(buffer, raFile); // found "<!--"
-                } else if (i == '>') {
-                    if (buffer.charAt(buffer.length() - 2) == '/') {
-                        break; // found "/>"
-                    } else if (startTagClosed) {
-                        break; // found "<...>...</...>"
-                    } else {
-                        startTagClosed = true; // found "<...>"
-                    }
-                }
-            }
-            return;
-        } catch (IOException e) {
-            return;
-        }
-    }
-
-    private void readQuote(StringBuffer buffer, RandomAccessFile raFile, char eq) {
-        try {
-            int i;
-            while ((i = raFile.read()) != -1) {
-                char c = (char)i;
-                buffer.append(c);
-                if (c == eq) {
-                    break; // found matching end-quote
-                }
-            }
-            return;
-        } catch (IOException e) {
-            return;
-        }
-    }
-
-    private void readComment(StringBuffer buffer, RandomAccessFile raFile) {
-        try {
-            int numRead = 0;
-            int i;
-            while ((i = raFile.read()) != -1) {
-                numRead++;
-                char c = (char)i;
-                buffer.append(c);
-                if (c == '>' && numRead >= 2 && buffer.substring(buffer.length() - 3, buffer.length() - 1).equals("--")) {
-                    break; // found "-->"
-                }
-            }
-            return;
-        } catch (IOException e) {
-            return;
-        }
-    }
-
     public static StringBuffer parseElement(Element parentElement, StringBuffer buffer) {
         NodeList nodeList = parentElement.getChildNodes();
         String separator = null;
@@ -313,11 +211,15 @@ public class CustomXmlTrace extends TmfTrace<CustomXmlEvent> {
     }
     
     public CustomXmlEvent extractEvent(Element element, InputElement inputElement) {
-        CustomXmlEvent event = new CustomXmlEvent(fDefinition, TmfTimestamp.Zero, new TmfEventSource(""), new TmfEventType(fDefinition.definitionName, new String[0]), new TmfEventReference(""));
+        CustomXmlEvent event = createEvent();
         parseElement(element, event, inputElement);
         return event;
     }
     
+    private CustomXmlEvent createEvent() {
+        return new CustomXmlEvent(fDefinition, TmfTimestamp.Zero, new TmfEventSource(""), new TmfEventType(fDefinition.definitionName, new String[0]), new TmfEventReference(""));
+    }
+    
     private void parseElement(Element element, CustomXmlEvent event, InputElement inputElement) {
         if (inputElement.inputName != null && !inputElement.inputName.equals(CustomXmlTraceDefinition.TAG_IGNORE)) {
             event.parseInput(parseElement(element, new StringBuffer()).toString(), inputElement.inputName, inputElement.inputAction, inputElement.inputFormat);
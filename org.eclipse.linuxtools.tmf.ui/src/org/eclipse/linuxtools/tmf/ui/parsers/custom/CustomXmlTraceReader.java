@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.parsers.custom;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A reader of a custom XML trace, reading its mapped file.
+ * <p>
+ * It finds the extent of the record elements in the file, as byte offsets,
+ * and provides their bytes to the XML parser.
+ */
+public class CustomXmlTraceReader {
+
+    // The XML declaration is looked for in the first bytes of the file
+    private static final int DECLARATION_MAX_LENGTH = 256;
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("<\\?xml[^>]*encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    private static final byte[] COMMENT_END = { '-', '-', '>' };
+    private static final byte[] CDATA_END = { ']', ']', '>' };
+    private static final byte[] PI_END = { '?', '>' };
+
+    private final MappedTraceFile fFile;
+
+    // The segment of the last read
+    private MappedByteBuffer fSegment = null;
+    private long fSegmentStart = 0;
+
+    /**
+     * @param file the trace file
+     */
+    public CustomXmlTraceReader(MappedTraceFile file) {
+        fFile = file;
+    }
+
+    /**
+     * @param position a position in the file
+     * @return the byte at the position, or -1 beyond the end of the file
+     * @throws IOException if the file can't be read
+     */
+    public int read(long position) throws IOException {
+        if (fSegment == null || position < fSegmentStart || position >= fSegmentStart + fSegment.limit()) {
+            fSegment = fFile.getSegment(position);
+            fSegmentStart = MappedTraceFile.getSegmentStart(position);
+            if (fSegment == null) {
+                return -1;
+            }
+        }
+        return fSegment.get((int) (position - fSegmentStart)) & 0xFF;
+    }
+
+    /**
+     * @param pattern the bytes to look for
+     * @param position the position to start from
+     * @return the position of the first occurrence, or -1 if none
+     * @throws IOException if the file can't be read
+     */
+    public long indexOf(byte[] pattern, long position) throws IOException {
+        int b;
+        while ((b = read(position)) != -1) {
+            if (b == (pattern[0] & 0xFF)) {
+                int i = 1;
+                while (i < pattern.length && read(position + i) == (pattern[i] & 0xFF)) {
+                    i++;
+                }
+                if (i == pattern.length) {
+                    return position;
+                }
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of an element. The nested elements, quotes, comments,
+     * CDATA sections and processing instructions are skipped.
+     *
+     * @param position the position after the '<' of the element, comment,
+     *            CDATA section or processing instruction
+     * @return the position after the element
+     * @throws IOException if the file can't be read
+     */
+    public long skipElement(long position) throws IOException {
+        int numRead = 0;
+        boolean startTagClosed = false;
+        int c;
+        while ((c = read(position)) != -1) {
+            position++;
+            numRead++;
+            if (c == '"' || c == '\'') {
+                position = skipQuote(position, c);
+            } else if (c == '<') {
+                position = skipElement(position);
+            } else if (c == '/' && numRead == 1) {
+                break; // found "</"
+            } else if (c == '?' && numRead == 1) {
+                return skipTo(PI_END, position); // found "<?"
+            } else if (c == '-' && numRead == 3 && read(position - 3) == '!' && read(position - 2) == '-') {
+                return skipTo(COMMENT_END, position); // found "<!--"
+            } else if (c == '[' && numRead == 2 && read(position - 2) == '!') {
+                return skipTo(CDATA_END, position); // found "<![", as in "<![CDATA["
+            } else if (c == '>') {
+                if (read(position - 2) == '/') {
+                    break; // found "/>"
+                } else if (startTagClosed) {
+                    break; // found "<...>...</...>"
+                } else {
+                    startTagClosed = true; // found "<...>"
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @param start the position of the first byte
+     * @param end the position after the last byte
+     * @return a stream of the bytes of the file between the positions
+     */
+    public InputStream getInputStream(final long start, final long end) {
+        return new InputStream() {
+            private long fPosition = start;
+
+            @Override
+            public int read() throws IOException {
+                if (fPosition >= end) {
+                    return -1;
+                }
+                int b = CustomXmlTraceReader.this.read(fPosition);
+                if (b != -1) {
+                    fPosition++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                int count = 0;
+                int b;
+                while (count < length && fPosition < end && (b = CustomXmlTraceReader.this.read(fPosition)) != -1) {
+                    buffer[offset + count++] = (byte) b;
+                    fPosition++;
+                }
+                return (count > 0) ? count : -1;
+            }
+        };
+    }
+
+    /**
+     * @return the encoding of the XML declaration at the start of the file,
+     *         or null if none
+     * @throws IOException if the file can't be read
+     */
+    public String getDeclaredEncoding() throws IOException {
+        StringBuilder declaration = new StringBuilder();
+        int b;
+        for (long position = 0; position < DECLARATION_MAX_LENGTH && (b = read(position)) != -1; position++) {
+            declaration.append((char) b);
+            if (b == '>') {
+                break;
+            }
+        }
+        Matcher matcher = ENCODING_PATTERN.matcher(declaration);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+    private long skipQuote(long position, int quote) throws IOException {
+        int c;
+        while ((c = read(position)) != -1) {
+            position++;
+            if (c == quote) {
+                break; // found matching end-quote
+            }
+        }
+        return position;
+    }
+
+    /*
+     * Returns the position after the terminator, or the end of the file
+     */
+    private long skipTo(byte[] terminator, long position) throws IOException {
+        long index = indexOf(terminator, position);
+        if (index == -1) {
+            return Math.max(position, fFile.size());
+        }
+        return index + terminator.length;
+    }
+}
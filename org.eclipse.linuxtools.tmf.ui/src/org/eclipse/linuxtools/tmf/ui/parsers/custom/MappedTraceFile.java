@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.parsers.custom;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trace file mapped in memory, shared by all the traces (and their
+ * readers) of the same path and closed when the last trace releases it.
+ * <p>
+ * The file is mapped by segments, on demand, so that files larger than 2 GB
+ * can be mapped. A file that grows is mapped again up to its new end when a
+ * read reaches the previous one.
+ */
+public class MappedTraceFile {
+
+    // The segment size (64 MB)
+    private static final int SEGMENT_SHIFT = 26;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    // The open files, by canonical path
+    private static final Map<String, MappedTraceFile> fOpenFiles = new HashMap<String, MappedTraceFile>();
+
+    private final String fKey;
+    private final RandomAccessFile fFile;
+    private final FileChannel fChannel;
+    private MappedByteBuffer[] fSegments = new MappedByteBuffer[0];
+    private long fSize;
+    private int fRefCount = 0;
+
+    private MappedTraceFile(String key) throws IOException {
+        fKey = key;
+        fFile = new RandomAccessFile(key, "r");
+        fChannel = fFile.getChannel();
+        fSize = fChannel.size();
+    }
+
+    /**
+     * Opens a file, or shares it if it is already open. Each open() must be
+     * followed by a release().
+     *
+     * @param path the file path
+     * @return the mapped file
+     * @throws IOException if the file can't be opened
+     */
+    public static MappedTraceFile open(String path) throws IOException {
+        String key = new File(path).getCanonicalPath();
+        synchronized (fOpenFiles) {
+            MappedTraceFile file = fOpenFiles.get(key);
+            if (file == null) {
+                file = new MappedTraceFile(key);
+                fOpenFiles.put(key, file);
+            }
+            file.fRefCount++;
+            return file;
+        }
+    }
+
+    /**
+     * Releases the file, which is closed once released by all its users.
+     */
+    public void release() {
+        synchronized (fOpenFiles) {
+            if (--fRefCount > 0) {
+                return;
+            }
+            fOpenFiles.remove(fKey);
+        }
+        try {
+            fFile.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return the file size, as of the last read that reached the end of the
+     *         file
+     */
+    public synchronized long size() {
+        return fSize;
+    }
+
+    /**
+     * Returns the segment holding a position, mapping it if needed.
+     *
+     * @param position a position in the file
+     * @return the segment (shared: only absolute reads are allowed), or null
+     *         if the position is beyond the end of the file
+     * @throws IOException if the file can't be mapped
+     */
+    public synchronized MappedByteBuffer getSegment(long position) throws IOException {
+        if (position >= fSize) {
+            // The file may have grown
+            fSize = fChannel.size();
+            if (position >= fSize) {
+                return null;
+            }
+        }
+        int index = (int) (position >> SEGMENT_SHIFT);
+        if (index >= fSegments.length) {
+            MappedByteBuffer[] segments = new MappedByteBuffer[index + 1];
+            System.arraycopy(fSegments, 0, segments, 0, fSegments.length);
+            fSegments = segments;
+        }
+        MappedByteBuffer segment = fSegments[index];
+        long start = getSegmentStart(position);
+        if (segment == null || start + segment.capacity() <= position) {
+            segment = fChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, fSize - start));
+            fSegments[index] = segment;
+        }
+        return segment;
+    }
+
+    /**
+     * @param position a position in the file
+     * @return the position of the start of its segment
+     */
+    public static long getSegmentStart(long position) {
+        return position & ~((long) SEGMENT_SIZE - 1);
+    }
+}
@@ -27,6 +27,7 @@ import org.eclipse.linuxtools.tmf.signal.TmfSignalHandler;
 import org.eclipse.linuxtools.tmf.signal.TmfTimeSynchSignal;
 import org.eclipse.linuxtools.tmf.signal.TmfTraceUpdatedSignal;
 import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfEventRowCache;
 import org.eclipse.linuxtools.tmf.ui.widgets.ColumnData;
 import org.eclipse.linuxtools.tmf.ui.widgets.TmfVirtualTable;
 import org.eclipse.swt.SWT;
@@ -78,10 +79,11 @@ public class TmfEventsTable extends TmfComponent {
     // Event cache
     // ------------------------------------------------------------------------
 
-    private final int  fCacheSize;
-    private TmfEvent[] fCache;
-    private int fCacheStartIndex = 0;
-    private int fCacheEndIndex   = 0;
+    // The rendered events, by pages of fCacheSize events, loaded in the
+    // background: the table items are refreshed when their page is loaded
+    private final int fCacheSize;
+    private TmfEventRowCache fCache;
+    private boolean fCacheRefreshPending = false;
 
     private boolean fDisposeOnClose;
 
@@ -97,7 +99,6 @@ public class TmfEventsTable extends TmfComponent {
         super("TmfEventsTable");
         
         fCacheSize = cacheSize;
-        fCache = new TmfEvent[fCacheSize];
         
         // Create a virtual table
         final int style = SWT.SINGLE | SWT.FULL_SELECTION | SWT.BORDER;
@@ -119,7 +120,9 @@ public class TmfEventsTable extends TmfComponent {
             @Override
             public void widgetSelected(SelectionEvent e) {
                 TmfTimestamp ts = (TmfTimestamp) fTable.getSelection()[0].getData();
-                broadcast(new TmfTimeSynchSignal(fTable, ts));
+                if (ts != null) {
+                    broadcast(new TmfTimeSynchSignal(fTable, ts));
+                }
             }
         });
 
@@ -127,50 +130,24 @@ public class TmfEventsTable extends TmfComponent {
         fTable.addListener(SWT.SetData, new Listener() {
 
             @Override
-			@SuppressWarnings("unchecked")
 			public void handleEvent(Event event) {
 
                 final TableItem item = (TableItem) event.item;
                 final int index = fTable.indexOf(item);
 
-                // Note: this works because handleEvent() is called once for each row, in sequence  
-                if ((index >= fCacheStartIndex) && (index < fCacheEndIndex)) {
-                    int i = index - fCacheStartIndex;
-                    item.setText(extractItemFields(fCache[i]));
-                    item.setData(new TmfTimestamp(fCache[i].getTimestamp()));
+                String[] fields = (fCache != null) ? fCache.getFields(index) : null;
+                if (fields != null) {
+                    item.setText(fields);
+                    item.setData(fCache.getTimestamp(index));
+                    packColumns();
                     return;
                 }
 
-                fCacheStartIndex = index;
-                fCacheEndIndex = index;
-
-                TmfDataRequest<TmfEvent> request = new TmfDataRequest<TmfEvent>(TmfEvent.class, index, fCacheSize) {
-                	private int count = 0;
-
-                	@Override
-                    public void handleData(TmfEvent event) {
-                		super.handleData(event);
-                        if (event != null) {
-                            fCache[count++] = event.clone();
-                            fCacheEndIndex++;
-                        }
-                    }
-
-                };
-
-                ((ITmfDataProvider<TmfEvent>) fTrace).sendRequest(request);
-                try {
-                    request.waitForCompletion();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-                
-                if (fCache[0] != null && fCacheStartIndex == index) {
-                    item.setText(extractItemFields(fCache[0]));
-                    item.setData(new TmfTimestamp(fCache[0].getTimestamp()));
-                    packColumns();
+                // Not loaded yet: the item is refreshed once it is
+                for (int i = 0; i < fTable.getColumns().length; i++) {
+                    item.setText(i, "");
                 }
-                
+                item.setData(null);
             }
         });
 
@@ -199,6 +176,59 @@ public class TmfEventsTable extends TmfComponent {
     	fTable.setColumnHeaders(columnData);
     }
 
+    /**
+     * Creates the events cache of the trace. The events are rendered with
+     * extractItemFields(), from the request threads.
+     */
+    @SuppressWarnings("unchecked")
+    private TmfEventRowCache createCache(ITmfTrace trace) {
+        if (!(trace instanceof ITmfDataProvider<?>)) {
+            return null;
+        }
+        return new TmfEventRowCache((ITmfDataProvider<TmfEvent>) trace, fCacheSize, TmfEventRowCache.DEFAULT_NB_PAGES) {
+            @Override
+            protected String[] renderEvent(TmfEvent event) {
+                return extractItemFields(event);
+            }
+
+            @Override
+            protected void pageLoaded(int startRank, int nbEvents) {
+                refreshCachedItems();
+            }
+        };
+    }
+
+    /*
+     * Refreshes the table items on the UI thread, once for all the pages
+     * loaded in the meantime.
+     */
+    private synchronized void refreshCachedItems() {
+        if (fCacheRefreshPending || fTable.isDisposed()) return;
+        fCacheRefreshPending = true;
+        fTable.getDisplay().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (TmfEventsTable.this) {
+                    fCacheRefreshPending = false;
+                }
+                if (!fTable.isDisposed()) {
+                    fTable.refresh();
+                }
+            }
+        });
+    }
+
+    /*
+     * Updates the number of items (on the UI thread)
+     */
+    private void updateItemCount() {
+        int nbEvents = (int) fTrace.getNbEvents();
+        if (fCache != null) {
+            fCache.setNbEvents(nbEvents);
+        }
+        fTable.setItemCount(nbEvents);
+    }
+
     protected void packColumns() {
         if (fPackDone) return;
         for (TableColumn column : fTable.getColumns()) {
@@ -252,12 +282,15 @@ public class TmfEventsTable extends TmfComponent {
 			public void run() {
                 //fTable.setSelection(0);
                 fTable.removeAll();
-                fCacheStartIndex = fCacheEndIndex = 0; // Clear the cache
+                if (fCache != null) {
+                    fCache.clear(); // Drop the pages still loading
+                }
+                fCache = createCache(fTrace);
                 
                 if (!fTable.isDisposed() && fTrace != null) {
                     //int nbEvents = (int) fTrace.getNbEvents();
                     //fTable.setItemCount((nbEvents > 100) ? nbEvents : 100);
-                    fTable.setItemCount((int) fTrace.getNbEvents());
+                    updateItemCount();
                 }
             }
         });
@@ -275,7 +308,7 @@ public class TmfEventsTable extends TmfComponent {
             @Override
 			public void run() {
                 if (!fTable.isDisposed() && fTrace != null) {
-                    fTable.setItemCount((int) fTrace.getNbEvents());
+                    updateItemCount();
                     fTable.refresh();
                 }
             }
@@ -292,7 +325,7 @@ public class TmfEventsTable extends TmfComponent {
                 if (!fTable.isDisposed() && fTrace != null) {
                     //int nbEvents = (int) fTrace.getNbEvents();
                     //fTable.setItemCount((nbEvents > 100) ? nbEvents : 100);
-                    fTable.setItemCount((int) fTrace.getNbEvents());
+                    updateItemCount();
                 }
             }
         });
@@ -309,7 +342,7 @@ public class TmfEventsTable extends TmfComponent {
 				public void run() {
                     fRefreshPending = false;
                     if (!fTable.isDisposed() && fTrace != null) {
-                        fTable.setItemCount((int) fTrace.getNbEvents());
+                        updateItemCount();
                     }
                 }
             });
@@ -26,5 +26,34 @@ public interface ITmfTimeAnalysisEntry {
 
 	public long getStopTime();
 
+	/**
+	 * Returns the events of the entry. They are sorted by time and accessed by
+	 * index, e.g. to look up the events of the visible time window.
+	 * 
+	 * @return the events, sorted by time
+	 */
 	public <T extends ITimeEvent>  Vector<T> getTraceEvents();
+
+	/**
+	 * Returns the index, in the trace events, of the first event at or after
+	 * the given time. This is a binary search (see
+	 * TimeEvent#getFirstEventIndex()).
+	 * 
+	 * @param time
+	 *            the time to look for
+	 * @return the index of the first event at or after the time, or the number
+	 *         of events if there is none
+	 */
+	public int getTraceEventIndex(long time);
+
+	/**
+	 * Returns the modification count of the trace events. It is incremented
+	 * by every change to the events, appended, removed or modified in place
+	 * (e.g. a new stop time), so the events must be changed through the
+	 * entry. The viewers compare it to the count they last saw to know if
+	 * what they derived from the events is still valid.
+	 * 
+	 * @return the modification count of the trace events
+	 */
+	public long getModificationCount();
 }
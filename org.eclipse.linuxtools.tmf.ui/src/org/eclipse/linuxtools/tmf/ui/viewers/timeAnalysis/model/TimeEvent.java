@@ -12,6 +12,8 @@
 
 package org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model;
 
+import java.util.List;
+
 public abstract class TimeEvent implements ITimeEvent {
 	/* (non-Javadoc)
 	 * @see org.eclipse.linuxtools.tlf.widgets.timeAnalysis.model.TmTaEventI#getTrace()
@@ -32,4 +34,28 @@ public abstract class TimeEvent implements ITimeEvent {
 	public long getDuration() {
 		return -1;
 	}
+
+	/**
+	 * Binary search of the first event at or after a given time.
+	 * 
+	 * @param events
+	 *            the events, sorted by time
+	 * @param time
+	 *            the time to look for
+	 * @return the index of the first event at or after the time, or the number
+	 *         of events if there is none
+	 */
+	public static int getFirstEventIndex(List<? extends ITimeEvent> events, long time) {
+		int low = 0;
+		int high = events.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (events.get(mid).getTime() < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 }
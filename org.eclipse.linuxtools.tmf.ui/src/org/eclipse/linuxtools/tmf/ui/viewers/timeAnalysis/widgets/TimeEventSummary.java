@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.widgets;
+
+import java.util.List;
+
+import org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.TmfTimeAnalysisProvider;
+import org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.model.ITimeEvent;
+
+/**
+ * Summary of the states of the events of an entry, used to draw the events
+ * smaller than a pixel as a single dense span.
+ * <p>
+ * The summary has several levels: level N summarizes blocks of 2^N
+ * consecutive events with the min and max of their state colors (the states
+ * are mixed if they differ) and their dominant state, the one lasting the
+ * longest. Any range of events is then summarized in O(log n) from at most
+ * two blocks per level.
+ * <p>
+ * The dominant state of a block is the dominant state of one of its halves,
+ * so it is an approximation when no state clearly dominates.
+ * <p>
+ * The summary follows the events of the entry through its modification
+ * count (see ITmfTimeAnalysisEntry#getModificationCount()): the events
+ * appended since the last update are summarized incrementally, any other
+ * change, like a removed event or a stop time modified in place, rebuilds the
+ * summary.
+ */
+class TimeEventSummary {
+
+	private final TmfTimeAnalysisProvider _provider;
+
+	// The events summarized, to detect the changes
+	private long _modificationCount = -1;
+	private int _nbEvents = 0;
+	private ITimeEvent _firstEvent = null;
+	private ITimeEvent _lastEvent = null;
+
+	// Level 0: the color of each event
+	private byte[] _colors = new byte[0];
+
+	// Levels 1 and up, _levels[N - 1] being level N
+	private Level[] _levels = new Level[0];
+
+	// Result of the last query
+	private int _color;
+	private boolean _mixed;
+
+	// Accumulators of the queries
+	private int _accMin;
+	private int _accMax;
+	private int _accDominant;
+	private long _accWeight;
+
+	TimeEventSummary(TmfTimeAnalysisProvider provider) {
+		_provider = provider;
+	}
+
+	/**
+	 * Updates the summary with the current events of the entry.
+	 *
+	 * @param events
+	 *            the events, sorted by time
+	 * @param modificationCount
+	 *            the modification count of the entry, read before the events
+	 */
+	void update(List<? extends ITimeEvent> events, long modificationCount) {
+		if (modificationCount == _modificationCount) {
+			return;
+		}
+		int count = events.size();
+		long nbChanges = modificationCount - _modificationCount;
+		_modificationCount = modificationCount;
+		if (count == 0) {
+			_nbEvents = 0;
+			_firstEvent = _lastEvent = null;
+			_levels = new Level[0];
+			return;
+		}
+
+		// The duration of the last event depends on the next one: it is
+		// summarized again when events are appended. The appends are the
+		// only changes if there is one change per new event.
+		int from = 0;
+		if (_nbEvents > 0 && count > _nbEvents && nbChanges == count - _nbEvents && events.get(0) == _firstEvent
+				&& events.get(_nbEvents - 1) == _lastEvent) {
+			from = _nbEvents - 1;
+		}
+
+		if (_colors.length < count) {
+			byte[] colors = new byte[Math.max(count, _colors.length * 2)];
+			System.arraycopy(_colors, 0, colors, 0, _nbEvents);
+			_colors = colors;
+		}
+		for (int i = from; i < count; i++) {
+			_colors[i] = (byte) _provider.getEventColorVal(events.get(i));
+		}
+
+		int nbLevels = 0;
+		while ((count >> (nbLevels + 1)) > 0) {
+			nbLevels++;
+		}
+		int nbKnownLevels = _levels.length;
+		if (_levels.length != nbLevels) {
+			Level[] levels = new Level[nbLevels];
+			System.arraycopy(_levels, 0, levels, 0, Math.min(nbLevels, _levels.length));
+			for (int l = _levels.length; l < nbLevels; l++) {
+				levels[l] = new Level();
+			}
+			_levels = levels;
+		}
+
+		for (int l = 1; l <= nbLevels; l++) {
+			Level level = _levels[l - 1];
+			int size = count >> l;
+			level.ensureCapacity(size);
+			// A new level is computed entirely
+			int first = (l <= nbKnownLevels) ? from >> l : 0;
+			for (int b = first; b < size; b++) {
+				resetAccumulators();
+				accumulate(events, l - 1, 2 * b);
+				accumulate(events, l - 1, 2 * b + 1);
+				level._min[b] = (byte) _accMin;
+				level._max[b] = (byte) _accMax;
+				level._dominant[b] = (byte) _accDominant;
+				level._weight[b] = _accWeight;
+			}
+		}
+
+		_nbEvents = count;
+		_firstEvent = events.get(0);
+		_lastEvent = events.get(count - 1);
+	}
+
+	/**
+	 * Summarizes a range of events. The result is then available with
+	 * getColor() and isMixed().
+	 *
+	 * @param events
+	 *            the events, the summary being up to date
+	 * @param from
+	 *            the index of the first event
+	 * @param to
+	 *            the index after the last event
+	 */
+	void query(List<? extends ITimeEvent> events, int from, int to) {
+		resetAccumulators();
+		int i = from;
+		while (i < to) {
+			// The largest aligned block starting at i and within the range
+			int l = 0;
+			while (l < _levels.length && (i & ((2 << l) - 1)) == 0 && i + (2 << l) <= to) {
+				l++;
+			}
+			accumulate(events, l, i >> l);
+			i += 1 << l;
+		}
+		_color = _accDominant;
+		_mixed = _accMin != _accMax;
+	}
+
+	/**
+	 * @return the dominant state color of the last query
+	 */
+	int getColor() {
+		return _color;
+	}
+
+	/**
+	 * @return true if the events of the last query have different states
+	 */
+	boolean isMixed() {
+		return _mixed;
+	}
+
+	private void resetAccumulators() {
+		_accMin = Integer.MAX_VALUE;
+		_accMax = Integer.MIN_VALUE;
+		_accDominant = -1;
+		_accWeight = -1;
+	}
+
+	private void accumulate(List<? extends ITimeEvent> events, int level, int block) {
+		int min, max, dominant;
+		long weight;
+		if (level == 0) {
+			min = max = dominant = _colors[block] & 0xFF;
+			weight = getWeight(events, block);
+		} else {
+			Level summary = _levels[level - 1];
+			min = summary._min[block] & 0xFF;
+			max = summary._max[block] & 0xFF;
+			dominant = summary._dominant[block] & 0xFF;
+			weight = summary._weight[block];
+		}
+
+		_accMin = Math.min(_accMin, min);
+		_accMax = Math.max(_accMax, max);
+		if (dominant == _accDominant) {
+			_accWeight += weight;
+		} else if (weight > _accWeight) {
+			_accDominant = dominant;
+			_accWeight = weight;
+		}
+	}
+
+	/*
+	 * The time an event is drawn for: its duration, cut at the next event
+	 * (see TmfTimeStatesCtrl.drawItemDataDurations()).
+	 */
+	private static long getWeight(List<? extends ITimeEvent> events, int index) {
+		ITimeEvent event = events.get(index);
+		long duration = event.getDuration();
+		if (index + 1 < events.size()) {
+			long span = events.get(index + 1).getTime() - event.getTime();
+			if (duration < 0 || duration > span) {
+				duration = span;
+			}
+		}
+		return Math.max(duration, 0);
+	}
+
+	private static class Level {
+		byte[] _min = new byte[0];
+		byte[] _max = new byte[0];
+		byte[] _dominant = new byte[0];
+		long[] _weight = new long[0];
+
+		void ensureCapacity(int size) {
+			if (_min.length < size) {
+				int capacity = Math.max(size, _min.length * 2);
+				byte[] min = new byte[capacity];
+				byte[] max = new byte[capacity];
+				byte[] dominant = new byte[capacity];
+				long[] weight = new long[capacity];
+				System.arraycopy(_min, 0, min, 0, _min.length);
+				System.arraycopy(_max, 0, max, 0, _max.length);
+				System.arraycopy(_dominant, 0, dominant, 0, _dominant.length);
+				System.arraycopy(_weight, 0, weight, 0, _weight.length);
+				_min = min;
+				_max = max;
+				_dominant = dominant;
+				_weight = weight;
+			}
+		}
+	}
+}
@@ -1097,14 +1097,16 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 			int count = list.size();
 			ITimeEvent lastEvent = null;
 			if (count > 0) {
-				ITimeEvent currEvent = list.get(0);
+				// Start with the event in progress at the start of the visible
+				// window: the events before it are not visible
+				int idx = Math.max(trace.getTraceEventIndex(time0) - 1, 0);
+				ITimeEvent currEvent = list.get(idx++);
 				ITimeEvent nextEvent = null;
 				long currEventTime = currEvent.getTime();
 				long nextEventTime = currEventTime;
 				x0 = rect.x + (int) ((currEventTime - time0) * pixelsPerNanoSec);
 				int xEnd = rect.x + (int) ((time1 - time0) * pixelsPerNanoSec);
 				int x1 = -1;
-				int idx = 1;
 
 				// reduce rect
 				_rect1.y += 3;
@@ -1244,7 +1246,10 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 			ITimeEvent lastEvent = null;
 			// Trace.debug("count is: " + count);
 			if (count > 0) {
-				ITimeEvent currEvent = list.get(0);
+				// Start with the event in progress at the start of the visible
+				// window: the events before it are not visible
+				int idx = Math.max(trace.getTraceEventIndex(time0) - 1, 0);
+				ITimeEvent currEvent = list.get(idx++);
 				ITimeEvent nextEvent = null;
 				long currEventTime = currEvent.getTime();
 				long nextEventTime = currEventTime;
@@ -1254,7 +1259,6 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 				// xEnd - Points to the end of the events rectangle
 				double xEnd = rect.x + (double) ((time1 - time0) * pixelsPerNanoSec);
 				double x1 = -1;
-				int idx = 1;
 				double xNext = 0;
 
 				// Drawing rectangle is smaller than reserved space
@@ -1407,9 +1411,12 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 			// gc.setBackground(_colors.getBkColorGroup(selected, _isInFocus));
 			// gc.fillRectangle(rect);
 		} else if (item instanceof TraceItem) {
-			ITmfTimeAnalysisEntry trace = ((TraceItem) item)._trace;
+			TraceItem traceItem = (TraceItem) item;
+			ITmfTimeAnalysisEntry trace = traceItem._trace;
 
 			double x0 = rect.x;
+			// Read before the events, a change made meanwhile is seen next time
+			long modificationCount = trace.getModificationCount();
 			List<TimeEvent> list = trace.getTraceEvents();
 			// Iterator it = list.iterator();
 			int count = list.size();
@@ -1427,7 +1434,10 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 			int xEnd = rect.x + rect.width;
 			fillSpace(rect, gc, selected, _rect1.x, xEnd, xEnd);
 			if (count > 0) {
-				ITimeEvent currEvent = list.get(0);
+				// Start with the event in progress at the start of the visible
+				// window: the events before it are not visible
+				int idx = Math.max(trace.getTraceEventIndex(time0) - 1, 0);
+				ITimeEvent currEvent = list.get(idx++);
 				ITimeEvent nextEvent = null;
 				long currEventTime = currEvent.getTime();
 				long currEventDuration = currEvent.getDuration();
@@ -1438,14 +1448,57 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 				x0 = rect.x + step;
 				// xEnd - Points to the end of the events rectangle
 				double x1 = -1;
-				int idx = 1;
 				double xNext = 0;
+				// xMin - Nothing is drawn before it (e.g. dense span drawn)
+				double xMin = rect.x;
+				TimeEventSummary summary = null;
 
 				// draw event states
-				while (/* x0 <= xEnd &&*/ null != currEvent) {
+				// The events are sorted by time: stop after the visible window
+				while (x0 <= xEnd && null != currEvent) {
 					boolean stopped = false;// currEvent instanceof
 					// refresh current event duration as the loop moves
 					currEventDuration = currEvent.getDuration();
+
+					// Level of detail: the events starting in the same pixel
+					// column as the current one are drawn as a single dense
+					// span of their dominant state
+					int px = (int) x0;
+					if (pixelsPerNanoSec > 0 && idx < count && x0 >= xMin) {
+						long pixelEndTime = time0
+								+ (long) Math.ceil((px + 1 - rect.x) / pixelsPerNanoSec);
+						if (list.get(idx).getTime() < pixelEndTime) {
+							if (summary == null) {
+								if (traceItem._summary == null) {
+									traceItem._summary = new TimeEventSummary(utilImpl);
+								}
+								summary = traceItem._summary;
+								summary.update(list, modificationCount);
+							}
+							int last = trace.getTraceEventIndex(pixelEndTime);
+							summary.query(list, idx - 1, last);
+							_rect1.x = px;
+							_rect1.width = 1;
+							boolean timeSelected = currEventTime <= selectedTime
+									&& selectedTime < pixelEndTime;
+							utilImpl.drawState(_colors, summary.getColor(), _rect1, gc,
+									selected, false, timeSelected);
+							if (summary.isMixed()) {
+								// Mark the span as holding several states
+								gc.setForeground(_colors.getColor(summary.getColor()
+										+ TraceColorScheme.STATES_BORDER0 - TraceColorScheme.STATES0));
+								gc.drawLine(px, _rect1.y + _rect1.height / 3, px, _rect1.y
+										+ 2 * _rect1.height / 3);
+							}
+							// The rest of the last event starts at the next pixel
+							xMin = px + 1;
+							idx = last;
+							currEvent = list.get(idx - 1);
+							currEventTime = currEvent.getTime();
+							x0 = rect.x + (double) ((currEventTime - time0) * pixelsPerNanoSec);
+							continue;
+						}
+					}
 					// TsfTmTraceDeadEvent;
 					if (idx < count) {
 						nextEvent = list.get(idx);
@@ -1484,9 +1537,9 @@ public class TmfTimeStatesCtrl extends TraceCtrl implements FocusListener,
 						x1 = x1 > xNext ? xNext : x1;
 					}
 					// if event end boundary is within time range
-					if (x1 >= rect.x && x0 <= xEnd) {
+					if (x1 >= xMin && x0 <= xEnd) {
 						if (currEventDuration != 0) {
-							x0 = (double) (x0 >= rect.x ? x0 : rect.x);
+							x0 = (double) (x0 >= xMin ? x0 : xMin);
 							_rect1.width = (int) ((x1 <= xEnd ? x1 : xEnd) - x0);
 						} else {
                             _rect1.width = 2; // make punctual events 2 pixels wide
@@ -1995,6 +2048,8 @@ class Item {
 
 class TraceItem extends Item {
 	public ITmfTimeAnalysisEntry _trace;
+	// Summary of the events, built when they are drawn at low detail
+	public TimeEventSummary _summary;
 
 	TraceItem(ITmfTimeAnalysisEntry trace, String name) {
 		super(name);
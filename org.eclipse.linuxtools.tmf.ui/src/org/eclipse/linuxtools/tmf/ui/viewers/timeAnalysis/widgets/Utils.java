@@ -17,7 +17,6 @@ package org.eclipse.linuxtools.tmf.ui.viewers.timeAnalysis.widgets;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.Vector;
@@ -344,22 +343,26 @@ public class Utils {
         if (null == thread)
             return null;
         List<TimeEvent> list = thread.getTraceEvents();
-        Iterator<TimeEvent> it = list.iterator();
+        int count = list.size();
         ITimeEvent nextEvent = null;
         ITimeEvent currEvent = null;
         ITimeEvent prevEvent = null;
 
-        while (it.hasNext()) {
-            nextEvent = (ITimeEvent) it.next();
-            long nextStartTime = nextEvent.getTime();
-            
-            if (nextStartTime > time) {
-                break;
-            }
-            
-            if (currEvent == null || currEvent.getTime() != nextStartTime) {
-                prevEvent = currEvent;
-                currEvent = nextEvent;
+        // The events are sorted by time: the next event is the first one
+        // after the time (or the last one), the current event is the first
+        // of the events at the latest time not after it, and the previous
+        // event the first of the events at the time before.
+        int nextIdx = (time == Long.MAX_VALUE) ? count : thread.getTraceEventIndex(time + 1);
+        if (nextIdx < count) {
+            nextEvent = list.get(nextIdx);
+        } else if (count > 0) {
+            nextEvent = list.get(count - 1);
+        }
+        if (nextIdx > 0) {
+            int currIdx = thread.getTraceEventIndex(list.get(nextIdx - 1).getTime());
+            currEvent = list.get(currIdx);
+            if (currIdx > 0) {
+                prevEvent = list.get(thread.getTraceEventIndex(list.get(currIdx - 1).getTime()));
             }
         }
         
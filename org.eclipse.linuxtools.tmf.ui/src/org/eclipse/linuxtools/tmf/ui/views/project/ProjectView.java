@@ -382,6 +382,7 @@ public class ProjectView extends TmfView {
         		}
         	}
         	TmfExperiment<TmfEvent> selectedExperiment = new TmfExperiment<TmfEvent>(TmfEvent.class, expId, traces.toArray(new ITmfTrace[0]), cacheSize);
+        	selectedExperiment.restoreIndex();
             broadcast(new TmfExperimentSelectedSignal<TmfEvent>(this, selectedExperiment));
         } catch (Exception e) {
             e.printStackTrace();
@@ -283,7 +283,10 @@ public class TmfVirtualTable extends Composite {
 		fSelectedItems[0] = fTable.getSelection()[0];
 
         TmfTimestamp ts = (TmfTimestamp) fSelectedItems[0].getData();
-        TmfSignalManager.dispatchSignal(new TmfTimeSynchSignal(this, ts));
+        // The item is empty until its event is loaded
+        if (ts != null) {
+            TmfSignalManager.dispatchSignal(new TmfTimeSynchSignal(this, ts));
+        }
 	}
 
 	private void setDataItem(int index, TableItem item) {
@@ -12,6 +12,8 @@
 
 package org.eclipse.linuxtools.tmf.component;
 
+import java.lang.reflect.Array;
+import java.util.Iterator;
 import java.util.Vector;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -61,13 +63,15 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 
 	public static final int DEFAULT_BLOCK_SIZE = 5000;
 	public static final int DEFAULT_QUEUE_SIZE = 1000;
+	public static final int DEFAULT_BATCH_SIZE = 256;
 
 	protected final int fQueueSize;
-	protected final BlockingQueue<T> fDataQueue;
-	protected final TmfRequestExecutor fExecutor;
+	// Not final: a clone gets its own (see clone())
+	protected BlockingQueue<T> fDataQueue;
+	protected TmfRequestExecutor fExecutor;
 
 	private int fSignalDepth = 0;
-    private final Object fLock = new Object();
+    private Object fLock = new Object();
 
     private int fRequestPendingCounter = 0;
 
@@ -80,12 +84,42 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 	}
 
 	protected TmfDataProvider(String name, Class<T> type, int queueSize) {
+		this(name, type, queueSize, TmfRequestExecutor.DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * Note: a provider can only service requests concurrently if getNext()
+	 * relies exclusively on the request context (i.e. not on fDataQueue).
+	 * 
+	 * @param name the provider name
+	 * @param type the provider data type
+	 * @param queueSize the data queue size
+	 * @param maxConcurrency the maximum number of requests serviced concurrently
+	 */
+	protected TmfDataProvider(String name, Class<T> type, int queueSize, int maxConcurrency) {
+		this(name, type, queueSize, maxConcurrency, false);
+	}
+
+	/**
+	 * Note: a provider can only be preemptive if arming a request leaves the
+	 * requests being serviced untouched (e.g. it doesn't reset a state shared
+	 * by the requests), since a BACKGROUND request can then be suspended
+	 * in the middle of its servicing while FOREGROUND requests are armed.
+	 * 
+	 * @param name the provider name
+	 * @param type the provider data type
+	 * @param queueSize the data queue size
+	 * @param maxConcurrency the maximum number of requests serviced concurrently
+	 * @param preemptive true if the BACKGROUND requests yield to the FOREGROUND
+	 *        requests at block boundaries
+	 */
+	protected TmfDataProvider(String name, Class<T> type, int queueSize, int maxConcurrency, boolean preemptive) {
 		super(name);
 		fType = type;
 		fQueueSize = queueSize;
         fDataQueue = (fQueueSize > 1) ? new LinkedBlockingQueue<T>(fQueueSize) : new SynchronousQueue<T>();
 
-        fExecutor = new TmfRequestExecutor();
+        fExecutor = new TmfRequestExecutor(maxConcurrency, preemptive);
 		fSignalDepth = 0;
 
 		fLogData  = Tracer.isEventTraced();
@@ -101,13 +135,32 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
         fQueueSize = other.fQueueSize;
         fDataQueue = (fQueueSize > 1) ? new LinkedBlockingQueue<T>(fQueueSize) : new SynchronousQueue<T>();
 
-        fExecutor = new TmfRequestExecutor();
+        fExecutor = new TmfRequestExecutor(other.fExecutor.getMaxConcurrency(), other.fExecutor.canPreempt());
         fSignalDepth = 0;
 
         fLogData  = Tracer.isEventTraced();
         fLogError = Tracer.isErrorTraced();
 	}
 	
+	/**
+	 * The clone gets its own data queue, request executor and pending
+	 * requests, so that it can be disposed without stopping this provider.
+	 * It is not registered with the provider manager.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	protected TmfDataProvider<T> clone() throws CloneNotSupportedException {
+		TmfDataProvider<T> clone = (TmfDataProvider<T>) super.clone();
+		clone.fDataQueue = (fQueueSize > 1) ? new LinkedBlockingQueue<T>(fQueueSize) : new SynchronousQueue<T>();
+		clone.fExecutor = new TmfRequestExecutor(fExecutor.getMaxConcurrency(), fExecutor.canPreempt());
+		clone.fLock = new Object();
+		clone.fSignalDepth = 0;
+		clone.fRequestPendingCounter = 0;
+		clone.fPendingCoalescedRequests = new Vector<TmfCoalescedDataRequest<T>>();
+		clone.fRunningCoalescedRequests = new Vector<TmfCoalescedDataRequest<T>>();
+		return clone;
+	}
+
 	@Override
 	public void dispose() {
 		TmfProviderManager.deregister(fType, this);
@@ -124,6 +177,23 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 		return fType;
 	}
 
+	public TmfRequestExecutor getExecutor() {
+		return fExecutor;
+	}
+
+	/**
+	 * Returns the number of data items delivered to a request at once (see
+	 * ITmfDataRequest.handleData(T[], int)). Since the items of a batch are
+	 * all read before being handled, batching is only possible if getNext()
+	 * returns a distinct instance for each item. It is therefore disabled
+	 * by default (i.e. batches of 1, delivered through handleData(T)).
+	 * 
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return 1;
+	}
+
 	// ------------------------------------------------------------------------
 	// ITmfRequestHandler
 	// ------------------------------------------------------------------------
@@ -133,7 +203,7 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 		synchronized(fLock) {
 			if (fSignalDepth > 0) {
 				coalesceDataRequest(request);
-			} else {
+			} else if (!attachDataRequest(request)) {
 				dispatchRequest(request);
 			}
 		}
@@ -151,8 +221,15 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 				return;
 			}
 			if (fPendingCoalescedRequests.size() > 0) {
-				for (TmfDataRequest<T> request : fPendingCoalescedRequests) {
+				Iterator<TmfCoalescedDataRequest<T>> iterator = fRunningCoalescedRequests.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next().isCompleted()) {
+						iterator.remove();
+					}
+				}
+				for (TmfCoalescedDataRequest<T> request : fPendingCoalescedRequests) {
 					dispatchRequest(request);
+					fRunningCoalescedRequests.add(request);
 				}
 				fPendingCoalescedRequests.clear();
 			}
@@ -191,6 +268,7 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 	// ------------------------------------------------------------------------
 
 	protected Vector<TmfCoalescedDataRequest<T>> fPendingCoalescedRequests = new Vector<TmfCoalescedDataRequest<T>>();
+	protected Vector<TmfCoalescedDataRequest<T>> fRunningCoalescedRequests = new Vector<TmfCoalescedDataRequest<T>>();
 
 	protected void newCoalescedDataRequest(ITmfDataRequest<T> request) {
 		synchronized(fLock) {
@@ -221,6 +299,34 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 		}
 	}
 
+	/**
+	 * Tries to have a request serviced by an in-flight coalesced request
+	 * (e.g. a view that asks for the data of the current range after the
+	 * other components already started reading it).
+	 * 
+	 * @param request the new request
+	 * @return true if the request was attached to a running request
+	 */
+	protected boolean attachDataRequest(ITmfDataRequest<T> request) {
+		synchronized(fLock) {
+			Iterator<TmfCoalescedDataRequest<T>> iterator = fRunningCoalescedRequests.iterator();
+			while (iterator.hasNext()) {
+				TmfCoalescedDataRequest<T> req = iterator.next();
+				if (req.isCompleted()) {
+					iterator.remove();
+				}
+				else if (req.attachRequest(request)) {
+			        if (Tracer.isRequestTraced()) {
+				        Tracer.traceRequest(request, "attached to " + req.getRequestId());
+				        Tracer.traceRequest(req,  "attached " + request.getRequestId());
+			        }
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
 	// ------------------------------------------------------------------------
 	// Request processing
 	// ------------------------------------------------------------------------
@@ -253,6 +359,9 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 				request.start();
 				int nbRequested = request.getNbRequested();
 				int nbRead = 0;
+				int nextYield = DEFAULT_BLOCK_SIZE;
+				boolean canYield = fExecutor.canPreempt() && request.getExecType() == ExecutionType.BACKGROUND;
+				int batchSize = Math.max(1, Math.min(getBatchSize(), nbRequested));
 
 				// Initialize the execution
 				ITmfContext context = armRequest(request);
@@ -264,21 +373,37 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 				try {
 					// Get the ordered events
 					if (Tracer.isRequestTraced()) Tracer.trace("Request #" + request.getRequestId() + " is being serviced by " + provider.getName());
+					T[] batch = newBatch(batchSize);
+					int count = 0;
 					T data = getNext(context);
 					if (Tracer.isRequestTraced()) Tracer.trace("Request #" + request.getRequestId() + " read first event");
-					while (data != null && !isCompleted(request, data, nbRead))
+					while (data != null && !isCompleted(request, data, nbRead + count))
 					{
 						if (fLogData) Tracer.traceEvent(provider, request, data);
-						request.handleData(data);
+						batch[count++] = data;
+						if (count == batchSize) {
+							deliver(request, batch, count);
+							nbRead += count;
+							count = 0;
+
+							// Let the pending foreground requests through at block boundaries
+							if (canYield && nbRead >= nextYield) {
+								fExecutor.yieldToForeground();
+								nextYield += DEFAULT_BLOCK_SIZE;
+							}
+						}
 
 						// To avoid an unnecessary read passed the last data requested
-						if (++nbRead < nbRequested) {
+						if (nbRead + count < nbRequested) {
 							data = getNext(context);
 							if (Tracer.isRequestTraced() && (data == null || data.isNullRef())) {
 								Tracer.trace("Request #" + request.getRequestId() + " end of data");
 							}
 						}
 					}
+					if (count > 0) {
+						deliver(request, batch, count);
+					}
 
 					if (request.isCancelled()) {
 						request.cancel();					    
@@ -293,6 +418,9 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 			        if (Tracer.isRequestTraced()) Tracer.traceRequest(request, "exception (failed)");
 					request.fail();
 				}
+				finally {
+					disarmRequest(request, context);
+				}
 			}
 		};
 
@@ -301,6 +429,22 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
         if (Tracer.isRequestTraced()) Tracer.traceRequest(request, "queued");
 	}
 
+	@SuppressWarnings("unchecked")
+	private T[] newBatch(int batchSize) {
+		return (T[]) Array.newInstance(fType, batchSize);
+	}
+
+	private void deliver(ITmfDataRequest<T> request, T[] batch, int count) {
+		if (count == 1) {
+			request.handleData(batch[0]);
+		} else {
+			request.handleData(batch, count);
+		}
+		for (int i = 0; i < count; i++) {
+			batch[i] = null;
+		}
+	}
+
 	// By default, same behavior as a foreground request
 	protected void queueBackgroundRequest(final ITmfDataRequest<T> request, final int blockSize, boolean indexing) {
 		queueRequest(request);
@@ -314,6 +458,17 @@ public abstract class TmfDataProvider<T extends TmfData> extends TmfComponent im
 	 * @return an application specific context; null if request can't be serviced
 	 */
 	public abstract ITmfContext armRequest(ITmfDataRequest<T> request);
+
+	/**
+	 * Releases the resources associated to the request context, once the
+	 * request is serviced. Does nothing by default.
+	 * 
+	 * @param request
+	 * @param context the context returned by armRequest()
+	 */
+	protected void disarmRequest(ITmfDataRequest<T> request, ITmfContext context) {
+	}
+
 	public abstract T getNext(ITmfContext context);
 
 	/**
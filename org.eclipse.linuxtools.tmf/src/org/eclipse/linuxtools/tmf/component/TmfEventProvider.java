@@ -33,6 +33,10 @@ public abstract class TmfEventProvider<T extends TmfEvent> extends TmfDataProvid
 	public TmfEventProvider(String name, Class<T> type, int queueSize) {
 		super(name, type, queueSize);
 	}
+
+	public TmfEventProvider(String name, Class<T> type, int queueSize, int maxConcurrency, boolean preemptive) {
+		super(name, type, queueSize, maxConcurrency, preemptive);
+	}
 	
 	public TmfEventProvider(TmfEventProvider<T> oldProvider) {
 		super(oldProvider);
@@ -40,10 +44,26 @@ public abstract class TmfEventProvider<T extends TmfEvent> extends TmfDataProvid
 	
 	@Override
 	public boolean isCompleted(ITmfDataRequest<T> request, T data, int nbRead) {
+		if (request instanceof TmfCoalescedEventRequest<?>) {
+			// No late request can be attached once the read is over
+			TmfCoalescedEventRequest<T> coalescedRequest = (TmfCoalescedEventRequest<T>) request;
+			synchronized (coalescedRequest) {
+				boolean requestCompleted = isEventRequestCompleted(request, data, nbRead);
+				if (requestCompleted) {
+					coalescedRequest.close();
+				}
+				return requestCompleted;
+			}
+		}
+		return isEventRequestCompleted(request, data, nbRead);
+	}
+
+	private boolean isEventRequestCompleted(ITmfDataRequest<T> request, T data, int nbRead) {
 		boolean requestCompleted = super.isCompleted(request, data, nbRead);
 		if (!requestCompleted && request instanceof ITmfEventRequest<?> && !data.isNullRef()) {
 			TmfTimestamp endTime = ((ITmfEventRequest<?>) request).getRange().getEndTime();
-			return data.getTimestamp().compareTo(endTime, false) > 0;
+			TmfTimestamp timestamp = data.getTimestamp();
+			return TmfTimestamp.compare(timestamp.getValue(), timestamp.getScale(), endTime.getValue(), endTime.getScale()) > 0;
 		}
 		return requestCompleted;
 	}
@@ -201,6 +201,7 @@ public class TmfEvent extends TmfData implements Cloneable {
 			clone.fType               = fType.clone();
 			clone.fReference          = fReference.clone();
 			clone.fContent            = fContent.clone();
+			clone.fContent.setEvent(clone);
 		}
 		catch (CloneNotSupportedException e) {
 			e.printStackTrace();
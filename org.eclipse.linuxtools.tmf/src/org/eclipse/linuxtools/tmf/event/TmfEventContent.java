@@ -178,8 +178,8 @@ public class TmfEventContent implements Cloneable {
 		try {
 			clone = (TmfEventContent) super.clone();
 			clone.fParentEvent = fParentEvent;
-			clone.fRawContent = null;
-			clone.fFields = null;
+			clone.fRawContent = fRawContent;
+			clone.fFields = (fFields != null) ? fFields.clone() : null;
 		}
 		catch (CloneNotSupportedException e) {
 			e.printStackTrace();
@@ -92,7 +92,7 @@ public class TmfEventSource implements Cloneable {
 		TmfEventSource clone = null;
 		try {
 			clone = (TmfEventSource) super.clone();
-			clone.fSourceId = null;
+			clone.fSourceId = fSourceId;
 		}
 		catch (CloneNotSupportedException e) {
 			e.printStackTrace();
@@ -267,12 +267,14 @@ public class TmfTimestamp implements Cloneable {
      */
     public int compareTo(final TmfTimestamp other, boolean withinPrecision) {
 
+		// Without precision, use the allocation-free primitive comparison
+		if (!withinPrecision) {
+			return compare(fValue, fScale, other.fValue, other.fScale);
+		}
+
 		// If values have the same time scale, perform the comparison
 		if (fScale == other.fScale) {
-			if (withinPrecision)
-				return compareWithinPrecision(this.fValue, this.fPrecision, other.fValue, other.fPrecision);
-			else
-				return compareNoPrecision(this.fValue, other.fValue);
+			return compareWithinPrecision(this.fValue, this.fPrecision, other.fValue, other.fPrecision);
 		}
 
 		// If values have different time scales, adjust to the finest one and
@@ -291,32 +293,64 @@ public class TmfTimestamp implements Cloneable {
 
 		if (fScale < other.fScale) {
 			// this has finer scale, so other should be scaled
-			if (withinPrecision)
-				if (other.fValue > limit || other.fValue < -limit
-						|| other.fPrecision > limit
-						|| other.fPrecision < -limit)
-					return other.fValue > 0 ? -1 : +1; // other exceeds scaling limit
-				else
-					return compareWithinPrecision(this.fValue, this.fPrecision,
-							other.fValue * factor, other.fPrecision * factor);
-			else if (other.fValue > limit || other.fValue < -limit)
+			if (other.fValue > limit || other.fValue < -limit
+					|| other.fPrecision > limit
+					|| other.fPrecision < -limit)
 				return other.fValue > 0 ? -1 : +1; // other exceeds scaling limit
 			else
-				return compareNoPrecision(this.fValue, other.fValue * factor);
+				return compareWithinPrecision(this.fValue, this.fPrecision,
+						other.fValue * factor, other.fPrecision * factor);
 		} else {
 			// other has finer scale, so this should be scaled
-			if (withinPrecision)
-				if (this.fValue > limit || this.fValue < -limit
-						|| this.fPrecision > limit || this.fPrecision < -limit)
-					return this.fValue > 0 ? +1 : -1; // we exceed scaling limit
-				else
-					return compareWithinPrecision(this.fValue * factor,
-							this.fPrecision * factor, other.fValue,
-							other.fPrecision);
-			else if (this.fValue > limit || this.fValue < -limit)
+			if (this.fValue > limit || this.fValue < -limit
+					|| this.fPrecision > limit || this.fPrecision < -limit)
 				return this.fValue > 0 ? +1 : -1; // we exceed scaling limit
 			else
-				return compareNoPrecision(this.fValue * factor, other.fValue);
+				return compareWithinPrecision(this.fValue * factor,
+						this.fPrecision * factor, other.fValue,
+						other.fPrecision);
+		}
+    }
+
+    /**
+     * Compares two timestamps, given by their raw value and scale, without
+     * allocating anything (the precision is ignored). This is the fast path
+     * for the code that compares many timestamps e.g. per event.
+     * 
+     * @param value1 the first timestamp value
+     * @param scale1 the first timestamp scale
+     * @param value2 the second timestamp value
+     * @param scale2 the second timestamp scale
+     * @return -1: the first timestamp is lower (i.e. anterior)
+     *          0: timestamps are equal
+     *          1: the first timestamp is higher (i.e. posterior)
+     */
+    public static int compare(long value1, byte scale1, long value2, byte scale2) {
+
+		// Same time scale: compare the values
+		if (scale1 == scale2) {
+			return compareNoPrecision(value1, value2);
+		}
+
+		// Otherwise, scale the coarser value (see compareTo())
+		int scaleDiff = Math.abs(scale1 - scale2);
+		long factor, limit;
+		if (scaleDiff < scalingFactors.length) {
+			factor = scalingFactors[scaleDiff];
+			limit = scalingLimits[scaleDiff];
+		} else {
+			factor = 0;
+			limit = 0;
+		}
+
+		if (scale1 < scale2) {
+			if (value2 > limit || value2 < -limit)
+				return value2 > 0 ? -1 : +1; // value2 exceeds scaling limit
+			return compareNoPrecision(value1, value2 * factor);
+		} else {
+			if (value1 > limit || value1 < -limit)
+				return value1 > 0 ? +1 : -1; // value1 exceeds scaling limit
+			return compareNoPrecision(value1 * factor, value2);
 		}
     }
 
@@ -12,9 +12,19 @@
 
 package org.eclipse.linuxtools.tmf.experiment;
 
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.linuxtools.tmf.component.TmfDataProvider;
 import org.eclipse.linuxtools.tmf.component.TmfEventProvider;
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
@@ -31,9 +41,12 @@ import org.eclipse.linuxtools.tmf.signal.TmfSignalManager;
 import org.eclipse.linuxtools.tmf.signal.TmfTraceUpdatedSignal;
 import org.eclipse.linuxtools.tmf.trace.ITmfContext;
 import org.eclipse.linuxtools.tmf.trace.ITmfLocation;
+import org.eclipse.linuxtools.tmf.trace.ITmfLocationCodec;
 import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
 import org.eclipse.linuxtools.tmf.trace.TmfCheckpoint;
 import org.eclipse.linuxtools.tmf.trace.TmfContext;
+import org.eclipse.linuxtools.tmf.trace.TmfIndexFile;
+import org.eclipse.linuxtools.tmf.trace.TmfTrace;
 
 /**
  * <b><u>TmfExperiment</u></b>
@@ -44,6 +57,15 @@ import org.eclipse.linuxtools.tmf.trace.TmfContext;
  */
 public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> implements ITmfTrace {
 
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+    // Same request servicing policy as the traces (see TmfTrace): the
+    // background requests yield to the foreground ones at block boundaries
+    public static final int     MAX_CONCURRENCY = TmfTrace.MAX_CONCURRENCY;
+    public static final boolean PREEMPTIVE = TmfTrace.PREEMPTIVE;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -68,6 +90,15 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 
     // The current experiment context
     protected TmfExperimentContext fExperimentContext;
+
+    // The number of events read ahead per trace when servicing a request (0: disabled)
+    protected int fReadAheadSize = TmfReadAheadBuffer.DEFAULT_BUFFER_SIZE;
+
+    // The persistent experiment index (null if the index is not persisted)
+    protected TmfIndexFile fIndexFile;
+
+    // True once the experiment was fully indexed
+    private volatile boolean fIndexComplete = false;
 	
     // ------------------------------------------------------------------------
     // Constructors
@@ -85,7 +116,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 	}
 
     public TmfExperiment(Class<T> type, String id, ITmfTrace[] traces, TmfTimestamp epoch, int indexPageSize, boolean preIndexExperiment) {
-    	super(id, type);
+    	super(id, type, DEFAULT_QUEUE_SIZE, MAX_CONCURRENCY, PREEMPTIVE);
 
     	fTraces = traces;
     	fEpoch = epoch;
@@ -97,7 +128,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 	}
 
     protected TmfExperiment(String id, Class<T> type) {
-        super(id, type);
+        super(id, type, DEFAULT_QUEUE_SIZE, MAX_CONCURRENCY, PREEMPTIVE);
 	}
 
     /**
@@ -124,14 +155,23 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
      * @param other
      */
     public TmfExperiment(TmfExperiment<T> other) {
-    	super(other.getName() + "(clone)", other.fType);
+    	this(other, other.fTraces);
+    }
+
+    /**
+     * Copy constructor, on a snapshot of the other experiment traces
+     * @param other
+     * @param traces
+     */
+    private TmfExperiment(TmfExperiment<T> other, ITmfTrace[] traces) {
+    	super(other.getName() + "(clone)", other.fType, DEFAULT_QUEUE_SIZE, MAX_CONCURRENCY, PREEMPTIVE);
     	
     	fEpoch         = other.fEpoch;
     	fIndexPageSize = other.fIndexPageSize;
     	
-    	fTraces = new ITmfTrace[other.fTraces.length];
-    	for (int trace = 0; trace < other.fTraces.length; trace++) {
-    		fTraces[trace] = other.fTraces[trace].createTraceCopy();
+    	fTraces = new ITmfTrace[traces.length];
+    	for (int trace = 0; trace < traces.length; trace++) {
+    		fTraces[trace] = traces[trace].createTraceCopy();
     	}
     	
     	fNbEvents  = other.fNbEvents;
@@ -159,6 +199,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
     	if (fCheckpoints != null) {
     		fCheckpoints.clear();
     	}
+    	fIndexingCancelled = true;
         super.dispose();
     }
 
@@ -290,10 +331,43 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 			((ITmfEventRequest<T>) request).getRange().getStartTime() : null;
 		TmfExperimentContext context = (timestamp != null) ? 
 			seekEvent(timestamp) : seekEvent(request.getIndex());
+		if (useReadAhead(request)) {
+			context.startReadAhead(fReadAheadSize);
+		}
 //		Tracer.trace("Ctx: Arming request - done");
 		return context;
 	}
 
+	@Override
+	protected void disarmRequest(ITmfDataRequest<T> request, ITmfContext context) {
+		if (context instanceof TmfExperimentContext) {
+			((TmfExperimentContext) context).stopReadAhead();
+		}
+	}
+
+	/**
+	 * Sets the number of events read ahead per trace (in separate threads)
+	 * when servicing a request. Reading ahead only applies to experiments of
+	 * several traces. The events of the traces that reuse their event
+	 * instance (see getBatchSize()) are then copied by the reader threads.
+	 * 
+	 * @param size the read-ahead buffer size (0 to disable)
+	 */
+	public void setReadAheadSize(int size) {
+		fReadAheadSize = Math.max(0, size);
+	}
+
+	public int getReadAheadSize() {
+		return fReadAheadSize;
+	}
+
+	// The reader threads only pay off for requests that span enough events
+	private boolean useReadAhead(ITmfDataRequest<T> request) {
+		ITmfTrace[] traces = fTraces;
+		return traces != null && fReadAheadSize > 0 && traces.length > 1
+			&& request.getNbRequested() / 4 >= (long) traces.length * fReadAheadSize;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public T getNext(ITmfContext context) {
@@ -339,7 +413,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 
 			// Set the trace location and read the corresponding event
 			expLocation.getLocation()[i] = context.getContexts()[i].getLocation();
-			context.getEvents()[i] = fTraces[i].getNextEvent(context.getContexts()[i]);
+			context.setEvent(i, fTraces[i].getNextEvent(context.getContexts()[i]));
 		}
 
 //		Tracer.trace("Ctx: SeekLocation - done");
@@ -483,7 +557,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 			return null;	// Throw an exception?
 		}
 
-		if (!context.equals(fExperimentContext)) {
+		if (context != fExperimentContext && !context.equals(fExperimentContext)) {
 //    		Tracer.trace("Ctx: Restoring context");
 			seekLocation(context.getLocation());
 		}
@@ -495,29 +569,17 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 		// If an event was consumed previously, get the next one from that trace
 		int lastTrace = expContext.getLastTrace();
 		if (lastTrace != TmfExperimentContext.NO_TRACE) {
-		    TmfContext traceContext = expContext.getContexts()[lastTrace];
-			expContext.getEvents()[lastTrace] = expContext.getTraces()[lastTrace].getNextEvent(traceContext);
+			expContext.setEvent(lastTrace, expContext.readNextEvent(lastTrace));
 			expContext.setLastTrace(TmfExperimentContext.NO_TRACE);
 		}
 
-		// Scan the candidate events and identify the "next" trace to read from 
-		int trace = TmfExperimentContext.NO_TRACE;
-		TmfTimestamp timestamp = TmfTimestamp.BigCrunch;
-		for (int i = 0; i < expContext.getTraces().length; i++) {
-			TmfEvent event = expContext.getEvents()[i];
-			if (event != null && event.getTimestamp() != null) {
-				TmfTimestamp otherTS = event.getTimestamp();
-				if (otherTS.compareTo(timestamp, true) < 0) {
-					trace = i;
-					timestamp = otherTS;
-				}
-			}
-		}
+		// Identify the "next" trace to read from
+		int trace = expContext.getNextTrace();
 
 		// Update the experiment context and set the "next" event
 		TmfEvent event = null;
 		if (trace != TmfExperimentContext.NO_TRACE) {
-	        updateIndex(expContext, timestamp);
+	        updateIndex(expContext, expContext.getEvents()[trace].getTimestamp());
 
 	        TmfContext traceContext = expContext.getContexts()[trace];
 	        TmfExperimentLocation expLocation = (TmfExperimentLocation) expContext.getLocation();
@@ -567,7 +629,7 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 			return null;	// Throw an exception?
 		}
 
-		if (!context.equals(fExperimentContext)) {
+		if (context != fExperimentContext && !context.equals(fExperimentContext)) {
 //    		Tracer.trace("Ctx: Restoring context");
 			seekLocation(context.getLocation());
 		}
@@ -577,25 +639,13 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 		// If an event was consumed previously, get the next one from that trace
 		int lastTrace = expContext.getLastTrace();
 		if (lastTrace != TmfExperimentContext.NO_TRACE) {
-		    TmfContext traceContext = expContext.getContexts()[lastTrace];
-			expContext.getEvents()[lastTrace] = expContext.getTraces()[lastTrace].getNextEvent(traceContext);
+			expContext.setEvent(lastTrace, expContext.readNextEvent(lastTrace));
 			expContext.setLastTrace(TmfExperimentContext.NO_TRACE);
 	        fExperimentContext = (TmfExperimentContext) context;
 		}
 
-		// Scan the candidate events and identify the "next" trace to read from 
-		int trace = TmfExperimentContext.NO_TRACE;
-		TmfTimestamp timestamp = TmfTimestamp.BigCrunch;
-		for (int i = 0; i < expContext.getTraces().length; i++) {
-			TmfEvent event = expContext.getEvents()[i];
-			if (event != null && event.getTimestamp() != null) {
-				TmfTimestamp otherTS = event.getTimestamp();
-				if (otherTS.compareTo(timestamp, true) < 0) {
-					trace = i;
-					timestamp = otherTS;
-				}
-			}
-		}
+		// Identify the "next" trace to read from
+		int trace = expContext.getNextTrace();
 
 		TmfEvent event = null;
 		if (trace != TmfExperimentContext.NO_TRACE) {
@@ -613,6 +663,134 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 		return "[TmfExperiment (" + getName() + ")]";
 	}
 
+    // ------------------------------------------------------------------------
+    // Persistent index
+    // ------------------------------------------------------------------------
+
+	/*
+	 * The experiment index can be persisted in an index file stored next to
+	 * the first trace of the experiment and keyed by all the traces (see
+	 * TmfIndexFile). Persistence is enabled by restoreIndex(). When the index
+	 * is complete, indexExperiment() doesn't read the traces at all; when the
+	 * traces grew, indexing resumes from the last checkpoint. Since the traces
+	 * are then not read, their own indexes are restored along with the
+	 * experiment index.
+	 */
+
+	/**
+	 * Restores the experiment index from its index file (if any) and enables
+	 * the index persistence, for the experiment and for each of its traces.
+	 * 
+	 * @return true if the checkpoints were restored
+	 */
+	public synchronized boolean restoreIndex() {
+		for (ITmfTrace trace : fTraces) {
+			if (trace instanceof TmfTrace<?>) {
+				((TmfTrace<?>) trace).restoreIndex();
+			}
+		}
+
+		ITmfLocationCodec codec = getLocationCodec();
+		if (codec == null) {
+			return false;
+		}
+		fIndexFile = createIndexFile();
+		if (!fIndexFile.load(codec)) {
+			return false;
+		}
+		synchronized (fCheckpoints) {
+			fCheckpoints.clear();
+			fCheckpoints.addAll(fIndexFile.getCheckpoints());
+		}
+		fNbEvents  = fIndexFile.getNbEvents();
+		fTimeRange = new TmfTimeRange(fIndexFile.getStartTime(), fIndexFile.getEndTime());
+		fIndexComplete = fIndexFile.isComplete();
+		return true;
+	}
+
+	/**
+	 * Saves the experiment index. If the indexing didn't complete, the index
+	 * is saved as partial.
+	 * 
+	 * @return true if the index was written
+	 */
+	public synchronized boolean saveIndex() {
+		ITmfLocationCodec codec = getLocationCodec();
+		if (codec == null || fCheckpoints.size() == 0 || fTimeRange == null) {
+			return false;
+		}
+		if (fIndexFile == null) {
+			fIndexFile = createIndexFile();
+		}
+		return fIndexFile.save(codec, fNbEvents, fTimeRange.getStartTime(), fTimeRange.getEndTime(), fCheckpoints, fIndexComplete);
+	}
+
+	/**
+	 * @return the persistent index (null if the index is not persisted)
+	 */
+	public TmfIndexFile getIndexFile() {
+		return fIndexFile;
+	}
+
+	private TmfIndexFile createIndexFile() {
+		String[] paths = new String[fTraces.length];
+		for (int i = 0; i < fTraces.length; i++) {
+			paths[i] = fTraces[i].getPath();
+		}
+		File file = TmfIndexFile.getIndexFile(paths[0] + "." + getName());
+		return new TmfIndexFile(file, paths, fIndexPageSize);
+	}
+
+	/**
+	 * Returns the codec for the experiment locations. It is built on the
+	 * codecs of the individual traces and is only available if all the
+	 * traces support persistence.
+	 * 
+	 * @return the location codec (null if the index can't be persisted)
+	 */
+	public ITmfLocationCodec getLocationCodec() {
+		if (fTraces == null || fTraces.length == 0) {
+			return null;
+		}
+		final ITmfLocationCodec[] codecs = new ITmfLocationCodec[fTraces.length];
+		for (int i = 0; i < fTraces.length; i++) {
+			if (!(fTraces[i] instanceof TmfTrace<?>) || fTraces[i].getPath() == null) {
+				return null;
+			}
+			codecs[i] = ((TmfTrace<?>) fTraces[i]).getLocationCodec();
+			if (codecs[i] == null) {
+				return null;
+			}
+		}
+		return new ITmfLocationCodec() {
+			@Override
+			public void writeLocation(DataOutput out, ITmfLocation<?> location) throws IOException {
+				TmfExperimentLocation expLocation = (TmfExperimentLocation) location;
+				ITmfLocation<?>[] locations = expLocation.getLocation();
+				long[] ranks = expLocation.getRanks();
+				for (int i = 0; i < codecs.length; i++) {
+					out.writeLong(ranks[i]);
+					out.writeBoolean(locations[i] != null);
+					if (locations[i] != null) {
+						codecs[i].writeLocation(out, locations[i]);
+					}
+				}
+			}
+			@Override
+			public ITmfLocation<?> readLocation(ByteBuffer in) throws IOException {
+				ITmfLocation<?>[] locations = new ITmfLocation<?>[codecs.length];
+				long[] ranks = new long[codecs.length];
+				for (int i = 0; i < codecs.length; i++) {
+					ranks[i] = in.getLong();
+					if (in.get() != 0) {
+						locations[i] = codecs[i].readLocation(in);
+					}
+				}
+				return new TmfExperimentLocation(locations, ranks);
+			}
+		};
+	}
+
     // ------------------------------------------------------------------------
     // Indexing
     // ------------------------------------------------------------------------
@@ -631,6 +809,29 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 	private static final int DEFAULT_INDEX_PAGE_SIZE = 5000;
 	protected int fIndexPageSize;
 
+	// The number of time slices indexed in parallel (1: sequential indexing)
+	public static final int DEFAULT_INDEXING_PARTITIONS = Runtime.getRuntime().availableProcessors();
+	protected int fIndexingPartitions = DEFAULT_INDEXING_PARTITIONS;
+	private volatile boolean fIndexingCancelled = false;
+
+	/**
+	 * Sets the number of time slices of the experiment that are indexed in
+	 * parallel, each on its own copy of the traces. Partitioned indexing
+	 * requires traces that can be positioned by timestamp with a valid rank
+	 * and exact (zero precision, same scale) timestamps: otherwise, the
+	 * experiment is indexed sequentially. By default, there is one partition
+	 * per processor.
+	 * 
+	 * @param nbPartitions the number of partitions (1 to index sequentially)
+	 */
+	public void setIndexingPartitions(int nbPartitions) {
+		fIndexingPartitions = Math.max(1, nbPartitions);
+	}
+
+	public int getIndexingPartitions() {
+		return fIndexingPartitions;
+	}
+
 //	private static BufferedWriter fEventLog = null;
 //	private static BufferedWriter openLogFile(String filename) {
 //		BufferedWriter outfile = null;
@@ -642,11 +843,40 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 //		return outfile;
 //	}
 
-	@SuppressWarnings("unchecked")
 	private void indexExperiment(boolean waitForCompletion) {
 
-		fCheckpoints.clear();
-		
+		// Use the persistent index if it is up to date. If the traces grew,
+		// resume the indexing from the last checkpoint.
+		int resumeRank = 0;
+		TmfTimestamp resumeTime = null;
+		synchronized (fCheckpoints) {
+			if (fIndexFile != null && fIndexFile.isValid() && fCheckpoints.size() > 0) {
+				if (fIndexFile.isComplete()) {
+					notifyListeners();
+					return;
+				}
+				resumeRank = (fCheckpoints.size() - 1) * fIndexPageSize;
+				resumeTime = fCheckpoints.firstElement().getTimestamp();
+			}
+			else {
+				fCheckpoints.clear();
+			}
+		}
+
+		// The indexing threads work on a snapshot of the traces: the
+		// experiment can be disposed meanwhile
+		ITmfTrace[] traces = (fTraces != null) ? fTraces.clone() : null;
+		if (resumeRank == 0 && fIndexingPartitions > 1 && canIndexPartitions(traces)) {
+			indexPartitions(traces, waitForCompletion);
+		}
+		else {
+			indexSequentially(resumeRank, resumeTime, waitForCompletion);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void indexSequentially(final int firstRank, final TmfTimestamp firstTime, boolean waitForCompletion) {
+
 //		fEventLog = openLogFile("TraceEvent.log");
 //		System.out.println(System.currentTimeMillis() + ": Experiment indexing started");
 
@@ -655,8 +885,12 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 
 //			long indexingStart = System.nanoTime();
 			
-			TmfTimestamp startTime =  null;
-			TmfTimestamp lastTime  =  null;
+			TmfTimestamp startTime =  firstTime;
+
+			// The last timestamp is kept as primitives: no allocation per event
+			long lastValue     = 0;
+			byte lastScale     = 0;
+			long lastPrecision = 0;
 
 			@Override
 			public void handleData(TmfEvent event) {
@@ -665,9 +899,11 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 					TmfTimestamp ts = event.getTimestamp();
 					if (startTime == null)
 						startTime = new TmfTimestamp(ts);
-					lastTime = new TmfTimestamp(ts);
+					lastValue     = ts.getValue();
+					lastScale     = ts.getScale();
+					lastPrecision = ts.getPrecision();
 
-					if ((getNbRead() % DEFAULT_INDEX_PAGE_SIZE) == 0) {
+					if (((firstRank + getNbRead()) % DEFAULT_INDEX_PAGE_SIZE) == 0) {
 						updateExperiment();
 					}
 				}
@@ -678,6 +914,10 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 //				long indexingEnd = System.nanoTime();
 
 				updateExperiment();
+				fIndexComplete = true;
+				if (fIndexFile != null) {
+					saveIndex();
+				}
 //				System.out.println(System.currentTimeMillis() + ": Experiment indexing completed");
 
 //				long average = (indexingEnd - indexingStart) / fNbEvents;
@@ -690,14 +930,40 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 				if (nbRead != 0) {
 //					updateTimeRange();
 //					updateNbEvents();
-					fTimeRange = new TmfTimeRange(startTime, new TmfTimestamp(lastTime));
-					fNbEvents  = nbRead;
+					fTimeRange = new TmfTimeRange(startTime, new TmfTimestamp(lastValue, lastScale, lastPrecision));
+					fNbEvents  = firstRank + nbRead;
 					notifyListeners();
 				}
 			}
 		};
 
-		sendRequest((ITmfDataRequest<T>) request);
+		if (firstRank == 0) {
+			sendRequest((ITmfDataRequest<T>) request);
+		}
+		else {
+			// Resume by rank from the last checkpoint and forward the events
+			// to the indexing request
+			final ITmfEventRequest<TmfEvent> indexingRequest = request;
+			TmfDataRequest<TmfEvent> resumeRequest = new TmfDataRequest<TmfEvent>(TmfEvent.class, firstRank,
+					TmfDataRequest.ALL_DATA, 1, ITmfDataRequest.ExecutionType.BACKGROUND) {
+				@Override
+				public void handleData(TmfEvent event) {
+					super.handleData(event);
+					indexingRequest.handleData(event);
+				}
+				@Override
+				public void handleCompleted() {
+					if (isCancelled() || isFailed()) {
+						indexingRequest.cancel();
+					}
+					else {
+						indexingRequest.done();
+					}
+					super.handleCompleted();
+				}
+			};
+			sendRequest((ITmfDataRequest<T>) resumeRequest);
+		}
 		if (waitForCompletion)
 			try {
 				request.waitForCompletion();
@@ -709,6 +975,322 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
 	protected void notifyListeners() {
     	broadcast(new TmfExperimentUpdatedSignal(this, this)); // , null));
 	}
+
+    // ------------------------------------------------------------------------
+    // Partitioned indexing
+    // ------------------------------------------------------------------------
+
+	/*
+	 * The experiment time range is split in slices that are indexed in
+	 * parallel. Each slice starts on the first event at or after its start
+	 * time: its experiment location and rank are obtained by positioning
+	 * each trace by timestamp (the slice rank is the sum of the traces
+	 * ranks). The slice then reads up to the rank of the next slice and
+	 * keeps the checkpoints that fall in its range. Since the slices
+	 * boundaries are known up front, the partial checkpoint lists are simply
+	 * appended, in order, to the experiment index.
+	 */
+
+	/**
+	 * A time slice of the experiment, indexed on its own copy of the traces
+	 */
+	private class IndexingPartition implements Runnable {
+
+		private final ITmfTrace[] fPartitionTraces;
+		private final TmfExperimentLocation fStartLocation;	// null: start of the experiment
+		private final long fStartRank;
+		private long fEndRank = -1;							// -1: end of the experiment
+
+		private final Vector<TmfCheckpoint> fPartitionCheckpoints = new Vector<TmfCheckpoint>();
+		private long fNbRead = 0;
+		private TmfTimestamp fFirstTime = null;
+		private TmfTimestamp fLastTime  = null;
+
+		public IndexingPartition(ITmfTrace[] traces, TmfExperimentLocation startLocation, long startRank) {
+			fPartitionTraces = traces;
+			fStartLocation = startLocation;
+			fStartRank = startRank;
+		}
+
+		@Override
+		public void run() {
+			TmfExperiment<T> experiment = new TmfExperiment<T>(TmfExperiment.this, fPartitionTraces) {
+				@Override
+				public synchronized void updateIndex(ITmfContext context, TmfTimestamp timestamp) {
+					addCheckpoint(context, timestamp);
+				}
+			};
+			TmfSignalManager.deregister(experiment);
+
+			try {
+				TmfExperimentContext context = experiment.seekLocation(fStartLocation);
+				TmfEvent event = null;
+				long lastValue = 0, lastPrecision = 0;
+				byte lastScale = 0;
+				while ((fEndRank < 0 || fStartRank + fNbRead < fEndRank) && !fIndexingCancelled
+						&& (event = experiment.getNextEvent(context)) != null) {
+					TmfTimestamp ts = event.getTimestamp();
+					if (fFirstTime == null)
+						fFirstTime = new TmfTimestamp(ts);
+					lastValue     = ts.getValue();
+					lastScale     = ts.getScale();
+					lastPrecision = ts.getPrecision();
+					fNbRead++;
+				}
+				if (fNbRead > 0) {
+					fLastTime = new TmfTimestamp(lastValue, lastScale, lastPrecision);
+				}
+			} finally {
+				experiment.dispose();
+			}
+		}
+
+		private void addCheckpoint(ITmfContext context, TmfTimestamp timestamp) {
+			if (context.isValidRank() && (context.getRank() % fIndexPageSize) == 0) {
+				fPartitionCheckpoints.add(new TmfCheckpoint(timestamp.clone(), context.getLocation().clone()));
+			}
+		}
+
+		// The index position of the first checkpoint of the partition
+		private long getFirstPosition() {
+			return (fStartRank + fIndexPageSize - 1) / fIndexPageSize;
+		}
+	}
+
+	/**
+	 * Splits the experiment time range in slices and positions each slice on
+	 * its first event.
+	 * 
+	 * @param traces the indexed copies of the experiment traces
+	 * @param nbPartitions the requested number of partitions
+	 * @return the partitions (null if the experiment can't be partitioned)
+	 */
+	private Vector<IndexingPartition> createIndexingPartitions(ITmfTrace[] traces, int nbPartitions) {
+		if (traces == null || traces.length == 0) {
+			return null;
+		}
+
+		// The slices are delimited by timestamp: comparisons must be exact
+		TmfTimestamp startTime = null;
+		TmfTimestamp endTime   = null;
+		for (ITmfTrace trace : traces) {
+			TmfTimestamp traceStartTime = trace.getStartTime();
+			TmfTimestamp traceEndTime   = trace.getEndTime();
+			if (traceStartTime.getPrecision() != 0 || traceEndTime.getPrecision() != 0
+					|| traceStartTime.getScale() != traceEndTime.getScale()
+					|| traceStartTime.compareTo(traceEndTime, false) > 0) {
+				return null;
+			}
+			if (startTime == null) {
+				startTime = traceStartTime;
+				endTime   = traceEndTime;
+			}
+			else {
+				if (traceStartTime.getScale() != startTime.getScale()) {
+					return null;
+				}
+				if (traceStartTime.getValue() < startTime.getValue())
+					startTime = traceStartTime;
+				if (traceEndTime.getValue() > endTime.getValue())
+					endTime = traceEndTime;
+			}
+		}
+		long step = (endTime.getValue() - startTime.getValue()) / nbPartitions;
+		if (step <= 0) {
+			return null;
+		}
+
+		Vector<IndexingPartition> partitions = new Vector<IndexingPartition>(nbPartitions);
+		partitions.add(new IndexingPartition(traces, null, 0));
+		for (int k = 1; k < nbPartitions; k++) {
+			TmfTimestamp boundary = new TmfTimestamp(startTime.getValue() + k * step, startTime.getScale(), 0);
+			ITmfLocation<?>[] locations = new ITmfLocation<?>[traces.length];
+			long[] ranks = new long[traces.length];
+			long rank = 0;
+			for (int i = 0; i < traces.length; i++) {
+				TmfContext context = traces[i].seekEvent(boundary);
+				if (context == null || !context.isValidRank() || context.getLocation() == null) {
+					return null;
+				}
+				locations[i] = context.getLocation().clone();
+				ranks[i] = context.getRank();
+				rank += ranks[i];
+			}
+			partitions.lastElement().fEndRank = rank;
+			partitions.add(new IndexingPartition(traces, new TmfExperimentLocation(locations, ranks), rank));
+		}
+		return partitions;
+	}
+
+	/**
+	 * @param traces the snapshot of the experiment traces
+	 * @return true if all the traces can be positioned by timestamp with a
+	 * valid rank
+	 */
+	private boolean canIndexPartitions(ITmfTrace[] traces) {
+		if (traces == null || traces.length == 0) {
+			return false;
+		}
+		for (ITmfTrace trace : traces) {
+			TmfContext context = trace.seekEvent(TmfTimestamp.BigBang);
+			if (context == null || !context.isValidRank()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads a trace to its end, from its last known event, so that its own
+	 * index and time range are complete.
+	 * 
+	 * @param trace the trace (a copy: this runs in an indexing thread)
+	 */
+	private void completeTraceIndex(ITmfTrace trace) {
+		TmfContext context = trace.seekEvent(trace.getNbEvents());
+		while (!fIndexingCancelled && trace.getNextEvent(context) != null) {
+		}
+	}
+
+	/**
+	 * Indexes the experiment in parallel: first the traces are indexed (one
+	 * trace per thread), then the time slices of the experiment. The
+	 * partitions checkpoints are published, in order, as they complete.
+	 * <p>
+	 * The indexing threads only read copies of the traces, which are disposed
+	 * when done: the experiment traces are left to the requests serviced
+	 * meanwhile.
+	 * 
+	 * @param traces the snapshot of the experiment traces
+	 * @param waitForCompletion true to index in the calling thread
+	 */
+	private void indexPartitions(final ITmfTrace[] traces, final boolean waitForCompletion) {
+		fIndexingCancelled = false;
+
+		Thread thread = new Thread("TmfExperiment indexing (" + getName() + ")") {
+			@Override
+			public void run() {
+				ITmfTrace[] copies = new ITmfTrace[traces.length];
+				ExecutorService executor = Executors.newFixedThreadPool(fIndexingPartitions);
+				try {
+					for (int i = 0; i < traces.length; i++) {
+						copies[i] = traces[i].createTraceCopy();
+						if (copies[i] == null) {
+							indexSequentially(0, null, true);
+							return;
+						}
+					}
+
+					// The slices are positioned with the traces indexes
+					Vector<Future<?>> futures = new Vector<Future<?>>();
+					for (final ITmfTrace trace : copies) {
+						futures.add(executor.submit(new Runnable() {
+							@Override
+							public void run() {
+								completeTraceIndex(trace);
+							}
+						}));
+					}
+					for (Future<?> future : futures) {
+						future.get();
+					}
+					if (fIndexingCancelled) {
+						return;
+					}
+					for (int i = 0; i < traces.length; i++) {
+						if (traces[i] instanceof TmfTrace<?> && copies[i] instanceof TmfTrace<?>) {
+							((TmfTrace<?>) traces[i]).adoptIndex((TmfTrace<?>) copies[i]);
+						}
+					}
+
+					Vector<IndexingPartition> partitions = createIndexingPartitions(copies, fIndexingPartitions);
+					if (partitions == null) {
+						indexSequentially(0, null, true);
+						return;
+					}
+					futures.clear();
+					for (IndexingPartition partition : partitions) {
+						futures.add(executor.submit(partition));
+					}
+
+					TmfTimestamp startTime = null;
+					TmfTimestamp lastTime  = null;
+					for (int k = 0; k < partitions.size(); k++) {
+						futures.get(k).get();
+						if (fIndexingCancelled) {
+							return;
+						}
+						IndexingPartition partition = partitions.get(k);
+						if (startTime == null)
+							startTime = partition.fFirstTime;
+						if (partition.fLastTime != null)
+							lastTime = partition.fLastTime;
+						if (!publishPartition(partition, startTime, lastTime)) {
+							return;
+						}
+					}
+					fIndexComplete = true;
+					if (fIndexFile != null) {
+						saveIndex();
+					}
+				} catch (InterruptedException e) {
+					fIndexingCancelled = true;
+				} catch (ExecutionException e) {
+					fIndexingCancelled = true;
+					e.printStackTrace();
+				} finally {
+					// The partitions copy the traces copies when they start
+					executor.shutdownNow();
+					try {
+						executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					for (ITmfTrace copy : copies) {
+						if (copy != null) {
+							copy.dispose();
+						}
+					}
+				}
+			}
+		};
+
+		if (waitForCompletion)
+			thread.run();
+		else
+			thread.start();
+	}
+
+	/**
+	 * Appends the checkpoints of a partition to the index (the previous
+	 * partitions are already published) and updates the experiment range.
+	 * 
+	 * @return false if the partition doesn't fit the index
+	 */
+	private boolean publishPartition(IndexingPartition partition, TmfTimestamp startTime, TmfTimestamp lastTime) {
+		synchronized (this) {
+			synchronized (fCheckpoints) {
+				long position = partition.getFirstPosition();
+				for (TmfCheckpoint checkpoint : partition.fPartitionCheckpoints) {
+					// The checkpoint may already have been added by updateIndex()
+					if (fCheckpoints.size() == position) {
+						fCheckpoints.add(checkpoint);
+					}
+					else if (fCheckpoints.size() < position) {
+						return false;
+					}
+					position++;
+				}
+			}
+			if (startTime == null) {
+				return true;
+			}
+			fTimeRange = new TmfTimeRange(startTime, new TmfTimestamp(lastTime));
+			fNbEvents  = partition.fStartRank + partition.fNbRead;
+		}
+		notifyListeners();
+		return true;
+	}
    
     // ------------------------------------------------------------------------
     // Signal handlers
@@ -744,6 +1326,23 @@ public class TmfExperiment<T extends TmfEvent> extends TmfEventProvider<T> imple
     // TmfDataProvider
     // ------------------------------------------------------------------------
 
+	/**
+	 * The experiment returns the events of its traces: it can only batch them
+	 * if all its traces can.
+	 */
+	@Override
+	public int getBatchSize() {
+		ITmfTrace[] traces = fTraces;
+		if (traces == null) {
+			return 1;
+		}
+		int batchSize = DEFAULT_BATCH_SIZE;
+		for (ITmfTrace trace : traces) {
+			batchSize = Math.min(batchSize, (trace instanceof TmfDataProvider<?>) ? ((TmfDataProvider<?>) trace).getBatchSize() : 1);
+		}
+		return batchSize;
+	}
+
 	@Override
 	protected void queueBackgroundRequest(final ITmfDataRequest<T> request, final int blockSize, final boolean indexing) {
 
@@ -12,7 +12,9 @@
 
 package org.eclipse.linuxtools.tmf.experiment;
 
+import org.eclipse.linuxtools.tmf.component.TmfDataProvider;
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
 import org.eclipse.linuxtools.tmf.trace.ITmfLocation;
 import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
 import org.eclipse.linuxtools.tmf.trace.TmfContext;
@@ -30,6 +32,17 @@ import org.eclipse.linuxtools.tmf.trace.TmfContext;
  * <p>
  * The last trace refers to the trace from which the last event was
  * "consumed" at the experiment level.
+ * <p>
+ * The traces with a pending event are kept in a min-heap ordered by event
+ * timestamp, then by trace index, so that the next trace is found in
+ * O(log n) instead of scanning all the traces. This yields the same order
+ * as a linear scan as long as the timestamps are totally ordered, i.e. when
+ * they all have the same scale and no precision. Otherwise, the context
+ * reverts to the linear scan. The pending events must therefore be set
+ * with setEvent().
+ * <p>
+ * The context can also read ahead the events of its traces in separate
+ * threads (see TmfReadAheadBuffer).
  */
 public class TmfExperimentContext extends TmfContext {
 
@@ -48,6 +61,15 @@ public class TmfExperimentContext extends TmfContext {
 	private TmfEvent[]   fEvents;
 	private int lastTraceRead;
 
+	// The merge heap (trace indexes) and the heap position of each trace
+	private int[] fHeap;
+	private int[] fHeapIndex;
+	private int fHeapSize;
+	private boolean fIsOrdered;
+	private TmfTimestamp fFirstTimestamp;
+
+	private TmfReadAheadBuffer[] fReadAhead;
+
 	// ------------------------------------------------------------------------
 	// Constructors
 	// ------------------------------------------------------------------------
@@ -57,6 +79,7 @@ public class TmfExperimentContext extends TmfContext {
 		fTraces   = traces;
 		fContexts = contexts;
 		fEvents   = new TmfEvent[fTraces.length];
+		initHeap();
 
 		ITmfLocation<?>[] locations = new ITmfLocation[fTraces.length];
 		long[] ranks = new long[fTraces.length];
@@ -80,7 +103,9 @@ public class TmfExperimentContext extends TmfContext {
 
 	public TmfExperimentContext(TmfExperimentContext other) {
 		this(other.fTraces, other.cloneContexts());
-		fEvents = other.fEvents;
+		for (int i = 0; i < fTraces.length; i++) {
+			setEvent(i, other.fEvents[i]);
+		}
 		if (other.getLocation() != null)
 			setLocation(other.getLocation().clone());
 		setRank(other.getRank());
@@ -90,7 +115,7 @@ public class TmfExperimentContext extends TmfContext {
 	private TmfContext[] cloneContexts() {
 		TmfContext[] contexts = new TmfContext[fContexts.length];
 		for (int i = 0; i < fContexts.length; i++)
-			contexts[i] = fContexts[i].clone();
+			contexts[i] = (fContexts[i] != null) ? fContexts[i].clone() : null;
 		return contexts;
 	}
 
@@ -106,10 +131,93 @@ public class TmfExperimentContext extends TmfContext {
 		return fContexts;
 	}
 
+	/**
+	 * @return the pending events (read-only: use setEvent() to update them)
+	 */
 	public TmfEvent[] getEvents() {
 		return fEvents;
 	}
 
+	/**
+	 * Sets the pending event of a trace.
+	 * 
+	 * @param trace the trace index
+	 * @param event the next event of that trace (null if none)
+	 */
+	public void setEvent(int trace, TmfEvent event) {
+		fEvents[trace] = event;
+
+		TmfTimestamp timestamp = (event != null) ? event.getTimestamp() : null;
+		boolean isPending = (timestamp != null) && timestamp.compareTo(TmfTimestamp.BigCrunch, true) < 0;
+		if (isPending && fIsOrdered) {
+			if (fFirstTimestamp == null) {
+				fFirstTimestamp = timestamp;
+			}
+			fIsOrdered = timestamp.getPrecision() == 0 && timestamp.getScale() == fFirstTimestamp.getScale();
+		}
+		if (!fIsOrdered) {
+			return;	// The heap is no longer used
+		}
+
+		int pos = fHeapIndex[trace];
+		if (pos < 0) {
+			if (isPending) {
+				fHeap[fHeapSize] = trace;
+				fHeapIndex[trace] = fHeapSize;
+				siftUp(fHeapSize++);
+			}
+		} else if (!isPending) {
+			int last = fHeap[--fHeapSize];
+			fHeapIndex[trace] = -1;
+			if (last != trace) {
+				fHeap[pos] = last;
+				fHeapIndex[last] = pos;
+				siftDown(siftUp(pos));
+			}
+		} else {
+			siftDown(siftUp(pos));
+		}
+	}
+
+	/**
+	 * @return the index of the trace with the next event in chronological
+	 *         order (NO_TRACE if there is none)
+	 */
+	public int getNextTrace() {
+		if (fIsOrdered) {
+			return (fHeapSize > 0) ? fHeap[0] : NO_TRACE;
+		}
+
+		// Linear scan
+		int trace = NO_TRACE;
+		TmfTimestamp timestamp = TmfTimestamp.BigCrunch;
+		for (int i = 0; i < fTraces.length; i++) {
+			TmfEvent event = fEvents[i];
+			if (event != null && event.getTimestamp() != null) {
+				TmfTimestamp otherTS = event.getTimestamp();
+				if (otherTS.compareTo(timestamp, true) < 0) {
+					trace = i;
+					timestamp = otherTS;
+				}
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * Reads the next event of a trace from its sub-context (or from its
+	 * read-ahead buffer, if any). The pending event is not updated.
+	 * 
+	 * @param trace the trace index
+	 * @return the next event of that trace
+	 */
+	public TmfEvent readNextEvent(int trace) {
+		if (fReadAhead != null && fReadAhead[trace] != null) {
+			return fReadAhead[trace].next(fContexts[trace]);
+		}
+		return fTraces[trace].getNextEvent(fContexts[trace]);
+	}
+
 	public int getLastTrace() {
 		return lastTraceRead;
 	}
@@ -118,10 +226,135 @@ public class TmfExperimentContext extends TmfContext {
 		lastTraceRead = newIndex;
 	}
 
+	// ------------------------------------------------------------------------
+	// Read-ahead
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Starts reading ahead the events of the traces, from their current
+	 * sub-context position. The events of the traces that reuse their event
+	 * instance (i.e. that can't batch their events) are copied as they are
+	 * read ahead.
+	 * 
+	 * @param bufferSize the number of events read ahead per trace
+	 */
+	public synchronized void startReadAhead(int bufferSize) {
+		stopReadAhead();
+		fReadAhead = new TmfReadAheadBuffer[fTraces.length];
+		for (int i = 0; i < fTraces.length; i++) {
+			if (fContexts[i] != null) {
+				boolean copyEvents = !(fTraces[i] instanceof TmfDataProvider<?>) || ((TmfDataProvider<?>) fTraces[i]).getBatchSize() <= 1;
+				if (copyEvents && fEvents[i] != null) {
+					// The pending event would be overwritten by the reader
+					synchronized (fTraces[i]) {
+						fEvents[i] = fEvents[i].clone();
+					}
+				}
+				fReadAhead[i] = new TmfReadAheadBuffer(fTraces[i], fContexts[i], bufferSize, copyEvents);
+				fReadAhead[i].start();
+			}
+		}
+	}
+
+	/**
+	 * Stops reading ahead. The sub-contexts stay positioned after the last
+	 * events consumed.
+	 */
+	public synchronized void stopReadAhead() {
+		if (fReadAhead != null) {
+			for (TmfReadAheadBuffer buffer : fReadAhead) {
+				if (buffer != null) {
+					buffer.stop();
+				}
+			}
+			fReadAhead = null;
+		}
+	}
+
+	public boolean isReadingAhead() {
+		return fReadAhead != null;
+	}
+
+	// ------------------------------------------------------------------------
+	// Merge heap
+	// ------------------------------------------------------------------------
+
+	private void initHeap() {
+		fHeap = new int[fTraces.length];
+		fHeapIndex = new int[fTraces.length];
+		for (int i = 0; i < fTraces.length; i++) {
+			fHeapIndex[i] = -1;
+		}
+		fHeapSize = 0;
+		fIsOrdered = true;
+		fFirstTimestamp = null;
+	}
+
+	// Same order as the linear scan: by timestamp, then by trace index. The
+	// heap is only maintained while the pending timestamps are exact and in
+	// the same scale: the raw values can be compared directly.
+	private boolean isBefore(int trace1, int trace2) {
+		long value1 = fEvents[trace1].getTimestamp().getValue();
+		long value2 = fEvents[trace2].getTimestamp().getValue();
+		return (value1 < value2) || (value1 == value2 && trace1 < trace2);
+	}
+
+	private int siftUp(int pos) {
+		int trace = fHeap[pos];
+		while (pos > 0) {
+			int parent = (pos - 1) >> 1;
+			if (!isBefore(trace, fHeap[parent])) {
+				break;
+			}
+			fHeap[pos] = fHeap[parent];
+			fHeapIndex[fHeap[pos]] = pos;
+			pos = parent;
+		}
+		fHeap[pos] = trace;
+		fHeapIndex[trace] = pos;
+		return pos;
+	}
+
+	private int siftDown(int pos) {
+		int trace = fHeap[pos];
+		while (true) {
+			int child = (pos << 1) + 1;
+			if (child >= fHeapSize) {
+				break;
+			}
+			if (child + 1 < fHeapSize && isBefore(fHeap[child + 1], fHeap[child])) {
+				child++;
+			}
+			if (!isBefore(fHeap[child], trace)) {
+				break;
+			}
+			fHeap[pos] = fHeap[child];
+			fHeapIndex[fHeap[pos]] = pos;
+			pos = child;
+		}
+		fHeap[pos] = trace;
+		fHeapIndex[trace] = pos;
+		return pos;
+	}
+
 	// ------------------------------------------------------------------------
 	// Object
 	// ------------------------------------------------------------------------
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.linuxtools.tmf.trace.TmfContext#clone()
+	 */
+	@Override
+	public TmfExperimentContext clone() {
+		TmfExperimentContext clone = (TmfExperimentContext) super.clone();
+		clone.fContexts  = cloneContexts();
+		clone.fEvents    = fEvents.clone();
+		clone.fHeap      = fHeap.clone();
+		clone.fHeapIndex = fHeapIndex.clone();
+		clone.fReadAhead = null;
+		return clone;
+	}
+
     @Override
     public int hashCode() {
 		int result = 17;
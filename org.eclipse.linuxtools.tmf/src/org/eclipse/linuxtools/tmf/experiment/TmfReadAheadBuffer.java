@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.experiment;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.trace.ITmfLocation;
+import org.eclipse.linuxtools.tmf.trace.ITmfTrace;
+import org.eclipse.linuxtools.tmf.trace.TmfContext;
+
+/**
+ * <b><u>TmfReadAheadBuffer</u></b>
+ * <p>
+ * Reads the events of a trace ahead of its consumer, in a separate thread,
+ * into a bounded buffer.
+ * <p>
+ * The reader works on its own copy of the trace context. Each buffered
+ * event is kept with the location and rank of the reader's context right
+ * after it was read: next() copies them back into the consumer's context so
+ * that the consumer sees exactly the same context updates as if it had read
+ * the trace itself.
+ * <p>
+ * Since the events are read before the previous ones are consumed, each
+ * buffered event must be a distinct instance. The traces that reuse their
+ * event instance (see TmfDataProvider.getBatchSize()), e.g. LTTng, are read
+ * with copyEvents set: the reader then clones each event, with the trace
+ * locked, before the next read invalidates it.
+ */
+public class TmfReadAheadBuffer implements Runnable {
+
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+	public static final int DEFAULT_BUFFER_SIZE = 64;
+
+	// The stop() request is checked at that interval when the buffer is full
+	private static final long POLL_INTERVAL = 100; // ms
+
+	// The reader threads are shared by all the buffers
+	private static final ExecutorService fReaders = Executors.newCachedThreadPool(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "TmfReadAheadBuffer");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+	private final ITmfTrace fTrace;
+	private final TmfContext fContext;
+	private final BlockingQueue<Entry> fBuffer;
+	private final boolean fCopyEvents;
+
+	private volatile boolean fStopped = false;
+	private Entry fLastEntry = null;	// Set once the end of the trace is consumed
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+	/**
+	 * @param trace the trace to read
+	 * @param context the position of the first event to read (not modified)
+	 * @param size the buffer size (in events)
+	 */
+	public TmfReadAheadBuffer(ITmfTrace trace, TmfContext context, int size) {
+		this(trace, context, size, false);
+	}
+
+	/**
+	 * @param trace the trace to read
+	 * @param context the position of the first event to read (not modified)
+	 * @param size the buffer size (in events)
+	 * @param copyEvents true if the trace reuses its event instance
+	 */
+	public TmfReadAheadBuffer(ITmfTrace trace, TmfContext context, int size, boolean copyEvents) {
+		fTrace   = trace;
+		fContext = context.clone();
+		fBuffer  = new ArrayBlockingQueue<Entry>(Math.max(1, size));
+		fCopyEvents = copyEvents;
+	}
+
+    // ------------------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------------------
+
+	/**
+	 * Starts reading ahead (in a pooled thread)
+	 */
+	public void start() {
+		fReaders.execute(this);
+	}
+
+	/**
+	 * Stops the reader and discards the buffered events
+	 */
+	public void stop() {
+		fStopped = true;
+		fBuffer.clear();
+	}
+
+	/**
+	 * Returns the next event of the trace (null at the end of the trace) and
+	 * updates the consumer context accordingly. Blocks until the event is
+	 * read.
+	 *
+	 * @param context the consumer context
+	 * @return the next event
+	 */
+	public TmfEvent next(TmfContext context) {
+		Entry entry = fLastEntry;
+		if (entry == null) {
+			try {
+				entry = fBuffer.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			if (entry.fEvent == null) {
+				fLastEntry = entry;
+			}
+		}
+		if (entry.fFailure != null) {
+			throw entry.fFailure;
+		}
+		context.setLocation(entry.fLocation);
+		context.setRank(entry.fRank);
+		return entry.fEvent;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		try {
+			boolean done = false;
+			while (!done && !fStopped) {
+				Entry entry;
+				try {
+					TmfEvent event = readNextEvent();
+					ITmfLocation<?> location = fContext.getLocation();
+					entry = new Entry(event, (location != null) ? location.clone() : null, fContext.getRank(), null);
+				} catch (RuntimeException e) {
+					entry = new Entry(null, null, 0, e);
+				}
+				done = (entry.fEvent == null);
+				while (!fStopped && !fBuffer.offer(entry, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private TmfEvent readNextEvent() {
+		if (!fCopyEvents) {
+			return fTrace.getNextEvent(fContext);
+		}
+		// The event must be copied before anybody reads the trace again
+		synchronized (fTrace) {
+			TmfEvent event = fTrace.getNextEvent(fContext);
+			return (event != null) ? event.clone() : null;
+		}
+	}
+
+    // ------------------------------------------------------------------------
+    // Entry
+    // ------------------------------------------------------------------------
+
+	private static class Entry {
+		final TmfEvent fEvent;
+		final ITmfLocation<?> fLocation;
+		final long fRank;
+		final RuntimeException fFailure;
+
+		Entry(TmfEvent event, ITmfLocation<?> location, long rank, RuntimeException failure) {
+			fEvent    = event;
+			fLocation = location;
+			fRank     = rank;
+			fFailure  = failure;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "[TmfReadAheadBuffer(" + fTrace.getName() + "," + fBuffer.size() + ")]";
+	}
+
+}
@@ -75,6 +75,7 @@ public interface ITmfDataRequest<T extends TmfData> {
 	// ------------------------------------------------------------------------
 
     public void handleData(T data);
+    public void handleData(T[] data, int count);
 
 	// ------------------------------------------------------------------------
 	// Request handling
@@ -27,6 +27,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
     // Attributes
     // ------------------------------------------------------------------------
 
+	// Only appended to: iterate by index, sub-requests can be attached while
+	// the coalesced request is being serviced
 	protected Vector<ITmfDataRequest<T>> fRequests = new Vector<ITmfDataRequest<T>>();
 
     // ------------------------------------------------------------------------
@@ -97,6 +99,18 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
 		return ok;
 	}
 
+	/**
+	 * Adds a request to this coalesced request while it is being serviced.
+	 * Data requests are positioned by rank and can't join a read in
+	 * progress: always false here.
+	 * 
+	 * @param request the late request
+	 * @return true if the request was attached, false if it must be queued
+	 */
+	public boolean attachRequest(ITmfDataRequest<T> request) {
+		return false;
+	}
+
     // ------------------------------------------------------------------------
     // ITmfDataRequest
     // ------------------------------------------------------------------------
@@ -108,7 +122,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
 		// TmfCoalescedDataRequest; extended classes should call
 		// the sub-requests handleData().
 		if (getClass() == TmfCoalescedDataRequest.class) {
-	    	for (ITmfDataRequest<T> request : fRequests) {
+	    	for (int i = 0; i < fRequests.size(); i++) {
+	    	    ITmfDataRequest<T> request = fRequests.get(i);
 	    	    if (!request.isCompleted()) {
 	    	        request.handleData(data);
 	    	    }
@@ -118,7 +133,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
 
     @Override
     public void start() {
-        for (ITmfDataRequest<T> request : fRequests) {
+        for (int i = 0; i < fRequests.size(); i++) {
+            ITmfDataRequest<T> request = fRequests.get(i);
             if (!request.isCompleted()) {
                 request.start();
             }
@@ -128,7 +144,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
     
 	@Override
     public void done() {
-    	for (ITmfDataRequest<T> request : fRequests) {
+    	for (int i = 0; i < fRequests.size(); i++) {
+    	    ITmfDataRequest<T> request = fRequests.get(i);
     	    if (!request.isCompleted()) {
     	        request.done();
     	    }
@@ -138,15 +155,16 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
 
     @Override
     public void fail() {
-    	for (ITmfDataRequest<T> request : fRequests) {
-    		request.fail();
+    	for (int i = 0; i < fRequests.size(); i++) {
+    		fRequests.get(i).fail();
     	}
     	super.fail();
     }
 
     @Override
     public void cancel() {
-    	for (ITmfDataRequest<T> request : fRequests) {
+    	for (int i = 0; i < fRequests.size(); i++) {
+    	    ITmfDataRequest<T> request = fRequests.get(i);
     	    if (!request.isCompleted()) {
     	        request.cancel();
     	    }
@@ -165,8 +183,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
         if (fRequests.size() > 0) {
             // If all sub requests are completed the coalesced request is 
             // treated as completed, too.
-            for (ITmfDataRequest<T> request : fRequests) {
-                if (!request.isCompleted()) {
+            for (int i = 0; i < fRequests.size(); i++) {
+                if (!fRequests.get(i).isCompleted()) {
                     return false;
                 }
             }
@@ -188,8 +206,8 @@ public class TmfCoalescedDataRequest<T extends TmfData> extends TmfDataRequest<T
         if (fRequests.size() > 0) {
             // If all sub requests are canceled the coalesced request is 
             // treated as completed, too.
-            for (ITmfDataRequest<T> request : fRequests) {
-                if (!request.isCancelled()) {
+            for (int i = 0; i < fRequests.size(); i++) {
+                if (!fRequests.get(i).isCancelled()) {
                     return false;
                 }
             }
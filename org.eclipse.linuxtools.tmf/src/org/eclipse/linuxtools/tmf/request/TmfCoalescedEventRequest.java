@@ -12,6 +12,10 @@
 
 package org.eclipse.linuxtools.tmf.request;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import org.eclipse.linuxtools.tmf.event.TmfEvent;
 import org.eclipse.linuxtools.tmf.event.TmfTimeRange;
 import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
@@ -19,7 +23,14 @@ import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
 /**
  * <b><u>TmfCoalescedEventRequest</u></b>
  * <p>
- * TODO: Implement me. Please.
+ * Services a set of event requests with overlapping (or adjacent) time
+ * ranges in a single pass. The sub-requests are kept in a sweep-line index:
+ * the pending ones are sorted by start time and become active when the read
+ * reaches their range; the active ones are released as soon as the read
+ * passes their end time or they received their number of events.
+ * <p>
+ * As long as it hasn't read past their start time, an in-flight coalesced
+ * request can also take late-arriving requests (see attachRequest()).
  */
 public class TmfCoalescedEventRequest<T extends TmfEvent> extends TmfCoalescedDataRequest<T> implements ITmfEventRequest<T> {
 
@@ -28,6 +39,17 @@ public class TmfCoalescedEventRequest<T extends TmfEvent> extends TmfCoalescedDa
     // ------------------------------------------------------------------------
 
 	private TmfTimeRange fRange;	// The requested events time range
+	private int fNbRequested;		// ALL_DATA once the sub-requests don't line up
+
+	// The sub-requests index (guarded by this)
+	private final List<SubRequest<T>> fPendingRequests = new ArrayList<SubRequest<T>>();
+	private final List<SubRequest<T>> fActiveRequests  = new ArrayList<SubRequest<T>>();	// Servicing thread only
+
+	// The read position and the late requests admission (guarded by this)
+	private boolean fHasRead = false;
+	private long    fLastValue;
+	private byte    fLastScale;
+	private boolean fIsClosed = false;
 
     // ------------------------------------------------------------------------
     // Constructor
@@ -73,13 +95,13 @@ public class TmfCoalescedEventRequest<T extends TmfEvent> extends TmfCoalescedDa
      * @param blockSize Size of the largest blocks expected
      */
     public TmfCoalescedEventRequest(Class<T> dataType, TmfTimeRange range, int nbRequested, int blockSize) {
-    	super(dataType, 0, nbRequested, blockSize, ExecutionType.FOREGROUND);
-    	fRange = range;
+    	this(dataType, range, nbRequested, blockSize, ExecutionType.FOREGROUND);
     }
 
     public TmfCoalescedEventRequest(Class<T> dataType, TmfTimeRange range, int nbRequested, int blockSize, ExecutionType execType) {
     	super(dataType, 0, nbRequested, blockSize, execType);
     	fRange = range;
+    	fNbRequested = nbRequested;
     }
 
     // ------------------------------------------------------------------------
@@ -87,51 +109,169 @@ public class TmfCoalescedEventRequest<T extends TmfEvent> extends TmfCoalescedDa
     // ------------------------------------------------------------------------
 
 	@Override
-	public boolean isCompatible(ITmfDataRequest<T> request) {
-		if (request instanceof ITmfEventRequest<?>) {
-			boolean ok = getNbRequested() == request.getNbRequested();
-			ok &= getExecType() == request.getExecType();
-			if (ok) {
-				TmfTimestamp startTime = ((ITmfEventRequest<T>) request).getRange().getStartTime();
-				TmfTimestamp endTime   = ((ITmfEventRequest<T>) request).getRange().getEndTime();
-				if (!fRange.contains(startTime))
-					fRange = new TmfTimeRange(startTime, fRange.getEndTime());
-				if (!fRange.contains(endTime))
-					fRange = new TmfTimeRange(fRange.getStartTime(), endTime);
+	public synchronized void addRequest(ITmfDataRequest<T> request) {
+		super.addRequest(request);
+		SubRequest<T> subRequest = new SubRequest<T>(request);
+		int pos = fPendingRequests.size();
+		while (pos > 0 && subRequest.startsBefore(fPendingRequests.get(pos - 1))) {
+			pos--;
+		}
+		fPendingRequests.add(pos, subRequest);
+	}
+
+	/**
+	 * Event requests are compatible if their time ranges overlap or are
+	 * adjacent, regardless of their number of requested events. The
+	 * coalesced range is widened to cover the new request.
+	 */
+	@Override
+	public synchronized boolean isCompatible(ITmfDataRequest<T> request) {
+		if (request instanceof ITmfEventRequest<?> && request.getExecType() == getExecType()) {
+			TmfTimeRange range = ((ITmfEventRequest<T>) request).getRange();
+			if (overlaps(range)) {
+				if (request.getNbRequested() != fNbRequested || compare(range.getStartTime(), fRange.getStartTime()) != 0) {
+					fNbRequested = ALL_DATA;
+				}
+				widenRange(range);
+				return true;
 			}
-			return ok;
 		}
 		return false;
 	}
 
+	/**
+	 * Adds a request to an in-flight read. The request is accepted if it
+	 * could have been coalesced (see isCompatible()), this request doesn't
+	 * have a limit on the number of events and the read hasn't gone past the
+	 * start of the new request yet. The request is then serviced along with
+	 * the other sub-requests.
+	 * 
+	 * @param request the late request
+	 * @return true if the request was attached, false if it must be queued
+	 */
+	@Override
+	public synchronized boolean attachRequest(ITmfDataRequest<T> request) {
+		if (fIsClosed || fNbRequested != ALL_DATA || !(request instanceof ITmfEventRequest<?>)) {
+			return false;
+		}
+		TmfTimestamp startTime = ((ITmfEventRequest<T>) request).getRange().getStartTime();
+		if (fHasRead) {
+			if (TmfTimestamp.compare(startTime.getValue(), startTime.getScale(), fLastValue, fLastScale) <= 0) {
+				return false;
+			}
+		} else if (compare(startTime, fRange.getStartTime()) < 0) {
+			return false;
+		}
+		if (!isCompatible(request)) {
+			return false;
+		}
+		addRequest(request);
+		return true;
+	}
+
+	/**
+	 * Stops accepting late requests. Called by the request processor, under
+	 * this request's lock, when it decides that the read is over.
+	 */
+	public synchronized void close() {
+		fIsClosed = true;
+	}
+
+	private boolean overlaps(TmfTimeRange range) {
+		return compare(range.getStartTime(), fRange.getEndTime()) <= 0 &&
+			   compare(range.getEndTime(), fRange.getStartTime()) >= 0;
+	}
+
+	private void widenRange(TmfTimeRange range) {
+		TmfTimestamp startTime = range.getStartTime();
+		TmfTimestamp endTime   = range.getEndTime();
+		if (compare(startTime, fRange.getStartTime()) < 0)
+			fRange = new TmfTimeRange(startTime, fRange.getEndTime());
+		if (compare(endTime, fRange.getEndTime()) > 0)
+			fRange = new TmfTimeRange(fRange.getStartTime(), endTime);
+	}
+
+	private static int compare(TmfTimestamp ts1, TmfTimestamp ts2) {
+		return TmfTimestamp.compare(ts1.getValue(), ts1.getScale(), ts2.getValue(), ts2.getScale());
+	}
+
     // ------------------------------------------------------------------------
     // ITmfDataRequest
     // ------------------------------------------------------------------------
 
+	@Override
+	public int getNbRequested() {
+		return fNbRequested;
+	}
+
     @Override
 	public void handleData(T data) {
     	super.handleData(data);
-    	for (ITmfDataRequest<T> request : fRequests) {
-    		if (data == null) {
-    			request.handleData(null);
-    		} else {
-    			if (request instanceof TmfEventRequest<?>) {
-    				TmfEventRequest<T> req = (TmfEventRequest<T>) request;
-       				if (!req.isCompleted()) {
-       					TmfTimestamp ts = data.getTimestamp();
-    					if (req.getRange().contains(ts)) {
-    						req.handleData(data);
-    					}
-    				}
-    			}
-    			else {
-    				TmfDataRequest<T> req = (TmfDataRequest<T>) request;
-    				if (!req.isCompleted()) {
-    					req.handleData(data);
-    				}
+    	if (data == null) {
+    		for (int i = 0; i < fRequests.size(); i++) {
+    			ITmfDataRequest<T> request = fRequests.get(i);
+    			if (!request.isCompleted()) {
+    				request.handleData(null);
     			}
     		}
+    		return;
+    	}
+
+    	// Move the read position and activate the requests that start here
+    	TmfTimestamp timestamp = data.getTimestamp();
+    	long value = timestamp.getValue();
+    	byte scale = timestamp.getScale();
+    	synchronized (this) {
+    		fHasRead   = true;
+    		fLastValue = value;
+    		fLastScale = scale;
+    		while (fPendingRequests.size() > 0 && fPendingRequests.get(0).startsAtOrBefore(value, scale)) {
+    			fActiveRequests.add(fPendingRequests.remove(0));
+    		}
     	}
+
+    	// Dispatch to the active requests (outside the lock)
+    	Iterator<SubRequest<T>> iterator = fActiveRequests.iterator();
+    	while (iterator.hasNext()) {
+    		SubRequest<T> subRequest = iterator.next();
+    		ITmfDataRequest<T> request = subRequest.fRequest;
+    		if (request.isCompleted()) {
+    			iterator.remove();
+    			continue;
+    		}
+    		if (subRequest.endsBefore(value, scale)) {
+    			iterator.remove();
+    			request.done();
+    			continue;
+    		}
+    		if (!request.isRunning()) {
+    			// Attached after this request was started
+    			request.start();
+    		}
+    		request.handleData(data);
+    		if (++subRequest.fNbDelivered >= subRequest.fNbRequested) {
+    			iterator.remove();
+    			request.done();
+    		}
+    	}
+    }
+
+    @Override
+    public void done() {
+    	close();
+    	super.done();
+    }
+
+    @Override
+    public void fail() {
+    	close();
+    	super.fail();
+    }
+
+    @Override
+    public void cancel() {
+    	close();
+    	super.cancel();
     }
 
     // ------------------------------------------------------------------------
@@ -174,4 +314,46 @@ public class TmfCoalescedEventRequest<T extends TmfEvent> extends TmfCoalescedDa
 			+ "," + getRange() + "," + getNbRequested() + ")]";
     }
 
+    // ------------------------------------------------------------------------
+    // SubRequest
+    // ------------------------------------------------------------------------
+
+    /**
+     * A sub-request index entry: the request bounds as raw timestamp values
+     * and the number of events delivered so far. Requests that are not event
+     * requests cover the whole time range.
+     */
+    private static class SubRequest<T extends TmfEvent> {
+
+    	final ITmfDataRequest<T> fRequest;
+    	final int  fNbRequested;
+    	final long fStartValue;
+    	final byte fStartScale;
+    	final long fEndValue;
+    	final byte fEndScale;
+    	int fNbDelivered = 0;
+
+    	SubRequest(ITmfDataRequest<T> request) {
+    		fRequest = request;
+    		fNbRequested = request.getNbRequested();
+    		TmfTimeRange range = (request instanceof ITmfEventRequest<?>) ? ((ITmfEventRequest<?>) request).getRange() : TmfTimeRange.Eternity;
+    		fStartValue = range.getStartTime().getValue();
+    		fStartScale = range.getStartTime().getScale();
+    		fEndValue   = range.getEndTime().getValue();
+    		fEndScale   = range.getEndTime().getScale();
+    	}
+
+    	boolean startsBefore(SubRequest<T> other) {
+    		return TmfTimestamp.compare(fStartValue, fStartScale, other.fStartValue, other.fStartScale) < 0;
+    	}
+
+    	boolean startsAtOrBefore(long value, byte scale) {
+    		return TmfTimestamp.compare(fStartValue, fStartScale, value, scale) <= 0;
+    	}
+
+    	boolean endsBefore(long value, byte scale) {
+    		return TmfTimestamp.compare(fEndValue, fEndScale, value, scale) < 0;
+    	}
+    }
+
 }
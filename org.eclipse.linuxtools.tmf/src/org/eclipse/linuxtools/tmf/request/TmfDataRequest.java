@@ -29,6 +29,14 @@ import org.eclipse.linuxtools.tmf.event.TmfData;
  * for gc. It is is thus the responsibility of the requester to either clone
  * or keep a reference to the data it wishes to track specifically.
  * <p>
+ * Providers that support it deliver the data in batches through
+ * handleData(T[], int). By default, the batch is simply dispatched to
+ * handleData(T), one item at a time.
+ * <p>
+ * The request state is kept in volatile fields so that it can be polled by
+ * the provider's servicing loop without locking. The state transitions
+ * (start, done, fail, cancel) are still serialized.
+ * <p>
  * This data block approach is used to avoid  busting the heap for very
  * large trace files. The block size is configurable. 
  * <p>
@@ -92,14 +100,14 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
     private final int      		fRequestId;  	// A unique request ID
     private final int      		fIndex;      	// The index (rank) of the requested event
     private final int      		fNbRequested;	// The number of requested events (ALL_DATA for all)
-    private       int      		fNbRead;        // The number of reads so far
+    private volatile int   		fNbRead;        // The number of reads so far (updated by the servicing thread only)
 
     private CountDownLatch startedLatch   = new CountDownLatch(1);
     private CountDownLatch completedLatch = new CountDownLatch(1);
-    private boolean fRequestRunning   = false;
-    private boolean fRequestCompleted = false;
-    private boolean fRequestFailed    = false;
-    private boolean fRequestCanceled  = false;
+    private volatile boolean fRequestRunning   = false;
+    private volatile boolean fRequestCompleted = false;
+    private volatile boolean fRequestFailed    = false;
+    private volatile boolean fRequestCanceled  = false;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -218,7 +226,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @return the number of events read so far
      */
     @Override
-	public synchronized int getNbRead() {
+	public int getNbRead() {
         return fNbRead;
     }
 
@@ -226,7 +234,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @return indicates if the request is completed
      */
     @Override
-    public synchronized boolean isRunning() {
+    public boolean isRunning() {
         return fRequestRunning;
     }
 
@@ -234,7 +242,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @return indicates if the request is completed
      */
     @Override
-    public synchronized boolean isCompleted() {
+    public boolean isCompleted() {
         return fRequestCompleted;
     }
 
@@ -242,7 +250,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @return indicates if the request is canceled
      */
     @Override
-    public synchronized boolean isFailed() {
+    public boolean isFailed() {
         return fRequestFailed;
     }
 
@@ -250,7 +258,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @return indicates if the request is canceled
      */
     @Override
-    public synchronized boolean isCancelled() {
+    public boolean isCancelled() {
         return fRequestCanceled;
     }
 
@@ -294,6 +302,24 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
         }
     }
 
+    /**
+     * Handle a batch of incoming data. The array is owned (and recycled) by
+     * the provider: only its first <code>count</code> items are valid and
+     * the array itself must not be kept after the method returns.
+     * 
+     * By default, the items are dispatched to handleData(T) until the
+     * request completes.
+     *
+     * @param data - the data items
+     * @param count - the number of valid items
+     */
+    @Override
+	public void handleData(T[] data, int count) {
+    	for (int i = 0; i < count && !isCompleted(); i++) {
+    		handleData(data[i]);
+    	}
+    }
+
     @Override
 	public void handleStarted() {
     }
@@ -343,7 +369,7 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
      * @throws InterruptedException 
      */
     public void waitForStart() throws InterruptedException {
-		while (!fRequestRunning) {
+		while (!fRequestRunning && !fRequestCompleted) {
 			startedLatch.await();
 		}
     }
@@ -389,6 +415,8 @@ public abstract class TmfDataRequest<T extends TmfData> implements ITmfDataReque
         }
 		handleCompleted();
 		completedLatch.countDown();
+		// Release the clients waiting for a start that won't come
+		startedLatch.countDown();
     }
 
     /**
@@ -17,6 +17,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 
 import org.eclipse.linuxtools.tmf.Tracer;
 import org.eclipse.linuxtools.tmf.component.TmfThread;
@@ -25,46 +26,183 @@ import org.eclipse.linuxtools.tmf.request.ITmfDataRequest.ExecutionType;
 /**
  * <b><u>TmfRequestExecutor</u></b>
  *
- * A simple, straightforward request executor.
+ * A pool-backed request executor.
+ * <p>
+ * Requests are queued by priority (FOREGROUND first, then in order of
+ * submission) and at most <code>maxConcurrency</code> of them are serviced
+ * at the same time. A BACKGROUND request can give its slot to pending
+ * FOREGROUND requests by calling <code>yieldToForeground()</code> at a
+ * block boundary; it then resumes as soon as the foreground requests are
+ * serviced, before any other queued BACKGROUND request.
+ * <p>
+ * The executor also keeps some metrics (queue depth, wait times, number of
+ * preemptions) for monitoring purposes.
  */
 public class TmfRequestExecutor implements Executor {
 
+	// ------------------------------------------------------------------------
+	// Constants
+	// ------------------------------------------------------------------------
+
+	// The default number of requests serviced concurrently (per provider)
+	public static final int DEFAULT_MAX_CONCURRENCY = 1;
+
+	// ------------------------------------------------------------------------
+	// Attributes
+	// ------------------------------------------------------------------------
+
 	private final ExecutorService fExecutor;
 	private final String fExecutorName;
-	private final PriorityBlockingQueue<TmfThread> fRequestQueue = new PriorityBlockingQueue<TmfThread>(100, new Comparator<TmfThread>() {
+	private final int fMaxConcurrency;
+	private final boolean fCanPreempt;
+
+	private final PriorityBlockingQueue<QueuedRequest> fRequestQueue = new PriorityBlockingQueue<QueuedRequest>(100, new Comparator<QueuedRequest>() {
 		@Override
-		public int compare(TmfThread o1, TmfThread o2) {
+		public int compare(QueuedRequest o1, QueuedRequest o2) {
 			if (o1.getExecType() == o2.getExecType())
-				return 0;
+				return (o1.fSequence < o2.fSequence) ? -1 : ((o1.fSequence == o2.fSequence) ? 0 : 1);
 			if (o1.getExecType() == ExecutionType.BACKGROUND)
 				return 1;
 			return -1;
 		}
 	});
-	private Runnable fCurrentRequest;
-	
+
+	// Marks the threads currently servicing a request for this executor
+	private final ThreadLocal<Boolean> fIsWorker = new ThreadLocal<Boolean>();
+
+	private long fSequence = 0;
+	private int fNbRunning = 0;		// Requests holding a slot
+	private int fNbSuspended = 0;	// BACKGROUND requests that yielded their slot
+
+	// Metrics
+	private long fNbExecuted = 0;
+	private long fNbPreemptions = 0;
+	private long fTotalWaitTime = 0;
+	private long fMaxWaitTime = 0;
+	private int fMaxQueueDepth = 0;
+
 	// ------------------------------------------------------------------------
 	// Constructors
 	// ------------------------------------------------------------------------
-	
+
 	public TmfRequestExecutor() {
-		this(Executors.newSingleThreadExecutor());
+		this(DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * Note: like the data providers, the executor is not preemptive unless
+	 * requested (see TmfRequestExecutor(int, boolean)).
+	 * 
+	 * @param maxConcurrency the maximum number of requests serviced concurrently
+	 */
+	public TmfRequestExecutor(int maxConcurrency) {
+		this(maxConcurrency, false);
+	}
+
+	/**
+	 * @param maxConcurrency the maximum number of requests serviced concurrently
+	 * @param canPreempt true if the BACKGROUND requests can yield to the FOREGROUND requests
+	 */
+	public TmfRequestExecutor(int maxConcurrency, boolean canPreempt) {
+		// The pool itself is unbounded: the concurrency is bounded by the
+		// executor so that a yielding request can be parked without
+		// starving the pool.
+		this(Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "TmfRequestExecutor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		}), maxConcurrency, canPreempt);
 	}
 
+	/**
+	 * Note: the requests can't be preempted with a user-supplied executor
+	 * service (it might not have a spare thread for the foreground requests).
+	 * 
+	 * @param executor the executor service
+	 */
 	public TmfRequestExecutor(ExecutorService executor) {
+		this(executor, DEFAULT_MAX_CONCURRENCY, false);
+	}
+
+	private TmfRequestExecutor(ExecutorService executor, int maxConcurrency, boolean canPreempt) {
 		fExecutor = executor;
+		fMaxConcurrency = Math.max(1, maxConcurrency);
+		fCanPreempt = canPreempt;
 		String canonicalName = fExecutor.getClass().getCanonicalName();
 		fExecutorName = canonicalName.substring(canonicalName.lastIndexOf('.') + 1);
 		if (Tracer.isComponentTraced()) Tracer.trace(fExecutor + " created");
 	}
 
+	// ------------------------------------------------------------------------
+	// Accessors
+	// ------------------------------------------------------------------------
+
+	/**
+	 * @return the maximum number of requests serviced concurrently
+	 */
+	public int getMaxConcurrency() {
+		return fMaxConcurrency;
+	}
+
+	/**
+	 * @return true if the BACKGROUND requests can yield to the FOREGROUND requests
+	 */
+	public boolean canPreempt() {
+		return fCanPreempt;
+	}
+
 	/**
 	 * @return the number of pending requests
 	 */
 	public int getNbPendingRequests() {
 		return fRequestQueue.size();
 	}
-	
+
+	/**
+	 * @return the number of requests being serviced
+	 */
+	public synchronized int getNbRunningRequests() {
+		return fNbRunning + fNbSuspended;
+	}
+
+	/**
+	 * @return the largest number of pending requests observed
+	 */
+	public synchronized int getMaxQueueDepth() {
+		return fMaxQueueDepth;
+	}
+
+	/**
+	 * @return the number of requests started so far
+	 */
+	public synchronized long getNbExecutedRequests() {
+		return fNbExecuted;
+	}
+
+	/**
+	 * @return the number of times a BACKGROUND request yielded to FOREGROUND requests
+	 */
+	public synchronized long getNbPreemptions() {
+		return fNbPreemptions;
+	}
+
+	/**
+	 * @return the average time (in ns) a request waited in the queue
+	 */
+	public synchronized long getAverageWaitTime() {
+		return (fNbExecuted > 0) ? fTotalWaitTime / fNbExecuted : 0;
+	}
+
+	/**
+	 * @return the longest time (in ns) a request waited in the queue
+	 */
+	public synchronized long getMaxWaitTime() {
+		return fMaxWaitTime;
+	}
+
 	/**
 	 * @return the shutdown state (i.e. if it is accepting new requests)
 	 */
@@ -82,8 +220,9 @@ public class TmfRequestExecutor implements Executor {
 	/**
 	 * Stops the executor
 	 */
-	public void stop() {
+	public synchronized void stop() {
 		fExecutor.shutdown();
+		notifyAll();
 		if (Tracer.isComponentTraced()) Tracer.trace(fExecutor + " terminated");
 	}
 	
@@ -96,29 +235,109 @@ public class TmfRequestExecutor implements Executor {
 	 */
 	@Override
 	public synchronized void execute(final Runnable requestThread) {
-		fRequestQueue.offer(new TmfThread(((TmfThread) requestThread).getExecType()) {
-			@Override
-			public void run() {
-				try {
-					requestThread.run();
-				    if (Tracer.isRequestTraced()) Tracer.trace("[REQ] Request finished");
-				} finally {
-					scheduleNext();
-				}
+		fRequestQueue.offer(new QueuedRequest(((TmfThread) requestThread).getExecType(), requestThread, fSequence++));
+		fMaxQueueDepth = Math.max(fMaxQueueDepth, fRequestQueue.size());
+		scheduleNext();
+	}
+
+	/**
+	 * Executes the next pending requests, if applicable.
+	 */
+	protected synchronized void scheduleNext() {
+		while (fNbRunning < fMaxConcurrency && !isShutdown()) {
+			QueuedRequest next = fRequestQueue.peek();
+			if (next == null) {
+				break;
 			}
-		});
-		if (fCurrentRequest == null) {
-			scheduleNext();
+			// Suspended BACKGROUND requests resume before new ones start
+			if (next.getExecType() == ExecutionType.BACKGROUND && fNbSuspended > 0) {
+				notifyAll();
+				break;
+			}
+			fRequestQueue.poll();
+			fNbRunning++;
+			fExecutor.execute(next);
 		}
 	}
 
 	/**
-	 * Executes the next pending request, if applicable.
+	 * Called by a BACKGROUND request, in its servicing thread, at a block
+	 * boundary. If FOREGROUND requests are waiting for a slot, the request
+	 * gives up its slot and blocks until they are serviced.
 	 */
-	protected synchronized void scheduleNext() {
-		if ((fCurrentRequest = fRequestQueue.poll()) != null) {
-			if (!isShutdown())
-				fExecutor.execute(fCurrentRequest);
+	public void yieldToForeground() {
+		if (!fCanPreempt || fIsWorker.get() == null) {
+			return;
+		}
+		synchronized (this) {
+			if (fNbRunning < fMaxConcurrency || !hasPendingForeground()) {
+				return;
+			}
+			fNbPreemptions++;
+			if (Tracer.isRequestTraced()) Tracer.trace("[REQ] Background request preempted");
+
+			fNbRunning--;
+			fNbSuspended++;
+			scheduleNext();
+			try {
+				while ((fNbRunning >= fMaxConcurrency || hasPendingForeground()) && !isShutdown()) {
+					wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			fNbSuspended--;
+			fNbRunning++;
+		}
+	}
+
+	private synchronized boolean hasPendingForeground() {
+		QueuedRequest next = fRequestQueue.peek();
+		return next != null && next.getExecType() == ExecutionType.FOREGROUND;
+	}
+
+	private synchronized void requestStarted(QueuedRequest request) {
+		long waitTime = System.nanoTime() - request.fQueuedTime;
+		fNbExecuted++;
+		fTotalWaitTime += waitTime;
+		fMaxWaitTime = Math.max(fMaxWaitTime, waitTime);
+		if (Tracer.isRequestTraced()) Tracer.trace("[REQ] Request started after waiting " + (waitTime / 1000) + " us");
+	}
+
+	private synchronized void requestCompleted(QueuedRequest request) {
+		fNbRunning--;
+		notifyAll();
+		scheduleNext();
+	}
+
+	// ------------------------------------------------------------------------
+	// QueuedRequest
+	// ------------------------------------------------------------------------
+
+	private class QueuedRequest extends TmfThread {
+
+		private final Runnable fRequestThread;
+		private final long fSequence;
+		private final long fQueuedTime;
+
+		public QueuedRequest(ExecutionType execType, Runnable requestThread, long sequence) {
+			super(execType);
+			fRequestThread = requestThread;
+			fSequence = sequence;
+			fQueuedTime = System.nanoTime();
+		}
+
+		@Override
+		public void run() {
+			requestStarted(this);
+			fIsWorker.set(Boolean.TRUE);
+			try {
+				fRequestThread.run();
+			    if (Tracer.isRequestTraced()) Tracer.trace("[REQ] Request finished");
+			} finally {
+				fIsWorker.remove();
+				requestCompleted(this);
+			}
 		}
 	}
 
@@ -128,7 +347,7 @@ public class TmfRequestExecutor implements Executor {
 
 	@Override
 	public String toString() {
-		return "[TmfRequestExecutor(" + fExecutorName + ")]";
+		return "[TmfRequestExecutor(" + fExecutorName + "," + fMaxConcurrency + ")]";
 	}
 
 }
@@ -16,7 +16,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 
 /**
@@ -26,6 +28,12 @@ import java.util.Map;
  * interested in. When a signal is broadcasted, the appropriate listeners
  * signal handlers are invoked.
  * <p>
+ * The handlers of a signal class are looked up once and kept in a dispatch
+ * table until a listener is registered or deregistered.
+ * <p>
+ * Signals can also be dispatched asynchronously (dispatchSignalAsync()). In
+ * that case, a time or range synch signal that is still waiting to be sent
+ * is replaced by a newer one from the same source.
  */
 public class TmfSignalManager {
 
@@ -35,6 +43,14 @@ public class TmfSignalManager {
 	// the signal data type.
 	static private Map<Object, Method[]> fListeners = new HashMap<Object, Method[]>();
 
+	// The handlers of each signal class (built on demand, cleared when the
+	// set of listeners changes)
+	static private Map<Class<?>, SignalHandler[]> fDispatchTable = new HashMap<Class<?>, SignalHandler[]>();
+
+	// The signals waiting for the asynchronous dispatcher
+	static private final LinkedList<TmfSignal> fPendingSignals = new LinkedList<TmfSignal>();
+	static private Thread fDispatcher = null;
+
 	// If requested, add universal signal tracer
 	// TODO: Temporary solution: should be enabled/disabled dynamically 
 	private static boolean fTraceIsActive = false;
@@ -48,12 +64,16 @@ public class TmfSignalManager {
 
 	public static synchronized void register(Object listener) {
 		Method[] methods = getSignalHandlerMethods(listener);
-		if (methods.length > 0)
+		if (methods.length > 0) {
 			fListeners.put(listener, methods);
+			fDispatchTable.clear();
+		}
 	}
 
 	public static synchronized void deregister(Object listener) {
-		fListeners.remove(listener);
+		if (fListeners.remove(listener) != null) {
+			fDispatchTable.clear();
+		}
 	}
 
 	/**
@@ -68,6 +88,11 @@ public class TmfSignalManager {
 		Method[] methods = listener.getClass().getMethods();
 		for (Method method : methods) {
 			if (method.isAnnotationPresent(TmfSignalHandler.class)) {
+				try {
+					// Skip the access checks on every invocation
+					method.setAccessible(true);
+				} catch (SecurityException e) {
+				}
 				handlers.add(method);
 			}
 		}
@@ -77,11 +102,6 @@ public class TmfSignalManager {
 	/**
 	 * Invokes the handling methods that listens to signals of a given type.
 	 * 
-	 * The list of handlers is built on-the-fly to allow for the dynamic
-	 * creation/deletion of signal handlers. Since the number of signal
-	 * handlers shouldn't be too high, this is not a big performance issue
-	 * to pay for the flexibility.
-	 * 
 	 * For synchronization purposes, the signal is bracketed by two synch signals.
 	 * 
 	 * @param signal the signal to dispatch
@@ -96,38 +116,115 @@ public class TmfSignalManager {
 ///		Tracer.traceSignal(signal);
 	}
 
+	/**
+	 * Queues the signal for dispatching by the signal manager thread and
+	 * returns immediately. A pending time or range synch signal from the
+	 * same source is superseded by the new one, keeping its place in the
+	 * queue. The signals are otherwise dispatched in order, as by
+	 * dispatchSignal().
+	 * 
+	 * @param signal the signal to dispatch
+	 */
+	static public void dispatchSignalAsync(TmfSignal signal) {
+		synchronized (fPendingSignals) {
+			if (isCollapsible(signal)) {
+				ListIterator<TmfSignal> iterator = fPendingSignals.listIterator();
+				while (iterator.hasNext()) {
+					TmfSignal pending = iterator.next();
+					if (pending.getClass() == signal.getClass() && pending.getSource() == signal.getSource()) {
+						iterator.set(signal);
+						return;
+					}
+				}
+			}
+			fPendingSignals.add(signal);
+			if (fDispatcher == null) {
+				fDispatcher = new Thread("TmfSignalManager") {
+					@Override
+					public void run() {
+						dispatchPendingSignals();
+					}
+				};
+				fDispatcher.setDaemon(true);
+				fDispatcher.start();
+			}
+			fPendingSignals.notify();
+		}
+	}
+
+	static private boolean isCollapsible(TmfSignal signal) {
+		return signal instanceof TmfTimeSynchSignal || signal instanceof TmfRangeSynchSignal;
+	}
+
+	static private void dispatchPendingSignals() {
+		while (true) {
+			TmfSignal signal;
+			synchronized (fPendingSignals) {
+				while (fPendingSignals.isEmpty()) {
+					try {
+						fPendingSignals.wait();
+					} catch (InterruptedException e) {
+					}
+				}
+				signal = fPendingSignals.removeFirst();
+			}
+			dispatchSignal(signal);
+		}
+	}
+
 	static private void sendSignal(TmfSignal signal) {
 
-		// Build the list of listener methods that are registered for this signal
+		// Look up the handlers registered for this signal
 		Class<?> signalClass = signal.getClass();
-		Map<Object, List<Method>> listeners = new HashMap<Object, List<Method>>();
-		listeners.clear();
+		SignalHandler[] handlers = fDispatchTable.get(signalClass);
+		if (handlers == null) {
+			handlers = getSignalHandlers(signalClass);
+			fDispatchTable.put(signalClass, handlers);
+		}
+
+		// Call the signal handlers 
+		Object[] args = new Object[] { signal };
+		for (SignalHandler handler : handlers) {
+			try {
+				handler.fMethod.invoke(handler.fListener, args);
+			} catch (IllegalArgumentException e) {
+				// TODO Auto-generated catch block
+			} catch (IllegalAccessException e) {
+				// TODO Auto-generated catch block
+			} catch (InvocationTargetException e) {
+				// TODO Auto-generated catch block
+			}
+		}
+	}
+
+	/**
+	 * Builds the dispatch table entry of a signal class: the listener methods
+	 * that accept that signal, grouped by listener.
+	 * 
+	 * @param signalClass
+	 * @return the signal handlers
+	 */
+	static private SignalHandler[] getSignalHandlers(Class<?> signalClass) {
+		List<SignalHandler> handlers = new ArrayList<SignalHandler>();
 		for (Map.Entry<Object, Method[]> entry : fListeners.entrySet()) {
-			List<Method> matchingMethods = new ArrayList<Method>();
 			for (Method method : entry.getValue()) {
 				if (method.getParameterTypes()[0].isAssignableFrom(signalClass)) {
-					matchingMethods.add(method);
+					handlers.add(new SignalHandler(entry.getKey(), method));
 				}
 			}
-			if (!matchingMethods.isEmpty()) {
-				listeners.put(entry.getKey(), matchingMethods);
-			}
 		}
+		return handlers.toArray(new SignalHandler[handlers.size()]);
+	}
 
-		// Call the signal handlers 
-		for (Map.Entry<Object, List<Method>> entry : listeners.entrySet()) {
-			for (Method method : entry.getValue()) {
-				try {
-					method.invoke(entry.getKey(), new Object[] { signal });
-				} catch (IllegalArgumentException e) {
-					// TODO Auto-generated catch block
-				} catch (IllegalAccessException e) {
-					// TODO Auto-generated catch block
-				} catch (InvocationTargetException e) {
-					// TODO Auto-generated catch block
-				}
-			}
+	// A listener method bound to its listener
+	static private class SignalHandler {
+		final Object fListener;
+		final Method fMethod;
+
+		SignalHandler(Object listener, Method method) {
+			fListener = listener;
+			fMethod = method;
 		}
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.trace;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <b><u>ITmfLocationCodec</u></b>
+ * <p>
+ * Binary encoder/decoder for the trace locations stored in a persistent
+ * checkpoint index (see TmfIndexFile).
+ */
+public interface ITmfLocationCodec {
+
+	/**
+	 * Writes a location. Throws an IOException if the location can not be
+	 * persisted (in which case the index is not saved).
+	 *
+	 * @param out the output stream
+	 * @param location the location to write
+	 * @throws IOException
+	 */
+	public void writeLocation(DataOutput out, ITmfLocation<?> location) throws IOException;
+
+	/**
+	 * Reads back a location written by writeLocation().
+	 *
+	 * @param in the (memory-mapped) index buffer
+	 * @return the location
+	 * @throws IOException
+	 */
+	public ITmfLocation<?> readLocation(ByteBuffer in) throws IOException;
+
+}
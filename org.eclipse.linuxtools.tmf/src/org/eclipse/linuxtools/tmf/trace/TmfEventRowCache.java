@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.trace;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.linuxtools.tmf.component.ITmfDataProvider;
+import org.eclipse.linuxtools.tmf.event.TmfEvent;
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+import org.eclipse.linuxtools.tmf.request.TmfDataRequest;
+
+/**
+ * <b><u>TmfEventRowCache</u></b>
+ * <p>
+ * A cache of the rendered events of a data provider, by rank, for the events
+ * tables.
+ * <p>
+ * The events are loaded by pages of consecutive ranks, each page being filled
+ * by an asynchronous data request. A page does not keep the events: it keeps
+ * their rendering, in columns (the timestamps as primitives and the fields as
+ * strings). The least recently used pages are discarded.
+ * <p>
+ * A miss returns null and loads the page of the event. The neighbour pages
+ * are read ahead. pageLoaded() is called, from the request thread, when a
+ * page becomes available.
+ * <p>
+ * Only the events below the number of events set with setNbEvents() are
+ * loaded. A page loaded while the provider had fewer events (e.g. while the
+ * trace was being indexed) is loaded again when that number grows.
+ */
+public abstract class TmfEventRowCache {
+
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final int DEFAULT_NB_PAGES  = 16;
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+	private final ITmfDataProvider<TmfEvent> fProvider;
+	private final int fPageSize;
+
+	// Page number -> page, in access order
+	private final Map<Integer, Page> fPages;
+	private final Set<Integer> fLoadingPages = new HashSet<Integer>();
+	private int fNbEvents = 0;
+
+	// Incremented by clear() to discard the pages being loaded
+	private int fGeneration = 0;
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+	/**
+	 * @param provider the events provider
+	 * @param pageSize the number of events per page
+	 * @param nbPages the maximum number of pages kept
+	 */
+	public TmfEventRowCache(ITmfDataProvider<TmfEvent> provider, int pageSize, final int nbPages) {
+		fProvider = provider;
+		fPageSize = (pageSize > 0) ? pageSize : DEFAULT_PAGE_SIZE;
+		fPages = new LinkedHashMap<Integer, Page>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+				return size() > Math.max(nbPages, 3);
+			}
+		};
+	}
+
+    // ------------------------------------------------------------------------
+    // Accessors
+    // ------------------------------------------------------------------------
+
+	public int getPageSize() {
+		return fPageSize;
+	}
+
+	/**
+	 * @param nbEvents the current number of events of the provider
+	 */
+	public synchronized void setNbEvents(int nbEvents) {
+		fNbEvents = nbEvents;
+	}
+
+    // ------------------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------------------
+
+	/**
+	 * Returns the rendered fields of an event. On a miss, the page of the
+	 * event is loaded asynchronously.
+	 *
+	 * @param rank the event rank
+	 * @return the fields, or null if the event is not cached
+	 */
+	public String[] getFields(int rank) {
+		List<TmfDataRequest<TmfEvent>> requests = new ArrayList<TmfDataRequest<TmfEvent>>(3);
+		String[] fields = null;
+		synchronized (this) {
+			int pageNumber = rank / fPageSize;
+			Page page = fPages.get(pageNumber);
+			if (page != null && page.contains(rank)) {
+				fields = page.getFields(rank - page.fStartRank);
+			} else {
+				load(pageNumber, requests);
+			}
+			// Read ahead the neighbour pages
+			if (pageNumber > 0) {
+				load(pageNumber - 1, requests);
+			}
+			load(pageNumber + 1, requests);
+		}
+		// The requests are sent outside of the lock since they call back
+		for (TmfDataRequest<TmfEvent> request : requests) {
+			fProvider.sendRequest(request);
+		}
+		return fields;
+	}
+
+	/**
+	 * @param rank the event rank
+	 * @return the timestamp of the event, or null if the event is not cached
+	 */
+	public synchronized TmfTimestamp getTimestamp(int rank) {
+		Page page = fPages.get(rank / fPageSize);
+		if (page != null && page.contains(rank)) {
+			int row = rank - page.fStartRank;
+			return new TmfTimestamp(page.fValues[row], page.fScales[row], page.fPrecisions[row]);
+		}
+		return null;
+	}
+
+	/**
+	 * Discards the cached events and the pages being loaded
+	 */
+	public synchronized void clear() {
+		fPages.clear();
+		fLoadingPages.clear();
+		fGeneration++;
+	}
+
+	/**
+	 * Renders an event into its fields. Called from the request thread.
+	 *
+	 * @param event the event, which is not kept
+	 * @return the fields
+	 */
+	protected abstract String[] renderEvent(TmfEvent event);
+
+	/**
+	 * Notifies that a page was loaded. Called from the request thread.
+	 *
+	 * @param startRank the rank of the first event of the page
+	 * @param nbEvents the number of events of the page
+	 */
+	protected abstract void pageLoaded(int startRank, int nbEvents);
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+	/*
+	 * Prepares the request loading a page, unless it is beyond the last
+	 * event, loading, or cached with all the events it can hold.
+	 */
+	private void load(final int pageNumber, List<TmfDataRequest<TmfEvent>> requests) {
+		int startRank = pageNumber * fPageSize;
+		if (startRank >= fNbEvents || fLoadingPages.contains(pageNumber)) {
+			return;
+		}
+		Page cached = fPages.get(pageNumber);
+		if (cached != null && cached.fNbEvents >= Math.min(fPageSize, fNbEvents - startRank)) {
+			return;
+		}
+		final int previousNbEvents = (cached != null) ? cached.fNbEvents : 0;
+		final int generation = fGeneration;
+		final Page page = new Page(startRank, fPageSize);
+		fLoadingPages.add(pageNumber);
+
+		requests.add(new TmfDataRequest<TmfEvent>(TmfEvent.class, page.fStartRank, fPageSize) {
+			@Override
+			public void handleData(TmfEvent event) {
+				super.handleData(event);
+				if (event != null) {
+					page.add(event, renderEvent(event));
+				}
+			}
+
+			@Override
+			public void handleCompleted() {
+				boolean loaded = false;
+				synchronized (TmfEventRowCache.this) {
+					if (generation == fGeneration) {
+						fLoadingPages.remove(pageNumber);
+						if (!isCancelled() && !isFailed() && page.fNbEvents > previousNbEvents) {
+							fPages.put(pageNumber, page);
+							loaded = true;
+						}
+					}
+				}
+				if (loaded) {
+					pageLoaded(page.fStartRank, page.fNbEvents);
+				}
+				super.handleCompleted();
+			}
+		});
+	}
+
+    // ------------------------------------------------------------------------
+    // Page
+    // ------------------------------------------------------------------------
+
+	/*
+	 * The rendered events of consecutive ranks, by column. The rows may have
+	 * different numbers of fields.
+	 */
+	private static class Page {
+
+		private final int fStartRank;
+		private int fNbEvents = 0;
+
+		private final long[] fValues;
+		private final byte[] fScales;
+		private final long[] fPrecisions;
+		private final int[] fNbFields;
+		private String[][] fColumns = new String[0][];
+
+		Page(int startRank, int size) {
+			fStartRank  = startRank;
+			fValues     = new long[size];
+			fScales     = new byte[size];
+			fPrecisions = new long[size];
+			fNbFields   = new int[size];
+		}
+
+		boolean contains(int rank) {
+			return rank >= fStartRank && rank < fStartRank + fNbEvents;
+		}
+
+		void add(TmfEvent event, String[] fields) {
+			if (fNbEvents == fValues.length) {
+				return;
+			}
+			int row = fNbEvents;
+			TmfTimestamp timestamp = event.getTimestamp();
+			fValues[row] = timestamp.getValue();
+			fScales[row] = timestamp.getScale();
+			fPrecisions[row] = timestamp.getPrecision();
+			if (fields.length > fColumns.length) {
+				String[][] columns = new String[fields.length][];
+				System.arraycopy(fColumns, 0, columns, 0, fColumns.length);
+				for (int i = fColumns.length; i < columns.length; i++) {
+					columns[i] = new String[fValues.length];
+				}
+				fColumns = columns;
+			}
+			for (int i = 0; i < fields.length; i++) {
+				fColumns[i][row] = fields[i];
+			}
+			fNbFields[row] = fields.length;
+			fNbEvents++;
+		}
+
+		String[] getFields(int row) {
+			String[] fields = new String[fNbFields[row]];
+			for (int i = 0; i < fields.length; i++) {
+				fields[i] = fColumns[i][row];
+			}
+			return fields;
+		}
+	}
+
+}
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2010 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *******************************************************************************/
+
+package org.eclipse.linuxtools.tmf.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Vector;
+
+import org.eclipse.linuxtools.tmf.event.TmfTimestamp;
+
+/**
+ * <b><u>TmfIndexFile</u></b>
+ * <p>
+ * A persistent, versioned checkpoint index for a trace (or for the set of
+ * traces of an experiment).
+ * <p>
+ * The index file is stored next to the trace and is keyed by the path, size
+ * and modification time of each indexed trace. It is read through a memory
+ * mapping and decoded into the checkpoints vector of the trace (there is one
+ * checkpoint per index page) so that the trace can be positioned as soon as
+ * it is opened. If a trace has grown since the index was written, the
+ * checkpoints are still valid (the index is then flagged as partial) and
+ * indexing can resume from the last checkpoint. The same applies to an index
+ * saved before the indexing completed.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * int    magic ("TMFI")
+ * int    version
+ * int    index page size
+ * int    number of traces
+ *        { int path length, byte[] path (UTF-8), long size, long mtime }*
+ * long   number of events
+ *        start time, end time
+ * byte   complete (1 if the whole trace(s) were indexed)
+ * int    number of checkpoints
+ *        { timestamp, location (codec specific) }*
+ *
+ * timestamp: long value, byte scale, long precision
+ * </pre>
+ */
+public class TmfIndexFile {
+
+    // ------------------------------------------------------------------------
+    // Constants
+    // ------------------------------------------------------------------------
+
+	public static final String INDEX_FILE_SUFFIX = ".tmfidx";
+	public static final int VERSION = 2;
+
+	private static final int MAGIC = 0x544D4649; // "TMFI"
+	private static final String UTF8 = "UTF-8";
+
+	public enum Status {
+		UNKNOWN,	// Not loaded
+		INVALID,	// Missing, corrupted or stale
+		PARTIAL,	// Valid, but the trace(s) grew or weren't fully indexed
+		COMPLETE	// Valid and up to date
+	}
+
+	/**
+	 * Codec for the most common location type: a TmfLocation<Long> holding
+	 * a file offset.
+	 */
+	public static final ITmfLocationCodec LONG_LOCATION_CODEC = new ITmfLocationCodec() {
+		@Override
+		public void writeLocation(DataOutput out, ITmfLocation<?> location) throws IOException {
+			if (!(location instanceof TmfLocation<?>) || !(location.getLocation() instanceof Long)) {
+				throw new IOException("Unsupported location: " + location);
+			}
+			out.writeLong((Long) location.getLocation());
+		}
+		@Override
+		public ITmfLocation<?> readLocation(ByteBuffer in) throws IOException {
+			return new TmfLocation<Long>(in.getLong());
+		}
+	};
+
+    // ------------------------------------------------------------------------
+    // Attributes
+    // ------------------------------------------------------------------------
+
+	private final File fFile;
+	private final String[] fTracePaths;
+	private final int fIndexPageSize;
+
+	private Status fStatus = Status.UNKNOWN;
+	private long fNbEvents = 0;
+	private TmfTimestamp fStartTime = TmfTimestamp.BigCrunch;
+	private TmfTimestamp fEndTime   = TmfTimestamp.BigBang;
+	private Vector<TmfCheckpoint> fCheckpoints = new Vector<TmfCheckpoint>();
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+	/**
+	 * @param file the index file
+	 * @param tracePaths the paths of the indexed traces (the index key)
+	 * @param indexPageSize the checkpoints interval
+	 */
+	public TmfIndexFile(File file, String[] tracePaths, int indexPageSize) {
+		if (file == null || tracePaths == null)
+			throw new IllegalArgumentException();
+		fFile = file;
+		fTracePaths = tracePaths;
+		fIndexPageSize = indexPageSize;
+	}
+
+	/**
+	 * @param tracePath the trace path
+	 * @return the default index file location for that trace
+	 */
+	public static File getIndexFile(String tracePath) {
+		return new File(tracePath + INDEX_FILE_SUFFIX);
+	}
+
+    // ------------------------------------------------------------------------
+    // Accessors
+    // ------------------------------------------------------------------------
+
+	public File getFile() {
+		return fFile;
+	}
+
+	public Status getStatus() {
+		return fStatus;
+	}
+
+	public boolean isValid() {
+		return fStatus == Status.PARTIAL || fStatus == Status.COMPLETE;
+	}
+
+	public boolean isComplete() {
+		return fStatus == Status.COMPLETE;
+	}
+
+	public long getNbEvents() {
+		return fNbEvents;
+	}
+
+	public TmfTimestamp getStartTime() {
+		return fStartTime;
+	}
+
+	public TmfTimestamp getEndTime() {
+		return fEndTime;
+	}
+
+	public Vector<TmfCheckpoint> getCheckpoints() {
+		return fCheckpoints;
+	}
+
+    // ------------------------------------------------------------------------
+    // Operations
+    // ------------------------------------------------------------------------
+
+	/**
+	 * Maps the index file and loads its checkpoints if the key matches the
+	 * current state of the traces.
+	 *
+	 * @param codec the location decoder
+	 * @return true if the index is usable (complete or partial)
+	 */
+	public synchronized boolean load(ITmfLocationCodec codec) {
+		fStatus = Status.INVALID;
+		fCheckpoints = new Vector<TmfCheckpoint>();
+		if (!fFile.isFile()) {
+			return false;
+		}
+
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(fFile, "r");
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getInt() != fIndexPageSize) {
+				return false;
+			}
+
+			// Validate the key
+			int nbTraces = in.getInt();
+			if (nbTraces != fTracePaths.length) {
+				return false;
+			}
+			boolean grown = false;
+			for (int i = 0; i < nbTraces; i++) {
+				byte[] bytes = new byte[in.getInt()];
+				in.get(bytes);
+				long size  = in.getLong();
+				long mtime = in.getLong();
+				if (!fTracePaths[i].equals(new String(bytes, UTF8))) {
+					return false;
+				}
+				File trace = new File(fTracePaths[i]);
+				long currentSize = getSize(trace);
+				if (currentSize < size || (currentSize == size && getModificationTime(trace) != mtime)) {
+					return false;
+				}
+				grown |= (currentSize > size);
+			}
+
+			// Read the trace attributes and the checkpoints
+			long nbEvents = in.getLong();
+			TmfTimestamp startTime = readTimestamp(in);
+			TmfTimestamp endTime   = readTimestamp(in);
+			boolean complete = in.get() != 0;
+			int nbCheckpoints = in.getInt();
+			Vector<TmfCheckpoint> checkpoints = new Vector<TmfCheckpoint>(nbCheckpoints);
+			for (int i = 0; i < nbCheckpoints; i++) {
+				TmfTimestamp timestamp = readTimestamp(in);
+				checkpoints.add(new TmfCheckpoint(timestamp, codec.readLocation(in)));
+			}
+
+			fNbEvents    = nbEvents;
+			fStartTime   = startTime;
+			fEndTime     = endTime;
+			fCheckpoints = checkpoints;
+			fStatus = (grown || !complete) ? Status.PARTIAL : Status.COMPLETE;
+			return true;
+		} catch (IOException e) {
+			return false;
+		} catch (RuntimeException e) {
+			// Truncated or corrupted index (BufferUnderflowException, ...)
+			return false;
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the index. The file is written to a temporary location first
+	 * and then renamed so that a concurrent reader never sees a partial
+	 * index.
+	 *
+	 * @param codec the location encoder
+	 * @param nbEvents the number of events
+	 * @param startTime the trace start time
+	 * @param endTime the trace end time
+	 * @param checkpoints the checkpoints
+	 * @param complete true if the whole trace was indexed, false if the
+	 *        indexing was interrupted (the index is then saved as partial)
+	 * @return true if the index was written
+	 */
+	public synchronized boolean save(ITmfLocationCodec codec, long nbEvents, TmfTimestamp startTime, TmfTimestamp endTime, List<TmfCheckpoint> checkpoints, boolean complete) {
+		File tmpFile = new File(fFile.getPath() + ".tmp");
+		DataOutputStream out = null;
+		boolean written = false;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(fIndexPageSize);
+			out.writeInt(fTracePaths.length);
+			for (String path : fTracePaths) {
+				byte[] bytes = path.getBytes(UTF8);
+				File trace = new File(path);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+				out.writeLong(getSize(trace));
+				out.writeLong(getModificationTime(trace));
+			}
+			out.writeLong(nbEvents);
+			writeTimestamp(out, startTime);
+			writeTimestamp(out, endTime);
+			out.writeBoolean(complete);
+			synchronized (checkpoints) {
+				out.writeInt(checkpoints.size());
+				for (TmfCheckpoint checkpoint : checkpoints) {
+					writeTimestamp(out, checkpoint.getTimestamp());
+					codec.writeLocation(out, checkpoint.getLocation());
+				}
+			}
+			out.close();
+			out = null;
+			fFile.delete();
+			written = tmpFile.renameTo(fFile);
+		} catch (IOException e) {
+			written = false;
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+				}
+			}
+			if (!written) {
+				tmpFile.delete();
+			}
+		}
+
+		if (written) {
+			fNbEvents  = nbEvents;
+			fStartTime = startTime;
+			fEndTime   = endTime;
+			fStatus    = complete ? Status.COMPLETE : Status.PARTIAL;
+		}
+		return written;
+	}
+
+	/**
+	 * Removes the index file
+	 */
+	public synchronized void delete() {
+		fFile.delete();
+		fStatus = Status.INVALID;
+	}
+
+    // ------------------------------------------------------------------------
+    // Helper functions
+    // ------------------------------------------------------------------------
+
+	private static void writeTimestamp(DataOutput out, TmfTimestamp timestamp) throws IOException {
+		out.writeLong(timestamp.getValue());
+		out.writeByte(timestamp.getScale());
+		out.writeLong(timestamp.getPrecision());
+	}
+
+	private static TmfTimestamp readTimestamp(ByteBuffer in) {
+		long value = in.getLong();
+		byte scale = in.get();
+		long precision = in.getLong();
+		return new TmfTimestamp(value, scale, precision);
+	}
+
+	// A trace can be a directory (e.g. LTTng): use the sum of its file sizes
+	private static long getSize(File file) {
+		if (file.isDirectory()) {
+			long size = 0;
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					size += getSize(child);
+				}
+			}
+			return size;
+		}
+		return file.length();
+	}
+
+	// ... and the most recent modification time of its files
+	private static long getModificationTime(File file) {
+		long mtime = file.lastModified();
+		if (file.isDirectory()) {
+			File[] children = file.listFiles();
+			if (children != null) {
+				for (File child : children) {
+					mtime = Math.max(mtime, getModificationTime(child));
+				}
+			}
+		}
+		return mtime;
+	}
+
+	@Override
+	public String toString() {
+		return "[TmfIndexFile(" + fFile + "," + fStatus + "," + fCheckpoints.size() + ")]";
+	}
+
+}
@@ -54,6 +54,13 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
 	// TODO: Make the DEFAULT_CACHE_SIZE a preference
     public static final int DEFAULT_INDEX_PAGE_SIZE = 1000;
 
+    // The BACKGROUND requests (e.g. indexing) yield to the FOREGROUND ones:
+    // armRequest() seeks a context of its own and getNextEvent() restores
+    // the context it is given. The requests are still serviced one at a
+    // time since interleaving them would re-seek the trace at every event.
+    public static final int     MAX_CONCURRENCY = 1;
+    public static final boolean PREEMPTIVE = true;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -74,6 +81,12 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
     private TmfTimestamp fStartTime = TmfTimestamp.BigCrunch;
     private TmfTimestamp fEndTime   = TmfTimestamp.BigBang;
 
+    // The persistent index (null if the index is not persisted)
+    private TmfIndexFile fIndexFile = null;
+
+    // True once the trace was read to its end with a valid rank
+    private boolean fIndexComplete = false;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -92,7 +105,7 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
      * @throws FileNotFoundException
      */
     protected TmfTrace(String name, Class<T> type, String path, int cacheSize) throws FileNotFoundException {
-    	super(name, type);
+    	super(name, type, DEFAULT_QUEUE_SIZE, MAX_CONCURRENCY, PREEMPTIVE);
     	int sep = path.lastIndexOf(File.separator);
     	String simpleName = (sep >= 0) ? path.substring(sep + 1) : path;
     	setName(simpleName);
@@ -110,9 +123,22 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
     	clone.fCheckpoints = (Vector<TmfCheckpoint>) fCheckpoints; 
     	clone.fStartTime = new TmfTimestamp(fStartTime); 
     	clone.fEndTime   = new TmfTimestamp(fEndTime); 
+    	clone.fIndexFile = null;
     	return clone;
     }
 
+    /* (non-Javadoc)
+     * @see org.eclipse.linuxtools.tmf.component.TmfDataProvider#dispose()
+     */
+    @Override
+    public void dispose() {
+    	if (fIndexFile != null) {
+    		saveIndex();
+    		fIndexFile = null;
+    	}
+    	super.dispose();
+    }
+
     // ------------------------------------------------------------------------
     // Accessors
     // ------------------------------------------------------------------------
@@ -183,6 +209,13 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
         return context.getRank();
     }
 
+    /**
+     * @return the persistent index (null if the index is not persisted)
+     */
+    public TmfIndexFile getIndexFile() {
+    	return fIndexFile;
+    }
+
     // ------------------------------------------------------------------------
     // Operators
     // ------------------------------------------------------------------------
@@ -328,6 +361,9 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
 			context.updateRank(1);
 			processEvent(event);
 		}
+		else {
+			updateIndexEnd(context);
+		}
     	return event;
 	}
 
@@ -341,11 +377,50 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
 			if ((rank % fIndexPageSize) == 0) {
 				// Determine the table position
 				long position = rank / fIndexPageSize;
-				// Add new entry at proper location (if empty) 
-				if (fCheckpoints.size() == position) {
-					ITmfLocation<?> location = context.getLocation().clone();
-					fCheckpoints.add(new TmfCheckpoint(timestamp.clone(), location));
-//					System.out.println(getName() + "[" + (fCheckpoints.size() - 1) + "] " + timestamp + ", " + location.toString());
+				// Add new entry at proper location (if empty). The index can
+				// be shared with the clones of the trace.
+				synchronized (fCheckpoints) {
+					if (fCheckpoints.size() == position) {
+						ITmfLocation<?> location = context.getLocation().clone();
+						fCheckpoints.add(new TmfCheckpoint(timestamp.clone(), location));
+//						System.out.println(getName() + "[" + (fCheckpoints.size() - 1) + "] " + timestamp + ", " + location.toString());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the index as complete when the end of the trace is reached with
+	 * a valid rank (called by getNextEvent() when there are no more events).
+	 * 
+	 * @param context the trace context
+	 */
+	protected synchronized void updateIndexEnd(ITmfContext context) {
+		if (context.isValidRank()) {
+			fIndexComplete = true;
+		}
+	}
+
+	/**
+	 * Takes over the index built by a copy of the trace (see
+	 * createTraceCopy()), e.g. when the copy was read by an indexing thread:
+	 * the number of events, the time range and the checkpoints.
+	 * 
+	 * @param copy the copy of this trace
+	 */
+	public synchronized void adoptIndex(TmfTrace<?> copy) {
+		synchronized (copy) {
+			if (fNbEvents < copy.fNbEvents) fNbEvents = copy.fNbEvents;
+			if (fStartTime.compareTo(copy.fStartTime, false) > 0) fStartTime = copy.fStartTime;
+			if (fEndTime.compareTo(copy.fEndTime, false) < 0) fEndTime = copy.fEndTime;
+			fIndexComplete |= copy.fIndexComplete;
+			// The copy may share the checkpoints with this trace
+			if (copy.fCheckpoints != fCheckpoints) {
+				synchronized (fCheckpoints) {
+					for (int i = fCheckpoints.size(); i < copy.fCheckpoints.size(); i++) {
+						fCheckpoints.add(copy.fCheckpoints.get(i));
+					}
 				}
 			}
 		}
@@ -386,6 +461,70 @@ public abstract class TmfTrace<T extends TmfEvent> extends TmfEventProvider<T> i
     // Indexing
     // ------------------------------------------------------------------------
 
+	/*
+	 * The checkpoints can be persisted in an index file stored next to the
+	 * trace (see TmfIndexFile). Persistence is enabled by restoreIndex(), in
+	 * which case the index is saved when the trace is disposed. The trace
+	 * indexes are restored by TmfExperiment.restoreIndex() when an experiment
+	 * is opened.
+	 */
+
+	/**
+	 * Restores the checkpoints from the persistent index (if any) and enables
+	 * the index persistence. If the trace grew since the index was saved, the
+	 * checkpoints are restored and the index is extended as the trace is read.
+	 * 
+	 * @return true if the checkpoints were restored
+	 */
+	public synchronized boolean restoreIndex() {
+		ITmfLocationCodec codec = getLocationCodec();
+		if (codec == null) {
+			return false;
+		}
+		fIndexFile = new TmfIndexFile(TmfIndexFile.getIndexFile(fPath), new String[] { fPath }, fIndexPageSize);
+		if (!fIndexFile.load(codec)) {
+			return false;
+		}
+		synchronized (fCheckpoints) {
+			fCheckpoints.clear();
+			fCheckpoints.addAll(fIndexFile.getCheckpoints());
+		}
+		fNbEvents  = fIndexFile.getNbEvents();
+		fStartTime = fIndexFile.getStartTime();
+		fEndTime   = fIndexFile.getEndTime();
+		fIndexComplete = fIndexFile.isComplete();
+		return true;
+	}
+
+	/**
+	 * Saves the checkpoints in the persistent index. If the trace wasn't read
+	 * to its end, the index is saved as partial.
+	 * 
+	 * @return true if the index was written
+	 */
+	public synchronized boolean saveIndex() {
+		ITmfLocationCodec codec = getLocationCodec();
+		if (codec == null || fCheckpoints.size() == 0) {
+			return false;
+		}
+		if (fIndexFile == null) {
+			fIndexFile = new TmfIndexFile(TmfIndexFile.getIndexFile(fPath), new String[] { fPath }, fIndexPageSize);
+		}
+		return fIndexFile.save(codec, fNbEvents, fStartTime, fEndTime, fCheckpoints, fIndexComplete);
+	}
+
+	/**
+	 * Returns the codec used to persist the checkpoint locations. By default,
+	 * TmfLocation<Long> (file offset) locations are supported. Concrete classes
+	 * with other location types should override it (or return null if their
+	 * locations can't be persisted).
+	 * 
+	 * @return the location codec (null if the index can't be persisted)
+	 */
+	public ITmfLocationCodec getLocationCodec() {
+		return TmfIndexFile.LONG_LOCATION_CODEC;
+	}
+
 //	/*
 //	 * The purpose of the index is to keep the information needed to rapidly
 //	 * restore the traces contexts at regular intervals (every INDEX_PAGE_SIZE